@@ -32,7 +32,9 @@ interface PropertyCardProps {
 export default function PropertyCard({ property, isFavorite = false, onFavorite }: PropertyCardProps) {
   const navigate = useNavigate();
   const [localFavorite, setLocalFavorite] = useState(isFavorite);
-  const mainImage = resolveImageUrl(property.imageUrls?.[0]);
+  // 480px card variant once it is ready, the original upload until then
+  const first = property.images?.[0];
+  const mainImage = resolveImageUrl(first?.cardUrl ?? property.imageUrls?.[0]);
 
   const handleViewDetails = () => {
     navigate(`/properties/${property.propId}`);
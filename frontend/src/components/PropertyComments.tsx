@@ -16,40 +16,42 @@ import {
 import { Send } from '@mui/icons-material';
 import api from '../lib/api';
 import { useAuth } from '../context/AuthContext';
-
-interface Comment {
-  commentId: number;
-  content: string;
-  rating: number;
-  createdAt: string;
-  user: {
-    userId: number;
-    email: string;
-  };
-}
+import type { CursorPage, Review } from '../types';
 
 interface PropertyCommentsProps {
   propertyId: number;
+  avgRating?: number;
+  reviewCount?: number;
 }
 
-export default function PropertyComments({ propertyId }: PropertyCommentsProps) {
+export default function PropertyComments({ propertyId, avgRating = 0, reviewCount = 0 }: PropertyCommentsProps) {
   const { user } = useAuth();
-  const [comments, setComments] = useState<Comment[]>([]);
+  const [comments, setComments] = useState<Review[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+  // stats from the listing itself; a review posted here bumps them locally until the next reload
+  const [stats, setStats] = useState({ avgRating, reviewCount });
   const [newComment, setNewComment] = useState('');
   const [newRating, setNewRating] = useState<number | null>(0);
   const [loading, setLoading] = useState(true);
   const [submitting, setSubmitting] = useState(false);
   const [error, setError] = useState<string | null>(null);
 
+  useEffect(() => {
+    setStats({ avgRating, reviewCount });
+  }, [avgRating, reviewCount]);
+
   useEffect(() => {
     fetchComments();
   }, [propertyId]);
 
+  // First page of the newest-first feed; older reviews come in through loadMore
   const fetchComments = async () => {
     try {
       setLoading(true);
-      const response = await api.get(`/api/properties/${propertyId}/comments`);
-      setComments(response.data);
+      const { data } = await api.get<CursorPage<Review>>(`/api/properties/${propertyId}/comments`);
+      setComments(data.items);
+      setNextCursor(data.nextCursor);
     } catch (err) {
       console.error('Failed to fetch comments:', err);
     } finally {
@@ -57,6 +59,22 @@ export default function PropertyComments({ propertyId }: PropertyCommentsProps)
     }
   };
 
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    try {
+      setLoadingMore(true);
+      const { data } = await api.get<CursorPage<Review>>(`/api/properties/${propertyId}/comments`, {
+        params: { cursor: nextCursor },
+      });
+      setComments((prev) => [...prev, ...data.items]);
+      setNextCursor(data.nextCursor);
+    } catch (err) {
+      console.error('Failed to fetch comments:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleSubmitComment = async () => {
     if (!newComment.trim() || !newRating) {
       setError('Please provide both a comment and rating');
@@ -73,7 +91,11 @@ export default function PropertyComments({ propertyId }: PropertyCommentsProps)
       };
 
       await api.post(`/api/properties/${propertyId}/comments`, commentData);
-      
+      setStats((prev) => ({
+        avgRating: (prev.avgRating * prev.reviewCount + newRating) / (prev.reviewCount + 1),
+        reviewCount: prev.reviewCount + 1,
+      }));
+
       // Reset form
       setNewComment('');
       setNewRating(0);
@@ -97,12 +119,6 @@ export default function PropertyComments({ propertyId }: PropertyCommentsProps)
     });
   };
 
-  const getAverageRating = () => {
-    if (comments.length === 0) return 0;
-    const sum = comments.reduce((acc, comment) => acc + comment.rating, 0);
-    return sum / comments.length;
-  };
-
   if (loading) {
     return (
       <Box display="flex" justifyContent="center" p={3}>
@@ -117,11 +133,11 @@ export default function PropertyComments({ propertyId }: PropertyCommentsProps)
         Reviews & Ratings
       </Typography>
       
-      {comments.length > 0 && (
+      {stats.reviewCount > 0 && (
         <Box sx={{ mb: 3, display: 'flex', alignItems: 'center', gap: 2 }}>
-          <Rating value={getAverageRating()} precision={0.1} readOnly />
+          <Rating value={stats.avgRating} precision={0.1} readOnly />
           <Typography variant="body1">
-            {getAverageRating().toFixed(1)} ({comments.length} review{comments.length !== 1 ? 's' : ''})
+            {stats.avgRating.toFixed(1)} ({stats.reviewCount} review{stats.reviewCount !== 1 ? 's' : ''})
           </Typography>
         </Box>
       )}
@@ -175,38 +191,45 @@ export default function PropertyComments({ propertyId }: PropertyCommentsProps)
           </Typography>
         ) : (
           comments.map((comment) => (
-            <Card key={comment.commentId} variant="outlined">
+            <Card key={comment.id} variant="outlined">
               <CardContent>
                 <Box sx={{ display: 'flex', alignItems: 'flex-start', mb: 2 }}>
                   <Avatar sx={{ mr: 2, bgcolor: 'primary.main' }}>
-                    {comment.user.email.charAt(0).toUpperCase()}
+                    {comment.author.charAt(0).toUpperCase()}
                   </Avatar>
                   <Box sx={{ flexGrow: 1 }}>
                     <Box sx={{ display: 'flex', justifyContent: 'space-between', alignItems: 'center', mb: 1 }}>
                       <Typography variant="subtitle2" color="text.secondary">
-                        {comment.user.email}
+                        {comment.author}
                       </Typography>
                       <Typography variant="caption" color="text.secondary">
                         {formatDate(comment.createdAt)}
                       </Typography>
                     </Box>
                     
-                    <Box sx={{ display: 'flex', alignItems: 'center', mb: 1 }}>
-                      <Rating value={comment.rating} readOnly size="small" />
-                      <Typography variant="body2" color="text.secondary" sx={{ ml: 1 }}>
-                        {comment.rating}/5 stars
-                      </Typography>
-                    </Box>
+                    {comment.rating != null && (
+                      <Box sx={{ display: 'flex', alignItems: 'center', mb: 1 }}>
+                        <Rating value={comment.rating} readOnly size="small" />
+                        <Typography variant="body2" color="text.secondary" sx={{ ml: 1 }}>
+                          {comment.rating}/5 stars
+                        </Typography>
+                      </Box>
+                    )}
                   </Box>
                 </Box>
                 
                 <Typography variant="body1">
-                  {comment.content}
+                  {comment.text}
                 </Typography>
               </CardContent>
             </Card>
           ))
         )}
+        {nextCursor && (
+          <Button variant="outlined" onClick={loadMore} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Show older reviews'}
+          </Button>
+        )}
       </Stack>
     </Paper>
   );
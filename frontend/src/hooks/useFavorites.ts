@@ -1,7 +1,6 @@
 import { useCallback, useEffect, useState } from 'react';
 import { useAuth } from '../context/AuthContext';
 import { favorites } from '../lib/favoritesApi';
-import { Property } from '../types';
 
 export function useFavorites() {
   const { user, hasRole } = useAuth();
@@ -14,10 +13,8 @@ export function useFavorites() {
     
     try {
       setLoading(true);
-      const response = await favorites.list(user.customerId);
-      const properties: Property[] = response.data;
-      const favoriteIds = new Set<number>(properties.map(prop => prop.propId));
-      setFavoriteProperties(favoriteIds);
+      const response = await favorites.ids(user.customerId);
+      setFavoriteProperties(new Set<number>(response.data));
     } catch (error) {
       console.error('Failed to load favorites:', error);
     } finally {
@@ -25,6 +22,23 @@ export function useFavorites() {
     }
   }, [hasRole, user?.customerId]);
 
+  // Refresh the state of the listings on screen with one bulk check (e.g. after loading a results page)
+  const syncFavorites = useCallback(async (propertyIds: number[]) => {
+    if (!hasRole('CUSTOMER') || !user?.customerId || propertyIds.length === 0) return;
+
+    try {
+      const response = await favorites.among(user.customerId, propertyIds);
+      const favorited = new Set<number>(response.data);
+      setFavoriteProperties(prev => {
+        const next = new Set(prev);
+        propertyIds.forEach(id => (favorited.has(id) ? next.add(id) : next.delete(id)));
+        return next;
+      });
+    } catch (error) {
+      console.error('Failed to check favorites:', error);
+    }
+  }, [hasRole, user?.customerId]);
+
   // Check if a property is favorited
   const isFavorite = useCallback((propertyId: number) => {
     return favoriteProperties.has(propertyId);
@@ -67,6 +81,7 @@ export function useFavorites() {
     isFavorite,
     toggleFavorite,
     loadFavorites,
+    syncFavorites,
     loading,
   };
 }
\ No newline at end of file
@@ -13,6 +13,16 @@ export const favorites = {
   check: (customerId: number, propertyId: number) =>
     api.get<boolean>(`/api/customers/${customerId}/favorites/${propertyId}`),
 
+  // Which of these properties are favorites (one request for a whole results page)
+  among: (customerId: number, propertyIds: number[]) =>
+    api.get<number[]>(`/api/customers/${customerId}/favorites`, {
+      params: { propertyIds: propertyIds.join(',') },
+    }),
+
+  // Ids of all favorite properties for a customer
+  ids: (customerId: number) =>
+    api.get<number[]>(`/api/customers/${customerId}/favorites`),
+
   // Get all favorite properties for a customer
   list: (customerId: number) =>
     api.get(`/api/customers/${customerId}/properties`),
@@ -1,14 +1,14 @@
 import api from "./api";
-import type { Property } from "../types";
+import type { CursorPage, Property } from "../types";
 
-// GET /api/properties
-export async function listAllProperties(): Promise<Property[]> {
-  const { data } = await api.get<Property[]>("/api/properties");
+// GET /api/properties, one page at a time: pass the previous page's nextCursor for the next one
+export async function listPropertiesPage(cursor?: string, size?: number, includeTotal?: boolean): Promise<CursorPage<Property>> {
+  const { data } = await api.get<CursorPage<Property>>("/api/properties", { params: { cursor, size, includeTotal } });
   return data;
 }
 
-// GET /api/properties/search?... (all params optional)
-export async function searchProperties(params: {
+// GET /api/properties/search?... (all params optional), one page at a time like listPropertiesPage
+export interface PropertySearchParams {
   city?: string;
   config?: "FLAT" | "SHOP" | "PLOT";
   offer?: "SELL" | "RENT";
@@ -18,8 +18,17 @@ export async function searchProperties(params: {
   maxArea?: number;
   minRating?: number;
   availableOnly?: boolean;
-}): Promise<Property[]> {
-  const { data } = await api.get<Property[]>("/api/properties/search", { params });
+  cursor?: string;
+  size?: number;
+  // server-side ranking; the cursor keeps paging in this order
+  sort?: "offerCost" | "areaSqft" | "avgRating" | "reviewCount" | "pricePerSqft" | "newest";
+  direction?: "asc" | "desc";
+  limit?: number;
+  includeTotal?: boolean;
+}
+
+export async function searchProperties(params: PropertySearchParams): Promise<CursorPage<Property>> {
+  const { data } = await api.get<CursorPage<Property>>("/api/properties/search", { params });
   return data;
 }
 
@@ -30,8 +39,13 @@ export async function getProperty(id: number): Promise<Property> {
 }
 
 // POST /api/deals?propertyId=...&price=... (requires CUSTOMER auth)
-export async function createDeal(propertyId: number, price: number) {
+// Pass the same idempotencyKey when retrying: the server replays the first outcome instead of buying twice.
+// 409 = someone else took the property first.
+export async function createDeal(propertyId: number, price: number, idempotencyKey: string = crypto.randomUUID()) {
   const customerId = 1; // This should come from auth context
-  const { data } = await api.post("/api/deals", null, { params: { propertyId, customerId, price } });
+  const { data } = await api.post("/api/deals", null, {
+    params: { propertyId, customerId, price },
+    headers: { "Idempotency-Key": idempotencyKey },
+  });
   return data;
 }
@@ -34,7 +34,7 @@ import {
 } from '@mui/icons-material';
 import { useAuth } from '../context/AuthContext';
 import ImageUpload from '../components/ImageUpload';
-import type { Property, PropertyConfig, OfferType } from '../types';
+import type { Property, PropertyConfig, OfferType, BrokerListingPage } from '../types';
 import api from '../lib/api';
 
 interface PropertyForm {
@@ -59,10 +59,17 @@ const initialForm: PropertyForm = {
   images: []
 };
 
+// listings per request to /api/properties/broker/:id; further pages come in through loadMoreProperties
+const PAGE_SIZE = 50;
+
 export default function BrokerDashboard() {
   const { user, hasRole } = useAuth();
   const [properties, setProperties] = useState<Property[]>([]);
+  const [page, setPage] = useState(0);
+  // across all of the broker's listings, not only the pages loaded so far
+  const [counts, setCounts] = useState({ total: 0, active: 0, taken: 0 });
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [dialogOpen, setDialogOpen] = useState(false);
   const [editingProperty, setEditingProperty] = useState<Property | null>(null);
   const [formData, setFormData] = useState<PropertyForm>(initialForm);
@@ -86,8 +93,10 @@ export default function BrokerDashboard() {
         return;
       }
 
-      const response = await api.get<Property[]>(`/api/properties/broker/${user.brokerId}`);
-      setProperties(response.data);
+      const first = await fetchListingPage(user.brokerId, 0);
+      setProperties(first.items);
+      setPage(0);
+      setCounts({ total: first.totalCount, active: first.activeCount, taken: first.takenCount });
     } catch (err: any) {
       setError('Failed to load properties');
     } finally {
@@ -95,6 +104,32 @@ export default function BrokerDashboard() {
     }
   };
 
+  const fetchListingPage = async (brokerId: number, pageIndex: number) => {
+    const response = await api.get<BrokerListingPage<Property>>(`/api/properties/broker/${brokerId}`, {
+      params: { sort: 'newest', page: pageIndex, size: PAGE_SIZE },
+    });
+    return response.data;
+  };
+
+  const loadMoreProperties = async () => {
+    if (!user?.brokerId) return;
+    setLoadingMore(true);
+    try {
+      const next = await fetchListingPage(user.brokerId, page + 1);
+      // offset pages shift when a listing is added meanwhile; skip the ones already shown
+      setProperties(prev => {
+        const shown = new Set(prev.map(p => p.propId));
+        return [...prev, ...next.items.filter(p => !shown.has(p.propId))];
+      });
+      setPage(page + 1);
+      setCounts({ total: next.totalCount, active: next.activeCount, taken: next.takenCount });
+    } catch (err: any) {
+      setError('Failed to load properties');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleOpenDialog = (property?: Property) => {
     if (property) {
       setEditingProperty(property);
@@ -176,7 +211,11 @@ export default function BrokerDashboard() {
       handleCloseDialog();
       loadBrokerProperties();
     } catch (err: any) {
-      setError('Failed to save property');
+      if (err.response?.status === 409) {
+        setError('This property was changed elsewhere. Reload the list and apply your edit again.');
+      } else {
+        setError('Failed to save property');
+      }
     }
   };
 
@@ -226,22 +265,22 @@ export default function BrokerDashboard() {
           {[
             {
               label: "Total Listings",
-              value: properties.length,
+              value: counts.total,
               icon: <Home />,
             },
             {
               label: "Available",
-              value: properties.filter((p) => p.status).length,
+              value: counts.active,
               icon: <Visibility />,
             },
             {
-              label: "For Sale",
-              value: properties.filter((p) => p.offerType === "SELL").length,
+              label: "Sold / Rented",
+              value: counts.taken,
               icon: <AttachMoney />,
             },
             {
-              label: "For Rent",
-              value: properties.filter((p) => p.offerType === "RENT").length,
+              label: "Shown Below",
+              value: properties.length,
               icon: <TrendingUp />,
             },
           ].map((card) => (
@@ -340,6 +379,14 @@ export default function BrokerDashboard() {
               </CardActions>
             </Card>
           </Grid>
+
+      {properties.length < counts.total && !loading && (
+        <Box sx={{ textAlign: 'center', mt: 4 }}>
+          <Button variant="outlined" onClick={loadMoreProperties} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Show more listings'}
+          </Button>
+        </Box>
+      )}
         ))}
       </Grid>
 
@@ -31,14 +31,7 @@ import {
 import { useAuth } from '../context/AuthContext';
 import { useFavorites } from '../hooks/useFavorites';
 import { useNavigate } from 'react-router-dom';
-import type { Property } from '../types';
-
-interface Deal {
-  dealId: number;
-  dealDate: string;
-  dealCost: number;
-  property: Property;
-}
+import type { CursorPage, DealSummary, Property } from '../types';
 import api from '../lib/api';
 
 interface TabPanelProps {
@@ -68,7 +61,9 @@ export default function CustomerDashboard() {
   const navigate = useNavigate();
   const [currentTab, setCurrentTab] = useState(0);
   const [favoriteProperties, setFavoriteProperties] = useState<Property[]>([]);
-  const [dealHistory, setDealHistory] = useState<Deal[]>([]);
+  const [dealHistory, setDealHistory] = useState<DealSummary[]>([]);
+  const [dealCount, setDealCount] = useState(0);
+  const [dealCursor, setDealCursor] = useState<string | null>(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
 
@@ -92,9 +87,12 @@ export default function CustomerDashboard() {
         const propertiesResponse = await api.get(`/api/customers/${user.customerId}/properties`);
         setFavoriteProperties(propertiesResponse.data);
         
-        // Load deal history
-        const dealsResponse = await api.get(`/api/customers/${user.customerId}/deals`);
-        setDealHistory(dealsResponse.data);
+        // Load the first page of deal history, with the total for the summary card
+        const dealsResponse = await api.get<CursorPage<DealSummary>>(`/api/customers/${user.customerId}/deals`,
+          { params: { includeTotal: true } });
+        setDealHistory(dealsResponse.data.items);
+        setDealCount(dealsResponse.data.totalCount ?? dealsResponse.data.items.length);
+        setDealCursor(dealsResponse.data.nextCursor);
       }
     } catch (err: any) {
       setError('Failed to load customer data');
@@ -103,6 +101,18 @@ export default function CustomerDashboard() {
     }
   };
 
+  const loadOlderDeals = async () => {
+    if (!user?.customerId || !dealCursor) return;
+    try {
+      const { data } = await api.get<CursorPage<DealSummary>>(`/api/customers/${user.customerId}/deals`,
+        { params: { cursor: dealCursor } });
+      setDealHistory(prev => [...prev, ...data.items]);
+      setDealCursor(data.nextCursor);
+    } catch (err: any) {
+      setError('Failed to load deal history');
+    }
+  };
+
   const handleTabChange = (_: React.SyntheticEvent, newValue: number) => {
     setCurrentTab(newValue);
   };
@@ -166,7 +176,7 @@ export default function CustomerDashboard() {
           <Grid item xs={12} sm={6} md={4}>
             <Paper elevation={0} sx={{ p: 2.5, borderRadius: 3, bgcolor: 'rgba(255,255,255,0.18)' }}>
               <Typography variant="h4" fontWeight="bold">
-                {dealHistory.length}
+                {dealCount}
               </Typography>
               <Typography variant="body2" sx={{ opacity: 0.75 }}>
                 Past Deals
@@ -322,7 +332,7 @@ export default function CustomerDashboard() {
                     </Avatar>
                   </ListItemAvatar>
                   <ListItemText
-                    primary={`Deal #${deal.dealId}`}
+                    primary={`Deal #${deal.dealId} • ${deal.property.address}, ${deal.property.city}`}
                     secondary={`Cost: ₹${deal.dealCost.toLocaleString()} • Date: ${deal.dealDate}`}
                   />
                   <ListItemSecondaryAction>
@@ -332,6 +342,11 @@ export default function CustomerDashboard() {
                   </ListItemSecondaryAction>
                 </ListItem>
               ))}
+              {dealCursor && (
+                <Box sx={{ textAlign: 'center', mt: 2 }}>
+                  <Button onClick={loadOlderDeals}>Show older deals</Button>
+                </Box>
+              )}
             </List>
           )}
         </TabPanel>
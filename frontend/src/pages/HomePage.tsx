@@ -1,4 +1,4 @@
-import { useEffect, useMemo, useState } from "react";
+import { useEffect, useState } from "react";
 import { 
   Container, 
   Typography, 
@@ -14,29 +14,58 @@ import {
 } from "@mui/material";
 import { Search, TrendingUp, Star, Security, Handshake } from "@mui/icons-material";
 import { useNavigate } from "react-router-dom";
-import { listAllProperties, searchProperties, createDeal } from "../lib/propertyApi";
+import { listPropertiesPage, searchProperties, createDeal, type PropertySearchParams } from "../lib/propertyApi";
 import PropertyCard from "../components/PropertyCard";
 import AdvancedSearch, { SearchFilters } from "../components/AdvancedSearch";
 import { useAuth } from "../context/AuthContext";
 import { useFavorites } from "../hooks/useFavorites";
 import type { Property } from "../types";
 
+// One page of the full listing (query null) or of a search; the first page also carries the total
+const fetchPage = (query: PropertySearchParams | null, cursor?: string) =>
+  query
+    ? searchProperties({ ...query, cursor, includeTotal: !cursor })
+    : listPropertiesPage(cursor, undefined, !cursor);
+
+// Listings of one offer type for the stats cards, as a size-1 search that only asks for the total
+async function countByOffer(query: PropertySearchParams | null, offer: "SELL" | "RENT") {
+  if (query?.offer && query.offer !== offer) return 0;
+  // the full listing includes sold/rented properties, which search leaves out unless asked
+  const params = query ?? { availableOnly: false };
+  return (await searchProperties({ ...params, offer, size: 1, includeTotal: true })).totalCount ?? 0;
+}
+
 export default function HomePage() {
   const [data, setData] = useState<Property[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  // filters of the search on screen (null = the full listing), kept for loading further pages
+  const [query, setQuery] = useState<PropertySearchParams | null>(null);
+  const [counts, setCounts] = useState({ total: 0, sell: 0, rent: 0 });
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState<string | null>(null);
   const { hasRole } = useAuth();
-  const { isFavorite, toggleFavorite } = useFavorites();
+  const { isFavorite, toggleFavorite, syncFavorites } = useFavorites();
   const navigate = useNavigate();
 
   useEffect(() => {
     loadProperties();
   }, []);
 
+  const showFirstPage = async (q: PropertySearchParams | null) => {
+    const [page, sell, rent] = await Promise.all([fetchPage(q), countByOffer(q, "SELL"), countByOffer(q, "RENT")]);
+    setQuery(q);
+    setData(page.items);
+    setNextCursor(page.nextCursor);
+    setCounts({ total: page.totalCount ?? page.items.length, sell, rent });
+    // one bulk favorites check per loaded page instead of one request per card
+    syncFavorites(page.items.map(p => p.propId));
+  };
+
   const loadProperties = async () => {
     setLoading(true);
     try {
-      setData(await listAllProperties());
+      await showFirstPage(null);
     } catch (e: any) {
       setError(e?.response?.data || "Failed to load properties");
     } finally {
@@ -44,6 +73,20 @@ export default function HomePage() {
     }
   };
 
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const page = await fetchPage(query, nextCursor);
+      setData(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+      syncFavorites(page.items.map(p => p.propId));
+    } catch (e: any) {
+      setError(e?.response?.data || "Failed to load properties");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
 
 
   const onAdvancedSearch = async (filters: SearchFilters) => {
@@ -51,7 +94,7 @@ export default function HomePage() {
     setError(null);
     try {
       // Convert advanced filters to search params
-      const params: any = {};
+      const params: PropertySearchParams = {};
       if (filters.city) params.city = filters.city;
       if (filters.configuration) params.config = filters.configuration;
       if (filters.offerType) params.offer = filters.offerType;
@@ -62,8 +105,7 @@ export default function HomePage() {
       if (filters.minRating && filters.minRating > 0) params.minRating = filters.minRating;
       if (filters.availableOnly !== undefined) params.availableOnly = filters.availableOnly;
       
-      const results = await searchProperties(params);
-      setData(results);
+      await showFirstPage(params);
     } catch (e: any) {
       setError(e?.response?.data || "Search failed");
     } finally {
@@ -79,7 +121,7 @@ export default function HomePage() {
     try {
       await createDeal(p.propId, p.offerCost);
       alert("Deal created! Property marked unavailable.");
-      await loadProperties();
+      await showFirstPage(query);
     } catch (e: any) {
       alert(e?.response?.data?.message || "Failed to create deal");
     }
@@ -94,8 +136,6 @@ export default function HomePage() {
     }
   };
 
-  const featuredProperties = useMemo(() => data.slice(0, 6), [data]);
-
   return (
     <>
       {/* Hero Section */}
@@ -194,7 +234,7 @@ export default function HomePage() {
           <Grid item xs={12} sm={4}>
             <Paper elevation={3} sx={{ p: 3, textAlign: 'center', borderRadius: 3 }}>
               <Typography variant="h4" color="primary" sx={{ fontWeight: 'bold' }}>
-                {data.length}
+                {counts.total}
               </Typography>
               <Typography variant="body1" color="text.secondary">
                 Properties Available
@@ -204,7 +244,7 @@ export default function HomePage() {
           <Grid item xs={12} sm={4}>
             <Paper elevation={3} sx={{ p: 3, textAlign: 'center', borderRadius: 3 }}>
               <Typography variant="h4" color="success.main" sx={{ fontWeight: 'bold' }}>
-                {data.filter(p => p.offerType === 'SELL').length}
+                {counts.sell}
               </Typography>
               <Typography variant="body1" color="text.secondary">
                 For Sale
@@ -214,7 +254,7 @@ export default function HomePage() {
           <Grid item xs={12} sm={4}>
             <Paper elevation={3} sx={{ p: 3, textAlign: 'center', borderRadius: 3 }}>
               <Typography variant="h4" color="info.main" sx={{ fontWeight: 'bold' }}>
-                {data.filter(p => p.offerType === 'RENT').length}
+                {counts.rent}
               </Typography>
               <Typography variant="body1" color="text.secondary">
                 For Rent
@@ -280,7 +320,7 @@ export default function HomePage() {
           </Grid>
         )}
 
-        {!loading && featuredProperties.length === 0 && (
+        {!loading && data.length === 0 && (
           <Paper sx={{ p: 4, textAlign: 'center', bgcolor: 'grey.50' }}>
             <Typography variant="h6" color="text.secondary">
               No properties found
@@ -292,7 +332,7 @@ export default function HomePage() {
         )}
 
         <Grid container spacing={3}>
-          {featuredProperties.map((property) => (
+          {data.map((property) => (
             <Grid item xs={12} sm={6} md={4} key={property.propId}>
               <PropertyCard 
                 property={property} 
@@ -318,6 +358,14 @@ export default function HomePage() {
             </Grid>
           ))}
         </Grid>
+
+        {nextCursor && !loading && (
+          <Box sx={{ textAlign: 'center', mt: 4 }}>
+            <Button variant="outlined" onClick={loadMore} disabled={loadingMore} sx={{ borderRadius: 2, px: 4 }}>
+              {loadingMore ? 'Loading...' : 'Show more properties'}
+            </Button>
+          </Box>
+        )}
       </Container>
 
       {/* Call to Action */}
@@ -1,15 +1,18 @@
-import { Grid, Container, Typography, Skeleton, Paper, Box } from '@mui/material';
-import { useQuery } from '@tanstack/react-query';
+import { Grid, Container, Typography, Skeleton, Paper, Box, Button } from '@mui/material';
+import { useInfiniteQuery } from '@tanstack/react-query';
 import { Link } from 'react-router-dom';
 import PropertyCard from '../components/PropertyCard';
-import { Property } from '../types';
-import api from '../lib/api';
+import { listPropertiesPage } from '../lib/propertyApi';
 
 export default function Properties() {
-  const { data: properties, isLoading } = useQuery<Property[]>({
+  // pages are fetched one at a time, each continuing from the previous page's nextCursor
+  const { data, isLoading, hasNextPage, fetchNextPage, isFetchingNextPage } = useInfiniteQuery({
     queryKey: ['properties'],
-    queryFn: () => api.get('/api/properties').then(res => res.data)
+    queryFn: ({ pageParam }) => listPropertiesPage(pageParam),
+    initialPageParam: undefined as string | undefined,
+    getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined,
   });
+  const properties = data?.pages.flatMap(page => page.items);
 
   return (
     <Container maxWidth="lg" sx={{ py: 6 }}>
@@ -45,6 +48,14 @@ export default function Properties() {
           ))}
         </Grid>
       )}
+
+      {hasNextPage && (
+        <Box sx={{ textAlign: 'center', mt: 4 }}>
+          <Button variant="outlined" onClick={() => fetchNextPage()} disabled={isFetchingNextPage}>
+            {isFetchingNextPage ? 'Loading...' : 'Show more properties'}
+          </Button>
+        </Box>
+      )}
     </Container>
   );
 }
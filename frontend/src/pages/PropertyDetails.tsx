@@ -131,8 +131,9 @@ export default function PropertyDetails() {
     );
   }
 
+  const fullByOriginal = new Map((property.images || []).map((i) => [i.url, i.fullUrl]));
   const resolvedImages = (property.imageUrls || [])
-    .map(resolveImageUrl)
+    .map((url) => resolveImageUrl(fullByOriginal.get(url) ?? url))
     .filter((src): src is string => Boolean(src));
 
   return (
@@ -358,7 +359,11 @@ export default function PropertyDetails() {
 
         {/* Comments and Reviews */}
         <Grid item xs={12}>
-          <PropertyComments propertyId={property.propId} />
+          <PropertyComments
+            propertyId={property.propId}
+            avgRating={property.avgRating}
+            reviewCount={property.reviewCount}
+          />
         </Grid>
       </Grid>
 
@@ -13,6 +13,14 @@ export interface User {
 export type OfferType = "SELL" | "RENT";
 export type PropertyConfig = "FLAT" | "SHOP" | "PLOT";
 
+export interface ImageVariants {
+  url: string;              // original upload
+  status: "PENDING" | "READY" | "FAILED" | null;
+  thumbUrl: string | null;
+  cardUrl: string | null;
+  fullUrl: string | null;
+}
+
 export interface Property {
   propId: number;
   configuration: PropertyConfig;
@@ -24,14 +32,53 @@ export interface Property {
   city: string;
   status: boolean;          // true = available
   imageUrls: string[];
+  images?: ImageVariants[]; // per-size URLs; null until status is READY
   avgRating: number;
   reviewCount: number;
+  version?: number;         // echoed back on PUT; a stale value gets 409 Conflict
   broker?: {
     broId: number;
     broName: string;
   };
 }
 
+// One entry of GET /api/properties/:id/comments or /api/brokers/:id/ratings (newest first)
+export interface Review {
+  id: number;
+  author: string;           // customer or broker display name
+  rating: number | null;    // null for a comment without stars
+  text: string | null;
+  createdAt: string;
+}
+
+// One row of GET /api/customers/:id/deals or /api/deals (newest first)
+export interface DealSummary {
+  dealId: number;
+  dealDate: string;         // yyyy-MM-dd
+  dealCost: number;
+  property: Pick<Property, 'propId' | 'address' | 'city' | 'configuration' | 'offerType'>;
+}
+
+// Keyset-paginated list response (GET /api/properties, /api/properties/search)
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+  hasMore: boolean;
+  size: number;
+  totalCount?: number | null;
+}
+
+// GET /api/properties/broker/:id
+export interface BrokerListingPage<T> {
+  items: T[];
+  page: number;
+  size: number;
+  sort: string;
+  activeCount: number;
+  takenCount: number;
+  totalCount: number;
+}
+
 export interface LoginResponse extends User {}
 
 export interface LoginCredentials {
@@ -4,12 +4,24 @@ import com.realestate.enums.OfferType;
 import com.realestate.enums.PropertyConfig;
 import com.realestate.model.*;
 import com.realestate.repository.*;
+import com.realestate.dto.LayoutMigrationReport;
+import com.realestate.dto.RollupRebuildReport;
+import com.realestate.service.DealRollupService;
+import com.realestate.service.UploadLayoutMigrationService;
+import com.realestate.service.UploadMigrationService;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Arrays;
+
 @Configuration
 public class DataSeeder {
 
@@ -83,4 +95,108 @@ public class DataSeeder {
             System.out.println("Seeded: broker(broker@gmail.com/1111), customer(cust@gmail.com/2222), + 2 properties");
         };
     }
+
+    // Operator account for the maintenance endpoints (storage GC, layout migration, rollup rebuild), only when
+    // app.admin.email and app.admin.password-hash are configured; an existing account with that email is left alone
+    @Bean
+    CommandLineRunner provisionAdmin(UserRepository userRepo,
+                                     @Value("${app.admin.email:}") String email,
+                                     @Value("${app.admin.password-hash:}") String passwordHash) {
+        return args -> {
+            if (email.isBlank() || passwordHash.isBlank()) return;
+            if (!passwordHash.startsWith("$2")) {
+                throw new IllegalStateException("app.admin.password-hash must be a BCrypt hash, not a password");
+            }
+            if (userRepo.findByEmail(email).isPresent()) return;
+            User admin = new User();
+            admin.setEmail(email);
+            admin.setPassword(passwordHash);
+            admin.setRole("ADMIN");
+            userRepo.save(admin);
+            System.out.println("Provisioned the configured admin account");
+        };
+    }
+
+    // Property ids come from property_seq; a database whose prop_id values were filled by IDENTITY before that has
+    // the sequence (or, on MySQL, Hibernate's one-row emulation table) moved past its rows. Runs before anything
+    // inserts a property; no-op once the sequence is ahead.
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    CommandLineRunner alignPropertySequence(JdbcTemplate jdbc) {
+        return args -> {
+            Long maxId = jdbc.queryForObject("SELECT COALESCE(MAX(prop_id), 0) FROM properties", Long.class);
+            if (maxId == null || maxId == 0) return;
+            // pooled ids: a sequence value V hands out V - ID_ALLOCATION + 1 .. V
+            long floor = maxId + Property.ID_ALLOCATION;
+            String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            boolean moved;
+            if ("H2".equals(product)) {
+                Long next = jdbc.queryForObject("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES " +
+                        "WHERE SEQUENCE_NAME = 'PROPERTY_SEQ'", Long.class);
+                moved = next != null && next < floor;
+                if (moved) jdbc.execute("ALTER SEQUENCE property_seq RESTART WITH " + floor);
+            } else {
+                moved = jdbc.update("UPDATE property_seq SET next_val = ? WHERE next_val < ?", floor, floor) > 0;
+            }
+            if (moved) System.out.println("Moved property_seq past existing property id " + maxId);
+        };
+    }
+
+    // Lower-cased search keys for properties saved before they were introduced (no-op once filled)
+    @Bean
+    CommandLineRunner backfillSearchKeys(PropertyRepository propertyRepo) {
+        return args -> {
+            int updated = propertyRepo.backfillSearchKeys() + propertyRepo.backfillPricePerSqft();
+            if (updated > 0) System.out.println("Backfilled search keys for " + updated + " properties");
+        };
+    }
+
+    // Flat legacy uploads -> content-addressed blobs; old URLs keep resolving via aliases (no-op once done)
+    @Bean
+    CommandLineRunner migrateLegacyUploads(UploadMigrationService migrationService) {
+        return args -> {
+            int migrated = migrationService.migrateLegacyUploads();
+            if (migrated > 0) System.out.println("Migrated " + migrated + " legacy uploads to content-addressed storage");
+        };
+    }
+
+    // Flat uploads -> sharded directories; only when started with --migrate-upload-layout.
+    // Requests are already being served while it runs (also available as POST /api/storage/layout-migration).
+    @Bean
+    CommandLineRunner migrateUploadLayout(UploadLayoutMigrationService layoutMigration) {
+        return args -> {
+            if (!Arrays.asList(args).contains("--migrate-upload-layout")) return;
+            LayoutMigrationReport report = layoutMigration.shardFlatUploads();
+            System.out.println("Moved " + report.getMoved() + " flat uploads into the sharded layout ("
+                    + report.getFailed() + " failed)");
+        };
+    }
+
+    // Running rating sums for rows written before they existed (no-op once filled)
+    @Bean
+    CommandLineRunner backfillRatings(PropertyRepository propertyRepo, BrokerRepository brokerRepo) {
+        return args -> {
+            int updated = propertyRepo.backfillRatings() + brokerRepo.backfillRatings();
+            if (updated > 0) System.out.println("Recounted rating stats for " + updated + " rows");
+        };
+    }
+
+    // Deal analytics for deals recorded before rollups existed (no-op once any rollup row exists)
+    @Bean
+    CommandLineRunner backfillDealRollups(DealRepository dealRepo, DealRollupRepository rollupRepo,
+                                          DealRollupService rollupService) {
+        return args -> {
+            if (rollupRepo.count() > 0 || dealRepo.count() == 0) return;
+            RollupRebuildReport report = rollupService.rebuild();
+            System.out.println("Rolled up " + report.getDeals() + " deals into " + report.getBuckets() + " analytics buckets");
+        };
+    }
+
+    @Bean
+    CommandLineRunner backfillVersions(PropertyRepository propertyRepo, BrokerRepository brokerRepo) {
+        return args -> {
+            int updated = propertyRepo.backfillVersions() + brokerRepo.backfillVersions();
+            if (updated > 0) System.out.println("Backfilled versions for " + updated + " rows");
+        };
+    }
 }
@@ -0,0 +1,68 @@
+package com.realestate.analytics;
+
+import java.util.Locale;
+
+/**
+ * What a deal rollup row is grouped by. Every deal adds to one row per dimension and day.
+ */
+public enum DealDimension {
+
+    CITY("city"),
+    CONFIG("config"),
+    OFFER_TYPE("offerType"),
+    BROKER("broker");
+
+    // column lengths of deal_rollups.dim_key and label
+    private static final int MAX_KEY = 100;
+    private static final int MAX_LABEL = 200;
+
+    private final String param;
+
+    DealDimension(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    /** Null or blank = CITY. */
+    public static DealDimension parse(String groupBy) {
+        if (groupBy == null || groupBy.isBlank()) return CITY;
+        for (DealDimension d : values()) {
+            if (d.param.equalsIgnoreCase(groupBy.trim())) return d;
+        }
+        throw new IllegalArgumentException("Invalid groupBy. Use: city, config, offerType, broker");
+    }
+
+    /** Key of the row a deal belongs to; city keys are lower-cased so spellings share a row. */
+    public String keyOf(DealFact deal) {
+        return switch (this) {
+            case CITY -> normalizeKey(deal.getCity() == null ? "" : deal.getCity());
+            case CONFIG -> deal.getConfiguration().name();
+            case OFFER_TYPE -> deal.getOfferType().name();
+            case BROKER -> String.valueOf(deal.getBroId());
+        };
+    }
+
+    /** Display name kept next to the key (the latest one written wins). */
+    public String labelOf(DealFact deal) {
+        String label = switch (this) {
+            case CITY -> deal.getCity() == null ? "" : deal.getCity().trim();
+            case BROKER -> deal.getBroName();
+            default -> keyOf(deal);
+        };
+        return label == null || label.length() <= MAX_LABEL ? label : label.substring(0, MAX_LABEL);
+    }
+
+    /** A key as given in a query, in the form rows are stored under. */
+    public String normalizeKey(String key) {
+        String k = key.trim();
+        k = switch (this) {
+            case CITY -> k.toLowerCase(Locale.ROOT);
+            case CONFIG, OFFER_TYPE -> k.toUpperCase(Locale.ROOT);
+            case BROKER -> k;
+        };
+        return k.length() <= MAX_KEY ? k : k.substring(0, MAX_KEY);
+    }
+}
@@ -0,0 +1,42 @@
+package com.realestate.analytics;
+
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+
+import java.time.LocalDate;
+
+/**
+ * The columns of one deal that rollups are built from, read as a JPQL projection.
+ */
+public class DealFact {
+
+    private final Long dealId;
+    private final LocalDate dealDate;
+    private final double dealCost;
+    private final String city;
+    private final PropertyConfig configuration;
+    private final OfferType offerType;
+    private final Long broId;
+    private final String broName;
+
+    public DealFact(Long dealId, LocalDate dealDate, double dealCost, String city, PropertyConfig configuration,
+                    OfferType offerType, Long broId, String broName) {
+        this.dealId = dealId;
+        this.dealDate = dealDate;
+        this.dealCost = dealCost;
+        this.city = city;
+        this.configuration = configuration;
+        this.offerType = offerType;
+        this.broId = broId;
+        this.broName = broName;
+    }
+
+    public Long getDealId() { return dealId; }
+    public LocalDate getDealDate() { return dealDate; }
+    public double getDealCost() { return dealCost; }
+    public String getCity() { return city; }
+    public PropertyConfig getConfiguration() { return configuration; }
+    public OfferType getOfferType() { return offerType; }
+    public Long getBroId() { return broId; }
+    public String getBroName() { return broName; }
+}
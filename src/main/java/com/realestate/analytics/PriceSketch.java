@@ -0,0 +1,110 @@
+package com.realestate.analytics;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable quantile sketch for deal prices (log-bucketed, DDSketch style). A price x lands in bucket
+ * ceil(log_gamma(x)), so every estimate is within {@link #RELATIVE_ACCURACY} of a real value at that rank.
+ * Merging two sketches adds their bucket counts, which gives exactly the sketch of the combined
+ * prices: a range query merges the per-day sketches it covers instead of re-reading deals.
+ */
+public final class PriceSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final double MIN_VALUE = 1.0;   // below this (free deals, bad data) counts as 0
+    private static final byte FORMAT = 1;
+
+    private final TreeMap<Integer, Long> bins = new TreeMap<>();
+    private long zeroCount;
+    private long count;
+
+    public void add(double value) {
+        if (value < MIN_VALUE) {
+            zeroCount++;
+        } else {
+            bins.merge((int) Math.ceil(Math.log(value) / LOG_GAMMA), 1L, Long::sum);
+        }
+        count++;
+    }
+
+    public PriceSketch merge(PriceSketch other) {
+        other.bins.forEach((index, n) -> bins.merge(index, n, Long::sum));
+        zeroCount += other.zeroCount;
+        count += other.count;
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /** Estimate of the q-quantile (0..1), or null for an empty sketch. */
+    public Double quantile(double q) {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("quantile must be between 0 and 1");
+        if (count == 0) return null;
+        double rank = q * (count - 1);
+        long seen = zeroCount;
+        if (seen > rank) return 0.0;
+        for (Map.Entry<Integer, Long> bin : bins.entrySet()) {
+            seen += bin.getValue();
+            if (seen > rank) return 2 * Math.pow(GAMMA, bin.getKey()) / (GAMMA + 1);
+        }
+        return 2 * Math.pow(GAMMA, bins.lastKey()) / (GAMMA + 1);
+    }
+
+    // format byte, zero count, bin count, then (index delta, count) varints in ascending index order
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + bins.size() * 3);
+        out.write(FORMAT);
+        writeVarLong(out, zeroCount);
+        writeVarLong(out, bins.size());
+        int previous = 0;
+        for (Map.Entry<Integer, Long> bin : bins.entrySet()) {
+            writeVarLong(out, bin.getKey() - previous);
+            writeVarLong(out, bin.getValue());
+            previous = bin.getKey();
+        }
+        return out.toByteArray();
+    }
+
+    /** Null or empty = empty sketch. */
+    public static PriceSketch fromBytes(byte[] bytes) {
+        PriceSketch sketch = new PriceSketch();
+        if (bytes == null || bytes.length == 0) return sketch;
+        if (bytes[0] != FORMAT) throw new IllegalStateException("Unknown price sketch format " + bytes[0]);
+        int[] pos = {1};
+        sketch.zeroCount = readVarLong(bytes, pos);
+        sketch.count = sketch.zeroCount;
+        long bins = readVarLong(bytes, pos);
+        int index = 0;
+        for (long i = 0; i < bins; i++) {
+            index += (int) readVarLong(bytes, pos);
+            long n = readVarLong(bytes, pos);
+            sketch.bins.put(index, n);
+            sketch.count += n;
+        }
+        return sketch;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] pos) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+}
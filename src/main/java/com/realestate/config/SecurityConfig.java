@@ -38,7 +38,7 @@ public CorsConfigurationSource corsConfigurationSource() {
     // Methods/headers for typical REST + preflight + auth
     configuration.setAllowedMethods(java.util.List.of("GET","POST","PUT","DELETE","PATCH","OPTIONS"));
     configuration.setAllowedHeaders(java.util.List.of("*"));
-    configuration.setExposedHeaders(java.util.List.of("Location","Content-Disposition"));
+    configuration.setExposedHeaders(java.util.List.of("Location","Content-Disposition","Idempotent-Replayed"));
 
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
     source.registerCorsConfiguration("/**", configuration);
@@ -1,24 +1,46 @@
 package com.realestate.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.lang.NonNull;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
-    @Value("${app.upload-dir:uploads}")
-    private String uploadDir;
+    @Value("${app.export.max-concurrent:4}")
+    private int maxConcurrentStreams;
+
+    @Value("${app.export.timeout-ms:1800000}")
+    private long streamTimeoutMs;
 
+    // StreamingResponseBody (catalog export) runs here: a small bounded pool, and a timeout long enough
+    // for a full export instead of the container's 30s async default.
     @Override
-    public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
-        Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-        registry.addResourceHandler("/files/**")
-                .addResourceLocations("file:" + uploadPath.toString() + "/");
+    public void configureAsyncSupport(@NonNull AsyncSupportConfigurer configurer) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentStreams);
+        executor.setMaxPoolSize(maxConcurrentStreams);
+        executor.setQueueCapacity(maxConcurrentStreams * 4);
+        executor.setThreadNamePrefix("stream-");
+        executor.setDaemon(true);
+        executor.initialize();
+        configurer.setTaskExecutor(executor);
+        configurer.setDefaultTimeout(streamTimeoutMs);
     }
+
+    // List pages are cheap projections but still worth a 304: hash the rendered body into a strong ETag.
+    // Not applied to /export, which must stream rather than buffer.
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> listEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/api/properties", "/api/properties/search", "/api/properties/broker/*");
+        return registration;
+    }
+
 }
@@ -1,10 +1,11 @@
 package com.realestate.controller;
 
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.PageQuery;
+import com.realestate.dto.ReviewResponse;
 import com.realestate.model.Broker;
 import com.realestate.model.BrokerRating;
-import com.realestate.model.Customer;
 import com.realestate.repository.BrokerRepository;
-import com.realestate.repository.CustomerRepository;
 import com.realestate.service.IBrokerService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,14 +19,11 @@ import java.util.List;
 public class BrokerController {
 
     private final IBrokerService brokerService;
-    private final CustomerRepository customerRepo;
     private final BrokerRepository brokerRepository;
 
     public BrokerController(IBrokerService brokerService,
-                          CustomerRepository customerRepo,
                           BrokerRepository brokerRepository) {
         this.brokerService = brokerService;
-        this.customerRepo = customerRepo;
         this.brokerRepository = brokerRepository;
     }
 
@@ -57,34 +55,18 @@ public class BrokerController {
 
     @PreAuthorize("hasRole('CUSTOMER')")
     @PostMapping("/{brokerId}/ratings")
-    public ResponseEntity<?> rateBroker(@PathVariable Long brokerId,
-                                      @RequestBody BrokerRating rating,
-                                      Authentication auth) {
-        Broker broker = brokerService.viewBroker(brokerId);
-        Customer customer = customerRepo.findByUserEmail(auth.getName())
-            .orElseThrow(() -> new IllegalArgumentException("Customer not found"));
-
-        rating.setBroker(broker);
-        rating.setCustomer(customer);
-        
-        if (rating.getRating() < 1 || rating.getRating() > 5) {
-            return ResponseEntity.badRequest().body("Rating must be between 1 and 5");
-        }
-
-        // Update broker's rating stats
-        broker.getRatings().add(rating);
-        double totalRating = broker.getAvgRating() * broker.getRatingCount() + rating.getRating();
-        broker.setRatingCount(broker.getRatingCount() + 1);
-        broker.setAvgRating(totalRating / broker.getRatingCount());
-        
-        brokerService.editBroker(broker);
-        return ResponseEntity.ok(rating);
+    public ResponseEntity<ReviewResponse> rateBroker(@PathVariable Long brokerId,
+                                                     @RequestBody BrokerRating rating,
+                                                     Authentication auth) {
+        return ResponseEntity.ok(brokerService.rateBroker(brokerId, rating, auth.getName()));
     }
 
     @GetMapping("/{brokerId}/ratings")
-    public ResponseEntity<?> getBrokerRatings(@PathVariable Long brokerId) {
-        Broker broker = brokerService.viewBroker(brokerId);
-        return ResponseEntity.ok(broker.getRatings());
+    public ResponseEntity<CursorPage<ReviewResponse>> getBrokerRatings(@PathVariable Long brokerId,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer size,
+                                                                      @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(brokerService.listRatings(brokerId, new PageQuery(cursor, size, includeTotal)));
     }
 
     @GetMapping("/top-rated")
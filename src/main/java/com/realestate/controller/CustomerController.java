@@ -1,25 +1,35 @@
 package com.realestate.controller;
 
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.DealSummary;
+import com.realestate.dto.PageQuery;
 import com.realestate.model.Customer;
 import com.realestate.model.Property;
 import com.realestate.service.ICustomerService;
-import com.realestate.service.IPropertyService;
+import com.realestate.service.IDealService;
+import com.realestate.service.IFavoriteService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/customers")
 public class CustomerController {
 
     private final ICustomerService customerService;
-    private final IPropertyService propertyService;
+    private final IDealService dealService;
+    private final IFavoriteService favoriteService;
 
-    public CustomerController(ICustomerService customerService, IPropertyService propertyService) {
+    public CustomerController(ICustomerService customerService, IDealService dealService,
+                              IFavoriteService favoriteService) {
         this.customerService = customerService;
-        this.propertyService = propertyService;
+        this.dealService = dealService;
+        this.favoriteService = favoriteService;
     }
 
     @PostMapping
@@ -49,62 +59,49 @@ public class CustomerController {
     }
 
     @GetMapping("/{id}/properties")
-    public ResponseEntity<List<com.realestate.model.Property>> getCustomerProperties(@PathVariable Long id) {
+    public ResponseEntity<Set<Property>> getCustomerProperties(@PathVariable Long id) {
         Customer customer = customerService.viewCustomer(id);
         return ResponseEntity.ok(customer.getProperties());
     }
 
+    // Paged, newest first; optional inclusive date range as in GET /api/deals
     @GetMapping("/{id}/deals")
-    public ResponseEntity<List<com.realestate.model.Deal>> getCustomerDeals(@PathVariable Long id) {
-        // This would require a dealService method to get deals by customer
-        return ResponseEntity.ok(java.util.Collections.emptyList());
+    public ResponseEntity<CursorPage<DealSummary>> getCustomerDeals(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(dealService.listCustomerDeals(id, from, to, new PageQuery(cursor, size, includeTotal)));
     }
 
     @PreAuthorize("hasRole('CUSTOMER')")
     @PostMapping("/{customerId}/favorites/{propertyId}")
-    public ResponseEntity<?> addToFavorites(@PathVariable Long customerId, @PathVariable Long propertyId) {
-        try {
-            Customer customer = customerService.viewCustomer(customerId);
-            Property property = propertyService.viewProperty(propertyId);
-            
-            if (!customer.getProperties().contains(property)) {
-                customer.getProperties().add(property);
-                customerService.editCustomer(customer);
-            }
-            
-            return ResponseEntity.ok("Property added to favorites");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Failed to add property to favorites: " + e.getMessage());
-        }
+    public ResponseEntity<String> addToFavorites(@PathVariable Long customerId, @PathVariable Long propertyId) {
+        favoriteService.addFavorite(customerId, propertyId);
+        return ResponseEntity.ok("Property added to favorites");
     }
 
     @PreAuthorize("hasRole('CUSTOMER')")
     @DeleteMapping("/{customerId}/favorites/{propertyId}")
-    public ResponseEntity<?> removeFromFavorites(@PathVariable Long customerId, @PathVariable Long propertyId) {
-        try {
-            Customer customer = customerService.viewCustomer(customerId);
-            Property property = propertyService.viewProperty(propertyId);
-            
-            customer.getProperties().remove(property);
-            customerService.editCustomer(customer);
-            
-            return ResponseEntity.ok("Property removed from favorites");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Failed to remove property from favorites: " + e.getMessage());
-        }
+    public ResponseEntity<String> removeFromFavorites(@PathVariable Long customerId, @PathVariable Long propertyId) {
+        favoriteService.removeFavorite(customerId, propertyId);
+        return ResponseEntity.ok("Property removed from favorites");
     }
 
     @PreAuthorize("hasRole('CUSTOMER')")
     @GetMapping("/{customerId}/favorites/{propertyId}")
     public ResponseEntity<Boolean> isFavorite(@PathVariable Long customerId, @PathVariable Long propertyId) {
-        try {
-            Customer customer = customerService.viewCustomer(customerId);
-            Property property = propertyService.viewProperty(propertyId);
-            
-            boolean isFavorite = customer.getProperties().contains(property);
-            return ResponseEntity.ok(isFavorite);
-        } catch (Exception e) {
-            return ResponseEntity.ok(false);
-        }
+        return ResponseEntity.ok(favoriteService.isFavorite(customerId, propertyId));
+    }
+
+    // Which of these listings are favorites, in one query: GET /api/customers/5/favorites?propertyIds=1,2,3
+    // (without propertyIds: every favorited id)
+    @PreAuthorize("hasRole('CUSTOMER')")
+    @GetMapping("/{customerId}/favorites")
+    public ResponseEntity<List<Long>> favoriteIds(@PathVariable Long customerId,
+                                                  @RequestParam(required = false) List<Long> propertyIds) {
+        return ResponseEntity.ok(favoriteService.favoriteIds(customerId, propertyIds));
     }
 }
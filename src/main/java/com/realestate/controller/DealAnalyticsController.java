@@ -0,0 +1,53 @@
+package com.realestate.controller;
+
+import com.realestate.dto.DealAnalyticsResponse;
+import com.realestate.dto.RollupRebuildReport;
+import com.realestate.service.DealRollupService;
+import com.realestate.service.IDealAnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics/deals")
+public class DealAnalyticsController {
+
+    private final IDealAnalyticsService analyticsService;
+    private final DealRollupService rollupService;
+
+    public DealAnalyticsController(IDealAnalyticsService analyticsService, DealRollupService rollupService) {
+        this.analyticsService = analyticsService;
+        this.rollupService = rollupService;
+    }
+
+    // GET /api/analytics/deals?groupBy=city&from=2025-01-01&to=2025-03-31&percentiles=50,90&daily=true
+    // (defaults: groupBy=city, the last 30 days, p50 and p90, totals only)
+    @GetMapping
+    public ResponseEntity<DealAnalyticsResponse> dealStats(
+            @RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) String key,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<Double> percentiles,
+            @RequestParam(defaultValue = "false") boolean daily) {
+        return ResponseEntity.ok(analyticsService.dealStats(groupBy, key, from, to, percentiles, daily));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/rebuild")
+    public ResponseEntity<RollupRebuildReport> rebuildStatus() {
+        return ResponseEntity.ok(rollupService.status());
+    }
+
+    // Starts recomputing every rollup from the deals table and answers 202 at once; poll GET /rebuild for progress
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/rebuild")
+    public ResponseEntity<RollupRebuildReport> rebuild() {
+        return ResponseEntity.accepted().location(URI.create("/api/analytics/deals/rebuild")).body(rollupService.start());
+    }
+}
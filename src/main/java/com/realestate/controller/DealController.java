@@ -1,32 +1,28 @@
 package com.realestate.controller;
 
-import com.realestate.model.Customer;
-import com.realestate.model.Deal;
-import com.realestate.model.Property;
-import com.realestate.repository.CustomerRepository;
-import com.realestate.repository.PropertyRepository;
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.DealSummary;
+import com.realestate.dto.PageQuery;
 import com.realestate.service.IDealService;
+import com.realestate.service.IdempotencyStore;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/deals")
 public class DealController {
 
     private final IDealService dealService;
-    private final PropertyRepository propertyRepository;
-    private final CustomerRepository customerRepository;
+    private final IdempotencyStore idempotencyStore;
 
-    public DealController(IDealService dealService,
-                          PropertyRepository propertyRepository,
-                          CustomerRepository customerRepository) {
+    public DealController(IDealService dealService, IdempotencyStore idempotencyStore) {
         this.dealService = dealService;
-        this.propertyRepository = propertyRepository;
-        this.customerRepository = customerRepository;
+        this.idempotencyStore = idempotencyStore;
     }
 
     // Buy/Rent: POST /api/deals?propertyId=1&price=4500000
@@ -36,6 +32,7 @@ public class DealController {
             @RequestParam(required = true) Long propertyId,
             @RequestParam(required = true) Long customerId,
             @RequestParam(name = "price", required = true) double dealCost,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             Authentication auth
     ) {
         if (propertyId == null) {
@@ -44,17 +41,20 @@ public class DealController {
         if (customerId == null) {
             return ResponseEntity.badRequest().body("Missing customerId parameter.");
         }
-        Property property = propertyRepository.findById(propertyId)
-                .orElseThrow(() -> new IllegalArgumentException("Property not found: " + propertyId));
-        Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new IllegalArgumentException("Customer not found: " + customerId));
-
-        Deal saved = dealService.addDeal(property, customer, dealCost);
-        return ResponseEntity.ok(saved);
+        // 409 when another buyer claimed the property first; a retried key replays the first outcome
+        return idempotencyStore.execute(auth.getName(), idempotencyKey,
+                "deal:" + propertyId + ":" + customerId + ":" + dealCost,
+                () -> ResponseEntity.ok(dealService.addDeal(propertyId, customerId, dealCost)));
     }
 
+    // GET /api/deals?from=2024-01-01&to=2024-03-31&cursor=...&size=20 (newest first)
     @GetMapping
-    public ResponseEntity<List<Deal>> listDeals() {
-        return ResponseEntity.ok(dealService.listAllDeals());
+    public ResponseEntity<CursorPage<DealSummary>> listDeals(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(dealService.listDeals(from, to, new PageQuery(cursor, size, includeTotal)));
     }
 }
@@ -0,0 +1,288 @@
+package com.realestate.controller;
+
+import com.realestate.media.ImageResizer;
+import com.realestate.media.ImageTransform;
+import com.realestate.media.OpenFileCache;
+import com.realestate.media.TransformCache;
+import com.realestate.service.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves uploads at /files/** (replaces the default resource handler).
+ *
+ * Content-addressed names (ab/cd/<sha256>[.variant].<ext>) never change, so they get the hash as a strong
+ * ETag and a year of {@code immutable} caching; other names get a size/mtime ETag and a shorter max-age.
+ * Single byte ranges are answered with 206 (If-Range honoured; multi-range requests get the full file).
+ * Image URLs also take bounded resize parameters ({@code ?w=480&h=320&fit=cover&q=80&fm=jpg}); renders are
+ * kept in the TransformCache.
+ * Files above {@code app.files.sendfile-threshold} are handed to Tomcat's sendfile, which writes them
+ * straight from the page cache to the socket; smaller ones (thumbs, cards) go through
+ * {@code FileChannel.transferTo} on a cached open channel.
+ */
+@Controller
+public class FileServeController {
+
+    private static final String PREFIX = "/files/";
+    private static final Pattern CONTENT_ADDRESSED =
+            Pattern.compile("(?:[0-9a-f]{2}/){0,4}([0-9a-f]{64}(?:\\.[a-z]+)?)\\.[a-z0-9]+");
+    private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final long IMMUTABLE_MAX_AGE = 31_536_000L;
+    private static final Set<String> TRANSFORMABLE = Set.of("jpg", "jpeg", "png", "gif");
+
+    // Tomcat's sendfile contract (org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final UrlPathHelper PATHS = new UrlPathHelper();
+
+    private final FileStorageService fileStorageService;
+    private final OpenFileCache openFiles;
+    private final TransformCache transformCache;
+
+    @Value("${app.files.max-age-seconds:86400}")
+    private long maxAgeSeconds;
+
+    @Value("${app.files.sendfile-threshold:49152}")
+    private long sendfileThreshold;
+
+    @Value("${app.images.transform.max-dimension:2400}")
+    private int maxTransformDimension;
+
+    @Value("${app.images.max-pixels:40000000}")
+    private long maxPixels;
+
+    public FileServeController(FileStorageService fileStorageService, OpenFileCache openFiles,
+                               TransformCache transformCache) {
+        this.fileStorageService = fileStorageService;
+        this.openFiles = openFiles;
+        this.transformCache = transformCache;
+    }
+
+    @RequestMapping(value = "/files/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relative = PATHS.getPathWithinApplication(request).substring(PREFIX.length());
+        Path file = isHidden(relative) ? null : fileStorageService.resolvePublicUrl(PREFIX + relative);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String ext = fileStorageService.getExtension(relative);
+        ImageTransform transform = TRANSFORMABLE.contains(ext)
+                ? ImageTransform.parse(request.getParameterMap(), ext, maxTransformDimension) : null;
+        if (transform != null) {
+            serveTransformed(request, response, relative, file, transform);
+            return;
+        }
+        Matcher ca = CONTENT_ADDRESSED.matcher(relative);
+        String etag = ca.matches() ? "\"" + ca.group(1) + "\"" : null;
+        if (!serve(request, response, file, etag, ca.matches())) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    // ?w=&h=&fit=&q=&fm= : rendered from the original once, then served from the transform cache.
+    // The render's name covers the original's identity, so a changed original is rendered afresh.
+    private void serveTransformed(HttpServletRequest request, HttpServletResponse response, String relative,
+                                  Path original, ImageTransform transform) throws IOException {
+        BasicFileAttributes attrs = stat(original);
+        if (attrs == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String key = sha256(relative + "|" + attrs.size() + "|" + attrs.lastModifiedTime().toMillis()
+                + "|" + transform.canonical());
+        String name = key + "." + transform.format();
+        TransformCache.Renderer renderer = target -> ImageResizer.write(
+                transform.apply(ImageResizer.decodeUpright(original, maxPixels)), target, transform.format(),
+                transform.quality() / 100f);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Path rendered;
+            try {
+                rendered = transformCache.get(name, renderer);
+            } catch (IOException e) {
+                response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Cannot transform this image");
+                return;
+            }
+            // false: evicted between lookup and open, render again
+            if (serve(request, response, rendered, "\"" + key + "\"", CONTENT_ADDRESSED.matcher(relative).matches())) {
+                return;
+            }
+        }
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Writes {@code file} (or the requested range of it). {@code etag} null means one derived from size and mtime.
+     * Files at or above the sendfile threshold are only stat'ed: Tomcat opens them by name after this returns,
+     * so holding a cached channel would not pin the bytes it sends, and a file removed in between fails the
+     * transfer rather than serving something else. Smaller files are copied from a cached channel held until
+     * the last byte is written.
+     * @return false when the file does not exist (nothing has been sent)
+     */
+    private boolean serve(HttpServletRequest request, HttpServletResponse response, Path file,
+                          String etag, boolean immutable) throws IOException {
+        BasicFileAttributes attrs = Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED)) ? stat(file) : null;
+        if (attrs != null && attrs.size() >= sendfileThreshold) {
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            writeResponse(request, response, file, null, attrs.size(), lastModified,
+                    etag != null ? etag : sizeTimeEtag(attrs.size(), lastModified), immutable);
+            return true;
+        }
+        OpenFileCache.Handle handle = openFiles.acquire(file);
+        if (handle == null) return false;
+        try {
+            writeResponse(request, response, file, handle, handle.size(), handle.lastModified(),
+                    etag != null ? etag : sizeTimeEtag(handle.size(), handle.lastModified()), immutable);
+            return true;
+        } finally {
+            openFiles.release(handle);
+        }
+    }
+
+    // handle == null: the body goes out through sendfile
+    private void writeResponse(HttpServletRequest request, HttpServletResponse response, Path file,
+                               OpenFileCache.Handle handle, long size, long lastModified, String etag,
+                               boolean immutable) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable
+                ? "public, max-age=" + IMMUTABLE_MAX_AGE + ", immutable"
+                : "public, max-age=" + maxAgeSeconds);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return; // 304 with ETag / Last-Modified already set
+        }
+
+        long start = 0;
+        long length = size;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request, etag, lastModified)) {
+            Matcher m = SINGLE_RANGE.matcher(range.trim());
+            if (m.matches() && !(m.group(1).isEmpty() && m.group(2).isEmpty())) {
+                if (m.group(1).isEmpty()) {                       // bytes=-N : last N bytes
+                    length = Math.min(parse(m.group(2)), size);
+                    start = size - length;
+                    if (length == 0) {                            // bytes=-0, or any suffix of an empty file
+                        rangeNotSatisfiable(response, size);
+                        return;
+                    }
+                } else {
+                    start = parse(m.group(1));
+                    long end = m.group(2).isEmpty() ? size - 1 : Math.min(parse(m.group(2)), size - 1);
+                    if (start >= size || end < start) {
+                        rangeNotSatisfiable(response, size);
+                        return;
+                    }
+                    length = end - start + 1;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + length - 1) + "/" + size);
+            }
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) return;
+
+        if (handle == null) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = start;
+        long remaining = length;
+        while (remaining > 0) {
+            long sent = handle.channel().transferTo(position, remaining, out);
+            if (sent <= 0) break; // file shrank underneath us
+            position += sent;
+            remaining -= sent;
+        }
+    }
+
+    private static void rangeNotSatisfiable(HttpServletResponse response, long size) throws IOException {
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+        response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+    }
+
+    private static String sizeTimeEtag(long size, long lastModified) {
+        return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    // Size and mtime of a regular file, or null when there is none
+    private static BasicFileAttributes stat(Path file) throws IOException {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return attrs.isRegularFile() ? attrs : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    // Range only applies if the client's cached copy is still current
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) return ifRange.equals(etag);
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == lastModified / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // No dot-files or dot-dirs (.incoming temp uploads) and no traversal
+    private static boolean isHidden(String relative) {
+        if (relative.isEmpty()) return true;
+        for (String segment : relative.split("/")) {
+            if (segment.isEmpty() || segment.startsWith(".")) return true;
+        }
+        return false;
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long parse(String digits) {
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE; // absurdly large offsets end up unsatisfiable / clamped
+        }
+    }
+}
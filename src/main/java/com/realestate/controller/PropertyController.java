@@ -1,20 +1,45 @@
 package com.realestate.controller;
 
+import com.realestate.dto.BrokerListingPage;
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.ImageUploadReport;
+import com.realestate.dto.ImportReport;
+import com.realestate.dto.PageQuery;
 import com.realestate.dto.PropertyCriteria;
+import com.realestate.dto.PropertyResponse;
+import com.realestate.dto.ResourceVersion;
+import com.realestate.dto.SearchCacheStats;
 import com.realestate.enums.OfferType;
 import com.realestate.enums.PropertyConfig;
 import com.realestate.model.Broker;
 import com.realestate.model.Property;
 import com.realestate.repository.BrokerRepository;
+import com.realestate.search.PropertySearchCache;
+import com.realestate.service.IImageVariantService;
+import com.realestate.service.IPropertyExportService;
+import com.realestate.service.IPropertyImageService;
+import com.realestate.service.IPropertyImportService;
 import com.realestate.service.IPropertyService;
 import com.realestate.service.FileStorageService;
+import com.realestate.service.IdempotencyStore;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/properties")
@@ -23,13 +48,31 @@ public class PropertyController {
     private final IPropertyService propertyService;
     private final BrokerRepository brokerRepository;
     private final FileStorageService fileStorageService;
+    private final PropertySearchCache searchCache;
+    private final IPropertyExportService exportService;
+    private final IPropertyImportService importService;
+    private final IImageVariantService imageVariantService;
+    private final IPropertyImageService propertyImageService;
+    private final IdempotencyStore idempotencyStore;
 
     public PropertyController(IPropertyService propertyService,
                               BrokerRepository brokerRepository,
-                              FileStorageService fileStorageService) {
+                              FileStorageService fileStorageService,
+                              PropertySearchCache searchCache,
+                              IPropertyExportService exportService,
+                              IPropertyImportService importService,
+                              IImageVariantService imageVariantService,
+                              IPropertyImageService propertyImageService,
+                              IdempotencyStore idempotencyStore) {
         this.propertyService = propertyService;
         this.brokerRepository = brokerRepository;
         this.fileStorageService = fileStorageService;
+        this.searchCache = searchCache;
+        this.exportService = exportService;
+        this.importService = importService;
+        this.imageVariantService = imageVariantService;
+        this.propertyImageService = propertyImageService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     // Create a property for a broker
@@ -41,7 +84,17 @@ public class PropertyController {
                 .orElseThrow(() -> new IllegalArgumentException("Broker not found: " + brokerId));
         property.setBroker(broker);
         Property saved = propertyService.addProperty(property);
-        return ResponseEntity.ok(saved);
+        return ResponseEntity.ok(PropertyResponse.from(saved));
+    }
+
+    // Bulk import for a broker: body is CSV (header row first) or NDJSON, one listing per row.
+    // Bad rows are listed in the report; the rest are still imported.
+    @PreAuthorize("hasRole('BROKER')")
+    @PostMapping(path = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportReport> importProperties(@RequestParam Long brokerId,
+                                                         @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                         InputStream body) {
+        return ResponseEntity.ok(importService.importProperties(brokerId, body, contentType));
     }
 
     // Update property (optional broker change via ?brokerId=)
@@ -54,7 +107,7 @@ public class PropertyController {
                     .orElseThrow(() -> new IllegalArgumentException("Broker not found: " + brokerId));
             property.setBroker(broker);
         }
-        return ResponseEntity.ok(propertyService.editProperty(property));
+        return ResponseEntity.ok(PropertyResponse.from(propertyService.editProperty(property)));
     }
 
     // Delete property
@@ -65,33 +118,44 @@ public class PropertyController {
         return ResponseEntity.ok("Property removed: " + id);
     }
 
-    // View single
+    // View single. Conditional: If-None-Match / If-Modified-Since are checked against the version
+    // columns alone, so an unchanged property costs one small query and a 304.
     @GetMapping("/{id}")
-    public ResponseEntity<Property> viewProperty(@PathVariable Long id) {
-        return ResponseEntity.ok(propertyService.viewProperty(id));
+    public ResponseEntity<PropertyResponse> viewProperty(@PathVariable Long id, WebRequest request) {
+        ResourceVersion version = propertyService.propertyVersion(id);
+        String etag = version.etag("details");
+        if (request.checkNotModified(etag, version.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(propertyService.viewPropertyDetails(id));
     }
 
-    // List all
+    // List all, one keyset page at a time: /api/properties?size=20&cursor=...
     @GetMapping
-    public ResponseEntity<List<Property>> listAll() {
-        return ResponseEntity.ok(propertyService.listAllProperties());
+    public ResponseEntity<CursorPage<PropertyResponse>> listAll(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size,
+                                                        @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(propertyService.listProperties(new PageQuery(cursor, size, includeTotal)));
     }
 
-    // Get properties by broker - for broker dashboard
+    // Get properties by broker - for broker dashboard: ?sort=newest|price|rating&page=0&size=20
     @PreAuthorize("hasRole('BROKER')")
     @GetMapping("/broker/{brokerId}")
-    public ResponseEntity<List<Property>> getPropertiesByBroker(@PathVariable Long brokerId) {
-        // For now, we'll filter from all properties, but ideally this should be in the service
-        List<Property> allProperties = propertyService.listAllProperties();
-        List<Property> brokerProperties = allProperties.stream()
-            .filter(p -> p.getBroker() != null && p.getBroker().getBroId().equals(brokerId))
-            .collect(java.util.stream.Collectors.toList());
-        return ResponseEntity.ok(brokerProperties);
+    public ResponseEntity<BrokerListingPage<PropertyResponse>> getPropertiesByBroker(@PathVariable Long brokerId,
+                                                                            @RequestParam(defaultValue = "newest") String sort,
+                                                                            @RequestParam(defaultValue = "0") int page,
+                                                                            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(propertyService.listPropertiesByBroker(brokerId, sort, page, size));
     }
 
     // Search: /api/properties/search?city=Pune&config=FLAT&offer=SELL&minCost=10000&maxCost=90000
+    // Ranked: &sort=offerCost|areaSqft|avgRating|reviewCount|pricePerSqft|newest[&direction=asc|desc]&limit=10
+    // (limit is an alias for size; the cursor keeps paging in the same order)
     @GetMapping("/search")
-    public ResponseEntity<?> search(@RequestParam(required = false) String city,
+    public ResponseEntity<CursorPage<PropertyResponse>> search(@RequestParam(required = false) String city,
                                     @RequestParam(required = false) String config,
                                     @RequestParam(required = false) String offer,
                                     @RequestParam(required = false) Double minCost,
@@ -99,20 +163,73 @@ public class PropertyController {
                                     @RequestParam(required = false) Double minArea,
                                     @RequestParam(required = false) Double maxArea,
                                     @RequestParam(required = false) Double minRating,
-                                    @RequestParam(required = false) Boolean availableOnly) {
+                                    @RequestParam(required = false) Integer minReviews,
+                                    @RequestParam(required = false) String street,
+                                    @RequestParam(required = false) Boolean availableOnly,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(required = false) Integer size,
+                                    @RequestParam(required = false) Integer limit,
+                                    @RequestParam(required = false) String sort,
+                                    @RequestParam(required = false) String direction,
+                                    @RequestParam(defaultValue = "false") boolean includeTotal) {
+        PropertyCriteria c = toCriteria(city, config, offer, minCost, maxCost, minArea, maxArea,
+                minRating, minReviews, street, availableOnly);
+        PageQuery page = new PageQuery(cursor, size != null ? size : limit, includeTotal, sort, direction);
+        return ResponseEntity.ok(propertyService.listPropertyByCriteria(c, page));
+    }
+
+    // Full catalog as NDJSON, streamed: /api/properties/export?city=Pune (same filters as search,
+    // but sold/rented listings are included unless availableOnly=true).
+    // gzip-encoded when the client sends Accept-Encoding: gzip.
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) String city,
+                                                        @RequestParam(required = false) String config,
+                                                        @RequestParam(required = false) String offer,
+                                                        @RequestParam(required = false) Double minCost,
+                                                        @RequestParam(required = false) Double maxCost,
+                                                        @RequestParam(required = false) Double minArea,
+                                                        @RequestParam(required = false) Double maxArea,
+                                                        @RequestParam(required = false) Double minRating,
+                                                        @RequestParam(required = false) Integer minReviews,
+                                                        @RequestParam(required = false) String street,
+                                                        @RequestParam(required = false) Boolean availableOnly,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        PropertyCriteria c = toCriteria(city, config, offer, minCost, maxCost, minArea, maxArea,
+                minRating, minReviews, street, availableOnly);
+        if (availableOnly == null) c.setStatus(null);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : new BufferedOutputStream(out, 64 * 1024);
+            exportService.exportNdjson(c, target);
+            target.close();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
+
+    // Shared by search and export; bad enum values become a 400 via GlobalExceptionHandler
+    private static PropertyCriteria toCriteria(String city, String config, String offer,
+                                               Double minCost, Double maxCost, Double minArea, Double maxArea,
+                                               Double minRating, Integer minReviews, String street,
+                                               Boolean availableOnly) {
         PropertyCriteria c = new PropertyCriteria();
         c.setCity(city);
 
         if (config != null && !config.isBlank()) {
             try { c.setConfiguration(PropertyConfig.valueOf(config.toUpperCase())); }
             catch (IllegalArgumentException ex) {
-                return ResponseEntity.badRequest().body("Invalid config. Use: FLAT, SHOP, PLOT");
+                throw new IllegalArgumentException("Invalid config. Use: FLAT, SHOP, PLOT");
             }
         }
         if (offer != null && !offer.isBlank()) {
             try { c.setOfferType(OfferType.valueOf(offer.toUpperCase())); }
             catch (IllegalArgumentException ex) {
-                return ResponseEntity.badRequest().body("Invalid offer. Use: SELL, RENT");
+                throw new IllegalArgumentException("Invalid offer. Use: SELL, RENT");
             }
         }
         c.setMinCost(minCost);
@@ -120,48 +237,67 @@ public class PropertyController {
         c.setMinAreaSqft(minArea);
         c.setMaxAreaSqft(maxArea);
         c.setMinRating(minRating);
-        if (availableOnly != null) {
-            c.setStatus(availableOnly);
+        c.setMinReviews(minReviews);
+        c.setStreet(street);
+        // availableOnly=false widens the search to sold/rented listings as well
+        if (availableOnly != null && !availableOnly) {
+            c.setStatus(null);
         }
 
-        return ResponseEntity.ok(propertyService.listPropertyByCriteria(c));
+        return c;
+    }
+
+    // Hit/miss/eviction counters of the search result cache
+    @GetMapping("/search/cache-stats")
+    public ResponseEntity<SearchCacheStats> searchCacheStats() {
+        return ResponseEntity.ok(searchCache.stats());
     }
 
-    // Upload 1..n images: accepts 'files' (array) or 'file' (single)
+    // Upload 1..n images: accepts 'files' (array) or 'file' (single). Files are stored in parallel and
+    // appended in one batch; the report says per file whether it was stored. 200 when at least one was.
+    // Thumb/card/full variants are generated in the background (images[].status PENDING -> READY).
+    // With an Idempotency-Key header a retried upload gets the first report back instead of storing again.
     @PreAuthorize("hasRole('BROKER')")
     @PostMapping(path = "/{id}/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> uploadImages(@PathVariable Long id,
                                           @RequestParam(value = "files", required = false) MultipartFile[] files,
-                                          @RequestParam(value = "file",  required = false) MultipartFile single) {
-        Property prop = propertyService.viewProperty(id);
-
-        try {
-            int count = 0;
-
-            if (files != null && files.length > 0) {
-                for (MultipartFile f : files) {
-                    if (f != null && !f.isEmpty()) {
-                        String publicUrl = fileStorageService.storeForProperty(id, f);
-                        prop.getImageUrls().add(publicUrl);
-                        count++;
-                    }
-                }
-            }
-            if (single != null && !single.isEmpty()) {
-                String publicUrl = fileStorageService.storeForProperty(id, single);
-                prop.getImageUrls().add(publicUrl);
-                count++;
-            }
-
-            if (count == 0) {
-                return ResponseEntity.badRequest().body("No image files received. Use form-data with key 'files' or 'file'.");
+                                          @RequestParam(value = "file",  required = false) MultipartFile single,
+                                          @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                          Authentication auth) {
+        List<MultipartFile> received = new ArrayList<>();
+        if (files != null) {
+            for (MultipartFile f : files) {
+                if (f != null) received.add(f);
             }
+        }
+        if (single != null) received.add(single);
 
-            Property saved = propertyService.editProperty(prop);
-            return ResponseEntity.ok(saved);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Failed to upload: " + e.getMessage());
+        if (received.isEmpty()) {
+            return ResponseEntity.badRequest().body("No image files received. Use form-data with key 'files' or 'file'.");
         }
+        StringBuilder fingerprint = new StringBuilder("images:").append(id);
+        for (MultipartFile f : received) fingerprint.append(':').append(f.getOriginalFilename()).append('/').append(f.getSize());
+        return idempotencyStore.execute(auth.getName(), idempotencyKey, fingerprint.toString(),
+                () -> uploadResponse(propertyImageService.upload(id, received)));
+    }
+
+    // Upload one image as the raw request body (Content-Type image/*), streamed straight into storage
+    // without multipart spooling; clients send several of these in parallel for a batch.
+    @PreAuthorize("hasRole('BROKER')")
+    @PostMapping(path = "/{id}/images", consumes = "image/*")
+    public ResponseEntity<?> uploadImageStream(@PathVariable Long id,
+                                               @RequestParam String filename,
+                                               @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                               @RequestHeader(name = HttpHeaders.CONTENT_LENGTH, required = false) Long length,
+                                               InputStream body,
+                                               Authentication auth) {
+        // a replayed retry never reads its body
+        return idempotencyStore.execute(auth.getName(), idempotencyKey, "image:" + id + ":" + filename + "/" + length,
+                () -> uploadResponse(propertyImageService.upload(id, filename, body)));
+    }
+
+    private static ResponseEntity<ImageUploadReport> uploadResponse(ImageUploadReport report) {
+        return report.getStored() > 0 ? ResponseEntity.ok(report) : ResponseEntity.badRequest().body(report);
     }
 
     // Delete a specific image by its URL (must belong to this property)
@@ -175,18 +311,28 @@ public class PropertyController {
             return ResponseEntity.badRequest().body("Image URL not found on this property.");
         }
         try {
-            fileStorageService.deleteByPublicUrl(imageUrl);
             Property saved = propertyService.editProperty(prop);
-            return ResponseEntity.ok(saved);
+            // shared (content-addressed) images keep their file and variants until the last listing lets go
+            if (fileStorageService.deleteByPublicUrl(imageUrl)) {
+                imageVariantService.discard(imageUrl);
+            }
+            return ResponseEntity.ok(PropertyResponse.from(saved));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Failed to delete: " + e.getMessage());
         }
     }
 
-    // Helper: list just the image URLs
+    // Helper: list just the image URLs (conditional, like viewProperty)
     @GetMapping("/{id}/images")
-    public ResponseEntity<?> listImages(@PathVariable Long id) {
-        Property prop = propertyService.viewProperty(id);
-        return ResponseEntity.ok(prop.getImageUrls());
+    public ResponseEntity<?> listImages(@PathVariable Long id, WebRequest request) {
+        ResourceVersion version = propertyService.propertyVersion(id);
+        String etag = version.etag("images");
+        if (request.checkNotModified(etag, version.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(propertyService.viewPropertyDetails(id).getImageUrls());
     }
 }
@@ -0,0 +1,57 @@
+package com.realestate.controller;
+
+import com.realestate.dto.LayoutMigrationReport;
+import com.realestate.dto.StorageGcReport;
+import com.realestate.service.UploadGarbageCollector;
+import com.realestate.service.UploadLayoutMigrationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/storage")
+public class StorageController {
+
+    private final UploadGarbageCollector garbageCollector;
+    private final UploadLayoutMigrationService layoutMigration;
+
+    public StorageController(UploadGarbageCollector garbageCollector, UploadLayoutMigrationService layoutMigration) {
+        this.garbageCollector = garbageCollector;
+        this.layoutMigration = layoutMigration;
+    }
+
+    // Progress of the running (or last) orphaned-upload collection: files scanned, quarantined, bytes reclaimed
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/gc")
+    public ResponseEntity<StorageGcReport> gcStatus() {
+        return ResponseEntity.ok(garbageCollector.status());
+    }
+
+    // Starts a collection pass now (it also runs on a schedule) and answers 202 at once; poll GET /gc for progress
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/gc")
+    public ResponseEntity<StorageGcReport> runGc() {
+        return ResponseEntity.accepted().location(URI.create("/api/storage/gc")).body(garbageCollector.trigger());
+    }
+
+    // Progress of the running (or last) layout migration
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/layout-migration")
+    public ResponseEntity<LayoutMigrationReport> layoutMigrationStatus() {
+        return ResponseEntity.ok(layoutMigration.status());
+    }
+
+    // Starts moving files still flat in the upload dir into the sharded layout, in batches, while serving
+    // continues; answers 202 at once, poll GET /layout-migration for progress
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/layout-migration")
+    public ResponseEntity<LayoutMigrationReport> migrateLayout() {
+        return ResponseEntity.accepted().location(URI.create("/api/storage/layout-migration"))
+                .body(layoutMigration.start());
+    }
+}
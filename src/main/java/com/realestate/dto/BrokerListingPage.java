@@ -0,0 +1,51 @@
+package com.realestate.dto;
+
+import java.util.List;
+
+/**
+ * One page of a broker's own listings plus dashboard counters for all of them.
+ */
+public class BrokerListingPage<T> {
+
+    private List<T> items;
+    private int page;
+    private int size;
+    private String sort;
+    private long activeCount;
+    private long takenCount;
+    private long totalCount;
+
+    public BrokerListingPage() {}
+
+    public BrokerListingPage(List<T> items, int page, int size, String sort,
+                             long activeCount, long takenCount, long totalCount) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.sort = sort;
+        this.activeCount = activeCount;
+        this.takenCount = takenCount;
+        this.totalCount = totalCount;
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+
+    public long getActiveCount() { return activeCount; }
+    public void setActiveCount(long activeCount) { this.activeCount = activeCount; }
+
+    public long getTakenCount() { return takenCount; }
+    public void setTakenCount(long takenCount) { this.takenCount = takenCount; }
+
+    public long getTotalCount() { return totalCount; }
+    public void setTotalCount(long totalCount) { this.totalCount = totalCount; }
+}
@@ -0,0 +1,94 @@
+package com.realestate.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /api/analytics/deals: deal volume and prices over a date range, one group per city,
+ * configuration, offer type or broker. Percentiles are sketch estimates (within 1%), keyed "p50", "p90", ...
+ */
+public class DealAnalyticsResponse {
+
+    private LocalDate from;
+    private LocalDate to;
+    private String groupBy;
+    private long dealCount;
+    private double gmv;
+    private List<Group> groups;
+
+    public static class Group {
+        private String key;
+        private String label;
+        private long dealCount;
+        private double gmv;
+        private double minCost;
+        private double maxCost;
+        private Map<String, Double> percentiles;
+        private List<Point> days;   // only with daily=true
+
+        public String getKey() { return key; }
+        public void setKey(String key) { this.key = key; }
+
+        public String getLabel() { return label; }
+        public void setLabel(String label) { this.label = label; }
+
+        public long getDealCount() { return dealCount; }
+        public void setDealCount(long dealCount) { this.dealCount = dealCount; }
+
+        public double getGmv() { return gmv; }
+        public void setGmv(double gmv) { this.gmv = gmv; }
+
+        public double getMinCost() { return minCost; }
+        public void setMinCost(double minCost) { this.minCost = minCost; }
+
+        public double getMaxCost() { return maxCost; }
+        public void setMaxCost(double maxCost) { this.maxCost = maxCost; }
+
+        public Map<String, Double> getPercentiles() { return percentiles; }
+        public void setPercentiles(Map<String, Double> percentiles) { this.percentiles = percentiles; }
+
+        public List<Point> getDays() { return days; }
+        public void setDays(List<Point> days) { this.days = days; }
+    }
+
+    // One day of a group; days without deals are left out
+    public static class Point {
+        private LocalDate day;
+        private long dealCount;
+        private double gmv;
+        private Map<String, Double> percentiles;
+
+        public LocalDate getDay() { return day; }
+        public void setDay(LocalDate day) { this.day = day; }
+
+        public long getDealCount() { return dealCount; }
+        public void setDealCount(long dealCount) { this.dealCount = dealCount; }
+
+        public double getGmv() { return gmv; }
+        public void setGmv(double gmv) { this.gmv = gmv; }
+
+        public Map<String, Double> getPercentiles() { return percentiles; }
+        public void setPercentiles(Map<String, Double> percentiles) { this.percentiles = percentiles; }
+    }
+
+    public DealAnalyticsResponse() {}
+
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+
+    public String getGroupBy() { return groupBy; }
+    public void setGroupBy(String groupBy) { this.groupBy = groupBy; }
+
+    public long getDealCount() { return dealCount; }
+    public void setDealCount(long dealCount) { this.dealCount = dealCount; }
+
+    public double getGmv() { return gmv; }
+    public void setGmv(double gmv) { this.gmv = gmv; }
+
+    public List<Group> getGroups() { return groups; }
+    public void setGroups(List<Group> groups) { this.groups = groups; }
+}
@@ -0,0 +1,73 @@
+package com.realestate.dto;
+
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+
+import java.time.LocalDate;
+
+/**
+ * One row of a deal history page: the deal and just enough of the property to list and link it.
+ * Built straight from a JPQL projection; no Deal, Customer or Property entity is loaded.
+ */
+public class DealSummary {
+
+    private Long dealId;
+    private LocalDate dealDate;
+    private double dealCost;
+    private PropertySummary property;
+
+    public static class PropertySummary {
+        private Long propId;
+        private String address;
+        private String city;
+        private PropertyConfig configuration;
+        private OfferType offerType;
+
+        public PropertySummary() {}
+
+        public PropertySummary(Long propId, String address, String city, PropertyConfig configuration, OfferType offerType) {
+            this.propId = propId;
+            this.address = address;
+            this.city = city;
+            this.configuration = configuration;
+            this.offerType = offerType;
+        }
+
+        public Long getPropId() { return propId; }
+        public void setPropId(Long propId) { this.propId = propId; }
+
+        public String getAddress() { return address; }
+        public void setAddress(String address) { this.address = address; }
+
+        public String getCity() { return city; }
+        public void setCity(String city) { this.city = city; }
+
+        public PropertyConfig getConfiguration() { return configuration; }
+        public void setConfiguration(PropertyConfig configuration) { this.configuration = configuration; }
+
+        public OfferType getOfferType() { return offerType; }
+        public void setOfferType(OfferType offerType) { this.offerType = offerType; }
+    }
+
+    public DealSummary() {}
+
+    public DealSummary(Long dealId, LocalDate dealDate, double dealCost, Long propId, String address, String city,
+                       PropertyConfig configuration, OfferType offerType) {
+        this.dealId = dealId;
+        this.dealDate = dealDate;
+        this.dealCost = dealCost;
+        this.property = new PropertySummary(propId, address, city, configuration, offerType);
+    }
+
+    public Long getDealId() { return dealId; }
+    public void setDealId(Long dealId) { this.dealId = dealId; }
+
+    public LocalDate getDealDate() { return dealDate; }
+    public void setDealDate(LocalDate dealDate) { this.dealDate = dealDate; }
+
+    public double getDealCost() { return dealCost; }
+    public void setDealCost(double dealCost) { this.dealCost = dealCost; }
+
+    public PropertySummary getProperty() { return property; }
+    public void setProperty(PropertySummary property) { this.property = property; }
+}
@@ -0,0 +1,71 @@
+package com.realestate.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of an image upload: one entry per received file (its URL, or why it was rejected),
+ * and the listing as it is after the stored images were attached.
+ */
+public class ImageUploadReport {
+
+    private int received;
+    private int stored;
+    private int failed;
+    private long elapsedMs;
+    private List<FileResult> files = new ArrayList<>();
+    private PropertyResponse property;
+
+    public ImageUploadReport() {}
+
+    public static class FileResult {
+        private String filename;
+        private String url;
+        private String error;
+
+        public FileResult() {}
+
+        public FileResult(String filename, String url, String error) {
+            this.filename = filename;
+            this.url = url;
+            this.error = error;
+        }
+
+        public static FileResult stored(String filename, String url) {
+            return new FileResult(filename, url, null);
+        }
+
+        public static FileResult failed(String filename, String error) {
+            return new FileResult(filename, null, error);
+        }
+
+        public boolean isStored() { return url != null; }
+
+        public String getFilename() { return filename; }
+        public void setFilename(String filename) { this.filename = filename; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+
+    public int getReceived() { return received; }
+    public void setReceived(int received) { this.received = received; }
+
+    public int getStored() { return stored; }
+    public void setStored(int stored) { this.stored = stored; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public List<FileResult> getFiles() { return files; }
+    public void setFiles(List<FileResult> files) { this.files = files; }
+
+    public PropertyResponse getProperty() { return property; }
+    public void setProperty(PropertyResponse property) { this.property = property; }
+}
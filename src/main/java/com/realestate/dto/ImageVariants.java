@@ -0,0 +1,41 @@
+package com.realestate.dto;
+
+import com.realestate.enums.ImageVariantStatus;
+
+/**
+ * One property image with its per-size URLs. Size URLs are null until {@code status} is READY;
+ * clients then fall back to {@code url}, the original upload.
+ */
+public class ImageVariants {
+
+    private String url;
+    private ImageVariantStatus status;
+    private String thumbUrl;
+    private String cardUrl;
+    private String fullUrl;
+
+    public ImageVariants() {}
+
+    public ImageVariants(String url, ImageVariantStatus status, String thumbUrl, String cardUrl, String fullUrl) {
+        this.url = url;
+        this.status = status;
+        this.thumbUrl = thumbUrl;
+        this.cardUrl = cardUrl;
+        this.fullUrl = fullUrl;
+    }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public ImageVariantStatus getStatus() { return status; }
+    public void setStatus(ImageVariantStatus status) { this.status = status; }
+
+    public String getThumbUrl() { return thumbUrl; }
+    public void setThumbUrl(String thumbUrl) { this.thumbUrl = thumbUrl; }
+
+    public String getCardUrl() { return cardUrl; }
+    public void setCardUrl(String cardUrl) { this.cardUrl = cardUrl; }
+
+    public String getFullUrl() { return fullUrl; }
+    public void setFullUrl(String fullUrl) { this.fullUrl = fullUrl; }
+}
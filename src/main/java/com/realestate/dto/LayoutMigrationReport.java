@@ -0,0 +1,53 @@
+package com.realestate.dto;
+
+import java.time.Instant;
+
+/**
+ * Progress of moving flat uploads into the sharded layout (the run in progress, or the last one),
+ * served by /api/storage/layout-migration.
+ */
+public class LayoutMigrationReport {
+
+    private boolean running;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long scanned;
+    private long moved;
+    private long relinked;
+    private long failed;
+    private long batches;
+    private long elapsedMs;
+    private String lastError;
+
+    public LayoutMigrationReport() {}
+
+    public boolean isRunning() { return running; }
+    public void setRunning(boolean running) { this.running = running; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public long getScanned() { return scanned; }
+    public void setScanned(long scanned) { this.scanned = scanned; }
+
+    public long getMoved() { return moved; }
+    public void setMoved(long moved) { this.moved = moved; }
+
+    public long getRelinked() { return relinked; }
+    public void setRelinked(long relinked) { this.relinked = relinked; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public long getBatches() { return batches; }
+    public void setBatches(long batches) { this.batches = batches; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
@@ -0,0 +1,57 @@
+package com.realestate.dto;
+
+/**
+ * Paging parameters for keyset listings: an opaque cursor from the previous page,
+ * the requested page size and whether the (more expensive) total count is wanted.
+ * Search also takes a sort key and direction (see SearchSort); null means ascending id.
+ */
+public class PageQuery {
+    private String cursor;
+    private Integer size;
+    private boolean includeTotal;
+    private String sort;
+    private String direction;
+
+    public PageQuery() {}
+
+    public PageQuery(String cursor, Integer size, boolean includeTotal) {
+        this.cursor = cursor;
+        this.size = size;
+        this.includeTotal = includeTotal;
+    }
+
+    public PageQuery(String cursor, Integer size, boolean includeTotal, String sort, String direction) {
+        this(cursor, size, includeTotal);
+        this.sort = sort;
+        this.direction = direction;
+    }
+
+    /** The requested size, or {@code defaultSize} when none was given; rejects sizes outside 1..maxSize. */
+    public int resolveSize(int defaultSize, int maxSize) {
+        return resolveSize(size, defaultSize, maxSize);
+    }
+
+    /** Same rule for listings paged by offset rather than by a PageQuery. */
+    public static int resolveSize(Integer size, int defaultSize, int maxSize) {
+        if (size == null) return defaultSize;
+        if (size < 1 || size > maxSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxSize);
+        }
+        return size;
+    }
+
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+
+    public Integer getSize() { return size; }
+    public void setSize(Integer size) { this.size = size; }
+
+    public boolean isIncludeTotal() { return includeTotal; }
+    public void setIncludeTotal(boolean includeTotal) { this.includeTotal = includeTotal; }
+
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+
+    public String getDirection() { return direction; }
+    public void setDirection(String direction) { this.direction = direction; }
+}
@@ -14,7 +14,7 @@ public class PropertyCriteria {
     private Double maxAreaSqft;
     private Double minAreaSqft;
     private String street;
-    private Boolean status = true;
+    private Boolean status = true; // true = available only, false = taken only, null = any
 
     // Builder pattern
     public static PropertyCriteriaBuilder builder() {
@@ -27,7 +27,12 @@ public class PropertyCriteria {
         private String city;
         private Double minCost;
         private Double maxCost;
-        private Boolean status;
+        private Double minRating;
+        private Integer minReviews;
+        private Double minAreaSqft;
+        private Double maxAreaSqft;
+        private String street;
+        private Boolean status = true;
 
         public PropertyCriteriaBuilder configuration(PropertyConfig configuration) {
             this.configuration = configuration;
@@ -54,6 +59,31 @@ public class PropertyCriteria {
             return this;
         }
 
+        public PropertyCriteriaBuilder minRating(Double minRating) {
+            this.minRating = minRating;
+            return this;
+        }
+
+        public PropertyCriteriaBuilder minReviews(Integer minReviews) {
+            this.minReviews = minReviews;
+            return this;
+        }
+
+        public PropertyCriteriaBuilder minAreaSqft(Double minAreaSqft) {
+            this.minAreaSqft = minAreaSqft;
+            return this;
+        }
+
+        public PropertyCriteriaBuilder maxAreaSqft(Double maxAreaSqft) {
+            this.maxAreaSqft = maxAreaSqft;
+            return this;
+        }
+
+        public PropertyCriteriaBuilder street(String street) {
+            this.street = street;
+            return this;
+        }
+
         public PropertyCriteriaBuilder status(Boolean status) {
             this.status = status;
             return this;
@@ -66,6 +96,11 @@ public class PropertyCriteria {
             criteria.setCity(this.city);
             criteria.setMinCost(this.minCost);
             criteria.setMaxCost(this.maxCost);
+            criteria.setMinRating(this.minRating);
+            criteria.setMinReviews(this.minReviews);
+            criteria.setMinAreaSqft(this.minAreaSqft);
+            criteria.setMaxAreaSqft(this.maxAreaSqft);
+            criteria.setStreet(this.street);
             criteria.setStatus(this.status);
             return criteria;
         }
@@ -2,6 +2,8 @@ package com.realestate.dto;
 
 import com.realestate.enums.OfferType;
 import com.realestate.enums.PropertyConfig;
+import com.realestate.model.Property;
+import java.util.ArrayList;
 import java.util.List;
 
 public class PropertyResponse {
@@ -16,8 +18,10 @@ public class PropertyResponse {
     private String city;
     private Boolean status;
     private List<String> imageUrls;
+    private List<ImageVariants> images; // same images with per-size URLs, when the variant pipeline has run
     private Double avgRating;
     private Integer reviewCount;
+    private Long version;   // send back on PUT for optimistic locking
     private BrokerInfo broker;
 
     // Nested class for broker information
@@ -53,6 +57,47 @@ public class PropertyResponse {
     // Constructors
     public PropertyResponse() {}
 
+    // Constructor projection used by PropertyRepository; imageUrls are filled in a separate batched query
+    public PropertyResponse(Long propId, PropertyConfig configuration, OfferType offerType,
+                            double offerCost, double areaSqft, String address, String street, String city,
+                            boolean status, double avgRating, int reviewCount, Long broId, String broName,
+                            Long version) {
+        this.propId = propId;
+        this.configuration = configuration;
+        this.offerType = offerType;
+        this.offerCost = offerCost;
+        this.areaSqft = areaSqft;
+        this.address = address;
+        this.street = street;
+        this.city = city;
+        this.status = status;
+        this.avgRating = avgRating;
+        this.reviewCount = reviewCount;
+        this.version = version;
+        this.broker = new BrokerInfo(broId, broName);
+        this.imageUrls = new ArrayList<>();
+        this.images = new ArrayList<>();
+    }
+
+    // For write endpoints that already hold the entity
+    public static PropertyResponse from(Property p) {
+        PropertyResponse r = withoutImages(p);
+        r.setImageUrls(new ArrayList<>(p.getImageUrls()));
+        return r;
+    }
+
+    // Scalar fields and broker only; the lazy imageUrls collection is left untouched
+    public static PropertyResponse withoutImages(Property p) {
+        PropertyResponse r = new PropertyResponse(p.getPropId(), p.getConfiguration(), p.getOfferType(),
+                p.getOfferCost(), p.getAreaSqft(), p.getAddress(), p.getStreet(), p.getCity(),
+                p.isStatus(), p.getAvgRating(), p.getReviewCount(),
+                p.getBroker() == null ? null : p.getBroker().getBroId(),
+                p.getBroker() == null ? null : p.getBroker().getBroName(),
+                p.getVersion());
+        if (p.getBroker() == null) r.setBroker(null);
+        return r;
+    }
+
     // Getters and Setters
     public Long getPropId() {
         return propId;
@@ -134,6 +179,14 @@ public class PropertyResponse {
         this.imageUrls = imageUrls;
     }
 
+    public List<ImageVariants> getImages() {
+        return images;
+    }
+
+    public void setImages(List<ImageVariants> images) {
+        this.images = images;
+    }
+
     public Double getAvgRating() {
         return avgRating;
     }
@@ -157,4 +210,12 @@ public class PropertyResponse {
     public void setBroker(BrokerInfo broker) {
         this.broker = broker;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,50 @@
+package com.realestate.dto;
+
+import java.time.Instant;
+
+/**
+ * Version columns of a property and its broker: enough to answer a conditional GET
+ * without loading either entity. Image variants finish in the background without touching the
+ * property version, so their latest update time is part of the validator too.
+ */
+public class ResourceVersion {
+
+    private final Long propId;
+    private final Long version;
+    private final Instant updatedAt;
+    private final Long brokerVersion;
+    private final Instant brokerUpdatedAt;
+    private final Instant imagesUpdatedAt;
+
+    // Used by the JPQL constructor expression in PropertyRepository
+    public ResourceVersion(Long propId, Long version, Instant updatedAt, Long brokerVersion, Instant brokerUpdatedAt,
+                           Instant imagesUpdatedAt) {
+        this.propId = propId;
+        this.version = version;
+        this.updatedAt = updatedAt;
+        this.brokerVersion = brokerVersion;
+        this.brokerUpdatedAt = brokerUpdatedAt;
+        this.imagesUpdatedAt = imagesUpdatedAt;
+    }
+
+    /** Strong ETag for one representation of the property, e.g. "details" or "images". */
+    public String etag(String representation) {
+        String images = imagesUpdatedAt == null ? "" : "-" + imagesUpdatedAt.toEpochMilli();
+        return "\"" + representation + "-" + propId + "-" + version + "-" + brokerVersion + images + "\"";
+    }
+
+    /** Latest change of the property, its broker or its image variants in epoch millis, or -1 when unknown. */
+    public long lastModified() {
+        long p = updatedAt == null ? -1 : updatedAt.toEpochMilli();
+        long b = brokerUpdatedAt == null ? -1 : brokerUpdatedAt.toEpochMilli();
+        long i = imagesUpdatedAt == null ? -1 : imagesUpdatedAt.toEpochMilli();
+        return Math.max(p, Math.max(b, i));
+    }
+
+    public Long getPropId() { return propId; }
+    public Long getVersion() { return version; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public Long getBrokerVersion() { return brokerVersion; }
+    public Instant getBrokerUpdatedAt() { return brokerUpdatedAt; }
+    public Instant getImagesUpdatedAt() { return imagesUpdatedAt; }
+}
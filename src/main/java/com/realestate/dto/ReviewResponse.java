@@ -0,0 +1,41 @@
+package com.realestate.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a comment or rating feed: the author's display name and what they wrote, nothing else.
+ * {@code rating} is null for a property comment posted without stars.
+ */
+public class ReviewResponse {
+
+    private Long id;
+    private String author;
+    private Integer rating;
+    private String text;
+    private LocalDateTime createdAt;
+
+    public ReviewResponse() {}
+
+    public ReviewResponse(Long id, String author, Integer rating, String text, LocalDateTime createdAt) {
+        this.id = id;
+        this.author = author;
+        this.rating = rating;
+        this.text = text;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+
+    public Integer getRating() { return rating; }
+    public void setRating(Integer rating) { this.rating = rating; }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,50 @@
+package com.realestate.dto;
+
+import java.time.Instant;
+
+/**
+ * Progress of rebuilding the deal rollups from the deals table (the rebuild in progress, or the last one),
+ * served by /api/analytics/deals/rebuild.
+ */
+public class RollupRebuildReport {
+
+    private boolean running;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long deals;
+    private long recentDeals;
+    private long buckets;
+    private long chunks;
+    private long elapsedMs;
+    private String lastError;
+
+    public RollupRebuildReport() {}
+
+    public boolean isRunning() { return running; }
+    public void setRunning(boolean running) { this.running = running; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public long getDeals() { return deals; }
+    public void setDeals(long deals) { this.deals = deals; }
+
+    // dated on or after the cutoff, re-read at the end while no deal was in flight
+    public long getRecentDeals() { return recentDeals; }
+    public void setRecentDeals(long recentDeals) { this.recentDeals = recentDeals; }
+
+    public long getBuckets() { return buckets; }
+    public void setBuckets(long buckets) { this.buckets = buckets; }
+
+    public long getChunks() { return chunks; }
+    public void setChunks(long chunks) { this.chunks = chunks; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
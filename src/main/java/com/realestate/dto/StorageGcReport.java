@@ -0,0 +1,68 @@
+package com.realestate.dto;
+
+import java.time.Instant;
+
+/**
+ * Progress of the upload garbage collector (the run in progress, or the last one), served by /api/storage/gc.
+ */
+public class StorageGcReport {
+
+    private boolean running;
+    private String phase;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long filesScanned;
+    private long bytesScanned;
+    private long quarantined;
+    private long bytesQuarantined;
+    private long restored;
+    private long purged;
+    private long bytesReclaimed;
+    private long referencesReconciled;
+    private long errors;
+    private String lastError;
+
+    public StorageGcReport() {}
+
+    public boolean isRunning() { return running; }
+    public void setRunning(boolean running) { this.running = running; }
+
+    public String getPhase() { return phase; }
+    public void setPhase(String phase) { this.phase = phase; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public long getFilesScanned() { return filesScanned; }
+    public void setFilesScanned(long filesScanned) { this.filesScanned = filesScanned; }
+
+    public long getBytesScanned() { return bytesScanned; }
+    public void setBytesScanned(long bytesScanned) { this.bytesScanned = bytesScanned; }
+
+    public long getQuarantined() { return quarantined; }
+    public void setQuarantined(long quarantined) { this.quarantined = quarantined; }
+
+    public long getBytesQuarantined() { return bytesQuarantined; }
+    public void setBytesQuarantined(long bytesQuarantined) { this.bytesQuarantined = bytesQuarantined; }
+
+    public long getRestored() { return restored; }
+    public void setRestored(long restored) { this.restored = restored; }
+
+    public long getPurged() { return purged; }
+    public void setPurged(long purged) { this.purged = purged; }
+
+    public long getBytesReclaimed() { return bytesReclaimed; }
+    public void setBytesReclaimed(long bytesReclaimed) { this.bytesReclaimed = bytesReclaimed; }
+
+    public long getReferencesReconciled() { return referencesReconciled; }
+    public void setReferencesReconciled(long referencesReconciled) { this.referencesReconciled = referencesReconciled; }
+
+    public long getErrors() { return errors; }
+    public void setErrors(long errors) { this.errors = errors; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
@@ -0,0 +1,8 @@
+package com.realestate.enums;
+
+/** Lifecycle of the resized copies of an uploaded image. */
+public enum ImageVariantStatus {
+    PENDING,  // queued or being resized; clients fall back to the original
+    READY,
+    FAILED    // undecodable or oversized source; the original is still served
+}
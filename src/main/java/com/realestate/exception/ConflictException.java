@@ -0,0 +1,6 @@
+package com.realestate.exception;
+
+/** The request lost a race for a resource someone else has already taken (mapped to 409). */
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) { super(message); }
+}
@@ -0,0 +1,82 @@
+package com.realestate.media;
+
+import java.awt.geom.AffineTransform;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reads the EXIF Orientation tag (0x0112) of a JPEG and maps it to the transform that makes the
+ * pixels upright. ImageIO ignores the tag, so phone photos would otherwise come out sideways.
+ */
+public final class ExifOrientation {
+
+    public static final int NORMAL = 1;
+
+    private static final int TAG_ORIENTATION = 0x0112;
+
+    private ExifOrientation() {}
+
+    /** Orientation 1..8, or {@link #NORMAL} when the stream is not a JPEG or carries no tag. */
+    public static int read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readUnsignedShort() != 0xFFD8) return NORMAL; // not a JPEG
+        while (true) {
+            int marker = data.readUnsignedShort();
+            if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) return NORMAL; // image data reached
+            int length = data.readUnsignedShort() - 2;
+            if (length < 0) return NORMAL;
+            if (marker != 0xFFE1) {
+                data.skipNBytes(length);
+                continue;
+            }
+            byte[] segment = new byte[length];
+            data.readFully(segment);
+            int orientation = fromApp1(segment);
+            if (orientation != 0) return orientation;
+        }
+    }
+
+    // APP1 = "Exif\0\0" + TIFF header + IFD0; only IFD0 is needed for the orientation tag
+    private static int fromApp1(byte[] segment) {
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') return 0;
+        ByteBuffer tiff = ByteBuffer.wrap(segment, 6, segment.length - 6).slice();
+        if (tiff.get(0) == 'I' && tiff.get(1) == 'I') tiff.order(ByteOrder.LITTLE_ENDIAN);
+        else if (tiff.get(0) == 'M' && tiff.get(1) == 'M') tiff.order(ByteOrder.BIG_ENDIAN);
+        else return 0;
+
+        int ifd = tiff.getInt(4);
+        if (ifd < 8 || ifd + 2 > tiff.limit()) return 0;
+        int entries = tiff.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) return 0;
+            if ((tiff.getShort(entry) & 0xFFFF) == TAG_ORIENTATION) {
+                int value = tiff.getShort(entry + 8) & 0xFFFF;
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    /** True when the upright image has width and height swapped. */
+    public static boolean swapsAxes(int orientation) {
+        return orientation >= 5;
+    }
+
+    /** Maps stored pixel coordinates (width w, height h) to upright coordinates. */
+    public static AffineTransform transform(int orientation, int w, int h) {
+        return switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);   // mirror horizontally
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);  // rotate 180
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);   // mirror vertically
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);    // transpose
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);   // rotate 90 clockwise
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);  // transverse
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);   // rotate 90 counter-clockwise
+            default -> new AffineTransform();
+        };
+    }
+}
@@ -0,0 +1,192 @@
+package com.realestate.media;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+/**
+ * Decode / orient / downscale / re-encode helpers for the image pipeline.
+ * Re-encoding from raw pixels is what strips EXIF, GPS and other metadata from the variants.
+ */
+public final class ImageResizer {
+
+    private ImageResizer() {}
+
+    /**
+     * Decodes {@code file} and applies its EXIF orientation. The dimensions are checked from the header
+     * before any pixels are decoded, so an oversized (or decompression-bomb) upload is rejected cheaply.
+     */
+    public static BufferedImage decodeUpright(Path file, long maxPixels) throws IOException {
+        BufferedImage raw;
+        String format;
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) throw new IOException("Cannot read " + file.getFileName());
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) throw new IOException("Unsupported image format");
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IOException("Image too large: " + reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+                format = reader.getFormatName();
+                raw = reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        int orientation = ExifOrientation.NORMAL;
+        if ("jpeg".equalsIgnoreCase(format)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                orientation = ExifOrientation.read(in);
+            } catch (IOException ignored) {
+                // malformed EXIF: keep the stored orientation
+            }
+        }
+        return upright(raw, orientation);
+    }
+
+    // Also normalizes the pixel format (indexed, gray, 3-byte BGR...) to INT RGB/ARGB for fast scaling
+    private static BufferedImage upright(BufferedImage src, int orientation) {
+        int w = src.getWidth(), h = src.getHeight();
+        boolean swap = ExifOrientation.swapsAxes(orientation);
+        BufferedImage out = new BufferedImage(swap ? h : w, swap ? w : h, typeFor(src));
+        Graphics2D g = out.createGraphics();
+        try {
+            g.drawImage(src, ExifOrientation.transform(orientation, w, h), null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    /**
+     * Shrinks {@code src} so its longer edge is at most {@code maxEdge}; never upscales.
+     * Large reductions halve repeatedly before the final bilinear step, which avoids the aliasing
+     * of a single large bilinear jump at a fraction of the cost of area averaging.
+     */
+    public static BufferedImage scaleToFit(BufferedImage src, int maxEdge) {
+        return scaleToBox(src, maxEdge, maxEdge);
+    }
+
+    /** Shrinks {@code src} to fit inside {@code maxW} x {@code maxH} (0 = unbounded), keeping its aspect; never upscales. */
+    public static BufferedImage scaleToBox(BufferedImage src, int maxW, int maxH) {
+        int w = src.getWidth(), h = src.getHeight();
+        double scale = Math.min(maxW > 0 ? (double) maxW / w : 1d, maxH > 0 ? (double) maxH / h : 1d);
+        if (scale >= 1d) return src;
+        return scaleTo(src, Math.max(1, (int) Math.round(w * scale)), Math.max(1, (int) Math.round(h * scale)));
+    }
+
+    /**
+     * Scales {@code src} to cover {@code width} x {@code height} and crops the centre to that box. Never upscales:
+     * a smaller source is only cropped to the box's aspect ratio.
+     */
+    public static BufferedImage cover(BufferedImage src, int width, int height) {
+        int w = src.getWidth(), h = src.getHeight();
+        double scale = Math.min(1d, Math.max((double) width / w, (double) height / h));
+        int boxW = Math.min(w, (int) Math.round(width / scale));
+        int boxH = Math.min(h, (int) Math.round(height / scale));
+        if (boxW * height > boxH * width) {
+            boxW = Math.max(1, (int) Math.round((double) boxH * width / height));  // keep the box's aspect
+        } else {
+            boxH = Math.max(1, (int) Math.round((double) boxW * height / width));
+        }
+        BufferedImage cropped = src.getSubimage((w - boxW) / 2, (h - boxH) / 2, boxW, boxH);
+        return scaleTo(cropped, Math.max(1, (int) Math.round(boxW * scale)), Math.max(1, (int) Math.round(boxH * scale)));
+    }
+
+    // Large reductions halve first; the last step is one bilinear draw to the exact size
+    private static BufferedImage scaleTo(BufferedImage src, int targetW, int targetH) {
+        BufferedImage current = src;
+        while (current.getWidth() / 2 >= targetW && current.getHeight() / 2 >= targetH) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return current.getWidth() == targetW && current.getHeight() == targetH ? current : draw(current, targetW, targetH);
+    }
+
+    private static BufferedImage draw(BufferedImage src, int w, int h) {
+        BufferedImage out = new BufferedImage(w, h, typeFor(src));
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(src, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    /** "png" for images with transparency, otherwise "jpg". */
+    public static String extensionFor(BufferedImage img) {
+        return img.getColorModel().hasAlpha() ? "png" : "jpg";
+    }
+
+    /** Encodes to {@code target} via a temp file + atomic rename, so readers never see a partial file. */
+    public static void write(BufferedImage img, Path target, float jpegQuality) throws IOException {
+        write(img, target, extensionFor(img), jpegQuality);
+    }
+
+    /** As {@link #write(BufferedImage, Path, float)}, in an explicit format ("jpg" or "png"). */
+    public static void write(BufferedImage img, Path target, String format, float jpegQuality) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+        try {
+            if ("png".equals(format)) {
+                if (!ImageIO.write(img, "png", tmp.toFile())) throw new IOException("No PNG writer");
+            } else {
+                writeJpeg(img.getColorModel().hasAlpha() ? flatten(img) : img, tmp, jpegQuality);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void writeJpeg(BufferedImage img, Path target, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(img, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // JPEG has no alpha: composite onto white
+    private static BufferedImage flatten(BufferedImage src) {
+        BufferedImage out = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, src.getWidth(), src.getHeight());
+            g.drawImage(src, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static int typeFor(BufferedImage src) {
+        return src.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+    }
+}
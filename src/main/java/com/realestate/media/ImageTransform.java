@@ -0,0 +1,113 @@
+package com.realestate.media;
+
+import java.awt.image.BufferedImage;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resize request carried on a /files/ URL: {@code ?w=480&h=320&fit=cover&q=80&fm=jpg}.
+ * Every parameter is bounded, so the number of distinct renders of one image stays small.
+ */
+public final class ImageTransform {
+
+    public enum Fit { CONTAIN, COVER }
+
+    public static final int MIN_QUALITY = 30;
+    public static final int MAX_QUALITY = 95;
+    public static final int DEFAULT_QUALITY = 82;
+
+    private final int width;     // 0 = unbounded
+    private final int height;
+    private final Fit fit;
+    private final int quality;
+    private final String format; // "jpg" or "png"
+
+    private ImageTransform(int width, int height, Fit fit, int quality, String format) {
+        this.width = width;
+        this.height = height;
+        this.fit = fit;
+        this.quality = quality;
+        this.format = format;
+    }
+
+    /**
+     * Reads the transform parameters of a request, or returns null when it has none.
+     * @param originalExt extension of the stored original; decides the output format unless {@code fm} is given
+     * @throws IllegalArgumentException for out-of-range or unknown values
+     */
+    public static ImageTransform parse(Map<String, String[]> params, String originalExt, int maxDimension) {
+        String w = first(params, "w"), h = first(params, "h"), fit = first(params, "fit");
+        String q = first(params, "q"), fm = first(params, "fm");
+        if (w == null && h == null && fit == null && q == null && fm == null) return null;
+
+        int width = dimension("w", w, maxDimension);
+        int height = dimension("h", h, maxDimension);
+        if (width == 0 && height == 0) throw new IllegalArgumentException("A transform needs w and/or h.");
+
+        Fit mode = Fit.CONTAIN;
+        if (fit != null) {
+            try {
+                mode = Fit.valueOf(fit.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("fit must be contain or cover: " + fit);
+            }
+        }
+        if (mode == Fit.COVER && (width == 0 || height == 0)) {
+            throw new IllegalArgumentException("fit=cover needs both w and h.");
+        }
+
+        int quality = q == null ? DEFAULT_QUALITY : number("q", q);
+        if (quality < MIN_QUALITY || quality > MAX_QUALITY) {
+            throw new IllegalArgumentException("q must be between " + MIN_QUALITY + " and " + MAX_QUALITY + ": " + q);
+        }
+
+        String format = fm == null ? defaultFormat(originalExt) : fm.toLowerCase(Locale.ROOT);
+        if ("jpeg".equals(format)) format = "jpg";
+        if (!"jpg".equals(format) && !"png".equals(format)) {
+            throw new IllegalArgumentException("fm must be jpg or png: " + fm);
+        }
+        return new ImageTransform(width, height, mode, quality, format);
+    }
+
+    public BufferedImage apply(BufferedImage upright) {
+        return fit == Fit.COVER
+                ? ImageResizer.cover(upright, width, height)
+                : ImageResizer.scaleToBox(upright, width, height);
+    }
+
+    /** Canonical form, part of the render's cache key. */
+    public String canonical() {
+        return "w" + width + "-h" + height + "-" + fit.name().toLowerCase(Locale.ROOT) + "-q" + quality + "." + format;
+    }
+
+    public int width() { return width; }
+    public int height() { return height; }
+    public Fit fit() { return fit; }
+    public int quality() { return quality; }
+    public String format() { return format; }
+
+    // Originals that may carry transparency stay PNG
+    private static String defaultFormat(String originalExt) {
+        return "png".equals(originalExt) || "gif".equals(originalExt) ? "png" : "jpg";
+    }
+
+    private static int dimension(String name, String value, int max) {
+        if (value == null) return 0;
+        int n = number(name, value);
+        if (n < 1 || n > max) throw new IllegalArgumentException(name + " must be between 1 and " + max + ": " + value);
+        return n;
+    }
+
+    private static int number(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number: " + value);
+        }
+    }
+
+    private static String first(Map<String, String[]> params, String name) {
+        String[] values = params.get(name);
+        return values == null || values.length == 0 ? null : values[0];
+    }
+}
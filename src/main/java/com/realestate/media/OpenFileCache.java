@@ -0,0 +1,128 @@
+package com.realestate.media;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small LRU of read-only FileChannels for /files/** so hot images (thumbs, cards) skip open/close per hit.
+ * Reads are positional ({@code transferTo(position, ...)}), so one channel serves concurrent requests.
+ * Every {@link #acquire} re-stats the file, so a deleted or rewritten file is reported missing or reopened,
+ * never served stale. Evicted channels are closed once their last in-flight request releases them.
+ */
+@Component
+public class OpenFileCache {
+
+    /** An open file plus the attributes its validators are computed from. */
+    public static final class Handle {
+        private final FileChannel channel;
+        private final long size;
+        private final long lastModified;
+        private int users;        // guarded by the cache
+        private boolean retired;  // evicted; close when users drops to 0
+
+        Handle(FileChannel channel, long size, long lastModified) {
+            this.channel = channel;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public FileChannel channel() { return channel; }
+        public long size() { return size; }
+        public long lastModified() { return lastModified; }
+    }
+
+    @Value("${app.files.open-handles:256}")
+    private int maxHandles;
+
+    private final LinkedHashMap<Path, Handle> handles = new LinkedHashMap<>(64, 0.75f, true);
+
+    /**
+     * @return an open handle for {@code file} that the caller must {@link #release}, or null when the file
+     * does not exist or is not a regular file
+     */
+    public Handle acquire(Path file) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            evict(file);
+            return null;
+        }
+        if (!attrs.isRegularFile()) return null;
+        long modified = attrs.lastModifiedTime().toMillis();
+
+        synchronized (this) {
+            Handle h = handles.get(file);
+            if (h != null && h.size == attrs.size() && h.lastModified == modified) {
+                h.users++;
+                return h;
+            }
+            if (h != null) retire(handles.remove(file));
+        }
+
+        Handle fresh = new Handle(FileChannel.open(file, StandardOpenOption.READ), attrs.size(), modified);
+        synchronized (this) {
+            Handle raced = handles.get(file);
+            if (raced != null && raced.size == fresh.size && raced.lastModified == fresh.lastModified) {
+                closeQuietly(fresh);
+                raced.users++;
+                return raced;
+            }
+            if (raced != null) retire(handles.remove(file));
+            fresh.users = 1;
+            handles.put(file, fresh);
+            Iterator<Map.Entry<Path, Handle>> eldest = handles.entrySet().iterator();
+            while (handles.size() > maxHandles && eldest.hasNext()) {
+                Handle old = eldest.next().getValue();
+                eldest.remove();
+                retire(old);
+            }
+            return fresh;
+        }
+    }
+
+    public synchronized void release(Handle h) {
+        h.users--;
+        if (h.retired && h.users == 0) closeQuietly(h);
+    }
+
+    public synchronized void evict(Path file) {
+        Handle h = handles.remove(file);
+        if (h != null) retire(h);
+    }
+
+    public synchronized int size() {
+        return handles.size();
+    }
+
+    @PreDestroy
+    public synchronized void closeAll() {
+        handles.values().forEach(this::retire);
+        handles.clear();
+    }
+
+    private void retire(Handle h) {
+        h.retired = true;
+        if (h.users == 0) closeQuietly(h);
+    }
+
+    private static void closeQuietly(Handle h) {
+        try {
+            h.channel.close();
+        } catch (IOException ignored) {
+            // read-only channel: nothing to flush
+        }
+    }
+}
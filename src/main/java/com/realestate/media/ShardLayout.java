@@ -0,0 +1,53 @@
+package com.realestate.media;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Hashed fan-out for upload paths: {@code levels} directories of two hex characters each, taken from the
+ * front of a hex key ({@code 3f/a2/name} for two levels). With 256 entries per level, two levels keep
+ * millions of files at a few dozen per directory. Content-addressed files use their SHA-256 as the key;
+ * other names use the SHA-256 of the name, so their directory is fixed by the name alone.
+ */
+public final class ShardLayout {
+
+    public static final int MAX_LEVELS = 4;
+
+    private final int levels;
+
+    public ShardLayout(int levels) {
+        if (levels < 0 || levels > MAX_LEVELS) {
+            throw new IllegalArgumentException("shard levels must be between 0 and " + MAX_LEVELS + ": " + levels);
+        }
+        this.levels = levels;
+    }
+
+    public int levels() {
+        return levels;
+    }
+
+    /** {@code fileName} under the directories named by the first {@code 2 * levels} hex chars of {@code hexKey}. */
+    public String path(String hexKey, String fileName) {
+        StringBuilder sb = new StringBuilder(levels * 3 + fileName.length());
+        for (int i = 0; i < levels; i++) {
+            sb.append(hexKey, i * 2, i * 2 + 2).append('/');
+        }
+        return sb.append(fileName).toString();
+    }
+
+    /** Sharded path of a name that is not itself a content hash. */
+    public String pathForName(String fileName) {
+        return path(hashName(fileName), fileName);
+    }
+
+    private static String hashName(String fileName) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fileName.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, MAX_LEVELS);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
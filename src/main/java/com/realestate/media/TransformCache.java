@@ -0,0 +1,175 @@
+package com.realestate.media;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Rendered image transforms on disk under {@code <upload-dir>/.cache}, kept in least-recently-used order
+ * within a byte budget; the least recently served renders are deleted first. Concurrent requests for the
+ * same render are coalesced: one renders, the others wait for its file. Rendering itself is bounded by a
+ * few permits, so a burst of cold images cannot take every request thread's CPU and heap at once.
+ * The index is rebuilt from the directory (oldest first) on start.
+ */
+@Component
+public class TransformCache {
+
+    /** Writes one render to {@code target} (atomically: readers must never see a partial file). */
+    @FunctionalInterface
+    public interface Renderer {
+        void render(Path target) throws IOException;
+    }
+
+    @Value("${app.upload-dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.images.transform.cache-max-bytes:536870912}")
+    private long maxBytes;
+
+    @Value("${app.images.transform.max-concurrent-renders:2}")
+    private int maxConcurrentRenders;
+
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true); // name -> bytes
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private Semaphore renderPermits;
+    private Path dir;
+    private long bytes;
+    private long hits;
+    private long renders;
+    private long coalesced;
+    private long evictions;
+
+    @PostConstruct
+    void load() throws IOException {
+        renderPermits = new Semaphore(maxConcurrentRenders);
+        dir = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(".cache");
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> s = Files.list(dir)) {
+            files = new ArrayList<>(s.filter(p -> !p.getFileName().toString().startsWith(".")).toList());
+        }
+        files.sort(Comparator.comparing(TransformCache::modified));
+        synchronized (this) {
+            for (Path f : files) admit(f.getFileName().toString(), Files.size(f));
+        }
+    }
+
+    /**
+     * The cached render called {@code name}, rendering it first on a miss.
+     * @param name unique per original and transform, including the extension
+     */
+    public Path get(String name, Renderer renderer) throws IOException {
+        Path file = dir.resolve(name);
+        if (cached(name, file)) return file;
+
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(name, mine);
+        if (running != null) {
+            synchronized (this) {
+                coalesced++;
+            }
+            return await(running);
+        }
+        try {
+            if (!cached(name, file)) render(name, file, renderer);
+            mine.complete(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(name, mine);
+        }
+    }
+
+    public synchronized long sizeBytes() { return bytes; }
+    public synchronized int entries() { return entries.size(); }
+    public synchronized long hits() { return hits; }
+    public synchronized long renders() { return renders; }
+    public synchronized long coalesced() { return coalesced; }
+    public synchronized long evictions() { return evictions; }
+
+    private synchronized boolean cached(String name, Path file) {
+        if (entries.get(name) == null) return false;
+        if (Files.exists(file)) {
+            hits++;
+            return true;
+        }
+        bytes -= entries.remove(name); // deleted behind our back
+        return false;
+    }
+
+    private void render(String name, Path file, Renderer renderer) throws IOException {
+        try {
+            renderPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to render " + name);
+        }
+        try {
+            renderer.render(file);
+        } finally {
+            renderPermits.release();
+        }
+        long size = Files.size(file);
+        synchronized (this) {
+            renders++;
+            admit(name, size);
+        }
+    }
+
+    // Adds (or re-sizes) an entry, then evicts least recently used ones beyond the budget; never the new one
+    private void admit(String name, long size) {
+        Long previous = entries.put(name, size);
+        bytes += size - (previous == null ? 0 : previous);
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> e = eldest.next();
+            if (e.getKey().equals(name)) continue;
+            eldest.remove();
+            bytes -= e.getValue();
+            evictions++;
+            try {
+                Files.deleteIfExists(dir.resolve(e.getKey())); // open channels keep reading the unlinked file
+            } catch (IOException ignored) {
+                // an orphan in .cache is re-admitted on the next start
+            }
+        }
+    }
+
+    private static Path await(CompletableFuture<Path> running) throws IOException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private static long modified(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.realestate.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,15 +25,36 @@ public class Broker {
     @JsonIgnore
     private List<Property> properties = new ArrayList<>();
 
+    // Rating stats are written only by BrokerRepository.addRating (one atomic UPDATE per rating);
+    // entity saves such as editBroker never write them, so they cannot clobber concurrent ratings.
+    @Column(updatable = false)
     private double avgRating = 0.0;
+
+    @Column(updatable = false)
     private int ratingCount = 0;
 
+    @JsonIgnore
+    @Column(updatable = false)
+    private Long ratingSum = 0L;
+
     @OneToMany(mappedBy = "broker", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
     private List<BrokerRating> ratings = new ArrayList<>();
 
+    // Broker name is part of every property response, so it feeds the property ETags too
+    @Version
+    private Long version;
+
+    private Instant updatedAt;
+
     public Broker() {}
 
+    @PrePersist
+    @PreUpdate
+    void beforeWrite() {
+        updatedAt = Instant.now();
+    }
+
     public Long getBroId() { return broId; }
     public void setBroId(Long broId) { this.broId = broId; }
 
@@ -51,6 +73,13 @@ public class Broker {
     public int getRatingCount() { return ratingCount; }
     public void setRatingCount(int ratingCount) { this.ratingCount = ratingCount; }
 
+    public Long getRatingSum() { return ratingSum; }
+
     public List<BrokerRating> getRatings() { return ratings; }
     public void setRatings(List<BrokerRating> ratings) { this.ratings = ratings; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
 }
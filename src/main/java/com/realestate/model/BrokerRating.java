@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "broker_ratings")
+@Table(name = "broker_ratings", indexes = {
+        // newest-first feed per broker (BrokerRatingRepository.findFeed*)
+        @Index(name = "idx_rating_broker_created", columnList = "broker_id, created_at")
+})
 public class BrokerRating {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,8 +1,8 @@
 package com.realestate.model;
 
 import jakarta.persistence.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @Entity
 @Table(name = "customers")
@@ -20,13 +20,15 @@ public class Customer {
     private User user;
 
 
+    // Favorited and bought/rented listings. A set, so the join table is keyed (cust_id, prop_id);
+    // single entries are added and removed with CustomerRepository's join-table queries.
     @ManyToMany
     @JoinTable(
             name = "customer_properties",
             joinColumns = @JoinColumn(name = "cust_id"),
             inverseJoinColumns = @JoinColumn(name = "prop_id")
     )
-    private List<Property> properties = new ArrayList<>();
+    private Set<Property> properties = new LinkedHashSet<>();
 
     public Customer() {}
 
@@ -39,6 +41,6 @@ public class Customer {
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
 
-    public List<Property> getProperties() { return properties; }
-    public void setProperties(List<Property> properties) { this.properties = properties; }
+    public Set<Property> getProperties() { return properties; }
+    public void setProperties(Set<Property> properties) { this.properties = properties; }
 }
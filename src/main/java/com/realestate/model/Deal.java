@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "deals")
+@Table(name = "deals", indexes = {
+        // paged, date-filtered history per customer and overall (DealRepository.find*Page)
+        @Index(name = "idx_deal_customer_date", columnList = "customer_id, deal_date"),
+        @Index(name = "idx_deal_date", columnList = "deal_date")
+})
 public class Deal {
 
     @Id
@@ -0,0 +1,86 @@
+package com.realestate.model;
+
+import com.realestate.analytics.DealDimension;
+import com.realestate.analytics.PriceSketch;
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Deals of one day for one city, configuration, offer type or broker: count, GMV, price range and a
+ * price sketch for percentiles. Written alongside every deal and rebuildable from the deals table.
+ */
+@Entity
+@Table(name = "deal_rollups", uniqueConstraints = @UniqueConstraint(name = "uk_rollup_bucket",
+        columnNames = {"dimension", "deal_day", "dim_key"}))
+public class DealRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private DealDimension dimension;
+
+    @Column(name = "deal_day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "dim_key", nullable = false, length = 100)
+    private String key;
+
+    @Column(length = 200)
+    private String label;
+
+    private long dealCount;
+    private double gmv;
+    private double minCost;
+    private double maxCost;
+
+    @Column(length = 16384)
+    private byte[] sketch;
+
+    public DealRollup() {}
+
+    public DealRollup(DealDimension dimension, LocalDate day, String key) {
+        this.dimension = dimension;
+        this.day = day;
+        this.key = key;
+    }
+
+    public void add(double cost, String label) {
+        PriceSketch prices = PriceSketch.fromBytes(sketch);
+        prices.add(cost);
+        sketch = prices.toBytes();
+        minCost = dealCount == 0 ? cost : Math.min(minCost, cost);
+        maxCost = dealCount == 0 ? cost : Math.max(maxCost, cost);
+        dealCount++;
+        gmv += cost;
+        if (label != null) this.label = label;
+    }
+
+    // Combines partial rollups of the same bucket (rebuild chunks); sketches merge exactly
+    public void merge(DealRollup other) {
+        if (other.dealCount == 0) return;
+        sketch = PriceSketch.fromBytes(sketch).merge(PriceSketch.fromBytes(other.sketch)).toBytes();
+        minCost = dealCount == 0 ? other.minCost : Math.min(minCost, other.minCost);
+        maxCost = dealCount == 0 ? other.maxCost : Math.max(maxCost, other.maxCost);
+        dealCount += other.dealCount;
+        gmv += other.gmv;
+        if (other.label != null) label = other.label;
+    }
+
+    public Long getId() { return id; }
+
+    public DealDimension getDimension() { return dimension; }
+    public LocalDate getDay() { return day; }
+    public String getKey() { return key; }
+
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+
+    public long getDealCount() { return dealCount; }
+    public double getGmv() { return gmv; }
+    public double getMinCost() { return minCost; }
+    public double getMaxCost() { return maxCost; }
+    public byte[] getSketch() { return sketch; }
+}
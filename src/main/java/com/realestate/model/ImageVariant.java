@@ -0,0 +1,74 @@
+package com.realestate.model;
+
+import com.realestate.enums.ImageVariantStatus;
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Resized copies of one uploaded image, keyed by the original's public URL
+ * (the value stored in Property.imageUrls). Written by the background image pipeline.
+ */
+@Entity
+@Table(name = "image_variants", indexes = {
+        @Index(name = "idx_variant_prop", columnList = "prop_id"),
+        @Index(name = "idx_variant_status", columnList = "status")
+})
+public class ImageVariant {
+
+    @Id
+    @Column(name = "original_url", length = 512)
+    private String originalUrl;
+
+    @Column(name = "prop_id", nullable = false)
+    private Long propId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ImageVariantStatus status = ImageVariantStatus.PENDING;
+
+    @Column(length = 512) private String thumbUrl;
+    @Column(length = 512) private String cardUrl;
+    @Column(length = 512) private String fullUrl;
+
+    private Integer width;   // of the oriented original
+    private Integer height;
+    private String error;
+    private Instant updatedAt = Instant.now();
+
+    public ImageVariant() {}
+
+    public ImageVariant(String originalUrl, Long propId) {
+        this.originalUrl = originalUrl;
+        this.propId = propId;
+    }
+
+    public String getOriginalUrl() { return originalUrl; }
+    public void setOriginalUrl(String originalUrl) { this.originalUrl = originalUrl; }
+
+    public Long getPropId() { return propId; }
+    public void setPropId(Long propId) { this.propId = propId; }
+
+    public ImageVariantStatus getStatus() { return status; }
+    public void setStatus(ImageVariantStatus status) { this.status = status; }
+
+    public String getThumbUrl() { return thumbUrl; }
+    public void setThumbUrl(String thumbUrl) { this.thumbUrl = thumbUrl; }
+
+    public String getCardUrl() { return cardUrl; }
+    public void setCardUrl(String cardUrl) { this.cardUrl = cardUrl; }
+
+    public String getFullUrl() { return fullUrl; }
+    public void setFullUrl(String fullUrl) { this.fullUrl = fullUrl; }
+
+    public Integer getWidth() { return width; }
+    public void setWidth(Integer width) { this.width = width; }
+
+    public Integer getHeight() { return height; }
+    public void setHeight(Integer height) { this.height = height; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,35 @@
+package com.realestate.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/** Maps a pre-migration flat upload name (prop-1-uuid.jpg) to the content-addressed blob that replaced it. */
+@Entity
+@Table(name = "legacy_file_aliases")
+public class LegacyFileAlias {
+
+    @Id
+    @Column(length = 255)
+    private String legacyName;
+
+    @Column(nullable = false, length = 160)
+    private String blobPath;
+
+    private Instant migratedAt = Instant.now();
+
+    public LegacyFileAlias() {}
+
+    public LegacyFileAlias(String legacyName, String blobPath) {
+        this.legacyName = legacyName;
+        this.blobPath = blobPath;
+    }
+
+    public String getLegacyName() { return legacyName; }
+    public void setLegacyName(String legacyName) { this.legacyName = legacyName; }
+
+    public String getBlobPath() { return blobPath; }
+    public void setBlobPath(String blobPath) { this.blobPath = blobPath; }
+
+    public Instant getMigratedAt() { return migratedAt; }
+    public void setMigratedAt(Instant migratedAt) { this.migratedAt = migratedAt; }
+}
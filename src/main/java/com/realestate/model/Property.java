@@ -3,17 +3,37 @@ package com.realestate.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.realestate.enums.OfferType;
 import com.realestate.enums.PropertyConfig;
+import com.realestate.search.SearchSort;
 import jakarta.persistence.*;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 
+// Composite indexes for the search hot path; every one leads with status (available-only by default).
 @Entity
-@Table(name = "properties")
+@Table(name = "properties", indexes = {
+        @Index(name = "idx_prop_status_city", columnList = "status, city_key, configuration, offer_type, offer_cost"),
+        @Index(name = "idx_prop_status_config", columnList = "status, configuration, offer_type, offer_cost"),
+        @Index(name = "idx_prop_status_offer", columnList = "status, offer_type, offer_cost"),
+        @Index(name = "idx_prop_status_cost", columnList = "status, offer_cost"),
+        @Index(name = "idx_prop_status_area", columnList = "status, area_sqft"),
+        @Index(name = "idx_prop_status_rating", columnList = "status, avg_rating"),
+        @Index(name = "idx_prop_status_reviews", columnList = "status, review_count"),
+        @Index(name = "idx_prop_status_ppsf", columnList = "status, price_per_sqft"),
+        @Index(name = "idx_prop_street", columnList = "street_key, status"),
+        @Index(name = "idx_prop_broker", columnList = "broker_id, status")
+})
 public class Property {
 
+    /** Ids handed out per property_seq call; see DataSeeder.alignPropertySequence. */
+    public static final int ID_ALLOCATION = 50;
+
+    // Pooled sequence instead of IDENTITY so inserts can be JDBC-batched (one sequence call per 50 rows)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "property_seq")
+    @SequenceGenerator(name = "property_seq", sequenceName = "property_seq", allocationSize = ID_ALLOCATION)
     private Long propId;
 
     @Enumerated(EnumType.STRING)
@@ -31,6 +51,20 @@ public class Property {
     private String street;
     private String city;
 
+    // Lower-cased copies of city/street so case-insensitive filters can use an index
+    @JsonIgnore
+    @Column(name = "city_key")
+    private String cityKey;
+
+    @JsonIgnore
+    @Column(name = "street_key")
+    private String streetKey;
+
+    // Derived offerCost / areaSqft, stored so price-per-sqft ordering can walk an index
+    @JsonIgnore
+    @Column(name = "price_per_sqft")
+    private Double pricePerSqft;
+
     /** true => available; false => taken */
     private boolean status = true;
 
@@ -39,7 +73,8 @@ public class Property {
     private Broker broker;
 
     @ElementCollection
-    @CollectionTable(name = "property_images", joinColumns = @JoinColumn(name = "prop_id"))
+    @CollectionTable(name = "property_images", joinColumns = @JoinColumn(name = "prop_id"),
+            indexes = @Index(name = "idx_prop_images_url", columnList = "image_url"))
     @Column(name = "image_url", nullable = false)
     private List<String> imageUrls = new ArrayList<>();
 
@@ -47,11 +82,31 @@ public class Property {
     // @JsonIgnore
     // private List<PropertyComment> comments = new ArrayList<>();
 
+    // reviewCount counts rated comments only; avgRating = ratingSum / reviewCount.
+    // All three move together in one UPDATE (PropertyRepository.addRating), never via save().
     private double avgRating;
     private int reviewCount;
 
+    @JsonIgnore
+    private Long ratingSum = 0L;
+
+    // Optimistic lock and ETag source; bumped on every update, including image list changes
+    @Version
+    private Long version;
+
+    private Instant updatedAt;
+
     public Property() {}
 
+    @PrePersist
+    @PreUpdate
+    void beforeWrite() {
+        cityKey = city == null ? null : city.toLowerCase(Locale.ROOT);
+        streetKey = street == null ? null : street.toLowerCase(Locale.ROOT);
+        pricePerSqft = SearchSort.pricePerSqft(offerCost, areaSqft);
+        updatedAt = Instant.now();
+    }
+
     // --- getters/setters for imageUrls ---
     public List<String> getImageUrls() { return imageUrls; }
     public void setImageUrls(List<String> imageUrls) { this.imageUrls = imageUrls; }
@@ -71,6 +126,8 @@ public class Property {
     public double getAreaSqft() { return areaSqft; }
     public void setAreaSqft(double areaSqft) { this.areaSqft = areaSqft; }
 
+    public Double getPricePerSqft() { return pricePerSqft; }
+
     public String getAddress() { return address; }
     public void setAddress(String address) { this.address = address; }
 
@@ -80,6 +137,9 @@ public class Property {
     public String getCity() { return city; }
     public void setCity(String city) { this.city = city; }
 
+    public String getCityKey() { return cityKey; }
+    public String getStreetKey() { return streetKey; }
+
     public boolean isStatus() { return status; }
     public void setStatus(boolean status) { this.status = status; }
 
@@ -94,4 +154,11 @@ public class Property {
 
     public int getReviewCount() { return reviewCount; }
     public void setReviewCount(int reviewCount) { this.reviewCount = reviewCount; }
+
+    public Long getRatingSum() { return ratingSum; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
 }
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "property_comments")
+@Table(name = "property_comments", indexes = {
+        // newest-first feed per listing (PropertyCommentRepository.findFeed*)
+        @Index(name = "idx_comment_property_created", columnList = "property_id, created_at")
+})
 public class PropertyComment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,53 @@
+package com.realestate.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * One content-addressed file under the upload dir ({@code ab/cd/<sha256>.<ext>} with the default two
+ * shard levels) and the number of image references to it. The file is deleted when the count drops to zero.
+ */
+@Entity
+@Table(name = "stored_blobs", indexes = @Index(name = "idx_blob_sha256", columnList = "sha256"))
+public class StoredBlob {
+
+    @Id
+    @Column(length = 160)
+    private String path;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    private long sizeBytes;
+    private int refCount;
+    private Instant createdAt = Instant.now();
+    // last time an upload counted a reference; the storage GC leaves recently used blobs alone
+    private Instant referencedAt = Instant.now();
+
+    public StoredBlob() {}
+
+    public StoredBlob(String path, String sha256, long sizeBytes, int refCount) {
+        this.path = path;
+        this.sha256 = sha256;
+        this.sizeBytes = sizeBytes;
+        this.refCount = refCount;
+    }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+
+    public long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(long sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public int getRefCount() { return refCount; }
+    public void setRefCount(int refCount) { this.refCount = refCount; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getReferencedAt() { return referencedAt; }
+    public void setReferencedAt(Instant referencedAt) { this.referencedAt = referencedAt; }
+}
@@ -13,7 +13,7 @@ public class User {
     @Column(nullable = false)
     private String password;
 
-    @Column(nullable = false) // "BROKER" or "CUSTOMER"
+    @Column(nullable = false) // "BROKER", "CUSTOMER" or "ADMIN" (storage and analytics maintenance)
     private String role;
 
     private String mobile;
@@ -0,0 +1,27 @@
+package com.realestate.repository;
+
+import com.realestate.dto.ReviewResponse;
+import com.realestate.model.BrokerRating;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BrokerRatingRepository extends JpaRepository<BrokerRating, Long> {
+
+    String FEED_SELECT = "SELECT new com.realestate.dto.ReviewResponse(r.id, cu.custName, r.rating, r.comment, r.createdAt) " +
+            "FROM BrokerRating r JOIN r.customer cu WHERE r.broker.broId = :broId ";
+    String FEED_ORDER = "ORDER BY r.createdAt DESC, r.id DESC";
+
+    // Newest-first keyset pages over idx_rating_broker_created: one statement per page
+    @Query(FEED_SELECT + FEED_ORDER)
+    List<ReviewResponse> findFeed(Long broId, Pageable page);
+
+    @Query(FEED_SELECT + "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :afterId)) " +
+           FEED_ORDER)
+    List<ReviewResponse> findFeedAfter(Long broId, LocalDateTime createdAt, Long afterId, Pageable page);
+
+    long countByBroker_BroId(Long broId);
+}
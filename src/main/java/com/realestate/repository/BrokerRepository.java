@@ -2,7 +2,10 @@ package com.realestate.repository;
 
 import com.realestate.model.Broker;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +17,27 @@ public interface BrokerRepository extends JpaRepository<Broker, Long> {
     List<Broker> findByMinimumRating(double minRating);
 
     Optional<Broker> findByUser_UserId(Long userId);
+
+    // One rating, applied in place; avgRating first because MySQL evaluates SET left to right.
+    // The version is left alone: ratings are not part of any property representation.
+    @Modifying
+    @Query("UPDATE Broker b SET b.avgRating = (b.ratingSum + :rating) * 1.0 / (b.ratingCount + 1), " +
+           "b.ratingSum = b.ratingSum + :rating, b.ratingCount = b.ratingCount + 1 WHERE b.broId = :broId")
+    int addRating(Long broId, long rating);
+
+    // Rows written before rating_sum existed: recount from the stored ratings
+    @Transactional
+    @Modifying
+    @Query("UPDATE Broker b SET " +
+           "b.ratingSum = COALESCE((SELECT SUM(r.rating) FROM BrokerRating r WHERE r.broker = b), 0), " +
+           "b.ratingCount = (SELECT COUNT(r) FROM BrokerRating r WHERE r.broker = b), " +
+           "b.avgRating = COALESCE((SELECT AVG(r.rating * 1.0) FROM BrokerRating r WHERE r.broker = b), 0) " +
+           "WHERE b.ratingSum IS NULL")
+    int backfillRatings();
+
+    // Rows created before the version column existed
+    @Transactional
+    @Modifying
+    @Query("UPDATE Broker b SET b.version = 0 WHERE b.version IS NULL")
+    int backfillVersions();
 }
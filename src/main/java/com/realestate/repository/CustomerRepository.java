@@ -2,7 +2,11 @@ package com.realestate.repository;
 
 import com.realestate.model.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
@@ -10,4 +14,29 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByUserEmail(String email);
 
     Optional<Customer> findByUser_UserId(Long userId);
+
+    // customer_properties rows are read and written directly, without loading Customer.properties.
+    // All of these are point or range lookups on its (cust_id, prop_id) primary key.
+
+    // 0 when already present
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO customer_properties (cust_id, prop_id) SELECT :custId, :propId " +
+           "WHERE NOT EXISTS (SELECT 1 FROM customer_properties WHERE cust_id = :custId AND prop_id = :propId)")
+    int insertProperty(Long custId, Long propId);
+
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM customer_properties WHERE cust_id = :custId AND prop_id = :propId")
+    int deleteProperty(Long custId, Long propId);
+
+    @Query(nativeQuery = true, value = "SELECT COUNT(*) FROM customer_properties WHERE cust_id = :custId AND prop_id = :propId")
+    long countProperty(Long custId, Long propId);
+
+    @Query(nativeQuery = true, value = "SELECT prop_id FROM customer_properties " +
+           "WHERE cust_id = :custId AND prop_id IN (:propIds) ORDER BY prop_id")
+    List<Long> findPropertyIdsAmong(Long custId, Collection<Long> propIds);
+
+    @Query(nativeQuery = true, value = "SELECT prop_id FROM customer_properties WHERE cust_id = :custId ORDER BY prop_id")
+    List<Long> findPropertyIds(Long custId);
 }
@@ -1,11 +1,49 @@
 package com.realestate.repository;
 
-import com.realestate.model.Customer;
+import com.realestate.analytics.DealFact;
+import com.realestate.dto.DealSummary;
 import com.realestate.model.Deal;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface DealRepository extends JpaRepository<Deal, Long> {
-    List<Deal> findByCustomer(Customer customer);
+
+    String SUMMARY_SELECT = "SELECT new com.realestate.dto.DealSummary(d.dealId, d.dealDate, d.dealCost, " +
+            "p.propId, p.address, p.city, p.configuration, p.offerType) FROM Deal d JOIN d.property p ";
+    // Newest first. The keyset doubles as the upper date bound: the first page passes (to, Long.MAX_VALUE).
+    String BEFORE = "d.dealDate >= :from AND (d.dealDate < :beforeDate OR (d.dealDate = :beforeDate AND d.dealId < :beforeId)) " +
+            "ORDER BY d.dealDate DESC, d.dealId DESC";
+
+    // One customer's history over idx_deal_customer_date
+    @Query(SUMMARY_SELECT + "WHERE d.customer.custId = :custId AND " + BEFORE)
+    List<DealSummary> findCustomerPage(Long custId, LocalDate from, LocalDate beforeDate, Long beforeId, Pageable page);
+
+    // All deals over idx_deal_date
+    @Query(SUMMARY_SELECT + "WHERE " + BEFORE)
+    List<DealSummary> findPage(LocalDate from, LocalDate beforeDate, Long beforeId, Pageable page);
+
+    long countByCustomer_CustIdAndDealDateBetween(Long custId, LocalDate from, LocalDate to);
+
+    long countByDealDateBetween(LocalDate from, LocalDate to);
+
+    String FACT_SELECT = "SELECT new com.realestate.analytics.DealFact(d.dealId, d.dealDate, d.dealCost, " +
+            "p.city, p.configuration, p.offerType, b.broId, b.broName) FROM Deal d JOIN d.property p JOIN p.broker b ";
+
+    // Rollup rebuild: deals of closed days are read in dealId ranges, one chunk per worker task
+    @Query(FACT_SELECT + "WHERE d.dealId BETWEEN :fromId AND :toId AND d.dealDate < :before")
+    List<DealFact> findFacts(Long fromId, Long toId, LocalDate before);
+
+    @Query(FACT_SELECT + "WHERE d.dealId = :dealId")
+    DealFact findFact(Long dealId);
+
+    // the days still taking deals, re-read while none is in flight (idx_deal_date)
+    @Query(FACT_SELECT + "WHERE d.dealDate >= :from")
+    List<DealFact> findFactsFrom(LocalDate from);
+
+    @Query("SELECT COALESCE(MIN(d.dealId), 0), COALESCE(MAX(d.dealId), 0) FROM Deal d")
+    List<Object[]> findIdRange();
 }
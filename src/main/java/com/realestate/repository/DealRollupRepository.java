@@ -0,0 +1,39 @@
+package com.realestate.repository;
+
+import com.realestate.analytics.DealDimension;
+import com.realestate.model.DealRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface DealRollupRepository extends JpaRepository<DealRollup, Long> {
+
+    // Held until the deal commits, so concurrent deals on one bucket apply their sketch updates in turn
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM DealRollup r WHERE r.dimension = :dimension AND r.day = :day AND r.key = :key")
+    Optional<DealRollup> findBucketForUpdate(DealDimension dimension, LocalDate day, String key);
+
+    boolean existsByDimensionAndDayAndKey(DealDimension dimension, LocalDate day, String key);
+
+    // Range reads walk the (dimension, deal_day, dim_key) unique index
+    @Query("SELECT r FROM DealRollup r WHERE r.dimension = :dimension AND r.day BETWEEN :from AND :to ORDER BY r.day")
+    List<DealRollup> findRange(DealDimension dimension, LocalDate from, LocalDate to);
+
+    @Query("SELECT r FROM DealRollup r WHERE r.dimension = :dimension AND r.key = :key " +
+            "AND r.day BETWEEN :from AND :to ORDER BY r.day")
+    List<DealRollup> findRange(DealDimension dimension, String key, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM DealRollup r WHERE r.day < :before")
+    int deleteRollupsBefore(LocalDate before);
+
+    @Modifying
+    @Query("DELETE FROM DealRollup r WHERE r.day >= :from")
+    int deleteRollupsFrom(LocalDate from);
+}
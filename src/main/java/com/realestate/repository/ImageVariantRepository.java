@@ -0,0 +1,53 @@
+package com.realestate.repository;
+
+import com.realestate.enums.ImageVariantStatus;
+import com.realestate.model.ImageVariant;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, String> {
+
+    List<ImageVariant> findByPropId(Long propId);
+
+    // Keyset page over one status, by URL
+    List<ImageVariant> findByStatusAndOriginalUrlGreaterThanOrderByOriginalUrl(ImageVariantStatus status,
+                                                                              String afterUrl, Pageable page);
+
+    // Conditional so a worker finishing after the image was deleted does not resurrect its row
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageVariant v SET v.status = com.realestate.enums.ImageVariantStatus.READY, " +
+           "v.thumbUrl = :thumbUrl, v.cardUrl = :cardUrl, v.fullUrl = :fullUrl, " +
+           "v.width = :width, v.height = :height, v.error = null, v.updatedAt = :now " +
+           "WHERE v.originalUrl = :originalUrl")
+    int markReady(String originalUrl, String thumbUrl, String cardUrl, String fullUrl,
+                  int width, int height, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageVariant v SET v.status = com.realestate.enums.ImageVariantStatus.FAILED, " +
+           "v.error = :error, v.updatedAt = :now WHERE v.originalUrl = :originalUrl")
+    int markFailed(String originalUrl, String error, Instant now);
+
+    // Uploaded images (under :prefix) from before the pipeline existed, keyset-paged by URL; external
+    // links are left alone. Row layout: [imageUrl, propId of one listing using it]
+    @Query("SELECT i, MIN(p.propId) FROM Property p JOIN p.imageUrls i " +
+           "WHERE i LIKE CONCAT(:prefix, '%') AND i > :afterUrl " +
+           "AND NOT EXISTS (SELECT v.originalUrl FROM ImageVariant v WHERE v.originalUrl = i) " +
+           "GROUP BY i ORDER BY i")
+    List<Object[]> findImagesWithoutVariants(String prefix, String afterUrl, Pageable page);
+
+    // Storage GC: which of these variant files still belong to an image some listing uses.
+    // Row layout: [thumbUrl, cardUrl, fullUrl]
+    @Query("SELECT v.thumbUrl, v.cardUrl, v.fullUrl FROM ImageVariant v " +
+           "WHERE (v.thumbUrl IN :urls OR v.cardUrl IN :urls OR v.fullUrl IN :urls) " +
+           "AND EXISTS (SELECT i FROM Property p JOIN p.imageUrls i WHERE i = v.originalUrl)")
+    List<Object[]> findLiveVariantUrls(Collection<String> urls);
+}
@@ -0,0 +1,7 @@
+package com.realestate.repository;
+
+import com.realestate.model.LegacyFileAlias;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LegacyFileAliasRepository extends JpaRepository<LegacyFileAlias, String> {
+}
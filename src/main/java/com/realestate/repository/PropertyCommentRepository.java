@@ -1,18 +1,35 @@
 package com.realestate.repository;
 
-import com.realestate.model.Property;
+import com.realestate.dto.ReviewResponse;
 import com.realestate.model.PropertyComment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface PropertyCommentRepository extends JpaRepository<PropertyComment, Long> {
-    List<PropertyComment> findByPropertyOrderByCreatedAtDesc(Property property);
-    
-    @Query("SELECT AVG(c.rating) FROM PropertyComment c WHERE c.property = ?1")
-    Double getAverageRatingForProperty(Property property);
-    
-    @Query("SELECT COUNT(c) FROM PropertyComment c WHERE c.property = ?1")
-    Integer getReviewCountForProperty(Property property);
+
+    // Author is the customer's or broker's display name; the user row itself (email, password) never leaves
+    String FEED_SELECT = "SELECT new com.realestate.dto.ReviewResponse(c.commentId, " +
+            "COALESCE(cu.custName, b.broName, 'Anonymous'), c.rating, c.content, c.createdAt) " +
+            "FROM PropertyComment c JOIN c.user u LEFT JOIN Customer cu ON cu.user = u " +
+            "LEFT JOIN Broker b ON b.user = u WHERE c.property.propId = :propId ";
+    String FEED_ORDER = "ORDER BY c.createdAt DESC, c.commentId DESC";
+
+    // Newest-first keyset pages over idx_comment_property_created: one statement per page
+    @Query(FEED_SELECT + FEED_ORDER)
+    List<ReviewResponse> findFeed(Long propId, Pageable page);
+
+    @Query(FEED_SELECT + "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.commentId < :afterId)) " +
+           FEED_ORDER)
+    List<ReviewResponse> findFeedAfter(Long propId, LocalDateTime createdAt, Long afterId, Pageable page);
+
+    // The feed entry of one comment, as returned when it is posted
+    @Query(FEED_SELECT + "AND c.commentId = :commentId")
+    Optional<ReviewResponse> findFeedEntry(Long propId, Long commentId);
+
+    long countByProperty_PropId(Long propId);
 }
@@ -1,10 +1,160 @@
 package com.realestate.repository;
 
+import com.realestate.dto.PropertyResponse;
+import com.realestate.dto.ResourceVersion;
 import com.realestate.model.Property;
+import com.realestate.search.PropertySearchRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
- * JpaSpecificationExecutor gives us dynamic filtering (by criteria).
+ * JpaSpecificationExecutor gives us dynamic filtering (by criteria);
+ * PropertyRepositoryCustom runs those filters as DTO projections.
  */
-public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSpecificationExecutor<Property> { }
+public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSpecificationExecutor<Property>,
+        PropertyRepositoryCustom {
+
+    String RESPONSE_SELECT = "SELECT new com.realestate.dto.PropertyResponse(p.propId, p.configuration, p.offerType, " +
+            "p.offerCost, p.areaSqft, p.address, p.street, p.city, p.status, p.avgRating, p.reviewCount, " +
+            "b.broId, b.broName, p.version) FROM Property p JOIN p.broker b ";
+
+    @Query(RESPONSE_SELECT + "WHERE p.propId = :propId")
+    Optional<PropertyResponse> findResponseById(Long propId);
+
+    @Query(RESPONSE_SELECT + "WHERE p.propId IN :ids")
+    List<PropertyResponse> findResponsesByIds(Collection<Long> ids);
+
+    // Versions only, for conditional GETs: answers If-None-Match without loading the property
+    @Query("SELECT new com.realestate.dto.ResourceVersion(p.propId, p.version, p.updatedAt, b.version, b.updatedAt, " +
+           "(SELECT MAX(v.updatedAt) FROM Property p2 JOIN p2.imageUrls i2, ImageVariant v " +
+           " WHERE p2.propId = p.propId AND v.originalUrl = i2)) " +
+           "FROM Property p JOIN p.broker b WHERE p.propId = :propId")
+    Optional<ResourceVersion> findVersionById(Long propId);
+
+    // Image URLs for a whole page in one IN query. Row layout: [propId, imageUrl]
+    @Query("SELECT p.propId, i FROM Property p JOIN p.imageUrls i WHERE p.propId IN :ids")
+    List<Object[]> findImageUrls(Collection<Long> ids);
+
+    // Same, joined to the resized variants. Row layout: [propId, imageUrl, status, thumbUrl, cardUrl, fullUrl]
+    @Query("SELECT p.propId, i, v.status, v.thumbUrl, v.cardUrl, v.fullUrl " +
+           "FROM Property p JOIN p.imageUrls i LEFT JOIN ImageVariant v ON v.originalUrl = i " +
+           "WHERE p.propId IN :ids")
+    List<Object[]> findImagesWithVariants(Collection<Long> ids);
+
+    // Scalar-only rows for (re)building the in-memory search index, in keyset batches
+    @Query("SELECT new com.realestate.search.PropertySearchRow(p.propId, p.configuration, p.offerType, " +
+           "p.offerCost, p.areaSqft, p.avgRating, p.reviewCount, p.city, p.street, p.status) " +
+           "FROM Property p WHERE p.propId > :afterId ORDER BY p.propId")
+    List<PropertySearchRow> findSearchRowsAfter(Long afterId, Pageable page);
+
+    @Query("SELECT new com.realestate.search.PropertySearchRow(p.propId, p.configuration, p.offerType, " +
+           "p.offerCost, p.areaSqft, p.avgRating, p.reviewCount, p.city, p.street, p.status) " +
+           "FROM Property p WHERE p.propId = :propId")
+    Optional<PropertySearchRow> findSearchRowById(Long propId);
+
+    /**
+     * One page of a broker's listings; each row also carries COUNT/SUM window aggregates over
+     * all of the broker's listings, so the dashboard counters come back in the same statement.
+     * Row layout: [propId, total, active].
+     */
+    @Query("SELECT p.propId, COUNT(p) OVER (), SUM(CASE WHEN p.status = true THEN 1 ELSE 0 END) OVER () " +
+           "FROM Property p WHERE p.broker.broId = :brokerId")
+    List<Object[]> findBrokerPageWithCounts(Long brokerId, Pageable page);
+
+    // Counters only, for a page past the end of the broker's listings
+    @Query("SELECT COUNT(p), COALESCE(SUM(CASE WHEN p.status = true THEN 1 ELSE 0 END), 0) " +
+           "FROM Property p WHERE p.broker.broId = :brokerId")
+    List<Object[]> countByBroker(Long brokerId);
+
+    // Fills city_key/street_key for rows written before those columns existed
+    @Transactional
+    @Modifying
+    @Query("UPDATE Property p SET p.cityKey = LOWER(p.city), p.streetKey = LOWER(p.street) " +
+           "WHERE p.cityKey IS NULL AND p.city IS NOT NULL")
+    int backfillSearchKeys();
+
+    // Fills price_per_sqft for rows written before the column existed (same formula as SearchSort.pricePerSqft)
+    @Transactional
+    @Modifying
+    @Query("UPDATE Property p SET p.pricePerSqft = CASE WHEN p.areaSqft > 0 THEN p.offerCost / p.areaSqft " +
+           "ELSE 1.7976931348623157E308 END WHERE p.pricePerSqft IS NULL")
+    int backfillPricePerSqft();
+
+    // Rows created before the version column existed
+    @Transactional
+    @Modifying
+    @Query("UPDATE Property p SET p.version = 0 WHERE p.version IS NULL")
+    int backfillVersions();
+
+    // Image appends skip the entity save: the version still moves so ETags and stale edits notice
+    @Modifying
+    @Query("UPDATE Property p SET p.version = p.version + 1, p.updatedAt = :now WHERE p.propId = :propId")
+    int bumpVersion(Long propId, Instant now);
+
+    // --- deals (DealServiceImpl) ---
+
+    // Claims an available listing: exactly one of any number of concurrent callers gets 1, the rest 0.
+    // Row-level only; a loser waits at most for the winner's commit and then sees status = false.
+    @Modifying
+    @Query("UPDATE Property p SET p.status = false, p.version = p.version + 1, p.updatedAt = :now " +
+           "WHERE p.propId = :propId AND p.status = true")
+    int claimAvailable(Long propId, Instant now);
+
+    // --- ratings (PropertyCommentServiceImpl) ---
+
+    // One rated review, applied in place so concurrent reviewers never overwrite each other.
+    // avgRating is assigned first: MySQL evaluates SET left to right with already-updated values.
+    @Modifying
+    @Query("UPDATE Property p SET p.avgRating = (p.ratingSum + :rating) * 1.0 / (p.reviewCount + 1), " +
+           "p.ratingSum = p.ratingSum + :rating, p.reviewCount = p.reviewCount + 1, " +
+           "p.version = p.version + 1, p.updatedAt = :now WHERE p.propId = :propId")
+    int addRating(Long propId, long rating, Instant now);
+
+    // Rows written before rating_sum existed: recount from the comments (unrated ones are not reviews)
+    @Transactional
+    @Modifying
+    @Query("UPDATE Property p SET " +
+           "p.ratingSum = COALESCE((SELECT SUM(c.rating) FROM PropertyComment c WHERE c.property = p), 0), " +
+           "p.reviewCount = (SELECT COUNT(c.rating) FROM PropertyComment c WHERE c.property = p), " +
+           "p.avgRating = COALESCE((SELECT AVG(c.rating * 1.0) FROM PropertyComment c WHERE c.property = p), 0) " +
+           "WHERE p.ratingSum IS NULL")
+    int backfillRatings();
+
+    // --- upload migration (UploadMigrationService) ---
+
+    // Flat (unsharded, not content-addressed) upload URLs still in use, keyset-paged by URL
+    @Query("SELECT DISTINCT i FROM Property p JOIN p.imageUrls i " +
+           "WHERE i LIKE CONCAT(:prefix, '%') AND i NOT LIKE CONCAT(:prefix, '%/%') AND i > :afterUrl ORDER BY i")
+    List<String> findFlatImageUrls(String prefix, String afterUrl, Pageable page);
+
+    @Query("SELECT COUNT(i) FROM Property p JOIN p.imageUrls i WHERE i = :url")
+    long countImageReferences(String url);
+
+    // Native: the version must change with the image URL so cached representations are revalidated
+    @Modifying
+    @Query(value = "UPDATE properties SET version = version + 1, updated_at = :now " +
+                   "WHERE prop_id IN (SELECT prop_id FROM property_images WHERE image_url = :url)", nativeQuery = true)
+    int bumpVersionsForImage(String url, Instant now);
+
+    @Modifying
+    @Query(value = "UPDATE property_images SET image_url = :newUrl WHERE image_url = :oldUrl", nativeQuery = true)
+    int replaceImageUrl(String oldUrl, String newUrl);
+
+    @Query("SELECT p.propId FROM Property p JOIN p.imageUrls i WHERE i = :url")
+    List<Long> findIdsByImageUrl(String url);
+
+    // --- storage GC (UploadGarbageCollector) ---
+
+    // Reference counts for one batch of scanned files. Row layout: [imageUrl, count]
+    @Query("SELECT i, COUNT(i) FROM Property p JOIN p.imageUrls i WHERE i IN :urls GROUP BY i")
+    List<Object[]> countImageReferences(Collection<String> urls);
+}
@@ -0,0 +1,28 @@
+package com.realestate.repository;
+
+import com.realestate.dto.PropertyResponse;
+import com.realestate.model.Property;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Specification-driven reads that project straight into DTOs instead of loading entities,
+ * a forward-only stream for bulk export, and a batched image append for uploads.
+ */
+public interface PropertyRepositoryCustom {
+
+    /** Up to {@code limit} matching rows as PropertyResponse (without images), in one statement. */
+    List<PropertyResponse> findResponses(Specification<Property> spec, Sort sort, int limit);
+
+    /**
+     * Matching properties in propId order as a forward-only cursor, with broker and broker user fetched
+     * in the same row. Must be consumed (and closed) inside a transaction.
+     */
+    Stream<Property> streamByCriteria(Specification<Property> spec, int fetchSize);
+
+    /** Appends image rows to a property with one batched INSERT, without loading the element collection. */
+    void appendImageUrls(Long propId, List<String> urls);
+}
@@ -0,0 +1,82 @@
+package com.realestate.repository;
+
+import com.realestate.dto.PropertyResponse;
+import com.realestate.model.Broker;
+import com.realestate.model.Property;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class PropertyRepositoryCustomImpl implements PropertyRepositoryCustom {
+
+    private static final String HINT_FETCH_SIZE = "org.hibernate.fetchSize";
+    private static final String HINT_READ_ONLY = "org.hibernate.readOnly";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final JdbcTemplate jdbc;
+
+    public PropertyRepositoryCustomImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public List<PropertyResponse> findResponses(Specification<Property> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<PropertyResponse> cq = cb.createQuery(PropertyResponse.class);
+        Root<Property> p = cq.from(Property.class);
+        Join<Property, Broker> b = p.join("broker");
+
+        cq.select(cb.construct(PropertyResponse.class,
+                p.get("propId"), p.get("configuration"), p.get("offerType"),
+                p.get("offerCost"), p.get("areaSqft"), p.get("address"), p.get("street"), p.get("city"),
+                p.get("status"), p.get("avgRating"), p.get("reviewCount"),
+                b.get("broId"), b.get("broName"), p.get("version")));
+
+        Predicate where = spec == null ? null : spec.toPredicate(p, cq, cb);
+        if (where != null) cq.where(where);
+        cq.orderBy(QueryUtils.toOrders(sort, p, cb));
+
+        return em.createQuery(cq).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<Property> streamByCriteria(Specification<Property> spec, int fetchSize) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Property> cq = cb.createQuery(Property.class);
+        Root<Property> p = cq.from(Property.class);
+        Fetch<Property, Broker> b = p.fetch("broker");
+        b.fetch("user");
+
+        Predicate where = spec == null ? null : spec.toPredicate(p, cq, cb);
+        if (where != null) cq.where(where);
+        cq.orderBy(cb.asc(p.get("propId")));
+
+        return em.createQuery(cq)
+                .setHint(HINT_FETCH_SIZE, fetchSize)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public void appendImageUrls(Long propId, List<String> urls) {
+        jdbc.batchUpdate("INSERT INTO property_images (prop_id, image_url) VALUES (?, ?)", urls, urls.size(),
+                (ps, url) -> {
+                    ps.setLong(1, propId);
+                    ps.setString(2, url);
+                });
+    }
+}
@@ -0,0 +1,41 @@
+package com.realestate.repository;
+
+import com.realestate.model.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    List<StoredBlob> findBySha256(String sha256);
+
+    // Single-statement counter updates; 0 rows = no such blob
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount + :n, b.referencedAt = :now WHERE b.path = :path")
+    int addReferences(String path, int n, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount - 1 WHERE b.path = :path AND b.refCount > 0")
+    int releaseReference(String path);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoredBlob b WHERE b.path = :path AND b.refCount = 0")
+    int deleteIfUnreferenced(String path);
+
+    // Storage GC: corrects a count that drifted from the image rows, unless an upload touched the blob since the cutoff
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = :n WHERE b.path = :path AND b.refCount <> :n " +
+           "AND (b.referencedAt IS NULL OR b.referencedAt < :cutoff)")
+    int reconcileReferences(String path, int n, Instant cutoff);
+
+    @Query("SELECT COUNT(b) > 0 FROM StoredBlob b WHERE b.path = :path AND b.referencedAt >= :cutoff")
+    boolean referencedSince(String path, Instant cutoff);
+}
@@ -0,0 +1,132 @@
+package com.realestate.search;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor. Clients only ever see a base64url token.
+ * v1 (plain id order) is the id of the last row of the previous page;
+ * v2 (sorted search) also carries the sort, its direction and the last row's sort value,
+ * and is only accepted back for the same sort.
+ * v3 (newest-first feeds) is the creation time and id of the last row.
+ */
+public final class PageCursor {
+
+    private static final String VERSION = "v1";
+    private static final String SORTED_VERSION = "v2";
+    private static final String TIMED_VERSION = "v3";
+
+    private PageCursor() {}
+
+    /** Position after the last row of the previous page. */
+    public static final class Position {
+        private final double value;
+        private final long id;
+
+        Position(double value, long id) {
+            this.value = value;
+            this.id = id;
+        }
+
+        public double getValue() { return value; }
+        public long getId() { return id; }
+    }
+
+    public static String encode(Long lastId) {
+        if (lastId == null) return null;
+        return wrap(VERSION + ":" + lastId);
+    }
+
+    /** @return the last seen id, or null for the first page */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String[] parts = unwrap(cursor).split(":", 2);
+            if (parts.length != 2 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            return Long.parseLong(parts[1]);
+        } catch (IllegalArgumentException ex) { // also covers NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    public static String encode(SearchSort sort, boolean descending, double lastValue, long lastId) {
+        if (sort == SearchSort.ID && !descending) return encode(lastId);
+        // the value travels as raw bits so equality in the next page's predicate is exact
+        return wrap(SORTED_VERSION + ":" + sort.getParam() + ":" + (descending ? "d" : "a") + ":"
+                + Long.toHexString(Double.doubleToLongBits(lastValue)) + ":" + lastId);
+    }
+
+    /** @return where the next page starts, or null for the first page */
+    public static Position decode(String cursor, SearchSort sort, boolean descending) {
+        if (cursor == null || cursor.isBlank()) return null;
+        if (sort == SearchSort.ID && !descending) {
+            long id = decode(cursor);
+            return new Position(id, id);
+        }
+        String[] parts;
+        try {
+            parts = unwrap(cursor).split(":");
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        if (parts.length != 5 || !SORTED_VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        if (!sort.getParam().equals(parts[1]) || !(descending ? "d" : "a").equals(parts[2])) {
+            throw new IllegalArgumentException("Cursor belongs to a different sort; start again without a cursor.");
+        }
+        try {
+            return new Position(Double.longBitsToDouble(Long.parseUnsignedLong(parts[3], 16)), Long.parseLong(parts[4]));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    /** Position after the last row of a feed ordered by (createdAt, id) descending. */
+    public static final class TimePosition {
+        private final LocalDateTime createdAt;
+        private final long id;
+
+        TimePosition(LocalDateTime createdAt, long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public long getId() { return id; }
+    }
+
+    public static String encode(LocalDateTime lastCreatedAt, long lastId) {
+        // epoch seconds and nanos rather than text, so the next page compares against the exact value
+        return wrap(TIMED_VERSION + ":" + lastCreatedAt.toEpochSecond(ZoneOffset.UTC) + ":"
+                + lastCreatedAt.getNano() + ":" + lastId);
+    }
+
+    /** @return where the next feed page starts, or null for the first page */
+    public static TimePosition decodeTimed(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String[] parts = unwrap(cursor).split(":");
+            if (parts.length != 4 || !TIMED_VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            LocalDateTime at = LocalDateTime.ofEpochSecond(Long.parseLong(parts[1]), Integer.parseInt(parts[2]), ZoneOffset.UTC);
+            return new TimePosition(at, Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    private static String wrap(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String unwrap(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,36 @@
+package com.realestate.search;
+
+/**
+ * Published whenever a property row is written. {@code current} is null when the property was removed;
+ * {@code previous} is the row as it was before the write, when the writer knows it.
+ * Listeners run after the surrounding transaction commits.
+ */
+public class PropertyChangedEvent {
+
+    private final Long propId;
+    private final PropertySearchRow previous;
+    private final PropertySearchRow current;
+
+    public PropertyChangedEvent(Long propId, PropertySearchRow previous, PropertySearchRow current) {
+        this.propId = propId;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public static PropertyChangedEvent saved(PropertySearchRow row) {
+        return new PropertyChangedEvent(row.getPropId(), null, row);
+    }
+
+    public static PropertyChangedEvent changed(PropertySearchRow previous, PropertySearchRow current) {
+        return new PropertyChangedEvent(current.getPropId(), previous, current);
+    }
+
+    public static PropertyChangedEvent removed(PropertySearchRow previous) {
+        return new PropertyChangedEvent(previous.getPropId(), previous, null);
+    }
+
+    public Long getPropId() { return propId; }
+    public PropertySearchRow getPrevious() { return previous; }
+    public PropertySearchRow getCurrent() { return current; }
+    public boolean isRemoved() { return current == null; }
+}
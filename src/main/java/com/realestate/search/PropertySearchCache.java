@@ -0,0 +1,146 @@
+package com.realestate.search;
+
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.PageQuery;
+import com.realestate.dto.PropertyCriteria;
+import com.realestate.dto.PropertyResponse;
+import com.realestate.dto.SearchCacheStats;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU + TTL cache of search result pages, keyed by normalized criteria and the page request.
+ *
+ * Every entry is scoped by the (city, configuration) it filters on; a property write drops only the
+ * entries whose scope can contain that property before or after the write. Writes also bump an epoch,
+ * and a result computed before the bump is never stored, so a page read before a deal committed
+ * cannot be cached after it.
+ */
+@Component
+public class PropertySearchCache {
+
+    @Value("${app.search.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${app.search.cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long epoch;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /** Returns the cached page for this search, or computes and caches it. */
+    public CursorPage<PropertyResponse> get(PropertyCriteria criteria, PageQuery page,
+                                            Supplier<CursorPage<PropertyResponse>> loader) {
+        if (!enabled) return loader.get();
+
+        Key key = Key.of(criteria, page);
+        long seenEpoch;
+        synchronized (this) {
+            Entry e = entries.get(key);
+            if (e != null && e.expiresAt > System.nanoTime()) {
+                hits++;
+                return e.page;
+            }
+            if (e != null) {
+                entries.remove(key);
+                evictions++;
+            }
+            misses++;
+            seenEpoch = epoch;
+        }
+
+        CursorPage<PropertyResponse> result = loader.get();
+
+        synchronized (this) {
+            // a write committed while we were loading: the result may predate it
+            if (seenEpoch == epoch) {
+                entries.put(key, new Entry(result, System.nanoTime() + ttlSeconds * 1_000_000_000L));
+                while (entries.size() > maxEntries) {
+                    Iterator<Key> eldest = entries.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    evictions++;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Runs after PropertySearchIndex has applied the same event, so reloads see the new state.
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        invalidate(event.getPrevious(), event.getCurrent());
+    }
+
+    /** Drops every entry whose city/config scope matches either version of the written row. */
+    public synchronized void invalidate(PropertySearchRow before, PropertySearchRow after) {
+        epoch++;
+        Iterator<Key> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            Key k = it.next();
+            if (k.covers(before) || k.covers(after)) {
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        epoch++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    public synchronized SearchCacheStats stats() {
+        return new SearchCacheStats(enabled, entries.size(), maxEntries, ttlSeconds,
+                hits, misses, evictions, invalidations);
+    }
+
+    private record Entry(CursorPage<PropertyResponse> page, long expiresAt) {}
+
+    /**
+     * Canonical form of a search: city/street lower-cased the same way PropertySpecifications compares
+     * them, blanks dropped. Range bounds are kept exact; widening them would change which rows match.
+     */
+    private record Key(String city, PropertyConfig configuration, OfferType offerType,
+                       Double minCost, Double maxCost, Double minAreaSqft, Double maxAreaSqft,
+                       Double minRating, Integer minReviews, String street, Boolean status,
+                       String cursor, Integer size, boolean includeTotal, SearchSort sort, boolean descending) {
+
+        static Key of(PropertyCriteria c, PageQuery p) {
+            SearchSort sort = SearchSort.parse(p.getSort());
+            return new Key(norm(c.getCity()), c.getConfiguration(), c.getOfferType(),
+                    c.getMinCost(), c.getMaxCost(), c.getMinAreaSqft(), c.getMaxAreaSqft(),
+                    c.getMinRating(), c.getMinReviews(), norm(c.getStreet()), c.getStatus(),
+                    p.getCursor(), p.getSize(), p.isIncludeTotal(), sort, sort.isDescending(p.getDirection()));
+        }
+
+        boolean covers(PropertySearchRow row) {
+            if (row == null) return false;
+            return (city == null || city.equals(norm(row.getCity())))
+                    && (configuration == null || configuration == row.getConfiguration());
+        }
+
+        private static String norm(String s) {
+            return s == null || s.isBlank() ? null : s.toLowerCase(Locale.ROOT);
+        }
+    }
+}
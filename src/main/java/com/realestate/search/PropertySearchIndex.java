@@ -0,0 +1,544 @@
+package com.realestate.search;
+
+import com.realestate.dto.PropertyCriteria;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.repository.PropertyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process columnar index over the searchable property columns.
+ *
+ * Each property occupies one slot; slots are kept in ascending propId order so keyset pages
+ * are a binary search plus a forward bit scan. Numeric filters live in primitive arrays,
+ * equality filters (city, configuration, offer type, availability) in one BitSet per value.
+ * Enabled with {@code app.search.engine=index}; otherwise it stays empty and searches hit the database.
+ */
+@Component
+public class PropertySearchIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int REBUILD_BATCH = 1000;
+    // compact once tombstones make up this share of the used slots (and there are enough slots to matter)
+    private static final double COMPACT_TOMBSTONE_RATIO = 0.25;
+    private static final int COMPACT_MIN_SLOTS = INITIAL_CAPACITY;
+
+    private final PropertyRepository propertyRepository;
+
+    @Value("${app.search.engine:db}")
+    private String engine;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // column storage; slot i describes property ids[i]
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private double[] offerCost = new double[INITIAL_CAPACITY];
+    private double[] areaSqft = new double[INITIAL_CAPACITY];
+    private double[] avgRating = new double[INITIAL_CAPACITY];
+    private int[] reviewCount = new int[INITIAL_CAPACITY];
+    private String[] cityKey = new String[INITIAL_CAPACITY];
+    private String[] streetKey = new String[INITIAL_CAPACITY];
+    private int slots; // used slots, including tombstones
+    private int liveSlots;
+
+    private BitSet live = new BitSet();
+    private BitSet available = new BitSet();
+    private BitSet taken = new BitSet();
+    private Map<String, BitSet> byCity = new HashMap<>();
+    private Map<PropertyConfig, BitSet> byConfig = new EnumMap<>(PropertyConfig.class);
+    private Map<OfferType, BitSet> byOffer = new EnumMap<>(OfferType.class);
+
+    private volatile boolean ready;
+    private boolean rebuilding;
+    private final Queue<PropertyChangedEvent> pendingDuringRebuild = new ArrayDeque<>();
+
+    public PropertySearchIndex(PropertyRepository propertyRepository) {
+        this.propertyRepository = propertyRepository;
+    }
+
+    public boolean isEnabled() {
+        return "index".equalsIgnoreCase(engine);
+    }
+
+    /** True once the index is loaded and may answer queries instead of the database. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ---------------------------------------------------------------- maintenance
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (isEnabled()) rebuild();
+    }
+
+    /** Reloads everything from the database in keyset batches, then replays writes that raced the load. */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long afterId = 0L;
+        List<PropertySearchRow> batch;
+        do {
+            batch = propertyRepository.findSearchRowsAfter(afterId, PageRequest.of(0, REBUILD_BATCH));
+            lock.writeLock().lock();
+            try {
+                for (PropertySearchRow row : batch) upsert(row);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) afterId = batch.get(batch.size() - 1).getPropId();
+        } while (batch.size() == REBUILD_BATCH);
+
+        lock.writeLock().lock();
+        try {
+            rebuilding = false;
+            PropertyChangedEvent e;
+            while ((e = pendingDuringRebuild.poll()) != null) apply(e);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (!isEnabled()) return;
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) pendingDuringRebuild.add(event);
+            else apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(PropertyChangedEvent event) {
+        if (event.isRemoved()) remove(event.getPropId());
+        else upsert(event.getCurrent());
+    }
+
+    /** Inserts or overwrites the slot of {@code row.getPropId()}. */
+    public void upsert(PropertySearchRow row) {
+        lock.writeLock().lock();
+        try {
+            long id = row.getPropId();
+            int slot = find(id);
+            if (slot < 0) {
+                if (slots > 0 && id < ids[slots - 1]) {
+                    // out-of-order id (e.g. a late commit from a pooled sequence block)
+                    slot = insertLate(id);
+                } else {
+                    ensureCapacity(slots + 1);
+                    slot = slots++;
+                    ids[slot] = id;
+                }
+            }
+            write(slot, row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long propId) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(propId);
+            if (slot < 0) return;
+            clearSlot(slot);
+            if (slots >= COMPACT_MIN_SLOTS && slots - liveSlots > slots * COMPACT_TOMBSTONE_RATIO) compact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------- queries
+
+    /**
+     * Ids matching {@code c}, ascending, strictly greater than {@code afterId}, at most {@code limit} of them.
+     */
+    public List<Long> search(PropertyCriteria c, Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            Plan plan = plan(c);
+            List<Long> out = new ArrayList<>(Math.min(limit, 256));
+            if (plan == null) return out;
+            int from = afterId == null ? 0 : firstSlotAfter(afterId);
+            for (int i = plan.driver.nextSetBit(from); i >= 0 && out.size() < limit; i = plan.driver.nextSetBit(i + 1)) {
+                if (plan.matches(i)) out.add(ids[i]);
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids matching {@code c} in {@code sort} order (propId breaking ties the same way), starting strictly
+     * after {@code after}, at most {@code limit} of them. Id orders are a bit scan; value orders keep a
+     * bounded heap of the best {@code limit} slots, so memory stays O(limit) however many rows match.
+     */
+    public List<Long> searchSorted(PropertyCriteria c, SearchSort sort, boolean descending,
+                                   PageCursor.Position after, int limit) {
+        if (sort.isIdOnly() && !descending) return search(c, after == null ? null : after.getId(), limit);
+        lock.readLock().lock();
+        try {
+            Plan plan = plan(c);
+            List<Long> out = new ArrayList<>(Math.min(limit, 256));
+            if (plan == null || limit <= 0) return out;
+
+            if (sort.isIdOnly()) {
+                // newest first: walk the id-ordered slots backwards
+                int from = after == null ? slots - 1 : firstSlotAfter(after.getId() - 1) - 1;
+                for (int i = plan.driver.previousSetBit(from); i >= 0 && out.size() < limit; i = plan.driver.previousSetBit(i - 1)) {
+                    if (plan.matches(i)) out.add(ids[i]);
+                }
+                return out;
+            }
+
+            // head = the worst of the kept slots, replaced whenever a better candidate shows up
+            Comparator<Integer> order = (a, b) -> compareSlots(sort, a, b);
+            if (descending) order = order.reversed();
+            PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(limit, 256) + 1, order.reversed());
+            for (int i = plan.driver.nextSetBit(0); i >= 0; i = plan.driver.nextSetBit(i + 1)) {
+                if (!plan.matches(i)) continue;
+                if (after != null && !isAfter(sort, descending, i, after)) continue;
+                if (best.size() < limit) {
+                    best.add(i);
+                } else if (order.compare(i, best.peek()) < 0) {
+                    best.poll();
+                    best.add(i);
+                }
+            }
+            Integer[] ranked = best.toArray(new Integer[0]);
+            Arrays.sort(ranked, order);
+            for (int slot : ranked) out.add(ids[slot]);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(PropertyCriteria c) {
+        lock.readLock().lock();
+        try {
+            Plan plan = plan(c);
+            if (plan == null) return 0;
+            long n = 0;
+            for (int i = plan.driver.nextSetBit(0); i >= 0; i = plan.driver.nextSetBit(i + 1)) {
+                if (plan.matches(i)) n++;
+            }
+            return n;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveSlots;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Slots in use, tombstones included; stays within a constant factor of {@link #size()}. */
+    public int slotCount() {
+        lock.readLock().lock();
+        try {
+            return slots;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Resolves equality filters to bitsets and picks the sparsest one to drive the scan; null = no match. */
+    private Plan plan(PropertyCriteria c) {
+        List<BitSet> sets = new ArrayList<>(4);
+        if (c.getStatus() == null) sets.add(live);
+        else sets.add(c.getStatus() ? available : taken);
+
+        if (c.getCity() != null && !c.getCity().isBlank()) {
+            BitSet city = byCity.get(key(c.getCity()));
+            if (city == null) return null;
+            sets.add(city);
+        }
+        if (c.getConfiguration() != null) {
+            BitSet cfg = byConfig.get(c.getConfiguration());
+            if (cfg == null) return null;
+            sets.add(cfg);
+        }
+        if (c.getOfferType() != null) {
+            BitSet offer = byOffer.get(c.getOfferType());
+            if (offer == null) return null;
+            sets.add(offer);
+        }
+
+        BitSet driver = sets.get(0);
+        int best = driver.cardinality();
+        for (BitSet s : sets) {
+            int card = s.cardinality();
+            if (card < best) { best = card; driver = s; }
+        }
+        List<BitSet> others = new ArrayList<>(sets);
+        others.remove(driver);
+
+        String street = c.getStreet() == null || c.getStreet().isBlank() ? null : key(c.getStreet());
+        return new Plan(driver, others.toArray(new BitSet[0]), c, street);
+    }
+
+    private double sortValue(SearchSort sort, int i) {
+        return switch (sort) {
+            case ID, NEWEST -> ids[i];
+            case OFFER_COST -> offerCost[i];
+            case AREA_SQFT -> areaSqft[i];
+            case AVG_RATING -> avgRating[i];
+            case REVIEW_COUNT -> reviewCount[i];
+            case PRICE_PER_SQFT -> SearchSort.pricePerSqft(offerCost[i], areaSqft[i]);
+        };
+    }
+
+    // ascending (value, id); slots are in id order, so slot order breaks ties
+    private int compareSlots(SearchSort sort, int a, int b) {
+        int byValue = Double.compare(sortValue(sort, a), sortValue(sort, b));
+        return byValue != 0 ? byValue : Integer.compare(a, b);
+    }
+
+    private boolean isAfter(SearchSort sort, boolean descending, int i, PageCursor.Position after) {
+        int byValue = Double.compare(sortValue(sort, i), after.getValue());
+        if (byValue == 0) byValue = Long.compare(ids[i], after.getId());
+        return descending ? byValue < 0 : byValue > 0;
+    }
+
+    private final class Plan {
+        final BitSet driver;
+        final BitSet[] others;
+        final double minCost, maxCost, minArea, maxArea, minRating;
+        final int minReviews;
+        final String street;
+
+        Plan(BitSet driver, BitSet[] others, PropertyCriteria c, String street) {
+            this.driver = driver;
+            this.others = others;
+            this.minCost = c.getMinCost() == null ? Double.NEGATIVE_INFINITY : c.getMinCost();
+            this.maxCost = c.getMaxCost() == null ? Double.POSITIVE_INFINITY : c.getMaxCost();
+            this.minArea = c.getMinAreaSqft() == null ? Double.NEGATIVE_INFINITY : c.getMinAreaSqft();
+            this.maxArea = c.getMaxAreaSqft() == null ? Double.POSITIVE_INFINITY : c.getMaxAreaSqft();
+            this.minRating = c.getMinRating() == null ? Double.NEGATIVE_INFINITY : c.getMinRating();
+            this.minReviews = c.getMinReviews() == null ? Integer.MIN_VALUE : c.getMinReviews();
+            this.street = street;
+        }
+
+        boolean matches(int i) {
+            for (BitSet s : others) {
+                if (!s.get(i)) return false;
+            }
+            return offerCost[i] >= minCost && offerCost[i] <= maxCost
+                    && areaSqft[i] >= minArea && areaSqft[i] <= maxArea
+                    && avgRating[i] >= minRating
+                    && reviewCount[i] >= minReviews
+                    && (street == null || street.equals(streetKey[i]));
+        }
+    }
+
+    // ---------------------------------------------------------------- slot helpers (callers hold the write lock)
+
+    private void write(int slot, PropertySearchRow row) {
+        clearSlot(slot);
+        offerCost[slot] = row.getOfferCost();
+        areaSqft[slot] = row.getAreaSqft();
+        avgRating[slot] = row.getAvgRating();
+        reviewCount[slot] = row.getReviewCount();
+        cityKey[slot] = row.getCity() == null ? null : key(row.getCity()).intern();
+        streetKey[slot] = row.getStreet() == null ? null : key(row.getStreet());
+
+        live.set(slot);
+        liveSlots++;
+        (row.isStatus() ? available : taken).set(slot);
+        if (cityKey[slot] != null) byCity.computeIfAbsent(cityKey[slot], k -> new BitSet()).set(slot);
+        if (row.getConfiguration() != null) byConfig.computeIfAbsent(row.getConfiguration(), k -> new BitSet()).set(slot);
+        if (row.getOfferType() != null) byOffer.computeIfAbsent(row.getOfferType(), k -> new BitSet()).set(slot);
+    }
+
+    private void clearSlot(int slot) {
+        if (!live.get(slot)) return;
+        live.clear(slot);
+        liveSlots--;
+        available.clear(slot);
+        taken.clear(slot);
+        if (cityKey[slot] != null) {
+            BitSet city = byCity.get(cityKey[slot]);
+            city.clear(slot);
+            if (city.isEmpty()) byCity.remove(cityKey[slot]);
+        }
+        for (BitSet s : byConfig.values()) s.clear(slot);
+        for (BitSet s : byOffer.values()) s.clear(slot);
+    }
+
+    /** Slot holding {@code id}, or -1. */
+    private int find(long id) {
+        int i = Arrays.binarySearch(ids, 0, slots, id);
+        return i >= 0 ? i : -1;
+    }
+
+    private int firstSlotAfter(long id) {
+        int i = Arrays.binarySearch(ids, 0, slots, id);
+        return i >= 0 ? i + 1 : -(i + 1);
+    }
+
+    /**
+     * Makes room for a late {@code id} between its neighbours and returns its (still empty) slot. The nearest
+     * tombstone on either side absorbs the shift, so only the slots in between move; with no tombstone the
+     * tail moves up by one. Either way the cost is the distance moved, not the size of the index.
+     */
+    private int insertLate(long id) {
+        int at = firstSlotAfter(id);
+        int right = live.nextClearBit(at);
+        int left = at > 0 ? live.previousClearBit(at - 1) : -1;
+        if (left >= 0 && (right >= slots || at - left <= right - at)) {
+            shift(left + 1, at, -1);
+            ids[at - 1] = id;
+            return at - 1;
+        }
+        if (right >= slots) {
+            ensureCapacity(slots + 1);
+            right = slots++;
+        }
+        shift(at, right, 1);
+        ids[at] = id;
+        return at;
+    }
+
+    /** Moves slots [from, to) by {@code by} (+1 or -1) onto the empty slot at the other end of the range. */
+    private void shift(int from, int to, int by) {
+        if (from >= to) return;
+        int n = to - from;
+        System.arraycopy(ids, from, ids, from + by, n);
+        System.arraycopy(offerCost, from, offerCost, from + by, n);
+        System.arraycopy(areaSqft, from, areaSqft, from + by, n);
+        System.arraycopy(avgRating, from, avgRating, from + by, n);
+        System.arraycopy(reviewCount, from, reviewCount, from + by, n);
+        System.arraycopy(cityKey, from, cityKey, from + by, n);
+        System.arraycopy(streetKey, from, streetKey, from + by, n);
+        int vacated = by > 0 ? from : to - 1;
+        cityKey[vacated] = null;
+        streetKey[vacated] = null;
+
+        shiftBits(live, from, to, by);
+        shiftBits(available, from, to, by);
+        shiftBits(taken, from, to, by);
+        for (BitSet bits : byCity.values()) shiftBits(bits, from, to, by);
+        for (BitSet bits : byConfig.values()) shiftBits(bits, from, to, by);
+        for (BitSet bits : byOffer.values()) shiftBits(bits, from, to, by);
+    }
+
+    private static void shiftBits(BitSet bits, int from, int to, int by) {
+        BitSet moved = bits.get(from, to);
+        bits.clear(Math.min(from, from + by), Math.max(to, to + by));
+        for (int i = moved.nextSetBit(0); i >= 0; i = moved.nextSetBit(i + 1)) bits.set(from + by + i);
+    }
+
+    /** Rewrites the live slots in id order, dropping tombstones. */
+    private void compact() {
+        int n = liveSlots;
+        long[] oldIds = ids;
+        double[] oldCost = offerCost, oldArea = areaSqft, oldRating = avgRating;
+        int[] oldReviews = reviewCount;
+        String[] oldCity = cityKey, oldStreet = streetKey;
+        int oldSlots = slots;
+        BitSet oldAvailable = available;
+        Map<PropertyConfig, BitSet> oldConfig = byConfig;
+        Map<OfferType, BitSet> oldOffer = byOffer;
+        BitSet oldLive = live;
+
+        allocate(Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(n, 1)) << 1));
+        int slot = 0;
+        for (int i = oldLive.nextSetBit(0); i >= 0 && i < oldSlots; i = oldLive.nextSetBit(i + 1), slot++) {
+            ids[slot] = oldIds[i];
+            offerCost[slot] = oldCost[i];
+            areaSqft[slot] = oldArea[i];
+            avgRating[slot] = oldRating[i];
+            reviewCount[slot] = oldReviews[i];
+            cityKey[slot] = oldCity[i];
+            streetKey[slot] = oldStreet[i];
+            live.set(slot);
+            (oldAvailable.get(i) ? available : taken).set(slot);
+            if (cityKey[slot] != null) byCity.computeIfAbsent(cityKey[slot], c -> new BitSet()).set(slot);
+            for (Map.Entry<PropertyConfig, BitSet> e : oldConfig.entrySet()) {
+                if (e.getValue().get(i)) byConfig.computeIfAbsent(e.getKey(), c -> new BitSet()).set(slot);
+            }
+            for (Map.Entry<OfferType, BitSet> e : oldOffer.entrySet()) {
+                if (e.getValue().get(i)) byOffer.computeIfAbsent(e.getKey(), c -> new BitSet()).set(slot);
+            }
+        }
+        slots = n;
+        liveSlots = n;
+    }
+
+    private void clear() {
+        allocate(INITIAL_CAPACITY);
+        slots = 0;
+        liveSlots = 0;
+        pendingDuringRebuild.clear();
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        offerCost = new double[capacity];
+        areaSqft = new double[capacity];
+        avgRating = new double[capacity];
+        reviewCount = new int[capacity];
+        cityKey = new String[capacity];
+        streetKey = new String[capacity];
+        live = new BitSet();
+        available = new BitSet();
+        taken = new BitSet();
+        byCity = new HashMap<>();
+        byConfig = new EnumMap<>(PropertyConfig.class);
+        byOffer = new EnumMap<>(OfferType.class);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) return;
+        int capacity = Math.max(needed, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        offerCost = Arrays.copyOf(offerCost, capacity);
+        areaSqft = Arrays.copyOf(areaSqft, capacity);
+        avgRating = Arrays.copyOf(avgRating, capacity);
+        reviewCount = Arrays.copyOf(reviewCount, capacity);
+        cityKey = Arrays.copyOf(cityKey, capacity);
+        streetKey = Arrays.copyOf(streetKey, capacity);
+    }
+
+    private static String key(String s) {
+        return s.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,56 @@
+package com.realestate.search;
+
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.model.Property;
+
+/**
+ * The searchable columns of one property, detached from the JPA entity.
+ * Used to feed the in-memory index and as the payload of change events.
+ */
+public class PropertySearchRow {
+
+    private final Long propId;
+    private final PropertyConfig configuration;
+    private final OfferType offerType;
+    private final double offerCost;
+    private final double areaSqft;
+    private final double avgRating;
+    private final int reviewCount;
+    private final String city;
+    private final String street;
+    private final boolean status;
+
+    // Used by the JPQL constructor expression in PropertyRepository
+    public PropertySearchRow(Long propId, PropertyConfig configuration, OfferType offerType,
+                             double offerCost, double areaSqft, double avgRating, int reviewCount,
+                             String city, String street, boolean status) {
+        this.propId = propId;
+        this.configuration = configuration;
+        this.offerType = offerType;
+        this.offerCost = offerCost;
+        this.areaSqft = areaSqft;
+        this.avgRating = avgRating;
+        this.reviewCount = reviewCount;
+        this.city = city;
+        this.street = street;
+        this.status = status;
+    }
+
+    public static PropertySearchRow of(Property p) {
+        return new PropertySearchRow(p.getPropId(), p.getConfiguration(), p.getOfferType(),
+                p.getOfferCost(), p.getAreaSqft(), p.getAvgRating(), p.getReviewCount(),
+                p.getCity(), p.getStreet(), p.isStatus());
+    }
+
+    public Long getPropId() { return propId; }
+    public PropertyConfig getConfiguration() { return configuration; }
+    public OfferType getOfferType() { return offerType; }
+    public double getOfferCost() { return offerCost; }
+    public double getAreaSqft() { return areaSqft; }
+    public double getAvgRating() { return avgRating; }
+    public int getReviewCount() { return reviewCount; }
+    public String getCity() { return city; }
+    public String getStreet() { return street; }
+    public boolean isStatus() { return status; }
+}
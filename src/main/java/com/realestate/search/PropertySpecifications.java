@@ -2,11 +2,16 @@ package com.realestate.search;
 
 import com.realestate.dto.PropertyCriteria;
 import com.realestate.model.Property;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Locale;
+
 /**
  * Builds a JPA Specification from PropertyCriteria.
  * Each clause is optional; nulls are ignored.
+ * City and street compare against the lower-cased key columns so the composite indexes on Property apply.
  */
 public final class PropertySpecifications {
 
@@ -14,11 +19,45 @@ public final class PropertySpecifications {
 
     public static Specification<Property> byCriteria(PropertyCriteria c) {
         return Specification
-                .where(configEquals(c))
-                .and(offerEquals(c))
+                .where(statusEquals(c))
                 .and(cityEquals(c))
+                .and(configEquals(c))
+                .and(offerEquals(c))
                 .and(costBetween(c))
-                .and(onlyAvailable());
+                .and(areaBetween(c))
+                .and(minRating(c))
+                .and(minReviews(c))
+                .and(streetEquals(c));
+    }
+
+    /** Keyset predicate: rows strictly after the last id of the previous page. */
+    public static Specification<Property> idAfter(Long lastId) {
+        return (root, q, cb) -> lastId == null ? null : cb.greaterThan(root.get("propId"), lastId);
+    }
+
+    /**
+     * Keyset predicate for a sorted search: rows after (value, propId) of the previous page's last row,
+     * in the given direction. Matches the ORDER BY attribute, propId used by the service.
+     */
+    public static Specification<Property> after(SearchSort sort, boolean descending, PageCursor.Position last) {
+        return (root, q, cb) -> {
+            if (last == null) return null;
+            Path<Number> id = root.get("propId");
+            if (sort.isIdOnly()) {
+                return descending ? cb.lt(id, last.getId()) : cb.gt(id, last.getId());
+            }
+            Path<Number> value = root.get(sort.getAttribute());
+            Predicate beyond = descending ? cb.lt(value, last.getValue()) : cb.gt(value, last.getValue());
+            Predicate tieBreak = cb.and(cb.equal(value, last.getValue()),
+                    descending ? cb.lt(id, last.getId()) : cb.gt(id, last.getId()));
+            return cb.or(beyond, tieBreak);
+        };
+    }
+
+    /** true = available only, false = sold/rented only, null = both. */
+    private static Specification<Property> statusEquals(PropertyCriteria c) {
+        return (root, q, cb) ->
+                c.getStatus() == null ? null : cb.equal(root.get("status"), c.getStatus());
     }
 
     private static Specification<Property> configEquals(PropertyCriteria c) {
@@ -34,7 +73,13 @@ public final class PropertySpecifications {
     private static Specification<Property> cityEquals(PropertyCriteria c) {
         return (root, q, cb) ->
                 c.getCity() == null || c.getCity().isBlank() ? null :
-                        cb.equal(cb.lower(root.get("city")), c.getCity().toLowerCase());
+                        cb.equal(root.get("cityKey"), c.getCity().toLowerCase(Locale.ROOT));
+    }
+
+    private static Specification<Property> streetEquals(PropertyCriteria c) {
+        return (root, q, cb) ->
+                c.getStreet() == null || c.getStreet().isBlank() ? null :
+                        cb.equal(root.get("streetKey"), c.getStreet().toLowerCase(Locale.ROOT));
     }
 
     private static Specification<Property> costBetween(PropertyCriteria c) {
@@ -48,8 +93,24 @@ public final class PropertySpecifications {
         };
     }
 
-    /** We don’t show sold/rented ones in searches. */
-    private static Specification<Property> onlyAvailable() {
-        return (root, q, cb) -> cb.isTrue(root.get("status"));
+    private static Specification<Property> areaBetween(PropertyCriteria c) {
+        return (root, q, cb) -> {
+            if (c.getMinAreaSqft() == null && c.getMaxAreaSqft() == null) return null;
+            if (c.getMinAreaSqft() != null && c.getMaxAreaSqft() != null)
+                return cb.between(root.get("areaSqft"), c.getMinAreaSqft(), c.getMaxAreaSqft());
+            if (c.getMinAreaSqft() != null)
+                return cb.greaterThanOrEqualTo(root.get("areaSqft"), c.getMinAreaSqft());
+            return cb.lessThanOrEqualTo(root.get("areaSqft"), c.getMaxAreaSqft());
+        };
+    }
+
+    private static Specification<Property> minRating(PropertyCriteria c) {
+        return (root, q, cb) ->
+                c.getMinRating() == null ? null : cb.greaterThanOrEqualTo(root.get("avgRating"), c.getMinRating());
+    }
+
+    private static Specification<Property> minReviews(PropertyCriteria c) {
+        return (root, q, cb) ->
+                c.getMinReviews() == null ? null : cb.greaterThanOrEqualTo(root.get("reviewCount"), c.getMinReviews());
     }
 }
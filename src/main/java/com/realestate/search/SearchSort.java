@@ -0,0 +1,73 @@
+package com.realestate.search;
+
+import com.realestate.dto.PropertyResponse;
+
+import java.util.Locale;
+
+/**
+ * Server-side orderings for search. Every ordering breaks ties on propId in the same direction,
+ * so (value, propId) is unique and keyset cursors stay stable.
+ */
+public enum SearchSort {
+
+    ID("id", "propId", false),
+    NEWEST("newest", "propId", true),
+    OFFER_COST("offerCost", "offerCost", false),
+    AREA_SQFT("areaSqft", "areaSqft", true),
+    AVG_RATING("avgRating", "avgRating", true),
+    REVIEW_COUNT("reviewCount", "reviewCount", true),
+    PRICE_PER_SQFT("pricePerSqft", "pricePerSqft", false);
+
+    private final String param;
+    private final String attribute;
+    private final boolean descendingByDefault;
+
+    SearchSort(String param, String attribute, boolean descendingByDefault) {
+        this.param = param;
+        this.attribute = attribute;
+        this.descendingByDefault = descendingByDefault;
+    }
+
+    /** Null or blank = ID (the plain keyset order). */
+    public static SearchSort parse(String sort) {
+        if (sort == null || sort.isBlank()) return ID;
+        for (SearchSort s : values()) {
+            if (s.param.equalsIgnoreCase(sort.trim())) return s;
+        }
+        throw new IllegalArgumentException(
+                "Invalid sort. Use: offerCost, areaSqft, avgRating, reviewCount, pricePerSqft, newest");
+    }
+
+    /** Applies an explicit asc/desc, or this ordering's natural direction when none is given. */
+    public boolean isDescending(String direction) {
+        if (direction == null || direction.isBlank()) return descendingByDefault;
+        return switch (direction.trim().toLowerCase(Locale.ROOT)) {
+            case "asc" -> false;
+            case "desc" -> true;
+            default -> throw new IllegalArgumentException("Invalid direction. Use: asc, desc");
+        };
+    }
+
+    /** Entity attribute the database orders by. */
+    public String getAttribute() { return attribute; }
+
+    public String getParam() { return param; }
+
+    public boolean isIdOnly() { return "propId".equals(attribute); }
+
+    public double valueOf(PropertyResponse r) {
+        return switch (this) {
+            case ID, NEWEST -> r.getPropId();
+            case OFFER_COST -> r.getOfferCost();
+            case AREA_SQFT -> r.getAreaSqft();
+            case AVG_RATING -> r.getAvgRating();
+            case REVIEW_COUNT -> r.getReviewCount();
+            case PRICE_PER_SQFT -> pricePerSqft(r.getOfferCost(), r.getAreaSqft());
+        };
+    }
+
+    /** Same formula as the stored Property.pricePerSqft column; listings without an area sort last. */
+    public static double pricePerSqft(double offerCost, double areaSqft) {
+        return areaSqft > 0 ? offerCost / areaSqft : Double.MAX_VALUE;
+    }
+}
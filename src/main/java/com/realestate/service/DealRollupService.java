@@ -0,0 +1,300 @@
+package com.realestate.service;
+
+import com.realestate.analytics.DealDimension;
+import com.realestate.analytics.DealFact;
+import com.realestate.dto.RollupRebuildReport;
+import com.realestate.exception.ConflictException;
+import com.realestate.model.DealRollup;
+import com.realestate.repository.DealRepository;
+import com.realestate.repository.DealRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the per-day deal rollups (see {@link DealRollup}). Each deal updates its buckets inside the
+ * deal's own transaction; {@link #rebuild()} and {@link #start()} recompute all of them from the deals table.
+ */
+@Service
+public class DealRollupService {
+
+    private final DealRollupRepository rollupRepository;
+    private final DealRepository dealRepository;
+    private final TransactionTemplate tx;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // buckets being created by an uncommitted deal; see createBucket
+    private final ConcurrentHashMap<Bucket, ReentrantLock> creating = new ConcurrentHashMap<>();
+    // deals hold it shared until they complete; the end of a rebuild takes it exclusively (see pauseWriters)
+    private final ReentrantReadWriteLock writers = new ReentrantReadWriteLock();
+    private RollupRebuildReport report = new RollupRebuildReport();
+    private ThreadPoolTaskExecutor workerExecutor;
+    private ThreadPoolTaskExecutor jobExecutor;
+
+    @Value("${app.analytics.rebuild-workers:4}")
+    private int rebuildWorkers;
+
+    @Value("${app.analytics.rebuild-chunk-size:5000}")
+    private int rebuildChunkSize;
+
+    public DealRollupService(DealRollupRepository rollupRepository,
+                             DealRepository dealRepository,
+                             PlatformTransactionManager txManager) {
+        this.rollupRepository = rollupRepository;
+        this.dealRepository = dealRepository;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    // Chunk workers shared by every rebuild, and the single thread running rebuilds started through the API
+    @PostConstruct
+    void startExecutors() {
+        int workers = Math.max(1, rebuildWorkers);
+        workerExecutor = new ThreadPoolTaskExecutor();
+        workerExecutor.setCorePoolSize(workers);
+        workerExecutor.setMaxPoolSize(workers);
+        workerExecutor.setQueueCapacity(2 * workers);   // a rebuild keeps at most 2 * workers chunks in flight
+        workerExecutor.setThreadNamePrefix("rollup-chunk-");
+        workerExecutor.setDaemon(true);
+        workerExecutor.initialize();
+
+        jobExecutor = new ThreadPoolTaskExecutor();
+        jobExecutor.setCorePoolSize(1);
+        jobExecutor.setMaxPoolSize(1);
+        jobExecutor.setQueueCapacity(1);
+        jobExecutor.setThreadNamePrefix("rollup-rebuild-");
+        jobExecutor.setDaemon(true);
+        jobExecutor.initialize();
+    }
+
+    @PreDestroy
+    void stopExecutors() {
+        jobExecutor.shutdown();
+        workerExecutor.shutdown();
+    }
+
+    /**
+     * Adds a deal to its four buckets. Must run inside the deal's transaction: the buckets stay
+     * row-locked until it commits, and a rolled-back deal leaves them untouched. Buckets are always
+     * locked in the same (dimension) order, so two deals can wait on each other but never deadlock. While the end
+     * of a rebuild swaps in yesterday's and today's buckets, deals wait here.
+     */
+    public void record(DealFact deal) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Deal rollups must be recorded inside the deal's transaction");
+        }
+        writers.readLock().lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                writers.readLock().unlock();
+            }
+        });
+        for (DealDimension dimension : DealDimension.values()) {
+            String key = dimension.keyOf(deal);
+            DealRollup bucket = rollupRepository.findBucketForUpdate(dimension, deal.getDealDate(), key)
+                    .orElseGet(() -> createBucket(new Bucket(dimension, deal.getDealDate(), key)));
+            bucket.add(deal.getDealCost(), dimension.labelOf(deal));
+        }
+    }
+
+    // The first deal of a day/key inserts the row as part of its own transaction. Others arriving before it commits
+    // wait here (not on the unique index, which would fail their deal) and then lock the committed row.
+    // Nothing else is needed from the connection pool, so a burst of buyers cannot starve the one writing.
+    // In-process only, like the search cache: assumes a single application instance.
+    private DealRollup createBucket(Bucket bucket) {
+        ReentrantLock lock = creating.computeIfAbsent(bucket, b -> new ReentrantLock());
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+        // deals are dated today, so locks of earlier days are no longer contended
+        creating.keySet().removeIf(b -> b.day().isBefore(bucket.day().minusDays(1)));
+        return rollupRepository.findBucketForUpdate(bucket.dimension(), bucket.day(), bucket.key())
+                .orElseGet(() -> rollupRepository.save(new DealRollup(bucket.dimension(), bucket.day(), bucket.key())));
+    }
+
+    /**
+     * Recomputes every bucket from the deals table and returns when done. Days before yesterday are closed (deals are
+     * dated when made): their dealId ranges are aggregated in parallel, the partial rollups merged (sketches merge
+     * exactly) and swapped in without touching the buckets deals still write. Yesterday and today are then re-read
+     * and swapped while no deal is in flight, so a deal committing during the rebuild is never lost or counted twice.
+     */
+    public RollupRebuildReport rebuild() {
+        if (!begin()) {
+            throw new ConflictException("A rollup rebuild is already running");
+        }
+        runRebuild();
+        RollupRebuildReport done = status();
+        if (done.getLastError() != null) {
+            throw new IllegalStateException("Rollup rebuild failed: " + done.getLastError());
+        }
+        return done;
+    }
+
+    /**
+     * Starts a rebuild on the service's own thread and returns at once with its progress (then polled through
+     * {@link #status()}); while a rebuild is already running, returns that rebuild's progress instead.
+     */
+    public RollupRebuildReport start() {
+        if (begin()) {
+            try {
+                jobExecutor.execute(this::runRebuild);
+            } catch (TaskRejectedException e) {
+                failed(e);
+                finish();
+            }
+        }
+        return status();
+    }
+
+    public synchronized RollupRebuildReport status() {
+        RollupRebuildReport copy = new RollupRebuildReport();
+        BeanUtils.copyProperties(report, copy);
+        return copy;
+    }
+
+    private boolean begin() {
+        if (!rebuilding.compareAndSet(false, true)) return false;
+        RollupRebuildReport fresh = new RollupRebuildReport();
+        fresh.setRunning(true);
+        fresh.setStartedAt(Instant.now());
+        synchronized (this) {
+            report = fresh;
+        }
+        return true;
+    }
+
+    private void runRebuild() {
+        try {
+            rebuildAll();
+        } catch (RuntimeException e) {
+            failed(e);
+        } finally {
+            finish();
+        }
+    }
+
+    private void rebuildAll() {
+        long started = System.nanoTime();
+        LocalDate cutoff = LocalDate.now().minusDays(1);
+        Object[] ids = dealRepository.findIdRange().get(0);
+        long minId = ((Number) ids[0]).longValue();
+        long maxId = ((Number) ids[1]).longValue();
+        int chunkSize = Math.max(1, rebuildChunkSize);
+        // two chunks per worker in flight at most, so the bounded chunk queue always takes the next one
+        int window = 2 * Math.max(1, rebuildWorkers);
+
+        Map<Bucket, DealRollup> closed = new HashMap<>();
+        Deque<CompletableFuture<Map<Bucket, DealRollup>>> inFlight = new ArrayDeque<>();
+        int chunks = 0;
+        for (long from = minId; maxId > 0 && from <= maxId; from += chunkSize) {
+            if (inFlight.size() == window) mergeInto(closed, inFlight.poll().join());
+            long lo = from;
+            long hi = Math.min(maxId, from + chunkSize - 1);
+            inFlight.add(CompletableFuture.supplyAsync(
+                    () -> aggregate(dealRepository.findFacts(lo, hi, cutoff)), workerExecutor));
+            chunks++;
+        }
+        while (!inFlight.isEmpty()) mergeInto(closed, inFlight.poll().join());
+
+        // closed days: nothing records into these buckets any more, so deals carry on meanwhile
+        tx.executeWithoutResult(status -> {
+            rollupRepository.deleteRollupsBefore(cutoff);
+            rollupRepository.saveAll(closed.values());
+        });
+
+        // open days: the transaction holds its connection from begin, so deals waiting on the lock cannot starve it
+        long[] recent = new long[2];
+        tx.executeWithoutResult(status -> {
+            pauseWriters();
+            rollupRepository.deleteRollupsFrom(cutoff);
+            List<DealFact> deals = dealRepository.findFactsFrom(cutoff);
+            Map<Bucket, DealRollup> open = aggregate(deals);
+            rollupRepository.saveAll(open.values());
+            recent[0] = deals.size();
+            recent[1] = open.size();
+        });
+
+        long closedDeals = closed.values().stream().filter(r -> r.getDimension() == DealDimension.CITY)
+                .mapToLong(DealRollup::getDealCount).sum();
+        int buckets = closed.size();
+        int chunkCount = chunks;
+        progress(r -> {
+            r.setDeals(closedDeals + recent[0]);
+            r.setRecentDeals(recent[0]);
+            r.setBuckets(buckets + recent[1]);
+            r.setChunks(chunkCount);
+            r.setElapsedMs((System.nanoTime() - started) / 1_000_000);
+        });
+    }
+
+    // Waits for deals in flight to finish and holds off new ones until the calling transaction completes
+    private void pauseWriters() {
+        writers.writeLock().lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                writers.writeLock().unlock();
+            }
+        });
+    }
+
+    private void finish() {
+        progress(r -> {
+            r.setRunning(false);
+            r.setFinishedAt(Instant.now());
+        });
+        rebuilding.set(false);
+    }
+
+    private void failed(Exception e) {
+        progress(r -> r.setLastError(e.getClass().getSimpleName() + ": " + e.getMessage()));
+    }
+
+    private synchronized void progress(Consumer<RollupRebuildReport> update) {
+        update.accept(report);
+    }
+
+    private static void mergeInto(Map<Bucket, DealRollup> merged, Map<Bucket, DealRollup> part) {
+        part.forEach((bucket, rollup) -> merged.merge(bucket, rollup, (a, b) -> { a.merge(b); return a; }));
+    }
+
+    private static Map<Bucket, DealRollup> aggregate(List<DealFact> deals) {
+        Map<Bucket, DealRollup> rollups = new HashMap<>();
+        for (DealFact deal : deals) {
+            for (DealDimension dimension : DealDimension.values()) {
+                String key = dimension.keyOf(deal);
+                rollups.computeIfAbsent(new Bucket(dimension, deal.getDealDate(), key),
+                                b -> new DealRollup(dimension, deal.getDealDate(), key))
+                        .add(deal.getDealCost(), dimension.labelOf(deal));
+            }
+        }
+        return rollups;
+    }
+
+    private record Bucket(DealDimension dimension, LocalDate day, String key) {}
+}
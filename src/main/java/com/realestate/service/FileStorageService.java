@@ -1,24 +1,83 @@
 package com.realestate.service;
 
+import com.realestate.media.ShardLayout;
+import com.realestate.model.LegacyFileAlias;
+import com.realestate.model.StoredBlob;
+import com.realestate.repository.LegacyFileAliasRepository;
+import com.realestate.repository.StoredBlobRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
 
+/**
+ * Upload storage under {@code app.upload-dir}, served at /files/**.
+ *
+ * Property images are content-addressed: the upload is hashed (SHA-256) while it streams to a temp file
+ * and kept once as {@code ab/cd/<hash>.<ext>}, however many listings use it. Each use holds a reference
+ * in stored_blobs and the file goes away with the last one. Every new file goes into a hashed fan-out
+ * ({@code app.storage.shard-levels} directories of 256, see ShardLayout); flat legacy names
+ * (prop-1-uuid.jpg) still resolve through legacy_file_aliases once migrated.
+ */
 @Service
 public class FileStorageService {
 
+    private static final String PUBLIC_PREFIX = "/files/";
+    private static final String INCOMING_DIR = ".incoming";
+    private static final String QUARANTINE_DIR = ".quarantine";
+    private static final int LOCK_STRIPES = 64;
+
     @Value("${app.upload-dir:uploads}")
     private String uploadDir;
 
+    @Value("${app.storage.content-addressed:true}")
+    private boolean contentAddressed;
+
+    @Value("${app.storage.shard-levels:2}")
+    private int shardLevels;
+
     // Accept common image extensions (more tolerant than MIME-type checks)
     private static final Set<String> ALLOWED_EXTS = Set.of("jpg", "jpeg", "png", "webp", "gif");
 
+    private final StoredBlobRepository blobRepository;
+    private final LegacyFileAliasRepository aliasRepository;
+
+    // Reference changes and the file move/delete of one blob happen under the same lock,
+    // so a concurrent upload can never count on a file that is being deleted.
+    private final Object[] stripes = new Object[LOCK_STRIPES];
+    private final Map<String, String> aliasCache = new ConcurrentHashMap<>();
+    private ShardLayout layout;
+
+    public FileStorageService(StoredBlobRepository blobRepository, LegacyFileAliasRepository aliasRepository) {
+        this.blobRepository = blobRepository;
+        this.aliasRepository = aliasRepository;
+        for (int i = 0; i < LOCK_STRIPES; i++) stripes[i] = new Object();
+    }
+
+    @PostConstruct
+    void initLayout() {
+        layout = new ShardLayout(shardLevels);
+    }
+
     public String storeForProperty(Long propId, MultipartFile file) throws IOException {
         if (file == null || file.isEmpty()) throw new IOException("Empty file.");
 
@@ -27,18 +86,143 @@ public class FileStorageService {
             throw new IOException("Unsupported file extension: ." + ext + " (allowed: " + ALLOWED_EXTS + ")");
         }
 
-        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
-        Files.createDirectories(root);
+        if (contentAddressed) {
+            // the container has already spooled the part: hash it where it is and move it into place,
+            // rather than copying it a second time
+            MessageDigest sha = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), sha)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            String hash = HexFormat.of().formatHex(sha.digest());
+            return PUBLIC_PREFIX + placeBlob(hash, ext, file.getSize(), 1, target -> file.transferTo(target.toFile()));
+        }
 
-        String safeName = "prop-" + propId + "-" + UUID.randomUUID() + "." + ext;
-        Path target = root.resolve(safeName);
+        String relative = layout.pathForName("prop-" + propId + "-" + UUID.randomUUID() + "." + ext);
+        Path target = root().resolve(relative);
+        Files.createDirectories(target.getParent());
 
         try (InputStream in = file.getInputStream()) {
             Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
         }
 
-        // Public URL exposed by WebConfig (/files/**)
-        return "/files/" + safeName;
+        // Public URL served by FileServeController (/files/**)
+        return PUBLIC_PREFIX + relative;
+    }
+
+    /**
+     * Stores {@code in} once per distinct content and adds {@code references} to its count.
+     * @return the blob path relative to the upload dir, e.g. {@code 3f/a2/3fa2...e1.jpg}
+     */
+    public String storeBlob(InputStream in, String ext, int references) throws IOException {
+        Path tmp = Files.createTempFile(incoming(), "upload-", ".tmp");
+        try {
+            MessageDigest sha = sha256();
+            try (InputStream hashing = new DigestInputStream(in, sha)) {
+                Files.copy(hashing, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(sha.digest());
+            return placeBlob(hash, ext, Files.size(tmp), references,
+                    target -> Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING));
+        } finally {
+            Files.deleteIfExists(tmp); // a duplicate: the stored copy already has these bytes
+        }
+    }
+
+    /**
+     * Streams a request body of at most {@code maxBytes} straight into the blob store (no multipart spooling).
+     * @return the public URL of the stored image
+     */
+    public String storeStreamForProperty(InputStream in, String filename, long maxBytes) throws IOException {
+        String ext = getExtension(filename);
+        if (!ALLOWED_EXTS.contains(ext)) {
+            throw new IOException("Unsupported file extension: ." + ext + " (allowed: " + ALLOWED_EXTS + ")");
+        }
+        if (!contentAddressed) throw new IOException("Streamed uploads need app.storage.content-addressed=true.");
+        PushbackInputStream body = new PushbackInputStream(in, 1);
+        int first = body.read();
+        if (first < 0) throw new IOException("Empty file.");
+        body.unread(first);
+        return PUBLIC_PREFIX + storeBlob(new BoundedInputStream(body, maxBytes), ext, 1);
+    }
+
+    // Counts a reference to the blob and, for new content, lets {@code writer} put the bytes into a
+    // temp file that is then moved (atomically) to its final name.
+    private String placeBlob(String hash, String ext, long size, int references, BlobWriter writer) throws IOException {
+        String blobPath = blobPathFor(hash, ext);
+        Path target = root().resolve(blobPath);
+
+        synchronized (stripe(blobPath)) {
+            if (blobRepository.addReferences(blobPath, references, Instant.now()) == 0) {
+                blobRepository.save(new StoredBlob(blobPath, hash, size, references));
+            }
+            if (!Files.exists(target)) {
+                Path staged = incoming().resolve("place-" + UUID.randomUUID() + ".tmp");
+                try {
+                    writer.writeTo(staged);
+                    Files.createDirectories(target.getParent());
+                    Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException | RuntimeException e) {
+                    Files.deleteIfExists(staged);
+                    releaseOrForget(blobPath, references);
+                    throw e;
+                }
+            }
+        }
+        return blobPath;
+    }
+
+    // Content already stored under another shard depth keeps its path, so a depth change does not duplicate it
+    private String blobPathFor(String hash, String ext) {
+        String fileName = hash + "." + normalizeExt(ext);
+        for (StoredBlob existing : blobRepository.findBySha256(hash)) {
+            if (existing.getPath().endsWith(fileName)) return existing.getPath();
+        }
+        return layout.path(hash, fileName);
+    }
+
+    // Undoes the reference count of a blob whose file could not be written
+    private void releaseOrForget(String blobPath, int references) {
+        for (int i = 0; i < references; i++) blobRepository.releaseReference(blobPath);
+        blobRepository.deleteIfUnreferenced(blobPath);
+    }
+
+    private Path incoming() throws IOException {
+        return Files.createDirectories(incomingRoot());
+    }
+
+    @FunctionalInterface
+    private interface BlobWriter {
+        void writeTo(Path target) throws IOException;
+    }
+
+    // Fails the read once more than {@code limit} bytes have come through
+    private static final class BoundedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) count(n);
+            return n;
+        }
+
+        private void count(long n) throws IOException {
+            count += n;
+            if (count > limit) throw new IOException("File exceeds the upload limit of " + limit + " bytes.");
+        }
     }
 
     public String storeFile(MultipartFile file) throws IOException {
@@ -49,28 +233,184 @@ public class FileStorageService {
             throw new IOException("Unsupported file extension: ." + ext + " (allowed: " + ALLOWED_EXTS + ")");
         }
 
-        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
-        Files.createDirectories(root);
-
-        String safeName = UUID.randomUUID().toString() + "." + ext;
-        Path target = root.resolve(safeName);
+        String relative = layout.pathForName(UUID.randomUUID() + "." + ext);
+        Path target = root().resolve(relative);
+        Files.createDirectories(target.getParent());
         try (InputStream is = file.getInputStream()) {
             Files.copy(is, target, StandardCopyOption.REPLACE_EXISTING);
         }
 
-        // Public URL exposed by WebConfig (/files/**)
-        return "/files/" + safeName;
+        // Public URL served by FileServeController (/files/**)
+        return PUBLIC_PREFIX + relative;
+    }
+
+    /**
+     * Drops one reference to the file behind {@code publicUrl}. Content-addressed files are only deleted
+     * with their last reference; files without a blob record (legacy uploads, image variants) are deleted.
+     * @return true when the file itself was removed
+     */
+    public boolean deleteByPublicUrl(String publicUrl) throws IOException {
+        String relative = relativePath(publicUrl);
+        if (relative == null) return false;
+        Path target = root().resolve(relative).normalize();
+        if (!target.startsWith(root())) return false;
+
+        synchronized (stripe(relative)) {
+            if (blobRepository.releaseReference(relative) > 0 || blobRepository.existsById(relative)) {
+                if (blobRepository.deleteIfUnreferenced(relative) == 0) return false; // still used elsewhere
+            }
+            return Files.deleteIfExists(target);
+        }
+    }
+
+    /** File behind a /files/ URL, or null when the URL is not one of ours (or escapes the upload dir). */
+    public Path resolvePublicUrl(String publicUrl) {
+        String relative = relativePath(publicUrl);
+        if (relative == null) return null;
+        Path root = root();
+        Path target = root.resolve(relative).normalize();
+        if (!target.startsWith(root)) return null;
+        if (!Files.exists(target)) {
+            Path aliased = resolveLegacyAlias(relative);
+            if (aliased != null) return aliased;
+            // the storage GC may have set it aside a moment before a listing started using it again
+            Path quarantined = quarantineRoot().resolve(relative);
+            if (Files.exists(quarantined)) return quarantined;
+        }
+        return target;
+    }
+
+    /** Blob that replaced a migrated flat upload name, or null. */
+    public Path resolveLegacyAlias(String legacyName) {
+        if (legacyName == null || legacyName.contains("/")) return null;
+        String blobPath = aliasCache.get(legacyName);
+        if (blobPath == null) {
+            blobPath = aliasRepository.findById(legacyName).map(LegacyFileAlias::getBlobPath).orElse(null);
+            if (blobPath == null) return null;
+            aliasCache.put(legacyName, blobPath);
+        }
+        return root().resolve(blobPath);
+    }
+
+    /** Records that {@code legacyName} now lives at {@code blobPath}. */
+    public void registerLegacyAlias(String legacyName, String blobPath) {
+        aliasRepository.save(new LegacyFileAlias(legacyName, blobPath));
+        aliasCache.put(legacyName, blobPath);
+    }
+
+    /** Where a flat (unsharded) upload name lives under the configured layout. */
+    public String shardedPathForName(String fileName) {
+        return layout.pathForName(fileName);
+    }
+
+    public int shardLevels() {
+        return layout.levels();
+    }
+
+    public boolean isContentAddressed() {
+        return contentAddressed;
+    }
+
+    public Path root() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    // --- storage GC (UploadGarbageCollector) ---
+
+    /**
+     * Moves a file into the quarantine dir under the same relative path. {@code orphaned} is re-checked
+     * under the blob's lock, so an upload reusing the content either counts its reference first (and the
+     * file stays) or finds the file gone and writes it again.
+     * @return true when the file was moved
+     */
+    public boolean quarantine(String relative, BooleanSupplier orphaned) throws IOException {
+        Path source = root().resolve(relative);
+        Path target = quarantineRoot().resolve(relative);
+        synchronized (stripe(relative)) {
+            if (!Files.isRegularFile(source) || !orphaned.getAsBoolean()) return false;
+            Files.createDirectories(target.getParent());
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now())); // starts the quarantine period
+            return true;
+        }
+    }
+
+    /**
+     * Deletes a quarantined file and its blob record if {@code orphaned} still holds; otherwise puts it back
+     * (or drops it, when the same content has been uploaded again meanwhile).
+     * @return true when the file was deleted for good
+     */
+    public boolean purgeQuarantined(String relative, BooleanSupplier orphaned) throws IOException {
+        Path quarantined = quarantineRoot().resolve(relative);
+        Path target = root().resolve(relative);
+        synchronized (stripe(relative)) {
+            if (orphaned.getAsBoolean()) {
+                if (blobRepository.existsById(relative)) blobRepository.deleteById(relative);
+                return Files.deleteIfExists(quarantined);
+            }
+            if (Files.exists(target)) {
+                Files.deleteIfExists(quarantined);
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(quarantined, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Runs {@code repoint} under the blob's lock and adds the number of image rows it reports moving onto the
+     * blob to its count. Called inside the caller's transaction, so the count lands together with the rows.
+     * @return the number of references added
+     */
+    public int addReferences(String blobPath, IntSupplier repoint) {
+        synchronized (stripe(blobPath)) {
+            int references = repoint.getAsInt();
+            if (references > 0) blobRepository.addReferences(blobPath, references, Instant.now());
+            return references;
+        }
+    }
+
+    /** Sets a blob's count to the number of image rows using it, unless an upload referenced it since {@code cutoff}. */
+    public boolean reconcileReferences(String blobPath, int references, Instant cutoff) {
+        synchronized (stripe(blobPath)) {
+            return blobRepository.reconcileReferences(blobPath, references, cutoff) > 0;
+        }
+    }
+
+    public Path quarantineRoot() {
+        return root().resolve(QUARANTINE_DIR);
+    }
+
+    public Path incomingRoot() {
+        return root().resolve(INCOMING_DIR);
+    }
+
+    // Public URLs never reach the storage's own dirs (.incoming, .quarantine)
+    private static String relativePath(String publicUrl) {
+        if (publicUrl == null || !publicUrl.startsWith(PUBLIC_PREFIX)) return null;
+        String relative = publicUrl.substring(PUBLIC_PREFIX.length());
+        return relative.isEmpty() || relative.startsWith(".") ? null : relative;
+    }
+
+    private Object stripe(String blobPath) {
+        return stripes[Math.floorMod(blobPath.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
-    public void deleteByPublicUrl(String publicUrl) throws IOException {
-        if (publicUrl == null || !publicUrl.startsWith("/files/")) return;
-        String filename = publicUrl.substring("/files/".length());
-        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
-        Path target = root.resolve(filename);
-        if (Files.exists(target)) Files.delete(target);
+    // jpg and jpeg uploads of the same bytes share one blob
+    private static String normalizeExt(String ext) {
+        return "jpeg".equals(ext) ? "jpg" : ext;
     }
 
-    private String getExtension(String name) {
+    public String getExtension(String name) {
         if (name == null) return "";
         int i = name.lastIndexOf('.');
         return i >= 0 ? name.substring(i + 1).toLowerCase() : "";
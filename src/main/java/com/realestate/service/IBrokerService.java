@@ -1,6 +1,10 @@
 package com.realestate.service;
 
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.PageQuery;
+import com.realestate.dto.ReviewResponse;
 import com.realestate.model.Broker;
+import com.realestate.model.BrokerRating;
 
 import java.util.List;
 
@@ -10,4 +14,10 @@ public interface IBrokerService {
     Broker removeBroker(Long broId);
     Broker viewBroker(Long broId);
     List<Broker> listAllBrokers();
+
+    /** Stores the rating and folds it into the broker's average with one atomic update; returns it as a feed entry. */
+    ReviewResponse rateBroker(Long broId, BrokerRating rating, String customerEmail);
+
+    /** Newest-first page of the broker's ratings as slim feed entries. */
+    CursorPage<ReviewResponse> listRatings(Long broId, PageQuery page);
 }
@@ -0,0 +1,16 @@
+package com.realestate.service;
+
+import com.realestate.dto.DealAnalyticsResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface IDealAnalyticsService {
+
+    /**
+     * Answered from the per-day rollups only. groupBy: city (default), config, offerType or broker;
+     * key narrows to one group; percentiles are 0..100; from/to are inclusive.
+     */
+    DealAnalyticsResponse dealStats(String groupBy, String key, LocalDate from, LocalDate to,
+                                    List<Double> percentiles, boolean daily);
+}
@@ -1,11 +1,20 @@
 package com.realestate.service;
 
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.DealSummary;
+import com.realestate.dto.PageQuery;
 import com.realestate.model.Customer;
 import com.realestate.model.Deal;
 import com.realestate.model.Property;
-import java.util.List;
+import java.time.LocalDate;
 
 public interface IDealService {
     Deal addDeal(Property property, Customer customer, double dealCost);
-    List<Deal> listAllDeals();
+
+    /** Throws ConflictException when the property is no longer available. */
+    Deal addDeal(Long propId, Long custId, double dealCost);
+
+    /** Newest deals first; from/to are inclusive and optional. */
+    CursorPage<DealSummary> listDeals(LocalDate from, LocalDate to, PageQuery page);
+    CursorPage<DealSummary> listCustomerDeals(Long custId, LocalDate from, LocalDate to, PageQuery page);
 }
@@ -0,0 +1,18 @@
+package com.realestate.service;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IFavoriteService {
+
+    /** Idempotent: false when it was already a favorite. */
+    boolean addFavorite(Long custId, Long propId);
+
+    /** Idempotent: false when it was not a favorite. */
+    boolean removeFavorite(Long custId, Long propId);
+
+    boolean isFavorite(Long custId, Long propId);
+
+    /** The favorited ids among propIds (all of the customer's when null), ascending. */
+    List<Long> favoriteIds(Long custId, Collection<Long> propIds);
+}
@@ -0,0 +1,14 @@
+package com.realestate.service;
+
+import java.util.List;
+
+public interface IImageVariantService {
+    /**
+     * Registers the images as PENDING and queues their thumb/card/full variants on the image worker pool.
+     * Returns as soon as they are queued; resizing happens in the background.
+     */
+    void schedule(Long propId, List<String> originalUrls);
+
+    /** Deletes the variant files and the variant row of one original image. */
+    void discard(String originalUrl);
+}
@@ -0,0 +1,18 @@
+package com.realestate.service;
+
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.PageQuery;
+import com.realestate.dto.ReviewResponse;
+import com.realestate.model.PropertyComment;
+
+public interface IPropertyCommentService {
+    /** Newest-first page of the listing's comments as slim feed entries. */
+    CursorPage<ReviewResponse> getComments(Long propertyId, PageQuery page);
+
+    /**
+     * Saves the comment and, when it carries a rating, folds that rating into the listing's
+     * average and review count with a single in-place update.
+     * @return the new comment as a feed entry
+     */
+    ReviewResponse addComment(Long propertyId, PropertyComment comment, String userEmail);
+}
@@ -0,0 +1,10 @@
+package com.realestate.service;
+
+import com.realestate.dto.PropertyCriteria;
+
+import java.io.OutputStream;
+
+public interface IPropertyExportService {
+    /** Writes every matching property as one JSON object per line; returns the number of rows written. */
+    long exportNdjson(PropertyCriteria criteria, OutputStream out);
+}
@@ -0,0 +1,18 @@
+package com.realestate.service;
+
+import com.realestate.dto.ImageUploadReport;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.util.List;
+
+public interface IPropertyImageService {
+    /**
+     * Stores the files in parallel and appends the ones that succeeded to the listing in one batch.
+     * A bad file is reported in its own entry and does not fail the others.
+     */
+    ImageUploadReport upload(Long propId, List<MultipartFile> files);
+
+    /** Streams one image from a raw request body straight into storage and appends it to the listing. */
+    ImageUploadReport upload(Long propId, String filename, InputStream body);
+}
@@ -0,0 +1,10 @@
+package com.realestate.service;
+
+import com.realestate.dto.ImportReport;
+
+import java.io.InputStream;
+
+public interface IPropertyImportService {
+    /** Imports CSV (with a header row) or NDJSON listings for one broker; bad rows are reported, not fatal. */
+    ImportReport importProperties(Long brokerId, InputStream body, String contentType);
+}
@@ -1,6 +1,11 @@
 package com.realestate.service;
 
+import com.realestate.dto.BrokerListingPage;
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.PageQuery;
 import com.realestate.dto.PropertyCriteria;
+import com.realestate.dto.PropertyResponse;
+import com.realestate.dto.ResourceVersion;
 import com.realestate.model.Property;
 
 import java.util.List;
@@ -9,7 +14,11 @@ public interface IPropertyService {
     Property addProperty(Property property);
     Property editProperty(Property property);
     Property removeProperty(Long propId);
+    void appendImages(Long propId, List<String> imageUrls);
     Property viewProperty(Long propId);
-    List<Property> listAllProperties();
-    List<Property> listPropertyByCriteria(PropertyCriteria criteria);
+    PropertyResponse viewPropertyDetails(Long propId);
+    ResourceVersion propertyVersion(Long propId);
+    CursorPage<PropertyResponse> listProperties(PageQuery page);
+    BrokerListingPage<PropertyResponse> listPropertiesByBroker(Long brokerId, String sort, int page, Integer size);
+    CursorPage<PropertyResponse> listPropertyByCriteria(PropertyCriteria criteria, PageQuery page);
 }
@@ -0,0 +1,168 @@
+package com.realestate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.exception.ConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Outcomes of non-idempotent POSTs by {@code Idempotency-Key}, scoped per user. The first request with a
+ * key runs; a retry after it finished gets the recorded status and body back without running anything,
+ * and a duplicate arriving while it still runs waits for it instead of racing it. Requests that end in
+ * an exception are not recorded, so they can be retried with the same key.
+ * Bounded by entry count; entries expire a fixed time after the first request.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${app.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${app.idempotency.wait-ms:60000}")
+    private long waitMs;
+
+    private final ObjectMapper mapper;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(); // insertion order = expiry order
+    private long executions;
+    private long replays;
+
+    public IdempotencyStore(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    private record Recorded(int status, MediaType contentType, byte[] body) {}
+
+    private static final class Entry {
+        final String fingerprint;
+        final long expiresAt;
+        final CompletableFuture<Recorded> outcome = new CompletableFuture<>();
+
+        Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Runs {@code action} once per (user, key). Without a key it simply runs.
+     * @param fingerprint what the request was (endpoint and arguments); reusing a key for a different
+     *                    request is rejected rather than answered with the wrong response
+     */
+    public ResponseEntity<?> execute(String user, String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) return action.get();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String scoped = user + "\n" + key;
+        Entry entry;
+        boolean first = false;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            evictExpired(now);
+            entry = entries.get(scoped);
+            if (entry == null) {
+                entry = new Entry(fingerprint, now + TimeUnit.SECONDS.toMillis(ttlSeconds));
+                entries.put(scoped, entry);
+                first = true;
+                executions++;
+                // over the bound the oldest keys go first, even one still running: its retries then run again
+                Iterator<Entry> oldest = entries.values().iterator();
+                while (entries.size() > maxEntries) {
+                    oldest.next();
+                    oldest.remove();
+                }
+            }
+        }
+        if (!entry.fingerprint.equals(fingerprint)) {
+            throw new IllegalArgumentException(HEADER + " was already used for a different request");
+        }
+        return first ? runFirst(scoped, entry, action) : replay(entry);
+    }
+
+    public synchronized long executions() { return executions; }
+    public synchronized long replays() { return replays; }
+    public synchronized int size() { return entries.size(); }
+
+    private ResponseEntity<?> runFirst(String scoped, Entry entry, Supplier<ResponseEntity<?>> action) {
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            forget(scoped, entry);
+            entry.outcome.completeExceptionally(ex); // duplicates that waited see the same error
+            throw ex;
+        }
+        try {
+            entry.outcome.complete(record(response));
+        } catch (JsonProcessingException ex) {
+            forget(scoped, entry);
+            entry.outcome.completeExceptionally(new IllegalStateException("The original request could not be recorded; retry it."));
+        }
+        return response;
+    }
+
+    private ResponseEntity<?> replay(Entry entry) {
+        Recorded recorded;
+        try {
+            recorded = entry.outcome.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new ConflictException("A request with this " + HEADER + " is still in progress.");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("A request with this " + HEADER + " is still in progress.");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(ex.getCause());
+        }
+        synchronized (this) {
+            replays++;
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(recorded.status()).header(REPLAYED_HEADER, "true");
+        if (recorded.contentType() != null) builder.contentType(recorded.contentType());
+        return builder.body(recorded.body());
+    }
+
+    // Serialized now, while the first request's persistence context is still open; replays only copy bytes
+    private Recorded record(ResponseEntity<?> response) throws JsonProcessingException {
+        Object body = response.getBody();
+        int status = response.getStatusCode().value();
+        if (body == null) return new Recorded(status, null, new byte[0]);
+        if (body instanceof String text) {
+            return new Recorded(status, MediaType.TEXT_PLAIN, text.getBytes(StandardCharsets.UTF_8));
+        }
+        return new Recorded(status, MediaType.APPLICATION_JSON, mapper.writeValueAsBytes(body));
+    }
+
+    private synchronized void forget(String scoped, Entry entry) {
+        entries.remove(scoped, entry);
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue().expiresAt > now) break;
+            it.remove();
+        }
+    }
+}
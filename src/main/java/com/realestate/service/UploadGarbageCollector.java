@@ -0,0 +1,348 @@
+package com.realestate.service;
+
+import com.realestate.dto.StorageGcReport;
+import com.realestate.model.StoredBlob;
+import com.realestate.repository.ImageVariantRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.repository.StoredBlobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Reconciles the upload dir with the image rows that point into it. Files no image row (or live image
+ * variant) uses are first moved to a quarantine dir, and only deleted when they are still unused a
+ * quarantine period later; anything referenced again meanwhile is put back. Files younger than the grace
+ * period are never touched, nor are blobs an upload counted a reference to since then, so uploads in
+ * flight are safe. Blob reference counts that drifted from the image rows are corrected on the way.
+ *
+ * The directory is walked incrementally and looked up in batches, so memory stays bounded by the batch size.
+ */
+@Service
+public class UploadGarbageCollector {
+
+    private static final String PUBLIC_PREFIX = "/files/";
+
+    private final FileStorageService fileStorageService;
+    private final IImageVariantService imageVariantService;
+    private final PropertyRepository propertyRepository;
+    private final ImageVariantRepository variantRepository;
+    private final StoredBlobRepository blobRepository;
+
+    @Value("${app.storage.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.storage.gc.grace-seconds:86400}")
+    private long graceSeconds;
+
+    @Value("${app.storage.gc.quarantine-seconds:604800}")
+    private long quarantineSeconds;
+
+    @Value("${app.storage.gc.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private StorageGcReport report = new StorageGcReport();
+    private ThreadPoolTaskExecutor executor;
+
+    public UploadGarbageCollector(FileStorageService fileStorageService,
+                                  IImageVariantService imageVariantService,
+                                  PropertyRepository propertyRepository,
+                                  ImageVariantRepository variantRepository,
+                                  StoredBlobRepository blobRepository) {
+        this.fileStorageService = fileStorageService;
+        this.imageVariantService = imageVariantService;
+        this.propertyRepository = propertyRepository;
+        this.variantRepository = variantRepository;
+        this.blobRepository = blobRepository;
+    }
+
+    // Runs passes started through the API, so they never hold a request thread
+    @PostConstruct
+    void startExecutor() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("storage-gc-");
+        executor.setDaemon(true);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.gc.interval-ms:3600000}",
+               initialDelayString = "${app.storage.gc.initial-delay-ms:600000}")
+    public void scheduledRun() {
+        if (enabled) run();
+    }
+
+    /** Runs one pass and returns its report; while a pass is already running, returns that pass's progress. */
+    public StorageGcReport run() {
+        if (begin()) collect();
+        return status();
+    }
+
+    /**
+     * Starts a pass on the collector's own thread and returns at once with its progress (then polled through
+     * {@link #status()}); while a pass is already running, returns that pass's progress instead.
+     */
+    public StorageGcReport trigger() {
+        if (begin()) {
+            try {
+                executor.execute(this::collect);
+            } catch (TaskRejectedException e) {
+                failed(e);
+                finish("failed");
+            }
+        }
+        return status();
+    }
+
+    public synchronized StorageGcReport status() {
+        StorageGcReport copy = new StorageGcReport();
+        BeanUtils.copyProperties(report, copy);
+        return copy;
+    }
+
+    private boolean begin() {
+        if (!running.compareAndSet(false, true)) return false;
+        StorageGcReport fresh = new StorageGcReport();
+        fresh.setRunning(true);
+        fresh.setPhase("queued");
+        fresh.setStartedAt(Instant.now());
+        synchronized (this) {
+            report = fresh;
+        }
+        return true;
+    }
+
+    private void collect() {
+        Instant now = Instant.now();
+        Instant cutoff = now.minusSeconds(graceSeconds);
+        String phase = "failed";
+        try {
+            // oldest work first: files quarantined by earlier passes, then abandoned temp files, then the scan
+            progress(r -> r.setPhase("purge"));
+            purgeQuarantine(now.minusSeconds(quarantineSeconds), cutoff);
+            progress(r -> r.setPhase("incoming"));
+            deleteStaleIncoming(cutoff);
+            progress(r -> r.setPhase("scan"));
+            scan(cutoff);
+            phase = "done";
+        } catch (IOException | RuntimeException e) {
+            failed(e);
+        } finally {
+            finish(phase);
+        }
+    }
+
+    private void finish(String phase) {
+        progress(r -> {
+            r.setPhase(phase);
+            r.setRunning(false);
+            r.setFinishedAt(Instant.now());
+        });
+        running.set(false);
+    }
+
+    private void scan(Instant cutoff) throws IOException {
+        Path root = fileStorageService.root();
+        if (!Files.isDirectory(root)) return;
+        List<Candidate> batch = new ArrayList<>(batchSize);
+
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            // dot dirs are the storage's own (.incoming, .quarantine, the transform .cache)
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                boolean own = !dir.equals(root) && dir.getFileName().toString().startsWith(".");
+                return own ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!attrs.isRegularFile()) return FileVisitResult.CONTINUE;
+                progress(r -> {
+                    r.setFilesScanned(r.getFilesScanned() + 1);
+                    r.setBytesScanned(r.getBytesScanned() + attrs.size());
+                });
+                if (attrs.lastModifiedTime().toInstant().isBefore(cutoff)) {
+                    batch.add(new Candidate(relative(root, file), attrs.size()));
+                    if (batch.size() >= batchSize) {
+                        sweep(batch, cutoff);
+                        batch.clear();
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                failed(e);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (!batch.isEmpty()) sweep(batch, cutoff);
+    }
+
+    // One lookup per table for the whole batch; only the orphans get re-checked one by one (under their lock)
+    private void sweep(List<Candidate> batch, Instant cutoff) throws IOException {
+        List<String> urls = batch.stream().map(c -> PUBLIC_PREFIX + c.relative()).toList();
+        Map<String, Long> references = new HashMap<>();
+        for (Object[] row : propertyRepository.countImageReferences(urls)) {
+            references.put((String) row[0], (Long) row[1]);
+        }
+        Set<String> liveVariants = new HashSet<>();
+        for (Object[] row : variantRepository.findLiveVariantUrls(urls)) {
+            for (Object url : row) {
+                if (url != null) liveVariants.add((String) url);
+            }
+        }
+        Map<String, StoredBlob> blobs = new HashMap<>();
+        for (StoredBlob b : blobRepository.findAllById(batch.stream().map(Candidate::relative).toList())) {
+            blobs.put(b.getPath(), b);
+        }
+
+        for (Candidate c : batch) {
+            String url = PUBLIC_PREFIX + c.relative();
+            long used = references.getOrDefault(url, 0L);
+            if (used > 0) {
+                StoredBlob blob = blobs.get(c.relative());
+                if (blob != null && blob.getRefCount() != used
+                        && fileStorageService.reconcileReferences(c.relative(), (int) used, cutoff)) {
+                    progress(r -> r.setReferencesReconciled(r.getReferencesReconciled() + 1));
+                }
+                continue;
+            }
+            if (liveVariants.contains(url)) continue;
+            try {
+                if (fileStorageService.quarantine(c.relative(), () -> isOrphan(c.relative(), cutoff))) {
+                    progress(r -> {
+                        r.setQuarantined(r.getQuarantined() + 1);
+                        r.setBytesQuarantined(r.getBytesQuarantined() + c.size());
+                    });
+                }
+            } catch (IOException e) {
+                failed(e);
+            }
+        }
+    }
+
+    private void purgeQuarantine(Instant quarantinedBefore, Instant cutoff) throws IOException {
+        Path quarantine = fileStorageService.quarantineRoot();
+        if (!Files.isDirectory(quarantine)) return;
+
+        Files.walkFileTree(quarantine, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isRegularFile() || !attrs.lastModifiedTime().toInstant().isBefore(quarantinedBefore)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                String relative = relative(quarantine, file);
+                try {
+                    if (fileStorageService.purgeQuarantined(relative, () -> isOrphan(relative, cutoff))) {
+                        imageVariantService.discard(PUBLIC_PREFIX + relative); // no-op unless it was an original
+                        progress(r -> {
+                            r.setPurged(r.getPurged() + 1);
+                            r.setBytesReclaimed(r.getBytesReclaimed() + attrs.size());
+                        });
+                    } else {
+                        progress(r -> r.setRestored(r.getRestored() + 1));
+                    }
+                } catch (IOException e) {
+                    failed(e);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                deleteIfEmpty(dir, quarantine);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                failed(e);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    // Temp files of uploads that died before being moved into place
+    private void deleteStaleIncoming(Instant cutoff) throws IOException {
+        Path incoming = fileStorageService.incomingRoot();
+        if (!Files.isDirectory(incoming)) return;
+        try (var files = Files.newDirectoryStream(incoming)) {
+            for (Path file : files) {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attrs.isRegularFile() && attrs.lastModifiedTime().toInstant().isBefore(cutoff)
+                        && Files.deleteIfExists(file)) {
+                    progress(r -> {
+                        r.setPurged(r.getPurged() + 1);
+                        r.setBytesReclaimed(r.getBytesReclaimed() + attrs.size());
+                    });
+                }
+            }
+        }
+    }
+
+    // Evaluated under the blob's lock right before a file is moved or deleted
+    private boolean isOrphan(String relative, Instant cutoff) {
+        String url = PUBLIC_PREFIX + relative;
+        return propertyRepository.countImageReferences(url) == 0
+                && variantRepository.findLiveVariantUrls(List.of(url)).isEmpty()
+                && !blobRepository.referencedSince(relative, cutoff);
+    }
+
+    private static String relative(Path base, Path file) {
+        return base.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    private static void deleteIfEmpty(Path dir, Path base) {
+        if (dir.equals(base)) return;
+        try {
+            Files.deleteIfExists(dir);
+        } catch (IOException ignored) {
+            // still holds quarantined files; left for a later pass
+        }
+    }
+
+    private void failed(Exception e) {
+        progress(r -> {
+            r.setErrors(r.getErrors() + 1);
+            r.setLastError(e.getClass().getSimpleName() + ": " + e.getMessage());
+        });
+    }
+
+    private synchronized void progress(Consumer<StorageGcReport> update) {
+        update.accept(report);
+    }
+
+    private record Candidate(String relative, long size) {}
+}
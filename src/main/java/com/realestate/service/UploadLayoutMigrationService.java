@@ -0,0 +1,232 @@
+package com.realestate.service;
+
+import com.realestate.dto.LayoutMigrationReport;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.search.PropertySearchCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Moves files still sitting flat in the upload dir into the sharded layout while the app keeps serving.
+ * Each file first gets a legacy alias (so its old URL resolves from the moment it moves), is then renamed
+ * into its shard, and finally the image rows using it are repointed with their versions bumped. Work goes
+ * in batches with a pause in between, so a large backlog never monopolises the disk. Safe to re-run.
+ * Started from the API it runs on its own thread, with progress readable through {@link #status()}.
+ */
+@Service
+public class UploadLayoutMigrationService {
+
+    private static final String PUBLIC_PREFIX = "/files/";
+    // thumb/card/full copies go with their original: they are regenerated under its new name
+    private static final Pattern VARIANT_NAME = Pattern.compile(".+\\.(thumb|card|full)\\.[a-z0-9]+");
+
+    private final FileStorageService fileStorageService;
+    private final IImageVariantService imageVariantService;
+    private final PropertyRepository propertyRepository;
+    private final PropertySearchCache searchCache;
+    private final TransactionTemplate tx;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private LayoutMigrationReport report = new LayoutMigrationReport();
+    private ThreadPoolTaskExecutor executor;
+
+    @Value("${app.storage.layout-migration.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.storage.layout-migration.pause-ms:200}")
+    private long pauseMs;
+
+    public UploadLayoutMigrationService(FileStorageService fileStorageService,
+                                        IImageVariantService imageVariantService,
+                                        PropertyRepository propertyRepository,
+                                        PropertySearchCache searchCache,
+                                        PlatformTransactionManager txManager) {
+        this.fileStorageService = fileStorageService;
+        this.imageVariantService = imageVariantService;
+        this.propertyRepository = propertyRepository;
+        this.searchCache = searchCache;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    // Runs migrations started through the API, so they never hold a request thread
+    @PostConstruct
+    void startExecutor() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("layout-migration-");
+        executor.setDaemon(true);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdown();
+    }
+
+    /** Runs the migration on the calling thread (the startup flag) and returns its report. */
+    public LayoutMigrationReport shardFlatUploads() {
+        if (!begin()) throw new IllegalStateException("An upload layout migration is already running.");
+        migrate();
+        return status();
+    }
+
+    /**
+     * Starts the migration on its own thread and returns at once with its progress (then polled through
+     * {@link #status()}); while one is already running, returns that run's progress instead.
+     */
+    public LayoutMigrationReport start() {
+        if (begin()) {
+            try {
+                executor.execute(this::migrate);
+            } catch (TaskRejectedException e) {
+                finish(e, 0);
+            }
+        }
+        return status();
+    }
+
+    /** Progress of the running (or last) migration. */
+    public synchronized LayoutMigrationReport status() {
+        LayoutMigrationReport copy = new LayoutMigrationReport();
+        BeanUtils.copyProperties(report, copy);
+        return copy;
+    }
+
+    private boolean begin() {
+        if (!running.compareAndSet(false, true)) return false;
+        LayoutMigrationReport fresh = new LayoutMigrationReport();
+        fresh.setRunning(true);
+        fresh.setStartedAt(Instant.now());
+        synchronized (this) {
+            report = fresh;
+        }
+        return true;
+    }
+
+    private void migrate() {
+        long started = System.nanoTime();
+        Exception failure = null;
+        try {
+            Path root = fileStorageService.root();
+            if (fileStorageService.shardLevels() > 0 && Files.isDirectory(root)) moveAll(root);
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        } finally {
+            finish(failure, started);
+        }
+    }
+
+    private void moveAll(Path root) throws IOException {
+        boolean relinked = false;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(root, UploadLayoutMigrationService::isFlatUpload)) {
+            List<Path> batch = new ArrayList<>(batchSize);
+            for (Path file : entries) {
+                batch.add(file);
+                if (batch.size() >= batchSize) {
+                    relinked |= moveBatch(batch);
+                    batch.clear();
+                    pause();
+                }
+            }
+            if (!batch.isEmpty()) relinked |= moveBatch(batch);
+        } finally {
+            if (relinked) searchCache.clear();
+        }
+    }
+
+    private void finish(Exception failure, long started) {
+        progress(r -> {
+            if (failure != null) r.setLastError(failure.getClass().getSimpleName() + ": " + failure.getMessage());
+            if (started != 0) r.setElapsedMs((System.nanoTime() - started) / 1_000_000);
+            r.setRunning(false);
+            r.setFinishedAt(Instant.now());
+        });
+        running.set(false);
+    }
+
+    /** @return true when any image rows were repointed */
+    private boolean moveBatch(List<Path> files) {
+        progress(r -> r.setBatches(r.getBatches() + 1));
+        boolean relinkedAny = false;
+        for (Path file : files) {
+            boolean relinked;
+            try {
+                relinked = move(file);
+            } catch (IOException | RuntimeException e) {
+                progress(r -> {
+                    r.setScanned(r.getScanned() + 1);
+                    r.setFailed(r.getFailed() + 1);
+                });
+                continue;
+            }
+            relinkedAny |= relinked;
+            progress(r -> {
+                r.setScanned(r.getScanned() + 1);
+                r.setMoved(r.getMoved() + 1);
+                if (relinked) r.setRelinked(r.getRelinked() + 1);
+            });
+        }
+        return relinkedAny;
+    }
+
+    private synchronized void progress(Consumer<LayoutMigrationReport> update) {
+        update.accept(report);
+    }
+
+    /** @return true when image rows were repointed to the new path */
+    private boolean move(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        String sharded = fileStorageService.shardedPathForName(name);
+        Path target = fileStorageService.root().resolve(sharded);
+
+        fileStorageService.registerLegacyAlias(name, sharded);
+        Files.createDirectories(target.getParent());
+        Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+
+        String oldUrl = PUBLIC_PREFIX + name;
+        String newUrl = PUBLIC_PREFIX + sharded;
+        Integer relinked = tx.execute(status -> {
+            propertyRepository.bumpVersionsForImage(oldUrl, Instant.now());
+            return propertyRepository.replaceImageUrl(oldUrl, newUrl);
+        });
+        if (relinked == null || relinked == 0) return false;
+
+        imageVariantService.discard(oldUrl);
+        List<Long> propIds = propertyRepository.findIdsByImageUrl(newUrl);
+        if (!propIds.isEmpty()) imageVariantService.schedule(propIds.get(0), List.of(newUrl));
+        return true;
+    }
+
+    private static boolean isFlatUpload(Path entry) {
+        String name = entry.getFileName().toString();
+        return !name.startsWith(".") && !VARIANT_NAME.matcher(name).matches() && Files.isRegularFile(entry);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
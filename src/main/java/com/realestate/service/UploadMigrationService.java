@@ -0,0 +1,85 @@
+package com.realestate.service;
+
+import com.realestate.repository.PropertyRepository;
+import com.realestate.search.PropertySearchCache;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Moves flat legacy uploads (/files/prop-1-uuid.jpg) into content-addressed storage.
+ * Each file becomes (or joins) a blob holding one reference per listing image that used it. The image
+ * rows are repointed and their properties' versions bumped, and the old name is kept as an alias so
+ * bookmarked and cached URLs keep resolving. Safe to re-run: only flat names still referenced are picked up, a page at a time.
+ */
+@Service
+public class UploadMigrationService {
+
+    private static final String PUBLIC_PREFIX = "/files/";
+    private static final int BATCH = 500;
+
+    private final FileStorageService fileStorageService;
+    private final IImageVariantService imageVariantService;
+    private final PropertyRepository propertyRepository;
+    private final PropertySearchCache searchCache;
+    private final TransactionTemplate tx;
+
+    public UploadMigrationService(FileStorageService fileStorageService,
+                                  IImageVariantService imageVariantService,
+                                  PropertyRepository propertyRepository,
+                                  PropertySearchCache searchCache,
+                                  PlatformTransactionManager txManager) {
+        this.fileStorageService = fileStorageService;
+        this.imageVariantService = imageVariantService;
+        this.propertyRepository = propertyRepository;
+        this.searchCache = searchCache;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    /** @return number of legacy files migrated */
+    public int migrateLegacyUploads() throws IOException {
+        if (!fileStorageService.isContentAddressed()) return 0;
+        Path root = fileStorageService.root();
+        int migrated = 0;
+        String after = "";
+        List<String> urls;
+        do {
+            urls = propertyRepository.findFlatImageUrls(PUBLIC_PREFIX, after, PageRequest.of(0, BATCH));
+            for (String url : urls) {
+                if (migrate(root, url)) migrated++;
+            }
+            if (!urls.isEmpty()) after = urls.get(urls.size() - 1);
+        } while (urls.size() == BATCH);
+        if (migrated > 0) searchCache.clear();
+        return migrated;
+    }
+
+    private boolean migrate(Path root, String url) throws IOException {
+        String legacyName = url.substring(PUBLIC_PREFIX.length());
+        Path legacy = root.resolve(legacyName).normalize();
+        if (!legacy.startsWith(root) || !Files.isRegularFile(legacy)) return false; // missing: left for orphan cleanup
+
+        // stored without references: they are counted below, from the rows actually repointed
+        String blobPath;
+        try (InputStream in = Files.newInputStream(legacy)) {
+            blobPath = fileStorageService.storeBlob(in, fileStorageService.getExtension(legacyName), 0);
+        }
+        String newUrl = PUBLIC_PREFIX + blobPath;
+        tx.executeWithoutResult(status -> fileStorageService.addReferences(blobPath, () -> {
+            propertyRepository.bumpVersionsForImage(url, Instant.now());
+            return propertyRepository.replaceImageUrl(url, newUrl);
+        }));
+        fileStorageService.registerLegacyAlias(legacyName, blobPath);
+        imageVariantService.discard(url); // regenerated for the new URL by the variant backfill
+        Files.deleteIfExists(legacy);
+        return true;
+    }
+}
@@ -1,12 +1,23 @@
 package com.realestate.service.impl;
 
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.PageQuery;
+import com.realestate.dto.ReviewResponse;
 import com.realestate.exception.NotFoundException;
 import com.realestate.model.Broker;
+import com.realestate.model.BrokerRating;
+import com.realestate.model.Customer;
+import com.realestate.repository.BrokerRatingRepository;
 import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.CustomerRepository;
+import com.realestate.search.PageCursor;
 import com.realestate.service.IBrokerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -14,9 +25,21 @@ import java.util.List;
 public class BrokerServiceImpl implements IBrokerService {
 
     private final BrokerRepository brokerRepository;
+    private final BrokerRatingRepository ratingRepository;
+    private final CustomerRepository customerRepository;
 
-    public BrokerServiceImpl(BrokerRepository brokerRepository) {
+    @Value("${app.pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-size:100}")
+    private int maxPageSize;
+
+    public BrokerServiceImpl(BrokerRepository brokerRepository,
+                             BrokerRatingRepository ratingRepository,
+                             CustomerRepository customerRepository) {
         this.brokerRepository = brokerRepository;
+        this.ratingRepository = ratingRepository;
+        this.customerRepository = customerRepository;
     }
 
     @Override
@@ -26,9 +49,12 @@ public class BrokerServiceImpl implements IBrokerService {
 
     @Override
     public Broker editBroker(Broker broker) {
-        if (broker.getBroId() == null || !brokerRepository.existsById(broker.getBroId())) {
+        Broker existing = broker.getBroId() == null ? null : brokerRepository.findById(broker.getBroId()).orElse(null);
+        if (existing == null) {
             throw new NotFoundException("Broker not found: " + broker.getBroId());
         }
+        // without a version the merge would treat the broker as new; a stale one is rejected on merge
+        if (broker.getVersion() == null) broker.setVersion(existing.getVersion());
         return brokerRepository.save(broker);
     }
 
@@ -52,4 +78,52 @@ public class BrokerServiceImpl implements IBrokerService {
     public List<Broker> listAllBrokers() {
         return brokerRepository.findAll();
     }
+
+    /**
+     * Inserts the rating row on its own (the broker's ratings collection is never loaded) and then
+     * updates the stats in place. The broker row is locked only from that UPDATE to commit, and
+     * readers of the broker are never blocked by it.
+     */
+    @Override
+    public ReviewResponse rateBroker(Long broId, BrokerRating rating, String customerEmail) {
+        if (rating.getRating() < 1 || rating.getRating() > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+        Broker broker = brokerRepository.findById(broId)
+                .orElseThrow(() -> new NotFoundException("Broker not found: " + broId));
+        Customer customer = customerRepository.findByUserEmail(customerEmail)
+                .orElseThrow(() -> new IllegalArgumentException("Customer not found"));
+
+        rating.setId(null);
+        rating.setCreatedAt(LocalDateTime.now()); // feeds page on it; never taken from the client
+        rating.setBroker(broker);
+        rating.setCustomer(customer);
+        BrokerRating saved = ratingRepository.save(rating);
+        brokerRepository.addRating(broId, rating.getRating());
+        // the same slim entry the feed serves: no broker or customer entity in the response
+        return new ReviewResponse(saved.getId(), customer.getCustName(), saved.getRating(), saved.getComment(),
+                saved.getCreatedAt());
+    }
+
+    // Keyset on (createdAt, id): one projection query per page, no Broker or Customer entities loaded
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ReviewResponse> listRatings(Long broId, PageQuery page) {
+        if (!brokerRepository.existsById(broId)) {
+            throw new NotFoundException("Broker not found: " + broId);
+        }
+        int size = page.resolveSize(defaultPageSize, maxPageSize);
+        PageCursor.TimePosition after = PageCursor.decodeTimed(page.getCursor());
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<ReviewResponse> rows = after == null
+                ? ratingRepository.findFeed(broId, limit)
+                : ratingRepository.findFeedAfter(broId, after.getCreatedAt(), after.getId(), limit);
+
+        boolean hasMore = rows.size() > size;
+        List<ReviewResponse> items = hasMore ? rows.subList(0, size) : rows;
+        ReviewResponse last = hasMore ? items.get(items.size() - 1) : null;
+        String next = last == null ? null : PageCursor.encode(last.getCreatedAt(), last.getId());
+        Long total = page.isIncludeTotal() ? ratingRepository.countByBroker_BroId(broId) : null;
+        return new CursorPage<>(items, next, hasMore, items.size(), total);
+    }
 }
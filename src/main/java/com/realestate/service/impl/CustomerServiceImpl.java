@@ -26,9 +26,13 @@ public class CustomerServiceImpl implements ICustomerService {
 
     @Override
     public Customer editCustomer(Customer customer) {
-        if (customer.getCustId() == null || !customerRepository.existsById(customer.getCustId())) {
+        Customer existing = customer.getCustId() == null ? null
+                : customerRepository.findById(customer.getCustId()).orElse(null);
+        if (existing == null) {
             throw new NotFoundException("Customer not found: " + customer.getCustId());
         }
+        // favorites and owned listings change only through their own join-table endpoints
+        customer.setProperties(existing.getProperties());
         return customerRepository.save(customer);
     }
 
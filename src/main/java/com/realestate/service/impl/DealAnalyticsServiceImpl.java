@@ -0,0 +1,109 @@
+package com.realestate.service.impl;
+
+import com.realestate.analytics.DealDimension;
+import com.realestate.analytics.PriceSketch;
+import com.realestate.dto.DealAnalyticsResponse;
+import com.realestate.model.DealRollup;
+import com.realestate.repository.DealRollupRepository;
+import com.realestate.service.IDealAnalyticsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Transactional(readOnly = true)
+public class DealAnalyticsServiceImpl implements IDealAnalyticsService {
+
+    private static final int MAX_PERCENTILES = 10;
+
+    private final DealRollupRepository rollupRepository;
+
+    @Value("${app.analytics.default-range-days:30}")
+    private int defaultRangeDays;
+
+    @Value("${app.analytics.max-range-days:731}")
+    private int maxRangeDays;
+
+    public DealAnalyticsServiceImpl(DealRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    @Override
+    public DealAnalyticsResponse dealStats(String groupBy, String key, LocalDate from, LocalDate to,
+                                           List<Double> percentiles, boolean daily) {
+        DealDimension dimension = DealDimension.parse(groupBy);
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusDays(defaultRangeDays - 1L) : from;
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= maxRangeDays) {
+            throw new IllegalArgumentException("Date range is limited to " + maxRangeDays + " days");
+        }
+        List<Double> ps = percentiles == null || percentiles.isEmpty() ? List.of(50.0, 90.0) : percentiles;
+        if (ps.size() > MAX_PERCENTILES || ps.stream().anyMatch(p -> p == null || p < 0 || p > 100)) {
+            throw new IllegalArgumentException("percentiles must be at most " + MAX_PERCENTILES + " values between 0 and 100");
+        }
+
+        List<DealRollup> rows = key == null || key.isBlank()
+                ? rollupRepository.findRange(dimension, start, end)
+                : rollupRepository.findRange(dimension, dimension.normalizeKey(key), start, end);
+
+        // rows come ordered by day, so each group's points do too
+        Map<String, DealRollup> totals = new LinkedHashMap<>();
+        Map<String, List<DealAnalyticsResponse.Point>> points = new LinkedHashMap<>();
+        for (DealRollup row : rows) {
+            totals.computeIfAbsent(row.getKey(), k -> new DealRollup(dimension, start, k)).merge(row);
+            if (daily) {
+                DealAnalyticsResponse.Point point = new DealAnalyticsResponse.Point();
+                point.setDay(row.getDay());
+                point.setDealCount(row.getDealCount());
+                point.setGmv(row.getGmv());
+                point.setPercentiles(percentiles(PriceSketch.fromBytes(row.getSketch()), ps));
+                points.computeIfAbsent(row.getKey(), k -> new ArrayList<>()).add(point);
+            }
+        }
+
+        List<DealAnalyticsResponse.Group> groups = new ArrayList<>();
+        for (DealRollup total : totals.values()) {
+            DealAnalyticsResponse.Group group = new DealAnalyticsResponse.Group();
+            group.setKey(total.getKey());
+            group.setLabel(total.getLabel());
+            group.setDealCount(total.getDealCount());
+            group.setGmv(total.getGmv());
+            group.setMinCost(total.getMinCost());
+            group.setMaxCost(total.getMaxCost());
+            group.setPercentiles(percentiles(PriceSketch.fromBytes(total.getSketch()), ps));
+            if (daily) group.setDays(points.get(total.getKey()));
+            groups.add(group);
+        }
+        groups.sort(Comparator.comparingDouble(DealAnalyticsResponse.Group::getGmv).reversed()
+                .thenComparing(DealAnalyticsResponse.Group::getKey));
+
+        DealAnalyticsResponse response = new DealAnalyticsResponse();
+        response.setFrom(start);
+        response.setTo(end);
+        response.setGroupBy(dimension.getParam());
+        response.setDealCount(groups.stream().mapToLong(DealAnalyticsResponse.Group::getDealCount).sum());
+        response.setGmv(groups.stream().mapToDouble(DealAnalyticsResponse.Group::getGmv).sum());
+        response.setGroups(groups);
+        return response;
+    }
+
+    private static Map<String, Double> percentiles(PriceSketch sketch, List<Double> ps) {
+        Map<String, Double> out = new LinkedHashMap<>();
+        for (double p : ps) {
+            String name = p == Math.rint(p) ? "p" + (long) p : "p" + p;
+            out.put(name, sketch.quantile(p / 100));
+        }
+        return out;
+    }
+}
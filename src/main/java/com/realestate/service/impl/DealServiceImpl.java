@@ -1,5 +1,10 @@
 package com.realestate.service.impl;
 
+import com.realestate.analytics.DealFact;
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.DealSummary;
+import com.realestate.dto.PageQuery;
+import com.realestate.exception.ConflictException;
 import com.realestate.exception.NotFoundException;
 import com.realestate.model.Customer;
 import com.realestate.model.Deal;
@@ -7,10 +12,19 @@ import com.realestate.model.Property;
 import com.realestate.repository.CustomerRepository;
 import com.realestate.repository.DealRepository;
 import com.realestate.repository.PropertyRepository;
+import com.realestate.search.PageCursor;
+import com.realestate.search.PropertyChangedEvent;
+import com.realestate.search.PropertySearchRow;
+import com.realestate.service.DealRollupService;
 import com.realestate.service.IDealService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -21,25 +35,54 @@ public class DealServiceImpl implements IDealService {
     private final DealRepository dealRepository;
     private final PropertyRepository propertyRepository;
     private final CustomerRepository customerRepository;
+    private final DealRollupService rollupService;
+    private final ApplicationEventPublisher events;
+
+    // Open-ended date filters become these bounds, so the queries never need null checks
+    private static final LocalDate MIN_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    @Value("${app.pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-size:100}")
+    private int maxPageSize;
 
     public DealServiceImpl(DealRepository dealRepository,
                            PropertyRepository propertyRepository,
-                           CustomerRepository customerRepository) {
+                           CustomerRepository customerRepository,
+                           DealRollupService rollupService,
+                           ApplicationEventPublisher events) {
         this.dealRepository = dealRepository;
         this.propertyRepository = propertyRepository;
         this.customerRepository = customerRepository;
+        this.rollupService = rollupService;
+        this.events = events;
     }
 
     @Override
     public Deal addDeal(Property property, Customer customer, double dealCost) {
-        Property prop = propertyRepository.findById(property.getPropId())
-                .orElseThrow(() -> new NotFoundException("Property not found: " + property.getPropId()));
-        if (!prop.isStatus()) {
-            throw new IllegalStateException("Property already sold/rented.");
-        }
+        return addDeal(property.getPropId(), customer.getCustId(), dealCost);
+    }
 
-        Customer cust = customerRepository.findById(customer.getCustId())
-                .orElseThrow(() -> new NotFoundException("Customer not found: " + customer.getCustId()));
+    /**
+     * Claims the listing first with one conditional UPDATE, so concurrent buyers are decided by the
+     * database in a single round trip: the winner goes on to write the deal, every loser gets a
+     * ConflictException before any other work and without a pessimistic lock.
+     */
+    @Override
+    public Deal addDeal(Long propId, Long custId, double dealCost) {
+        if (propertyRepository.claimAvailable(propId, Instant.now()) == 0) {
+            if (!propertyRepository.existsById(propId)) {
+                throw new NotFoundException("Property not found: " + propId);
+            }
+            throw new ConflictException("Property already sold/rented.");
+        }
+        // a missing customer rolls the claim back with the rest of the transaction
+        Customer cust = customerRepository.findById(custId)
+                .orElseThrow(() -> new NotFoundException("Customer not found: " + custId));
+        // read after the claim, so this already has status = false and the new version
+        Property prop = propertyRepository.findById(propId).orElseThrow();
 
         // Build Deal manually (no Lombok.builder)
         Deal deal = new Deal();
@@ -48,22 +91,67 @@ public class DealServiceImpl implements IDealService {
         deal.setProperty(prop);
         deal.setCustomer(cust);
 
-        // Mark property unavailable
-        prop.setStatus(false);
-
-        // Track ownership/rental
-        cust.getProperties().add(prop);
-
-        Deal saved = dealRepository.save(deal);
-        propertyRepository.save(prop);
-        customerRepository.save(cust);
+        // Track ownership/rental: one join-table row, without loading the customer's other properties
+        customerRepository.insertProperty(custId, propId);
 
+        Deal saved;
+        try {
+            saved = dealRepository.saveAndFlush(deal);
+        } catch (DataIntegrityViolationException ex) {
+            // relisted after an earlier deal: property_id is unique in deals
+            throw new ConflictException("Property already has a deal.");
+        }
+        // analytics buckets commit (or roll back) with the deal
+        rollupService.record(new DealFact(saved.getDealId(), saved.getDealDate(), dealCost, prop.getCity(),
+                prop.getConfiguration(), prop.getOfferType(), prop.getBroker().getBroId(), prop.getBroker().getBroName()));
+        events.publishEvent(PropertyChangedEvent.saved(PropertySearchRow.of(prop)));
         return saved;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Deal> listAllDeals() {
-        return dealRepository.findAll();
+    public CursorPage<DealSummary> listDeals(LocalDate from, LocalDate to, PageQuery page) {
+        return page(null, from, to, page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<DealSummary> listCustomerDeals(Long custId, LocalDate from, LocalDate to, PageQuery page) {
+        if (!customerRepository.existsById(custId)) {
+            throw new NotFoundException("Customer not found: " + custId);
+        }
+        return page(custId, from, to, page);
+    }
+
+    // One projection query per page, keyset on (dealDate desc, dealId desc); custId null = all customers
+    private CursorPage<DealSummary> page(Long custId, LocalDate from, LocalDate to, PageQuery page) {
+        LocalDate lower = from == null ? MIN_DATE : from;
+        LocalDate upper = to == null ? MAX_DATE : to;
+        if (lower.isAfter(upper)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        int size = page.resolveSize(defaultPageSize, maxPageSize);
+
+        // the first page starts just past the upper bound; a cursor never reaches above it
+        LocalDate beforeDate = upper;
+        long beforeId = Long.MAX_VALUE;
+        PageCursor.TimePosition after = PageCursor.decodeTimed(page.getCursor());
+        if (after != null && !after.getCreatedAt().toLocalDate().isAfter(upper)) {
+            beforeDate = after.getCreatedAt().toLocalDate();
+            beforeId = after.getId();
+        }
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<DealSummary> rows = custId == null
+                ? dealRepository.findPage(lower, beforeDate, beforeId, limit)
+                : dealRepository.findCustomerPage(custId, lower, beforeDate, beforeId, limit);
+
+        boolean hasMore = rows.size() > size;
+        List<DealSummary> items = hasMore ? rows.subList(0, size) : rows;
+        DealSummary last = hasMore ? items.get(items.size() - 1) : null;
+        String next = last == null ? null : PageCursor.encode(last.getDealDate().atStartOfDay(), last.getDealId());
+        Long total = !page.isIncludeTotal() ? null : custId == null
+                ? dealRepository.countByDealDateBetween(lower, upper)
+                : dealRepository.countByCustomer_CustIdAndDealDateBetween(custId, lower, upper);
+        return new CursorPage<>(items, next, hasMore, items.size(), total);
     }
 }
@@ -0,0 +1,74 @@
+package com.realestate.service.impl;
+
+import com.realestate.exception.NotFoundException;
+import com.realestate.repository.CustomerRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.service.IFavoriteService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Favorites as single customer_properties rows: one indexed statement per call, no Customer or
+ * Property entity loaded. Not transactional as a whole, so each statement commits on its own and a
+ * duplicate insert from a concurrent request can be absorbed.
+ */
+@Service
+public class FavoriteServiceImpl implements IFavoriteService {
+
+    private final CustomerRepository customerRepository;
+    private final PropertyRepository propertyRepository;
+
+    @Value("${app.favorites.max-bulk-ids:200}")
+    private int maxBulkIds;
+
+    public FavoriteServiceImpl(CustomerRepository customerRepository, PropertyRepository propertyRepository) {
+        this.customerRepository = customerRepository;
+        this.propertyRepository = propertyRepository;
+    }
+
+    @Override
+    public boolean addFavorite(Long custId, Long propId) {
+        requireCustomer(custId);
+        if (!propertyRepository.existsById(propId)) {
+            throw new NotFoundException("Property not found: " + propId);
+        }
+        try {
+            return customerRepository.insertProperty(custId, propId) > 0;
+        } catch (DataIntegrityViolationException raced) {
+            // the same favorite inserted concurrently
+            return false;
+        }
+    }
+
+    @Override
+    public boolean removeFavorite(Long custId, Long propId) {
+        requireCustomer(custId);
+        return customerRepository.deleteProperty(custId, propId) > 0;
+    }
+
+    @Override
+    public boolean isFavorite(Long custId, Long propId) {
+        return customerRepository.countProperty(custId, propId) > 0;
+    }
+
+    @Override
+    public List<Long> favoriteIds(Long custId, Collection<Long> propIds) {
+        requireCustomer(custId);
+        if (propIds == null) return customerRepository.findPropertyIds(custId);
+        if (propIds.size() > maxBulkIds) {
+            throw new IllegalArgumentException("At most " + maxBulkIds + " property ids per request");
+        }
+        if (propIds.isEmpty()) return List.of();
+        return customerRepository.findPropertyIdsAmong(custId, propIds);
+    }
+
+    private void requireCustomer(Long custId) {
+        if (!customerRepository.existsById(custId)) {
+            throw new NotFoundException("Customer not found: " + custId);
+        }
+    }
+}
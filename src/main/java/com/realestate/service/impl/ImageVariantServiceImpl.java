@@ -0,0 +1,204 @@
+package com.realestate.service.impl;
+
+import com.realestate.enums.ImageVariantStatus;
+import com.realestate.media.ImageResizer;
+import com.realestate.model.ImageVariant;
+import com.realestate.repository.ImageVariantRepository;
+import com.realestate.service.FileStorageService;
+import com.realestate.service.IImageVariantService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Background image pipeline: each uploaded original gets a full, card and thumb copy written next to it
+ * ({@code name.full.jpg}, {@code name.card.jpg}, {@code name.thumb.jpg}). Variants belong to the image,
+ * not the listing: a content-addressed image shared by several listings is resized once. Work runs on a small bounded pool
+ * so decoding large photos cannot starve request threads; a full queue leaves the image PENDING and it is
+ * picked up again on the next start.
+ */
+@Service
+public class ImageVariantServiceImpl implements IImageVariantService {
+
+    private static final int MAX_ERROR_LENGTH = 250;
+    private static final String PUBLIC_PREFIX = "/files/";
+
+    private final ImageVariantRepository variantRepository;
+    private final FileStorageService fileStorageService;
+
+    @Value("${app.images.workers:2}")
+    private int workers;
+
+    @Value("${app.images.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.images.full-size:1600}")
+    private int fullSize;
+
+    @Value("${app.images.card-size:480}")
+    private int cardSize;
+
+    @Value("${app.images.thumb-size:160}")
+    private int thumbSize;
+
+    @Value("${app.images.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    @Value("${app.images.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${app.images.backfill-on-start:true}")
+    private boolean backfillOnStart;
+
+    @Value("${app.images.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    private ThreadPoolTaskExecutor executor;
+
+    public ImageVariantServiceImpl(ImageVariantRepository variantRepository, FileStorageService fileStorageService) {
+        this.variantRepository = variantRepository;
+        this.fileStorageService = fileStorageService;
+    }
+
+    @PostConstruct
+    void startWorkers() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-");
+        executor.setDaemon(true);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        executor.shutdown();
+    }
+
+    // Requeues work interrupted by a restart and registers images uploaded before the pipeline existed.
+    // Both walks are keyset pages by URL, so a large catalogue is never held in memory at once.
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!backfillOnStart) return;
+        String after = "";
+        List<ImageVariant> pending;
+        do {
+            pending = variantRepository.findByStatusAndOriginalUrlGreaterThanOrderByOriginalUrl(
+                    ImageVariantStatus.PENDING, after, PageRequest.of(0, backfillBatchSize));
+            pending.forEach(v -> submit(v.getOriginalUrl()));
+            if (!pending.isEmpty()) after = pending.get(pending.size() - 1).getOriginalUrl();
+        } while (pending.size() == backfillBatchSize);
+
+        after = "";
+        List<Object[]> rows;
+        do {
+            rows = variantRepository.findImagesWithoutVariants(PUBLIC_PREFIX, after,
+                    PageRequest.of(0, backfillBatchSize));
+            List<ImageVariant> legacy = new ArrayList<>(rows.size());
+            for (Object[] row : rows) legacy.add(new ImageVariant((String) row[0], (Long) row[1]));
+            variantRepository.saveAll(legacy);
+            legacy.forEach(v -> submit(v.getOriginalUrl()));
+            if (!rows.isEmpty()) after = (String) rows.get(rows.size() - 1)[0];
+        } while (rows.size() == backfillBatchSize);
+    }
+
+    @Override
+    public void schedule(Long propId, List<String> originalUrls) {
+        // content-addressed uploads repeat URLs across listings: resize each distinct image once
+        Set<String> known = new HashSet<>();
+        for (ImageVariant v : variantRepository.findAllById(originalUrls)) {
+            if (v.getStatus() != ImageVariantStatus.FAILED) known.add(v.getOriginalUrl());
+        }
+        List<ImageVariant> rows = new ArrayList<>(originalUrls.size());
+        for (String url : new LinkedHashSet<>(originalUrls)) {
+            if (!known.contains(url)) rows.add(new ImageVariant(url, propId));
+        }
+        variantRepository.saveAll(rows);
+        rows.forEach(v -> submit(v.getOriginalUrl()));
+    }
+
+    @Override
+    public void discard(String originalUrl) {
+        variantRepository.findById(originalUrl).ifPresent(v -> {
+            deleteQuietly(v.getThumbUrl());
+            deleteQuietly(v.getCardUrl());
+            deleteQuietly(v.getFullUrl());
+            variantRepository.delete(v);
+        });
+    }
+
+    private void submit(String originalUrl) {
+        try {
+            executor.execute(() -> process(originalUrl));
+        } catch (TaskRejectedException ex) {
+            // queue full: stays PENDING until the next start
+        }
+    }
+
+    private void process(String originalUrl) {
+        Path source = fileStorageService.resolvePublicUrl(originalUrl);
+        List<String> written = new ArrayList<>(3);
+        try {
+            if (source == null || !Files.exists(source)) throw new IOException("Original file is missing");
+            BufferedImage upright = ImageResizer.decodeUpright(source, maxPixels);
+
+            // each size is scaled from the previous one, so the chain is one progressive downscale
+            BufferedImage full = ImageResizer.scaleToFit(upright, fullSize);
+            String fullUrl = writeVariant(originalUrl, source, "full", full, written);
+            BufferedImage card = ImageResizer.scaleToFit(full, cardSize);
+            String cardUrl = writeVariant(originalUrl, source, "card", card, written);
+            String thumbUrl = writeVariant(originalUrl, source, "thumb", ImageResizer.scaleToFit(card, thumbSize), written);
+
+            int updated = variantRepository.markReady(originalUrl, thumbUrl, cardUrl, fullUrl,
+                    upright.getWidth(), upright.getHeight(), Instant.now());
+            if (updated == 0) written.forEach(this::deleteQuietly); // image was deleted meanwhile
+        } catch (Exception ex) {
+            written.forEach(this::deleteQuietly);
+            String message = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+            variantRepository.markFailed(originalUrl,
+                    message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message, Instant.now());
+        }
+    }
+
+    private String writeVariant(String originalUrl, Path source, String size, BufferedImage img,
+                                List<String> written) throws IOException {
+        String ext = ImageResizer.extensionFor(img);
+        String url = stripExtension(originalUrl) + "." + size + "." + ext;
+        ImageResizer.write(img, source.resolveSibling(stripExtension(source.getFileName().toString()) + "." + size + "." + ext),
+                jpegQuality);
+        written.add(url);
+        return url;
+    }
+
+    private void deleteQuietly(String publicUrl) {
+        try {
+            fileStorageService.deleteByPublicUrl(publicUrl);
+        } catch (IOException ignored) {
+            // left for orphan cleanup
+        }
+    }
+
+    private static String stripExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        int slash = name.lastIndexOf('/');
+        return dot > slash ? name.substring(0, dot) : name;
+    }
+}
@@ -0,0 +1,101 @@
+package com.realestate.service.impl;
+
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.PageQuery;
+import com.realestate.dto.ReviewResponse;
+import com.realestate.exception.NotFoundException;
+import com.realestate.model.Property;
+import com.realestate.model.PropertyComment;
+import com.realestate.model.User;
+import com.realestate.repository.PropertyCommentRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.repository.UserRepository;
+import com.realestate.search.PageCursor;
+import com.realestate.search.PropertyChangedEvent;
+import com.realestate.service.IPropertyCommentService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Transactional
+public class PropertyCommentServiceImpl implements IPropertyCommentService {
+
+    private final PropertyRepository propertyRepository;
+    private final PropertyCommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher events;
+
+    @Value("${app.pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-size:100}")
+    private int maxPageSize;
+
+    public PropertyCommentServiceImpl(PropertyRepository propertyRepository,
+                                      PropertyCommentRepository commentRepository,
+                                      UserRepository userRepository,
+                                      ApplicationEventPublisher events) {
+        this.propertyRepository = propertyRepository;
+        this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+        this.events = events;
+    }
+
+    // Keyset on (createdAt, commentId): one projection query per page whatever the page or feed size
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ReviewResponse> getComments(Long propertyId, PageQuery page) {
+        if (!propertyRepository.existsById(propertyId)) {
+            throw new NotFoundException("Property not found: " + propertyId);
+        }
+        int size = page.resolveSize(defaultPageSize, maxPageSize);
+        PageCursor.TimePosition after = PageCursor.decodeTimed(page.getCursor());
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<ReviewResponse> rows = after == null
+                ? commentRepository.findFeed(propertyId, limit)
+                : commentRepository.findFeedAfter(propertyId, after.getCreatedAt(), after.getId(), limit);
+
+        boolean hasMore = rows.size() > size;
+        List<ReviewResponse> items = hasMore ? rows.subList(0, size) : rows;
+        ReviewResponse last = hasMore ? items.get(items.size() - 1) : null;
+        String next = last == null ? null : PageCursor.encode(last.getCreatedAt(), last.getId());
+        Long total = page.isIncludeTotal() ? commentRepository.countByProperty_PropId(propertyId) : null;
+        return new CursorPage<>(items, next, hasMore, items.size(), total);
+    }
+
+    /**
+     * O(1) per review: no aggregate scan over the listing's comments and no read-modify-write of the
+     * property row. Unrated comments are plain comments and leave the rating stats alone.
+     */
+    @Override
+    public ReviewResponse addComment(Long propertyId, PropertyComment comment, String userEmail) {
+        Integer rating = comment.getRating();
+        if (rating != null && (rating < 1 || rating > 5)) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+        Property property = propertyRepository.findById(propertyId)
+                .orElseThrow(() -> new NotFoundException("Property not found: " + propertyId));
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        comment.setCommentId(null);
+        comment.setCreatedAt(LocalDateTime.now()); // feeds page on it; never taken from the client
+        comment.setProperty(property);
+        comment.setUser(user);
+        PropertyComment saved = commentRepository.saveAndFlush(comment);
+        if (rating != null) {
+            propertyRepository.addRating(propertyId, rating, Instant.now());
+            propertyRepository.findSearchRowById(propertyId)
+                    .ifPresent(row -> events.publishEvent(PropertyChangedEvent.saved(row)));
+        }
+        // the same slim entry the feed serves: no user row, no listing
+        return commentRepository.findFeedEntry(propertyId, saved.getCommentId()).orElseThrow();
+    }
+}
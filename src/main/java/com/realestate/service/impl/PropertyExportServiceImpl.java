@@ -0,0 +1,102 @@
+package com.realestate.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.realestate.dto.PropertyCriteria;
+import com.realestate.dto.PropertyResponse;
+import com.realestate.model.Property;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.search.PropertySpecifications;
+import com.realestate.service.IPropertyExportService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams the catalog row by row. Properties are read through a forward-only cursor and written in
+ * chunks: each chunk loads its images in one IN query, is flushed to the client, and is then
+ * detached from the persistence context, so memory use does not grow with the catalog.
+ */
+@Service
+public class PropertyExportServiceImpl implements IPropertyExportService {
+
+    private final PropertyRepository propertyRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectWriter writer;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${app.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${app.export.chunk-size:500}")
+    private int chunkSize;
+
+    public PropertyExportServiceImpl(PropertyRepository propertyRepository,
+                                     PlatformTransactionManager txManager,
+                                     ObjectMapper objectMapper) {
+        this.propertyRepository = propertyRepository;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.writer = objectMapper.writerFor(PropertyResponse.class);
+    }
+
+    // Runs on the async response thread, outside any request transaction, hence the template.
+    @Override
+    public long exportNdjson(PropertyCriteria criteria, OutputStream out) {
+        Long written = readOnlyTx.execute(tx -> {
+            try (Stream<Property> rows = propertyRepository.streamByCriteria(
+                    PropertySpecifications.byCriteria(criteria), fetchSize)) {
+                long count = 0;
+                List<PropertyResponse> chunk = new ArrayList<>(chunkSize);
+                Iterator<Property> it = rows.iterator();
+                while (it.hasNext()) {
+                    chunk.add(PropertyResponse.withoutImages(it.next()));
+                    if (chunk.size() == chunkSize) {
+                        count += writeChunk(chunk, out);
+                    }
+                }
+                count += writeChunk(chunk, out);
+                return count;
+            }
+        });
+        return written == null ? 0 : written;
+    }
+
+    private int writeChunk(List<PropertyResponse> chunk, OutputStream out) {
+        if (chunk.isEmpty()) return 0;
+        Map<Long, PropertyResponse> byId = new HashMap<>();
+        for (PropertyResponse r : chunk) byId.put(r.getPropId(), r);
+        for (Object[] row : propertyRepository.findImageUrls(byId.keySet())) {
+            byId.get((Long) row[0]).getImageUrls().add((String) row[1]);
+        }
+        try {
+            for (PropertyResponse r : chunk) {
+                // writeValue(OutputStream) would close the response stream after the first row
+                out.write(writer.writeValueAsBytes(r));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int n = chunk.size();
+        chunk.clear();
+        em.clear();
+        return n;
+    }
+}
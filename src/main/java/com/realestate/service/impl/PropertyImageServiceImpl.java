@@ -0,0 +1,152 @@
+package com.realestate.service.impl;
+
+import com.realestate.dto.ImageUploadReport;
+import com.realestate.dto.ImageUploadReport.FileResult;
+import com.realestate.exception.NotFoundException;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.service.FileStorageService;
+import com.realestate.service.IImageVariantService;
+import com.realestate.service.IPropertyImageService;
+import com.realestate.service.IPropertyService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Image uploads. Files are hashed and moved into the blob store in parallel on a small bounded pool
+ * (a saturated pool runs the work on the request thread instead of rejecting it), then every stored
+ * file is appended to the listing with one batched insert. Variants are queued afterwards.
+ */
+@Service
+public class PropertyImageServiceImpl implements IPropertyImageService {
+
+    private final PropertyRepository propertyRepository;
+    private final IPropertyService propertyService;
+    private final FileStorageService fileStorageService;
+    private final IImageVariantService imageVariantService;
+
+    @Value("${app.upload.workers:4}")
+    private int workers;
+
+    @Value("${app.upload.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${spring.servlet.multipart.max-file-size:10MB}")
+    private DataSize maxFileSize;
+
+    private ThreadPoolTaskExecutor executor;
+
+    public PropertyImageServiceImpl(PropertyRepository propertyRepository,
+                                    IPropertyService propertyService,
+                                    FileStorageService fileStorageService,
+                                    IImageVariantService imageVariantService) {
+        this.propertyRepository = propertyRepository;
+        this.propertyService = propertyService;
+        this.fileStorageService = fileStorageService;
+        this.imageVariantService = imageVariantService;
+    }
+
+    @PostConstruct
+    void startWorkers() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("upload-");
+        executor.setDaemon(true);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        executor.shutdown();
+    }
+
+    @Override
+    public ImageUploadReport upload(Long propId, List<MultipartFile> files) {
+        long started = System.nanoTime();
+        requireProperty(propId);
+
+        List<CompletableFuture<FileResult>> pending = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            pending.add(CompletableFuture.supplyAsync(() -> store(propId, file), executor));
+        }
+        List<FileResult> results = new ArrayList<>(files.size());
+        for (CompletableFuture<FileResult> f : pending) results.add(f.join());
+
+        return attach(propId, results, started);
+    }
+
+    @Override
+    public ImageUploadReport upload(Long propId, String filename, InputStream body) {
+        long started = System.nanoTime();
+        requireProperty(propId);
+
+        FileResult result;
+        try {
+            result = FileResult.stored(filename,
+                    fileStorageService.storeStreamForProperty(body, filename, maxFileSize.toBytes()));
+        } catch (IOException e) {
+            result = FileResult.failed(filename, e.getMessage());
+        }
+        return attach(propId, List.of(result), started);
+    }
+
+    // Checked before any file is written, so an upload to a missing listing leaves nothing behind
+    private void requireProperty(Long propId) {
+        if (!propertyRepository.existsById(propId)) {
+            throw new NotFoundException("Property not found: " + propId);
+        }
+    }
+
+    private FileResult store(Long propId, MultipartFile file) {
+        String name = file.getOriginalFilename();
+        try {
+            return FileResult.stored(name, fileStorageService.storeForProperty(propId, file));
+        } catch (IOException | RuntimeException e) {
+            return FileResult.failed(name, e.getMessage());
+        }
+    }
+
+    private ImageUploadReport attach(Long propId, List<FileResult> results, long started) {
+        List<String> urls = results.stream().filter(FileResult::isStored).map(FileResult::getUrl).toList();
+        try {
+            propertyService.appendImages(propId, urls);
+        } catch (RuntimeException e) {
+            release(urls); // the listing never got these references
+            throw e;
+        }
+        if (!urls.isEmpty()) imageVariantService.schedule(propId, urls);
+
+        ImageUploadReport report = new ImageUploadReport();
+        report.setFiles(results);
+        report.setReceived(results.size());
+        report.setStored(urls.size());
+        report.setFailed(results.size() - urls.size());
+        report.setProperty(propertyService.viewPropertyDetails(propId));
+        report.setElapsedMs((System.nanoTime() - started) / 1_000_000);
+        return report;
+    }
+
+    private void release(List<String> urls) {
+        for (String url : urls) {
+            try {
+                fileStorageService.deleteByPublicUrl(url);
+            } catch (IOException ignored) {
+                // left for the storage cleanup
+            }
+        }
+    }
+}
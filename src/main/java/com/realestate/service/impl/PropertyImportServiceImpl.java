@@ -0,0 +1,315 @@
+package com.realestate.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.dto.ImportReport;
+import com.realestate.dto.PropertyRequest;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.exception.NotFoundException;
+import com.realestate.model.Broker;
+import com.realestate.model.Property;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.search.PropertyChangedEvent;
+import com.realestate.search.PropertySearchRow;
+import com.realestate.service.IPropertyImportService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk listing import. The body is read line by line, each row is parsed and validated against
+ * PropertyRequest, and valid rows are persisted in chunks: one transaction per chunk, flushed as
+ * JDBC batches (properties and property_images) and then cleared. If a chunk fails in the database
+ * it is rolled back and its rows are retried one at a time, so a bad row only rejects itself.
+ */
+@Service
+public class PropertyImportServiceImpl implements IPropertyImportService {
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final List<String> REQUIRED_COLUMNS =
+            List.of("configuration", "offertype", "offercost", "areasqft", "address", "city");
+
+    private final BrokerRepository brokerRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${app.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.import.max-errors:1000}")
+    private int maxErrors;
+
+    public PropertyImportServiceImpl(BrokerRepository brokerRepository,
+                                     Validator validator,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager txManager,
+                                     ApplicationEventPublisher events) {
+        this.brokerRepository = brokerRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(txManager);
+        this.events = events;
+    }
+
+    @Override
+    public ImportReport importProperties(Long brokerId, InputStream body, String contentType) {
+        if (!brokerRepository.existsById(brokerId)) {
+            throw new NotFoundException("Broker not found: " + brokerId);
+        }
+        boolean csv = isCsv(contentType);
+
+        long started = System.nanoTime();
+        ImportReport report = new ImportReport();
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Map<String, Integer> header = null;
+            long lineNo = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                if (csv && header == null) {
+                    header = parseHeader(line);
+                    continue;
+                }
+                report.setReceived(report.getReceived() + 1);
+
+                ParsedRow row;
+                try {
+                    row = csv ? fromCsv(header, line, lineNo) : fromJson(line, lineNo);
+                } catch (IllegalArgumentException | JsonProcessingException e) {
+                    reject(report, lineNo, "Unreadable row: " + e.getMessage());
+                    continue;
+                }
+                String violations = validate(row.request);
+                if (violations != null) {
+                    reject(report, lineNo, violations);
+                    continue;
+                }
+
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) writeChunk(brokerId, chunk, report);
+            }
+            writeChunk(brokerId, chunk, report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        report.setElapsedMs(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0 : report.getImported() * 1_000_000_000d / elapsedNanos);
+        return report;
+    }
+
+    private void writeChunk(Long brokerId, List<ParsedRow> chunk, ImportReport report) {
+        if (chunk.isEmpty()) return;
+        try {
+            tx.executeWithoutResult(status -> persist(brokerId, chunk));
+            report.setImported(report.getImported() + chunk.size());
+        } catch (RuntimeException chunkFailure) {
+            for (ParsedRow row : chunk) {
+                try {
+                    tx.executeWithoutResult(status -> persist(brokerId, List.of(row)));
+                    report.setImported(report.getImported() + 1);
+                } catch (RuntimeException e) {
+                    reject(report, row.line, "Rejected by database: " + rootMessage(e));
+                }
+            }
+        }
+        chunk.clear();
+    }
+
+    private void persist(Long brokerId, List<ParsedRow> rows) {
+        Broker broker = em.getReference(Broker.class, brokerId);
+        for (ParsedRow row : rows) {
+            Property p = toEntity(row);
+            p.setBroker(broker);
+            em.persist(p);
+            events.publishEvent(PropertyChangedEvent.saved(PropertySearchRow.of(p)));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private static Property toEntity(ParsedRow row) {
+        PropertyRequest r = row.request;
+        Property p = new Property();
+        p.setConfiguration(r.getConfiguration());
+        p.setOfferType(r.getOfferType());
+        p.setOfferCost(r.getOfferCost());
+        p.setAreaSqft(r.getAreaSqft());
+        p.setAddress(r.getAddress());
+        p.setStreet(r.getStreet());
+        p.setCity(r.getCity());
+        p.setStatus(true);
+        p.getImageUrls().addAll(row.imageUrls);
+        return p;
+    }
+
+    // ------------------------------------------------------------------ parsing
+
+    private static boolean isCsv(String contentType) {
+        MediaType type;
+        try {
+            type = MediaType.parseMediaType(contentType == null ? "" : contentType);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Unsupported content type. Use text/csv or application/x-ndjson");
+        }
+        if (CSV.isCompatibleWith(type)) return true;
+        if (NDJSON.isCompatibleWith(type)) return false;
+        throw new IllegalArgumentException("Unsupported content type. Use text/csv or application/x-ndjson");
+    }
+
+    private static Map<String, Integer> parseHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!header.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + required
+                        + ". Expected: configuration,offerType,offerCost,areaSqft,address,street,city[,imageUrls]");
+            }
+        }
+        return header;
+    }
+
+    private static ParsedRow fromCsv(Map<String, Integer> header, String line, long lineNo) {
+        List<String> fields = splitCsv(line);
+        PropertyRequest r = new PropertyRequest();
+        String config = field(header, fields, "configuration");
+        String offer = field(header, fields, "offertype");
+        String cost = field(header, fields, "offercost");
+        String area = field(header, fields, "areasqft");
+        if (config != null) r.setConfiguration(PropertyConfig.valueOf(config.toUpperCase(Locale.ROOT)));
+        if (offer != null) r.setOfferType(OfferType.valueOf(offer.toUpperCase(Locale.ROOT)));
+        if (cost != null) r.setOfferCost(Double.parseDouble(cost));
+        if (area != null) r.setAreaSqft(Double.parseDouble(area));
+        r.setAddress(field(header, fields, "address"));
+        r.setStreet(field(header, fields, "street"));
+        r.setCity(field(header, fields, "city"));
+
+        List<String> images = new ArrayList<>();
+        String imageUrls = field(header, fields, "imageurls");
+        if (imageUrls != null) {
+            // several images in one cell are separated by '|'
+            for (String url : imageUrls.split("\\|")) {
+                if (!url.isBlank()) images.add(url.trim());
+            }
+        }
+        return new ParsedRow(lineNo, r, images);
+    }
+
+    private ParsedRow fromJson(String line, long lineNo) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(line);
+        if (!node.isObject()) throw new IllegalArgumentException("expected a JSON object");
+        PropertyRequest r = objectMapper.treeToValue(node, PropertyRequest.class);
+        List<String> images = new ArrayList<>();
+        for (JsonNode url : node.path("imageUrls")) {
+            if (url.isTextual() && !url.asText().isBlank()) images.add(url.asText());
+        }
+        return new ParsedRow(lineNo, r, images);
+    }
+
+    private static String field(Map<String, Integer> header, List<String> fields, String name) {
+        Integer i = header.get(name);
+        if (i == null || i >= fields.size()) return null;
+        String v = fields.get(i).trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    // RFC 4180 fields on a single line: commas inside double quotes, "" as an escaped quote
+    private static List<String> splitCsv(String line) {
+        List<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cur.append('"');
+                    i++;
+                } else if (ch == '"') {
+                    quoted = false;
+                } else {
+                    cur.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                out.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(ch);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("unterminated quoted field");
+        out.add(cur.toString());
+        return out;
+    }
+
+    private String validate(PropertyRequest request) {
+        Set<ConstraintViolation<PropertyRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .reduce((a, b) -> a + "; " + b)
+                .orElse(null);
+    }
+
+    private void reject(ImportReport report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ImportReport.RowError(line, message));
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable t = e;
+        while (t.getCause() != null && t.getCause() != t) t = t.getCause();
+        return t.getMessage();
+    }
+
+    private static final class ParsedRow {
+        final long line;
+        final PropertyRequest request;
+        final List<String> imageUrls;
+
+        ParsedRow(long line, PropertyRequest request, List<String> imageUrls) {
+            this.line = line;
+            this.request = request;
+            this.imageUrls = imageUrls;
+        }
+    }
+}
@@ -1,38 +1,133 @@
 package com.realestate.service.impl;
 
+import com.realestate.dto.BrokerListingPage;
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.ImageVariants;
+import com.realestate.dto.PageQuery;
 import com.realestate.dto.PropertyCriteria;
+import com.realestate.dto.PropertyResponse;
+import com.realestate.dto.ResourceVersion;
+import com.realestate.enums.ImageVariantStatus;
 import com.realestate.exception.NotFoundException;
 import com.realestate.model.Property;
+import com.realestate.repository.BrokerRepository;
 import com.realestate.repository.PropertyRepository;
+import com.realestate.search.PageCursor;
+import com.realestate.search.SearchSort;
+import com.realestate.search.PropertyChangedEvent;
+import com.realestate.search.PropertySearchCache;
+import com.realestate.search.PropertySearchIndex;
+import com.realestate.search.PropertySearchRow;
 import com.realestate.search.PropertySpecifications;
 import com.realestate.service.IPropertyService;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @Service
 @Transactional
 public class PropertyServiceImpl implements IPropertyService {
 
     private final PropertyRepository propertyRepository;
+    private final BrokerRepository brokerRepository;
+    private final PropertySearchIndex searchIndex;
+    private final PropertySearchCache searchCache;
+    private final ApplicationEventPublisher events;
 
-    public PropertyServiceImpl(PropertyRepository propertyRepository) {
+    @Value("${app.pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-size:100}")
+    private int maxPageSize;
+
+    public PropertyServiceImpl(PropertyRepository propertyRepository,
+                               BrokerRepository brokerRepository,
+                               PropertySearchIndex searchIndex,
+                               PropertySearchCache searchCache,
+                               ApplicationEventPublisher events) {
         this.propertyRepository = propertyRepository;
+        this.brokerRepository = brokerRepository;
+        this.searchIndex = searchIndex;
+        this.searchCache = searchCache;
+        this.events = events;
     }
 
     @Override
     public Property addProperty(Property property) {
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        events.publishEvent(PropertyChangedEvent.saved(PropertySearchRow.of(saved)));
+        return saved;
     }
 
+    /**
+     * Copies the broker-editable fields onto the stored row. Ratings and review counts are not taken
+     * from the request. A request carrying a stale version fails with an optimistic-lock conflict;
+     * one without a version (older clients) edits whatever is current.
+     */
     @Override
     public Property editProperty(Property property) {
-        if (property.getPropId() == null || !propertyRepository.existsById(property.getPropId())) {
-            throw new NotFoundException("Property not found: " + property.getPropId());
+        Long propId = property.getPropId();
+        Property existing = propId == null ? null : propertyRepository.findById(propId).orElse(null);
+        if (existing == null) {
+            throw new NotFoundException("Property not found: " + propId);
+        }
+        if (property.getVersion() != null && !property.getVersion().equals(existing.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Property.class, propId);
+        }
+        // the old city/config tell the search cache which entries the edit can affect
+        PropertySearchRow before = PropertySearchRow.of(existing);
+
+        existing.setConfiguration(property.getConfiguration());
+        existing.setOfferType(property.getOfferType());
+        existing.setOfferCost(property.getOfferCost());
+        existing.setAreaSqft(property.getAreaSqft());
+        existing.setAddress(property.getAddress());
+        existing.setStreet(property.getStreet());
+        existing.setCity(property.getCity());
+        existing.setStatus(property.isStatus());
+        if (property.getBroker() != null && property.getBroker().getBroId() != null
+                && !property.getBroker().getBroId().equals(existing.getBroker().getBroId())) {
+            existing.setBroker(brokerRepository.getReferenceById(property.getBroker().getBroId()));
+        }
+        // a detached entity may carry an unloaded image collection; leave the stored images alone then
+        if (property.getImageUrls() != existing.getImageUrls() && Hibernate.isInitialized(property.getImageUrls())) {
+            existing.getImageUrls().clear();
+            existing.getImageUrls().addAll(property.getImageUrls());
         }
-        return propertyRepository.save(property);
+
+        Property saved = propertyRepository.saveAndFlush(existing);
+        events.publishEvent(PropertyChangedEvent.changed(before, PropertySearchRow.of(saved)));
+        return saved;
+    }
+
+    /**
+     * Adds image rows with one batched insert and a version bump, instead of loading and re-saving the
+     * listing with its whole image collection.
+     */
+    @Override
+    public void appendImages(Long propId, List<String> imageUrls) {
+        if (imageUrls.isEmpty()) return;
+        if (propertyRepository.bumpVersion(propId, Instant.now()) == 0) {
+            throw new NotFoundException("Property not found: " + propId);
+        }
+        propertyRepository.appendImageUrls(propId, imageUrls);
+        // the search fields are unchanged; the event still drops cached pages and ETags of the listing
+        PropertySearchRow row = propertyRepository.findSearchRowById(propId).orElseThrow();
+        events.publishEvent(PropertyChangedEvent.changed(row, row));
     }
 
     @Override
@@ -40,6 +135,7 @@ public class PropertyServiceImpl implements IPropertyService {
         Property existing = propertyRepository.findById(propId)
                 .orElseThrow(() -> new NotFoundException("Property not found: " + propId));
         propertyRepository.delete(existing);
+        events.publishEvent(PropertyChangedEvent.removed(PropertySearchRow.of(existing)));
         return existing;
     }
 
@@ -52,14 +148,134 @@ public class PropertyServiceImpl implements IPropertyService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Property> listAllProperties() {
-        return propertyRepository.findAll();
+    public ResourceVersion propertyVersion(Long propId) {
+        return propertyRepository.findVersionById(propId)
+                .orElseThrow(() -> new NotFoundException("Property not found: " + propId));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Property> listPropertyByCriteria(PropertyCriteria criteria) {
-        Specification<Property> spec = PropertySpecifications.byCriteria(criteria);
-        return propertyRepository.findAll(spec);
+    public PropertyResponse viewPropertyDetails(Long propId) {
+        PropertyResponse response = propertyRepository.findResponseById(propId)
+                .orElseThrow(() -> new NotFoundException("Property not found: " + propId));
+        attachImages(List.of(response));
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BrokerListingPage<PropertyResponse> listPropertiesByBroker(Long brokerId, String sort, int page, Integer size) {
+        if (page < 0) throw new IllegalArgumentException("Page must be >= 0");
+        int pageSize = PageQuery.resolveSize(size, defaultPageSize, maxPageSize);
+        Sort order = brokerSort(sort);
+
+        List<Object[]> rows = propertyRepository.findBrokerPageWithCounts(brokerId, PageRequest.of(page, pageSize, order));
+        long total;
+        long active;
+        List<Long> ids = new ArrayList<>(rows.size());
+        if (rows.isEmpty()) {
+            Object[] counts = propertyRepository.countByBroker(brokerId).get(0);
+            total = ((Number) counts[0]).longValue();
+            active = ((Number) counts[1]).longValue();
+        } else {
+            for (Object[] row : rows) ids.add((Long) row[0]);
+            total = ((Number) rows.get(0)[1]).longValue();
+            active = ((Number) rows.get(0)[2]).longValue();
+        }
+        return new BrokerListingPage<>(loadResponses(ids), page, pageSize, sort, active, total - active, total);
+    }
+
+    // newest = most recently created first; propId breaks ties so paging is stable
+    private static Sort brokerSort(String sort) {
+        return switch (sort == null ? "newest" : sort.toLowerCase(Locale.ROOT)) {
+            case "newest" -> Sort.by(Sort.Direction.DESC, "propId");
+            case "price" -> Sort.by(Sort.Order.asc("offerCost"), Sort.Order.asc("propId"));
+            case "rating" -> Sort.by(Sort.Order.desc("avgRating"), Sort.Order.desc("propId"));
+            default -> throw new IllegalArgumentException("Invalid sort. Use: newest, price, rating");
+        };
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PropertyResponse> listProperties(PageQuery page) {
+        return findPage(null, page, SearchSort.ID, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PropertyResponse> listPropertyByCriteria(PropertyCriteria criteria, PageQuery page) {
+        SearchSort sort = SearchSort.parse(page.getSort());
+        boolean descending = sort.isDescending(page.getDirection());
+        return searchCache.get(criteria, page, () -> searchIndex.isReady()
+                ? findIndexedPage(criteria, page, sort, descending)
+                : findPage(PropertySpecifications.byCriteria(criteria), page, sort, descending));
+    }
+
+    // Same paging contract as findPage, but ids come from the in-memory index and only the page is loaded.
+    private CursorPage<PropertyResponse> findIndexedPage(PropertyCriteria criteria, PageQuery page,
+                                                         SearchSort sort, boolean descending) {
+        int size = page.resolveSize(defaultPageSize, maxPageSize);
+        PageCursor.Position after = PageCursor.decode(page.getCursor(), sort, descending);
+
+        List<Long> ids = searchIndex.searchSorted(criteria, sort, descending, after, size + 1);
+        boolean hasMore = ids.size() > size;
+        if (hasMore) ids = ids.subList(0, size);
+
+        List<PropertyResponse> items = loadResponses(ids);
+        String next = hasMore ? nextCursor(items, sort, descending) : null;
+        Long total = page.isIncludeTotal() ? searchIndex.count(criteria) : null;
+        return new CursorPage<>(items, next, hasMore, items.size(), total);
+    }
+
+    // Keyset page on (sort value, propId): fetch one extra row to learn whether another page exists.
+    // Ordered by an indexed column, so the database stops after size + 1 rows instead of sorting every match.
+    private CursorPage<PropertyResponse> findPage(Specification<Property> filter, PageQuery page,
+                                                  SearchSort sort, boolean descending) {
+        int size = page.resolveSize(defaultPageSize, maxPageSize);
+        PageCursor.Position after = PageCursor.decode(page.getCursor(), sort, descending);
+
+        Specification<Property> spec = Specification.where(filter)
+                .and(PropertySpecifications.after(sort, descending, after));
+        Sort.Direction dir = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort order = sort.isIdOnly()
+                ? Sort.by(dir, "propId")
+                : Sort.by(dir, sort.getAttribute()).and(Sort.by(dir, "propId"));
+        List<PropertyResponse> rows = propertyRepository.findResponses(spec, order, size + 1);
+
+        boolean hasMore = rows.size() > size;
+        List<PropertyResponse> items = hasMore ? rows.subList(0, size) : rows;
+        attachImages(items);
+        String next = hasMore ? nextCursor(items, sort, descending) : null;
+        Long total = page.isIncludeTotal() ? propertyRepository.count(Specification.where(filter)) : null;
+
+        return new CursorPage<>(items, next, hasMore, items.size(), total);
+    }
+
+    private static String nextCursor(List<PropertyResponse> items, SearchSort sort, boolean descending) {
+        PropertyResponse last = items.get(items.size() - 1);
+        return PageCursor.encode(sort, descending, sort.valueOf(last), last.getPropId());
+    }
+
+    /** Projects the given ids (keeping their order) and attaches their images: two statements per page. */
+    private List<PropertyResponse> loadResponses(List<Long> ids) {
+        if (ids.isEmpty()) return new ArrayList<>();
+        Map<Long, Integer> order = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) order.put(ids.get(i), i);
+        List<PropertyResponse> items = new ArrayList<>(propertyRepository.findResponsesByIds(ids));
+        items.sort(Comparator.comparing(r -> order.get(r.getPropId())));
+        attachImages(items);
+        return items;
+    }
+
+    private void attachImages(List<PropertyResponse> items) {
+        if (items.isEmpty()) return;
+        Map<Long, PropertyResponse> byId = new HashMap<>();
+        for (PropertyResponse r : items) byId.put(r.getPropId(), r);
+        for (Object[] row : propertyRepository.findImagesWithVariants(byId.keySet())) {
+            PropertyResponse r = byId.get((Long) row[0]);
+            r.getImageUrls().add((String) row[1]);
+            r.getImages().add(new ImageVariants((String) row[1], (ImageVariantStatus) row[2],
+                    (String) row[3], (String) row[4], (String) row[5]));
+        }
     }
 }
@@ -0,0 +1,155 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.dto.ReviewResponse;
+import com.realestate.exception.NotFoundException;
+import com.realestate.model.Broker;
+import com.realestate.model.BrokerRating;
+import com.realestate.model.Customer;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.CustomerRepository;
+import com.realestate.service.IBrokerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:brokerratings",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads"
+})
+class BrokerRatingStressTest {
+
+    private static final int RATINGS = 2000;
+    private static final int CUSTOMERS = 20;
+
+    @Autowired private IBrokerService brokerService;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private CustomerRepository customerRepository;
+    @Autowired private JdbcTemplate jdbc;
+
+    @Test
+    void concurrentRatingsAreNeverLost() throws Exception {
+        Broker broker = newBroker("stress-broker@test.com");
+        List<String> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) customers.add(newCustomer("stress-customer-" + i + "@test.com"));
+
+        long expectedSum = 0;
+        for (int i = 0; i < RATINGS; i++) expectedSum += 1 + i % 5;
+
+        ExecutorService pool = Executors.newFixedThreadPool(12);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < RATINGS; i++) {
+                int stars = 1 + i % 5;
+                String customer = customers.get(i % CUSTOMERS);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    brokerService.rateBroker(broker.getBroId(), rating(stars), customer);
+                    return null;
+                }));
+            }
+            // readers and profile edits run alongside; neither may block or undo a rating
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 50; i++) {
+                    Broker current = brokerService.viewBroker(broker.getBroId());
+                    assertTrue(current.getRatingCount() <= RATINGS);
+                    current.setBroName("Stress Broker " + i);
+                    current.setVersion(null);
+                    brokerService.editBroker(current);
+                    assertFalse(brokerRepository.findAllOrderByRatingDesc().isEmpty());
+                }
+                return null;
+            }));
+            start.countDown();
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        Broker after = brokerRepository.findById(broker.getBroId()).orElseThrow();
+        assertEquals(RATINGS, after.getRatingCount());
+        assertEquals(expectedSum, after.getRatingSum());
+        assertEquals((double) expectedSum / RATINGS, after.getAvgRating(), 1e-9);
+        assertEquals("Stress Broker 49", after.getBroName());
+        assertEquals(RATINGS, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM broker_ratings WHERE broker_id = ?", Integer.class, broker.getBroId()));
+    }
+
+    @Test
+    void rejectsOutOfRangeRatingsAndUnknownBrokers() {
+        Broker broker = newBroker("strict-broker@test.com");
+        String customer = newCustomer("strict-customer@test.com");
+
+        assertThrows(IllegalArgumentException.class, () -> brokerService.rateBroker(broker.getBroId(), rating(0), customer));
+        assertThrows(NotFoundException.class, () -> brokerService.rateBroker(-1L, rating(3), customer));
+
+        ReviewResponse saved = brokerService.rateBroker(broker.getBroId(), rating(4), customer);
+        assertEquals(4, saved.getRating());
+        Broker after = brokerRepository.findById(broker.getBroId()).orElseThrow();
+        assertEquals(4.0, after.getAvgRating(), 1e-9);
+        assertEquals(1, after.getRatingCount());
+    }
+
+    @Test
+    void backfillRecountsRowsWrittenBeforeTheRatingSum() {
+        Broker broker = newBroker("backfill-broker@test.com");
+        String customer = newCustomer("backfill-customer@test.com");
+        brokerService.rateBroker(broker.getBroId(), rating(2), customer);
+        brokerService.rateBroker(broker.getBroId(), rating(5), customer);
+
+        jdbc.update("UPDATE brokers SET rating_sum = NULL, rating_count = 9, avg_rating = 1 WHERE bro_id = ?",
+                broker.getBroId());
+        assertTrue(brokerRepository.backfillRatings() >= 1);
+
+        Broker after = brokerRepository.findById(broker.getBroId()).orElseThrow();
+        assertEquals(2, after.getRatingCount());
+        assertEquals(7L, after.getRatingSum());
+        assertEquals(3.5, after.getAvgRating(), 1e-9);
+    }
+
+    private BrokerRating rating(int stars) {
+        BrokerRating r = new BrokerRating();
+        r.setRating(stars);
+        r.setComment("Stars: " + stars);
+        return r;
+    }
+
+    private Broker newBroker(String email) {
+        User u = new User();
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker b = new Broker();
+        b.setBroName("Stress Broker");
+        b.setUser(u);
+        return brokerRepository.save(b);
+    }
+
+    private String newCustomer(String email) {
+        User u = new User();
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setRole("CUSTOMER");
+        Customer c = new Customer();
+        c.setCustName("Stress Customer");
+        c.setUser(u);
+        customerRepository.save(c);
+        return email;
+    }
+}
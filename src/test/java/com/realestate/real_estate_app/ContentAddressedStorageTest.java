@@ -0,0 +1,119 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.model.Broker;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.repository.StoredBlobRepository;
+import com.realestate.service.FileStorageService;
+import com.realestate.service.IPropertyService;
+import com.realestate.service.UploadMigrationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:contentstore",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads",
+    "app.images.backfill-on-start=false"
+})
+class ContentAddressedStorageTest {
+
+    @Autowired private FileStorageService storage;
+    @Autowired private UploadMigrationService migrationService;
+    @Autowired private StoredBlobRepository blobRepository;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private IPropertyService propertyService;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private MockMvc mvc;
+
+    @Test
+    void identicalUploadsShareOneFileUntilTheLastReferenceGoes() throws Exception {
+        byte[] photo = ("same photo " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+
+        String first = storage.storeForProperty(1L, new MockMultipartFile("file", "a.jpg", "image/jpeg", photo));
+        String second = storage.storeForProperty(2L, new MockMultipartFile("file", "copy.JPEG", "image/jpeg", photo));
+
+        assertEquals(first, second);
+        assertTrue(first.matches("/files/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.jpg"), first);
+        String blobPath = first.substring("/files/".length());
+        assertEquals(2, blobRepository.findById(blobPath).orElseThrow().getRefCount());
+        Path file = storage.resolvePublicUrl(first);
+        assertArrayEquals(photo, Files.readAllBytes(file));
+
+        assertFalse(storage.deleteByPublicUrl(first), "still referenced by the other listing");
+        assertTrue(Files.exists(file));
+        assertTrue(storage.deleteByPublicUrl(first));
+        assertFalse(Files.exists(file));
+        assertTrue(blobRepository.findById(blobPath).isEmpty());
+    }
+
+    @Test
+    void legacyUploadsMigrateAndOldUrlsKeepResolving() throws Exception {
+        byte[] photo = ("legacy photo " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+        String legacyName = "prop-7-" + UUID.randomUUID() + ".png";
+        Files.createDirectories(storage.root());
+        Files.write(storage.root().resolve(legacyName), photo);
+        String legacyUrl = "/files/" + legacyName;
+        Property a = newProperty(legacyUrl);
+        Property b = newProperty(legacyUrl);
+        long versionBefore = a.getVersion();
+
+        assertEquals(1, migrationService.migrateLegacyUploads());
+        assertEquals(0, migrationService.migrateLegacyUploads(), "re-running is a no-op");
+
+        Property migrated = propertyRepository.findById(a.getPropId()).orElseThrow();
+        String newUrl = propertyService.viewPropertyDetails(a.getPropId()).getImageUrls().get(0);
+        assertNotEquals(legacyUrl, newUrl);
+        assertEquals(newUrl, propertyService.viewPropertyDetails(b.getPropId()).getImageUrls().get(0));
+        assertTrue(migrated.getVersion() > versionBefore, "cached representations must revalidate");
+        assertEquals(2, blobRepository.findById(newUrl.substring("/files/".length())).orElseThrow().getRefCount());
+        assertFalse(Files.exists(storage.root().resolve(legacyName)));
+
+        mvc.perform(get(legacyUrl)).andExpect(status().isOk()).andExpect(content().bytes(photo));
+        mvc.perform(get(newUrl)).andExpect(status().isOk()).andExpect(content().bytes(photo));
+    }
+
+    private Property newProperty(String imageUrl) {
+        User u = new User();
+        u.setEmail("cas-broker-" + System.nanoTime() + "@test.com");
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker broker = new Broker();
+        broker.setBroName("CAS Broker");
+        broker.setUser(u);
+        broker = brokerRepository.save(broker);
+
+        Property p = new Property();
+        p.setConfiguration(PropertyConfig.FLAT);
+        p.setOfferType(OfferType.SELL);
+        p.setOfferCost(4_000_000);
+        p.setAreaSqft(1100);
+        p.setAddress("CAS test");
+        p.setCity("Pune");
+        p.setBroker(broker);
+        p.getImageUrls().add(imageUrl);
+        return propertyService.addProperty(p);
+    }
+}
@@ -0,0 +1,301 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.analytics.PriceSketch;
+import com.realestate.controller.DealAnalyticsController;
+import com.realestate.dto.DealAnalyticsResponse;
+import com.realestate.dto.RollupRebuildReport;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.model.Broker;
+import com.realestate.model.Customer;
+import com.realestate.model.Deal;
+import com.realestate.model.DealRollup;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.CustomerRepository;
+import com.realestate.repository.DealRepository;
+import com.realestate.repository.DealRollupRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.service.DealRollupService;
+import com.realestate.service.IDealAnalyticsService;
+import com.realestate.service.IDealService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:dealanalytics",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads",
+    "app.analytics.rebuild-chunk-size=37"
+})
+class DealAnalyticsTest {
+
+    private static final String[] CITIES = {"Pune", "Mumbai", "Nagpur"};
+
+    @Autowired private IDealService dealService;
+    @Autowired private IDealAnalyticsService analyticsService;
+    @Autowired private DealRollupService rollupService;
+    @Autowired private DealAnalyticsController analyticsController;
+    @Autowired private DealRollupRepository rollupRepository;
+    @Autowired private DealRepository dealRepository;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private CustomerRepository customerRepository;
+
+    private final Random random = new Random(7);
+
+    @Test
+    void sketchQuantilesAreWithinOnePercentAndMergeExactly() {
+        double[] prices = new double[5000];
+        PriceSketch all = new PriceSketch();
+        PriceSketch left = new PriceSketch();
+        PriceSketch right = new PriceSketch();
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = Math.exp(10 + random.nextDouble() * 8);   // ~22k .. ~66M
+            all.add(prices[i]);
+            (i % 2 == 0 ? left : right).add(prices[i]);
+        }
+        Arrays.sort(prices);
+        for (double q : new double[]{0, 0.1, 0.5, 0.9, 0.99, 1}) {
+            double exact = prices[(int) Math.floor(q * (prices.length - 1))];
+            assertEquals(exact, all.quantile(q), exact * PriceSketch.RELATIVE_ACCURACY, "q=" + q);
+        }
+        PriceSketch merged = PriceSketch.fromBytes(left.toBytes()).merge(PriceSketch.fromBytes(right.toBytes()));
+        assertArrayEquals(all.toBytes(), merged.toBytes());
+        assertEquals(5000, merged.count());
+        assertNull(new PriceSketch().quantile(0.5));
+    }
+
+    @Test
+    void concurrentDealsUpdateRollupsExactly() throws Exception {
+        Broker broker = newBroker("analytics-broker@test.com", "Analytics Realty");
+        List<Property> properties = new ArrayList<>();
+        for (int i = 0; i < 120; i++) properties.add(newProperty(broker, CITIES[i % 3], PropertyConfig.values()[i % 3]));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < properties.size(); i++) {
+            Property p = properties.get(i);
+            Customer buyer = newCustomer("analytics-customer-" + i + "@test.com");
+            double cost = 1_000_000 + i * 10_000;
+            futures.add(pool.submit(() -> dealService.addDeal(p.getPropId(), buyer.getCustId(), cost)));
+        }
+        for (Future<?> f : futures) f.get();
+        pool.shutdown();
+
+        LocalDate today = LocalDate.now();
+        DealAnalyticsResponse byCity = analyticsService.dealStats("city", null, today, today, null, false);
+        Map<String, DealAnalyticsResponse.Group> groups = byCity.getGroups().stream()
+                .collect(Collectors.toMap(DealAnalyticsResponse.Group::getKey, g -> g));
+        for (int c = 0; c < CITIES.length; c++) {
+            int city = c;
+            double[] costs = java.util.stream.IntStream.range(0, 120).filter(i -> i % 3 == city)
+                    .mapToDouble(i -> 1_000_000 + i * 10_000).sorted().toArray();
+            DealAnalyticsResponse.Group g = groups.get(CITIES[c].toLowerCase());
+            assertEquals(CITIES[c], g.getLabel());
+            assertEquals(40, g.getDealCount());
+            assertEquals(Arrays.stream(costs).sum(), g.getGmv(), 0.001);
+            assertEquals(costs[0], g.getMinCost());
+            assertEquals(costs[39], g.getMaxCost());
+            double median = costs[(int) Math.floor(0.5 * 39)];
+            assertEquals(median, g.getPercentiles().get("p50"), median * PriceSketch.RELATIVE_ACCURACY);
+        }
+
+        DealAnalyticsResponse byBroker = analyticsService.dealStats("broker", String.valueOf(broker.getBroId()),
+                today, today, List.of(50.0, 99.5), true);
+        DealAnalyticsResponse.Group g = byBroker.getGroups().get(0);
+        assertEquals("Analytics Realty", g.getLabel());
+        assertEquals(120, g.getDealCount());
+        assertTrue(g.getPercentiles().containsKey("p99.5"));
+        assertEquals(1, g.getDays().size());
+
+        // rebuilding from the deals table gives the same rows the incremental path wrote
+        Map<String, String> incremental = snapshot();
+        RollupRebuildReport report = rollupService.rebuild();
+        assertEquals(snapshot(), incremental);
+        assertTrue(report.getChunks() >= 1);
+    }
+
+    @Test
+    void rebuildAggregatesHistoryInParallelChunks() {
+        Broker broker = newBroker("history-analytics@test.com", "Old Deals Realty");
+        Customer customer = newCustomer("history-analytics-customer@test.com");
+        LocalDate start = LocalDate.of(2024, 3, 1);
+        double[] marchShops = new double[0];
+        for (int i = 0; i < 400; i++) {
+            Property p = newProperty(broker, CITIES[i % 3], i % 4 == 0 ? PropertyConfig.SHOP : PropertyConfig.FLAT);
+            Deal d = new Deal();
+            d.setProperty(p);
+            d.setCustomer(customer);
+            d.setDealCost(50_000 + random.nextInt(5_000_000));
+            d.setDealDate(start.plusDays(i % 60));
+            dealRepository.save(d);
+            if (i % 4 == 0 && i % 60 < 31) {
+                marchShops = Arrays.copyOf(marchShops, marchShops.length + 1);
+                marchShops[marchShops.length - 1] = d.getDealCost();
+            }
+        }
+
+        RollupRebuildReport report = rollupService.rebuild();
+        assertTrue(report.getChunks() > 1, "chunk size 37 splits the deals table");
+
+        DealAnalyticsResponse march = analyticsService.dealStats("config", "shop",
+                start, start.plusDays(30), List.of(50.0), true);
+        assertEquals(1, march.getGroups().size());
+        DealAnalyticsResponse.Group shops = march.getGroups().get(0);
+        assertEquals(marchShops.length, shops.getDealCount());
+        assertEquals(Arrays.stream(marchShops).sum(), shops.getGmv(), 0.01);
+        Arrays.sort(marchShops);
+        double median = marchShops[(int) Math.floor(0.5 * (marchShops.length - 1))];
+        assertEquals(median, shops.getPercentiles().get("p50"), median * PriceSketch.RELATIVE_ACCURACY);
+        assertEquals(shops.getDealCount(), shops.getDays().stream().mapToLong(DealAnalyticsResponse.Point::getDealCount).sum());
+
+        assertEquals(400, analyticsService.dealStats("offerType", null, start, start.plusDays(59), null, false)
+                .getDealCount());
+    }
+
+    @Test
+    void onlyAdminsRebuildAndDealsMadeMeanwhileAreKept() throws Exception {
+        Broker broker = newBroker("rebuild-broker@test.com", "Rebuild Realty");
+        List<Property> properties = new ArrayList<>();
+        List<Customer> buyers = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            properties.add(newProperty(broker, "Nashik", PropertyConfig.values()[i % 3]));
+            buyers.add(newCustomer("rebuild-customer-" + i + "@test.com"));
+        }
+
+        authenticate("BROKER");
+        assertThrows(AccessDeniedException.class, () -> analyticsController.rebuild());
+        assertThrows(AccessDeniedException.class, () -> analyticsController.rebuildStatus());
+
+        authenticate("ADMIN");
+        ResponseEntity<RollupRebuildReport> started = analyticsController.rebuild();
+        assertEquals(HttpStatus.ACCEPTED, started.getStatusCode());
+        assertEquals(URI.create("/api/analytics/deals/rebuild"), started.getHeaders().getLocation());
+        assertNotNull(started.getBody().getStartedAt());
+
+        // deals keep committing while the rebuild reads and swaps
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < properties.size(); i++) {
+            Property p = properties.get(i);
+            Customer buyer = buyers.get(i);
+            futures.add(pool.submit(() -> dealService.addDeal(p.getPropId(), buyer.getCustId(), 2_000_000)));
+        }
+        for (Future<?> f : futures) f.get();
+        pool.shutdown();
+
+        long deadline = System.currentTimeMillis() + 20_000;
+        RollupRebuildReport status = analyticsController.rebuildStatus().getBody();
+        while (status.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = analyticsController.rebuildStatus().getBody();
+        }
+        assertFalse(status.isRunning());
+        assertNull(status.getLastError());
+        assertEquals(started.getBody().getStartedAt(), status.getStartedAt(), "GET reports the rebuild POST started");
+
+        LocalDate today = LocalDate.now();
+        assertEquals(60, analyticsService.dealStats("broker", String.valueOf(broker.getBroId()), today, today, null, false)
+                .getDealCount());
+        Map<String, String> afterRace = snapshot();
+        rollupService.rebuild();
+        assertEquals(afterRace, snapshot(), "no deal lost or counted twice by the concurrent rebuild");
+    }
+
+    @Test
+    void rejectsBadQueries() {
+        LocalDate today = LocalDate.now();
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.dealStats("street", null, null, null, null, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.dealStats(null, null, today, today.minusDays(1), null, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.dealStats(null, null, today.minusYears(5), today, null, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.dealStats(null, null, null, null, List.of(101.0), false));
+    }
+
+    @AfterEach
+    void clearAuth() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                role.toLowerCase() + "@test.com", null, List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+    }
+
+    // bucket -> count/gmv/sketch, comparable across incremental writes and a rebuild
+    private Map<String, String> snapshot() {
+        Map<String, String> rows = new TreeMap<>();
+        for (DealRollup r : rollupRepository.findAll()) {
+            rows.put(r.getDimension() + "|" + r.getDay() + "|" + r.getKey(),
+                    r.getDealCount() + "|" + Math.round(r.getGmv()) + "|" + r.getMinCost() + "|" + r.getMaxCost()
+                            + "|" + Arrays.toString(r.getSketch()) + "|" + r.getLabel());
+        }
+        return rows;
+    }
+
+    private Broker newBroker(String email, String name) {
+        User u = new User();
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker b = new Broker();
+        b.setBroName(name);
+        b.setUser(u);
+        return brokerRepository.save(b);
+    }
+
+    private Customer newCustomer(String email) {
+        User u = new User();
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setRole("CUSTOMER");
+        Customer c = new Customer();
+        c.setCustName("Analytics Customer");
+        c.setUser(u);
+        return customerRepository.save(c);
+    }
+
+    private Property newProperty(Broker broker, String city, PropertyConfig config) {
+        Property p = new Property();
+        p.setConfiguration(config);
+        p.setOfferType(random.nextBoolean() ? OfferType.SELL : OfferType.RENT);
+        p.setOfferCost(1_000_000);
+        p.setAreaSqft(800);
+        p.setAddress("Analytics test");
+        p.setCity(city);
+        p.setStatus(true);
+        p.setBroker(broker);
+        return propertyRepository.save(p);
+    }
+}
@@ -0,0 +1,143 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.exception.ConflictException;
+import com.realestate.exception.NotFoundException;
+import com.realestate.model.Broker;
+import com.realestate.model.Customer;
+import com.realestate.model.Deal;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.CustomerRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.service.IDealService;
+import com.realestate.service.IPropertyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:dealclaim",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads"
+})
+class DealClaimConcurrencyTest {
+
+    private static final int BUYERS = 300;
+
+    @Autowired private IDealService dealService;
+    @Autowired private IPropertyService propertyService;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private CustomerRepository customerRepository;
+    @Autowired private JdbcTemplate jdbc;
+
+    @Test
+    void exactlyOneOfManyConcurrentBuyersGetsTheProperty() throws Exception {
+        Property property = newProperty("claim-broker@test.com");
+        List<Long> buyers = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) buyers.add(newCustomer("claim-buyer-" + i + "@test.com").getCustId());
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Deal>> attempts = new ArrayList<>();
+        try {
+            for (Long buyer : buyers) {
+                attempts.add(pool.submit(() -> {
+                    start.await();
+                    return dealService.addDeal(property.getPropId(), buyer, 5_000_000);
+                }));
+            }
+            start.countDown();
+
+            int won = 0;
+            int conflicts = 0;
+            for (Future<Deal> f : attempts) {
+                try {
+                    assertNotNull(f.get().getDealId());
+                    won++;
+                } catch (ExecutionException ex) {
+                    assertInstanceOf(ConflictException.class, ex.getCause());
+                    conflicts++;
+                }
+            }
+            assertEquals(1, won);
+            assertEquals(BUYERS - 1, conflicts);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM deals WHERE property_id = ?", Integer.class,
+                property.getPropId()));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM customer_properties WHERE prop_id = ?", Integer.class,
+                property.getPropId()));
+        assertFalse(propertyRepository.findById(property.getPropId()).orElseThrow().isStatus());
+    }
+
+    @Test
+    void failedDealsLeaveTheListingAvailable() {
+        Property property = newProperty("claim-broker2@test.com");
+        assertThrows(NotFoundException.class, () -> dealService.addDeal(property.getPropId(), -1L, 1_000));
+        assertTrue(propertyRepository.findById(property.getPropId()).orElseThrow().isStatus(), "claim rolled back");
+        assertThrows(NotFoundException.class, () -> dealService.addDeal(-1L, -1L, 1_000));
+
+        Customer buyer = newCustomer("claim-buyer-relist@test.com");
+        dealService.addDeal(property.getPropId(), buyer.getCustId(), 1_000);
+
+        // relisting after a deal: the unique deal row turns the second sale into a conflict too
+        Property relisted = propertyRepository.findById(property.getPropId()).orElseThrow();
+        relisted.setStatus(true);
+        propertyService.editProperty(relisted);
+        Customer second = newCustomer("claim-buyer-relist2@test.com");
+        assertThrows(ConflictException.class, () -> dealService.addDeal(property.getPropId(), second.getCustId(), 1_000));
+        assertTrue(propertyRepository.findById(property.getPropId()).orElseThrow().isStatus());
+    }
+
+    private Property newProperty(String brokerEmail) {
+        User u = new User();
+        u.setEmail(brokerEmail);
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker broker = new Broker();
+        broker.setBroName("Claim Broker");
+        broker.setUser(u);
+        broker = brokerRepository.save(broker);
+
+        Property p = new Property();
+        p.setConfiguration(PropertyConfig.FLAT);
+        p.setOfferType(OfferType.SELL);
+        p.setOfferCost(5_000_000);
+        p.setAreaSqft(1000);
+        p.setAddress("Launch day tower");
+        p.setCity("Pune");
+        p.setBroker(broker);
+        return propertyService.addProperty(p);
+    }
+
+    private Customer newCustomer(String email) {
+        User u = new User();
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setRole("CUSTOMER");
+        Customer c = new Customer();
+        c.setCustName("Buyer");
+        c.setUser(u);
+        return customerRepository.save(c);
+    }
+}
@@ -0,0 +1,191 @@
+package com.realestate.real_estate_app;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.controller.CustomerController;
+import com.realestate.controller.DealController;
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.DealSummary;
+import com.realestate.dto.PageQuery;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.exception.NotFoundException;
+import com.realestate.model.Broker;
+import com.realestate.model.Customer;
+import com.realestate.model.Deal;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.CustomerRepository;
+import com.realestate.repository.DealRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.service.IDealService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:dealhistory",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "app.upload-dir=target/test-uploads"
+})
+class DealHistoryTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Autowired private IDealService dealService;
+    @Autowired private DealController dealController;
+    @Autowired private CustomerController customerController;
+    @Autowired private DealRepository dealRepository;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private CustomerRepository customerRepository;
+    @Autowired private EntityManagerFactory emf;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ObjectMapper objectMapper;
+
+    private static Customer asha;
+    private static Customer ravi;
+
+    @BeforeEach
+    void seed() {
+        if (asha != null) return;
+        User u = new User();
+        u.setEmail("history-broker@test.com");
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker broker = new Broker();
+        broker.setBroName("History Realty");
+        broker.setUser(u);
+        broker = brokerRepository.save(broker);
+        asha = newCustomer("history-asha@test.com", "Asha");
+        ravi = newCustomer("history-ravi@test.com", "Ravi");
+
+        // 90 deals over 30 days, three per day, so ties on deal_date are broken by id
+        for (int i = 0; i < 90; i++) {
+            Property p = new Property();
+            p.setConfiguration(PropertyConfig.values()[i % 3]);
+            p.setOfferType(OfferType.values()[i % 2]);
+            p.setOfferCost(1_000_000 + i);
+            p.setAreaSqft(500);
+            p.setAddress("Plot " + i);
+            p.setCity(i % 2 == 0 ? "Pune" : "Nashik");
+            p.setStatus(false);
+            p.setBroker(broker);
+            p = propertyRepository.save(p);
+
+            Deal d = new Deal();
+            d.setProperty(p);
+            d.setCustomer(i % 3 == 0 ? ravi : asha);
+            d.setDealCost(1_000_000 + i);
+            d.setDealDate(START.plusDays(i / 3));
+            dealRepository.save(d);
+        }
+    }
+
+    @Test
+    void customerHistoryWalksNewestFirstWithOneQueryPerPage() {
+        List<Long> expected = expected(asha.getCustId(), null, null);
+        assertEquals(60, expected.size());
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            stats.clear();
+            CursorPage<DealSummary> page = dealService.listCustomerDeals(asha.getCustId(), null, null,
+                    new PageQuery(cursor, 7, false));
+            assertTrue(stats.getPrepareStatementCount() <= 2, "existence check + one page query");
+            assertEquals(0, stats.getEntityLoadCount(), "projection only, no entity graphs");
+            page.getItems().forEach(s -> walked.add(s.getDealId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(expected, walked);
+
+        assertEquals(60L, dealService.listCustomerDeals(asha.getCustId(), null, null,
+                new PageQuery(null, 5, true)).getTotalCount());
+    }
+
+    @Test
+    void dateRangeIsInclusiveForBothEndpoints() {
+        LocalDate from = START.plusDays(5);
+        LocalDate to = START.plusDays(11);
+        List<Long> expected = expected(null, from, to);
+        assertEquals(21, expected.size());
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<DealSummary> page = dealController.listDeals(from, to, cursor, 4, false).getBody();
+            page.getItems().forEach(s -> walked.add(s.getDealId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(expected, walked);
+
+        CursorPage<DealSummary> raviPage = customerController.getCustomerDeals(ravi.getCustId(), from, to, null, 50, true).getBody();
+        assertEquals(expected(ravi.getCustId(), from, to), raviPage.getItems().stream().map(DealSummary::getDealId).toList());
+        assertEquals(7L, raviPage.getTotalCount());
+        assertFalse(raviPage.isHasMore());
+    }
+
+    @Test
+    void summariesCarryThePropertyButNotTheCustomer() throws Exception {
+        DealSummary first = dealService.listDeals(null, null, new PageQuery(null, 1, false)).getItems().get(0);
+        assertEquals(START.plusDays(29), first.getDealDate());
+        assertEquals("Plot 89", first.getProperty().getAddress());
+
+        String json = objectMapper.writeValueAsString(first);
+        assertTrue(json.contains("\"propId\""));
+        assertFalse(json.contains("password"));
+        assertFalse(json.contains("customer"));
+
+        Integer indexed = jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES " +
+                "WHERE INDEX_NAME = 'IDX_DEAL_CUSTOMER_DATE'", Integer.class);
+        assertTrue(indexed > 0);
+    }
+
+    @Test
+    void rejectsUnknownCustomerAndInvertedRange() {
+        assertThrows(NotFoundException.class,
+                () -> dealService.listCustomerDeals(-1L, null, null, new PageQuery(null, 10, false)));
+        assertThrows(IllegalArgumentException.class,
+                () -> dealService.listDeals(START.plusDays(3), START, new PageQuery(null, 10, false)));
+        assertThrows(IllegalArgumentException.class,
+                () -> dealService.listDeals(null, null, new PageQuery("bogus", 10, false)));
+    }
+
+    private List<Long> expected(Long custId, LocalDate from, LocalDate to) {
+        return dealRepository.findAll().stream()
+                .filter(d -> custId == null || d.getCustomer().getCustId().equals(custId))
+                .filter(d -> from == null || !d.getDealDate().isBefore(from))
+                .filter(d -> to == null || !d.getDealDate().isAfter(to))
+                .sorted(Comparator.comparing(Deal::getDealDate).thenComparing(Deal::getDealId).reversed())
+                .map(Deal::getDealId).toList();
+    }
+
+    private Customer newCustomer(String email, String name) {
+        User u = new User();
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setRole("CUSTOMER");
+        Customer c = new Customer();
+        c.setCustName(name);
+        c.setUser(u);
+        return customerRepository.save(c);
+    }
+}
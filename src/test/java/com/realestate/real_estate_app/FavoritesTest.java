@@ -0,0 +1,190 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.controller.CustomerController;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.exception.NotFoundException;
+import com.realestate.model.Broker;
+import com.realestate.model.Customer;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.CustomerRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.service.ICustomerService;
+import com.realestate.service.IFavoriteService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:favorites",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "app.upload-dir=target/test-uploads"
+})
+class FavoritesTest {
+
+    @Autowired private IFavoriteService favoriteService;
+    @Autowired private ICustomerService customerService;
+    @Autowired private CustomerController customerController;
+    @Autowired private CustomerRepository customerRepository;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private EntityManagerFactory emf;
+    @Autowired private JdbcTemplate jdbc;
+
+    private static Broker broker;
+    private static final List<Long> listings = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        if (broker != null) return;
+        User u = new User();
+        u.setEmail("fav-broker@test.com");
+        u.setPassword("x");
+        u.setRole("BROKER");
+        broker = new Broker();
+        broker.setBroName("Favorite Realty");
+        broker.setUser(u);
+        broker = brokerRepository.save(broker);
+        for (int i = 0; i < 60; i++) {
+            Property p = new Property();
+            p.setConfiguration(PropertyConfig.FLAT);
+            p.setOfferType(OfferType.RENT);
+            p.setOfferCost(20_000 + i);
+            p.setAreaSqft(600);
+            p.setAddress("Favorite " + i);
+            p.setCity("Pune");
+            p.setBroker(broker);
+            listings.add(propertyRepository.save(p).getPropId());
+        }
+    }
+
+    @AfterEach
+    void clearAuth() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void addAndRemoveAreIdempotentSingleRows() {
+        Customer c = newCustomer("fav-1@test.com");
+        Long prop = listings.get(0);
+
+        assertTrue(favoriteService.addFavorite(c.getCustId(), prop));
+        assertFalse(favoriteService.addFavorite(c.getCustId(), prop));
+        assertEquals(1, rows(c.getCustId()));
+        assertTrue(favoriteService.isFavorite(c.getCustId(), prop));
+
+        assertTrue(favoriteService.removeFavorite(c.getCustId(), prop));
+        assertFalse(favoriteService.removeFavorite(c.getCustId(), prop));
+        assertFalse(favoriteService.isFavorite(c.getCustId(), prop));
+        assertEquals(0, rows(c.getCustId()));
+
+        assertThrows(NotFoundException.class, () -> favoriteService.addFavorite(c.getCustId(), -1L));
+        assertThrows(NotFoundException.class, () -> favoriteService.addFavorite(-1L, prop));
+        assertFalse(favoriteService.isFavorite(-1L, prop));
+    }
+
+    @Test
+    void concurrentAddsOfTheSameFavoriteLeaveOneRow() throws Exception {
+        Customer c = newCustomer("fav-2@test.com");
+        Long prop = listings.get(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> adds = new ArrayList<>();
+        for (int i = 0; i < 32; i++) adds.add(pool.submit(() -> favoriteService.addFavorite(c.getCustId(), prop)));
+        int added = 0;
+        for (Future<Boolean> f : adds) if (f.get()) added++;
+        pool.shutdown();
+        assertEquals(1, added);
+        assertEquals(1, rows(c.getCustId()));
+
+        Integer keys = jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS " +
+                "WHERE TABLE_NAME = 'CUSTOMER_PROPERTIES' AND CONSTRAINT_TYPE = 'PRIMARY KEY'", Integer.class);
+        assertEquals(1, keys, "set mapping keys the join table on (cust_id, prop_id)");
+    }
+
+    @Test
+    void bulkCheckAnswersAResultsPageInOneQuery() {
+        Customer c = newCustomer("fav-3@test.com");
+        List<Long> favorited = new ArrayList<>();
+        for (int i = 0; i < listings.size(); i += 3) {
+            favoriteService.addFavorite(c.getCustId(), listings.get(i));
+            favorited.add(listings.get(i));
+        }
+        List<Long> page = listings.subList(0, 50);
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        List<Long> answer = favoriteService.favoriteIds(c.getCustId(), page);
+        assertTrue(stats.getPrepareStatementCount() <= 2, "customer check + one IN query");
+        assertEquals(favorited.stream().filter(page::contains).toList(), answer);
+        assertEquals(favorited, favoriteService.favoriteIds(c.getCustId(), null));
+        assertTrue(favoriteService.favoriteIds(c.getCustId(), List.of()).isEmpty());
+
+        List<Long> tooMany = LongStream.range(0, 201).boxed().toList();
+        assertThrows(IllegalArgumentException.class, () -> favoriteService.favoriteIds(c.getCustId(), tooMany));
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "fav-3@test.com", null, List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"))));
+        assertEquals(answer, customerController.favoriteIds(c.getCustId(), page).getBody());
+        assertEquals(Boolean.TRUE, customerController.isFavorite(c.getCustId(), listings.get(0)).getBody());
+        assertThrows(NotFoundException.class, () -> customerController.addToFavorites(c.getCustId(), -1L));
+    }
+
+    @Test
+    void editingACustomerLeavesFavoritesAlone() {
+        Customer c = newCustomer("fav-4@test.com");
+        favoriteService.addFavorite(c.getCustId(), listings.get(2));
+        favoriteService.addFavorite(c.getCustId(), listings.get(3));
+
+        // as sent by PUT /api/customers: no properties in the body
+        Customer edit = new Customer();
+        edit.setCustId(c.getCustId());
+        edit.setCustName("Renamed");
+        edit.setUser(c.getUser());
+        customerService.editCustomer(edit);
+
+        assertEquals(2, rows(c.getCustId()));
+        assertEquals(new HashSet<>(List.of(listings.get(2), listings.get(3))),
+                new HashSet<>(favoriteService.favoriteIds(c.getCustId(), null)));
+        assertEquals("Renamed", customerRepository.findById(c.getCustId()).orElseThrow().getCustName());
+    }
+
+    private int rows(Long custId) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM customer_properties WHERE cust_id = ?", Integer.class, custId);
+    }
+
+    private Customer newCustomer(String email) {
+        User u = new User();
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setRole("CUSTOMER");
+        Customer c = new Customer();
+        c.setCustName("Favorite Customer");
+        c.setUser(u);
+        return customerRepository.save(c);
+    }
+}
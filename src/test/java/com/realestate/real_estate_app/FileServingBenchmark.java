@@ -0,0 +1,121 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.service.FileStorageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput of /files/** (FileServeController) against the previous default resource handler, which is
+ * re-registered under /bench-static/** for the comparison. Not part of the regular build:
+ * run with {@code mvn test -Dtest=FileServingBenchmark -Dbench=true [-Dbench.concurrency=1000 -Dbench.requests=2000]}.
+ */
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+@SpringBootTest(classes = {com.realestate.RealEstateApplication.class, FileServingBenchmark.StaticHandler.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:filebench",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads",
+    "app.images.backfill-on-start=false",
+    "server.tomcat.threads.max=200",
+    "server.tomcat.max-connections=10000",
+    "server.tomcat.accept-count=2000"
+})
+class FileServingBenchmark {
+
+    @TestConfiguration
+    static class StaticHandler implements WebMvcConfigurer {
+        @Bean
+        @Order(0)
+        SecurityFilterChain benchStaticChain(HttpSecurity http) throws Exception {
+            http.securityMatcher("/bench-static/**").authorizeHttpRequests(a -> a.anyRequest().permitAll());
+            return http.build();
+        }
+
+        @Override
+        public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
+            registry.addResourceHandler("/bench-static/**")
+                    .addResourceLocations("file:" + Paths.get("target/test-uploads").toAbsolutePath().normalize() + "/");
+        }
+    }
+
+    @LocalServerPort private int port;
+    @Autowired private FileStorageService storage;
+
+    @Test
+    void throughputAgainstTheDefaultResourceHandler() throws Exception {
+        int concurrency = Integer.getInteger("bench.concurrency", 1000);
+        int requests = Integer.getInteger("bench.requests", 2_000);
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(64))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+
+        for (int kb : new int[]{24, 400}) {
+            byte[] image = new byte[kb * 1024];
+            new Random(kb).nextBytes(image);
+            String url = storage.storeForProperty(1L, new MockMultipartFile("file", "b.jpg", "image/jpeg", image));
+            String path = url.substring("/files/".length());
+
+            run(client, "/bench-static/" + path, image.length, concurrency, requests / 5); // warm-up
+            run(client, url, image.length, concurrency, requests / 5);
+            report(kb + " KB, resource handler", run(client, "/bench-static/" + path, image.length, concurrency, requests), requests, image.length);
+            report(kb + " KB, FileServeController", run(client, url, image.length, concurrency, requests), requests, image.length);
+        }
+    }
+
+    private long run(HttpClient client, String path, int expectedLength, int concurrency, int requests) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(60)).GET().build();
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicLong bytes = new AtomicLong();
+        CompletableFuture<?>[] all = new CompletableFuture<?>[requests];
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            all[i] = client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((r, e) -> {
+                        inFlight.release();
+                        if (r != null && r.statusCode() == 200) bytes.addAndGet(r.body().length);
+                    });
+        }
+        CompletableFuture.allOf(all).exceptionally(e -> null).join();
+        long elapsed = System.nanoTime() - start;
+        assertEquals((long) requests * expectedLength, bytes.get(), "every request must return the full body");
+        return elapsed;
+    }
+
+    private static void report(String label, long nanos, int requests, int size) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-32s %,10.0f req/s %,8.1f MB/s%n", label, requests / seconds, requests * (double) size / seconds / 1e6);
+    }
+}
@@ -0,0 +1,138 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.media.OpenFileCache;
+import com.realestate.service.FileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:fileserving",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads",
+    "app.images.backfill-on-start=false"
+})
+class FileServingTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private FileStorageService storage;
+    @Autowired private OpenFileCache openFiles;
+
+    private byte[] body;
+    private String url;
+
+    @BeforeEach
+    void upload() throws Exception {
+        body = ("0123456789 file serving " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+        url = storage.storeForProperty(1L, new MockMultipartFile("file", "x.png", "image/png", body));
+    }
+
+    @Test
+    void contentAddressedFilesAreImmutableWithTheHashAsValidator() throws Exception {
+        String hash = url.substring(url.lastIndexOf('/') + 1, url.lastIndexOf('.'));
+        MvcResult first = mvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(body))
+                .andExpect(content().contentType("image/png"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andReturn();
+
+        mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, first.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+        mvc.perform(head(url))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, body.length));
+    }
+
+    @Test
+    void singleRangesAreServedPartially() throws Exception {
+        int n = body.length;
+        mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/" + n))
+                .andExpect(content().bytes(Arrays.copyOfRange(body, 2, 6)));
+        mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(Arrays.copyOfRange(body, n - 4, n)));
+        mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(Arrays.copyOfRange(body, 10, n)));
+        mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=" + n + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + n));
+        mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=-0"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + n));
+
+        // stale If-Range: the whole (current) file instead of a slice of something else
+        mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=2-5").header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(body));
+        // multiple ranges are not supported: full body
+        mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=0-1,4-5"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(body));
+    }
+
+    @Test
+    void largeFilesGoToSendfileWithoutTakingACachedHandle() throws Exception {
+        byte[] large = new byte[64 * 1024];
+        new java.util.Random(3).nextBytes(large);
+        String largeUrl = storage.storeForProperty(1L, new MockMultipartFile("file", "big.png", "image/png", large));
+        int handles = openFiles.size();
+
+        MvcResult sent = mvc.perform(get(largeUrl).requestAttr("org.apache.tomcat.sendfile.support", true)
+                        .header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, large.length - 100))
+                .andReturn();
+        assertEquals(storage.resolvePublicUrl(largeUrl).toAbsolutePath().toString(),
+                sent.getRequest().getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(100L, sent.getRequest().getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(0, sent.getResponse().getContentAsByteArray().length, "body is left to Tomcat");
+        assertEquals(handles, openFiles.size(), "sendfile path does not open the file itself");
+
+        // small files still go through the cached channel
+        mvc.perform(get(url).requestAttr("org.apache.tomcat.sendfile.support", true))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(body));
+    }
+
+    @Test
+    void legacyNamesGetShortCachingAndHiddenPathsAreNotServed() throws Exception {
+        String legacy = "prop-3-" + UUID.randomUUID() + ".jpg";
+        Files.write(storage.root().resolve(legacy), body);
+        mvc.perform(get("/files/" + legacy))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=86400"))
+                .andExpect(content().bytes(body));
+
+        mvc.perform(get("/files/.incoming/anything.tmp")).andExpect(status().isNotFound());
+        mvc.perform(get("/files/missing.jpg")).andExpect(status().isNotFound());
+
+        Files.delete(storage.root().resolve(legacy));
+        mvc.perform(get("/files/" + legacy)).andExpect(status().isNotFound());
+    }
+}
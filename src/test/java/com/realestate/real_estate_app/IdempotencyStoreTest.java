@@ -0,0 +1,180 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.controller.DealController;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.exception.ConflictException;
+import com.realestate.model.Broker;
+import com.realestate.model.Customer;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.CustomerRepository;
+import com.realestate.repository.DealRepository;
+import com.realestate.service.IPropertyService;
+import com.realestate.service.IdempotencyStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:idempotency",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads",
+    "app.idempotency.max-entries=50",
+    "app.idempotency.ttl-seconds=2",
+    "app.idempotency.wait-ms=5000"
+})
+class IdempotencyStoreTest {
+
+    @Autowired private IdempotencyStore store;
+    @Autowired private DealController dealController;
+    @Autowired private IPropertyService propertyService;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private CustomerRepository customerRepository;
+    @Autowired private DealRepository dealRepository;
+    @Autowired private TransactionTemplate transactions;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void retriesReplayTheRecordedResponse() {
+        AtomicInteger runs = new AtomicInteger();
+        String key = UUID.randomUUID().toString();
+
+        ResponseEntity<?> first = store.execute("alice", key, "op:1", () -> ResponseEntity.ok(Map.of("run", runs.incrementAndGet())));
+        ResponseEntity<?> retry = store.execute("alice", key, "op:1", () -> ResponseEntity.ok(Map.of("run", runs.incrementAndGet())));
+
+        assertEquals(1, runs.get());
+        assertEquals(200, retry.getStatusCode().value());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals("{\"run\":1}", new String((byte[]) retry.getBody(), StandardCharsets.UTF_8));
+        assertNull(first.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+
+        // keys are per user, and a key cannot be reused for a different request
+        store.execute("bob", key, "op:1", () -> ResponseEntity.ok(Map.of("run", runs.incrementAndGet())));
+        assertEquals(2, runs.get());
+        assertThrows(IllegalArgumentException.class,
+                () -> store.execute("alice", key, "op:2", () -> ResponseEntity.ok(Map.of())));
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstExecution() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        String key = UUID.randomUUID().toString();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<?>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 16; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return store.execute("carol", key, "op", () -> {
+                        runs.incrementAndGet();
+                        LockSupport.parkNanos(300_000_000L);
+                        return ResponseEntity.status(201).body("created");
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<ResponseEntity<?>> f : results) assertEquals(201, f.get().getStatusCode().value());
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void failuresAreNotRecordedAndKeysExpire() {
+        AtomicInteger runs = new AtomicInteger();
+        String key = UUID.randomUUID().toString();
+        assertThrows(ConflictException.class, () -> store.execute("dave", key, "op", () -> {
+            runs.incrementAndGet();
+            throw new ConflictException("taken");
+        }));
+        store.execute("dave", key, "op", () -> ResponseEntity.ok(runs.incrementAndGet()));
+        assertEquals(2, runs.get());
+
+        LockSupport.parkNanos(2_200_000_000L);
+        store.execute("dave", key, "op", () -> ResponseEntity.ok(runs.incrementAndGet()));
+        assertEquals(3, runs.get(), "expired after the ttl");
+
+        for (int i = 0; i < 80; i++) store.execute("erin", "k" + i, "op", () -> ResponseEntity.ok(1));
+        assertTrue(store.size() <= 50);
+    }
+
+    @Test
+    void retriedDealIsAnsweredWithoutBuyingTwice() {
+        User u = new User();
+        u.setEmail("idem-broker@test.com");
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker broker = new Broker();
+        broker.setBroName("Idem Broker");
+        broker.setUser(u);
+        broker = brokerRepository.save(broker);
+
+        Property p = new Property();
+        p.setConfiguration(PropertyConfig.SHOP);
+        p.setOfferType(OfferType.RENT);
+        p.setOfferCost(40_000);
+        p.setAreaSqft(300);
+        p.setAddress("Retry street");
+        p.setCity("Pune");
+        p.setBroker(broker);
+        Long propId = propertyService.addProperty(p).getPropId();
+
+        User cu = new User();
+        cu.setEmail("idem-customer@test.com");
+        cu.setPassword("x");
+        cu.setRole("CUSTOMER");
+        Customer customer = new Customer();
+        customer.setCustName("Idem Customer");
+        customer.setUser(cu);
+        Long custId = customerRepository.save(customer).getCustId();
+
+        Authentication auth = new UsernamePasswordAuthenticationToken("idem-customer@test.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+        SecurityContextHolder.getContext().setAuthentication(auth);
+
+        long dealsBefore = dealRepository.count();
+        // each call in its own session, as open-in-view gives a request (the response is serialized in it)
+        ResponseEntity<?> first = transactions.execute(s -> dealController.createDeal(propId, custId, 40_000, "deal-retry-1", auth));
+        ResponseEntity<?> retry = transactions.execute(s -> dealController.createDeal(propId, custId, 40_000, "deal-retry-1", auth));
+
+        assertEquals(200, first.getStatusCode().value());
+        assertEquals(200, retry.getStatusCode().value(), "the retry gets the original 200, not a 409");
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(dealsBefore + 1, dealRepository.count());
+
+        // without the key the second attempt is a real one, and loses
+        assertThrows(ConflictException.class, () -> dealController.createDeal(propId, custId, 40_000, null, auth));
+    }
+}
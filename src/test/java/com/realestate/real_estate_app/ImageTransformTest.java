@@ -0,0 +1,156 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.media.TransformCache;
+import com.realestate.service.FileStorageService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:imagetransform",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads/transform",
+    "app.images.backfill-on-start=false",
+    "app.images.transform.max-dimension=1000",
+    "app.images.transform.cache-max-bytes=20000"
+})
+class ImageTransformTest {
+
+    @Autowired private FileStorageService storage;
+    @Autowired private TransformCache transformCache;
+    @Autowired private MockMvc mvc;
+
+    // the cache budget is asserted below: start without renders left over by earlier runs
+    @BeforeAll
+    static void cleanUploadDir() throws Exception {
+        Path dir = Path.of("target/test-uploads/transform");
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Test
+    void rendersOnceThenServesFromTheCache() throws Exception {
+        String url = storeJpeg(800, 600, Color.ORANGE);
+        long renders = transformCache.renders();
+
+        MvcResult first = mvc.perform(get(url).param("w", "200"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "image/jpeg"))
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                .andReturn();
+        BufferedImage small = ImageIO.read(new ByteArrayInputStream(first.getResponse().getContentAsByteArray()));
+        assertEquals(200, small.getWidth());
+        assertEquals(150, small.getHeight());
+
+        String etag = first.getResponse().getHeader("ETag");
+        mvc.perform(get(url).param("w", "200")).andExpect(status().isOk()).andExpect(header().string("ETag", etag));
+        mvc.perform(get(url).param("w", "200").header("If-None-Match", etag)).andExpect(status().isNotModified());
+        assertEquals(renders + 1, transformCache.renders());
+
+        MvcResult cover = mvc.perform(get(url).param("w", "100").param("h", "100").param("fit", "cover").param("fm", "png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "image/png"))
+                .andReturn();
+        BufferedImage square = ImageIO.read(new ByteArrayInputStream(cover.getResponse().getContentAsByteArray()));
+        assertEquals(100, square.getWidth());
+        assertEquals(100, square.getHeight());
+    }
+
+    @Test
+    void parametersAreBounded() throws Exception {
+        String url = storeJpeg(64, 64, Color.BLUE);
+        mvc.perform(get(url).param("w", "5000")).andExpect(status().isBadRequest());
+        mvc.perform(get(url).param("w", "10").param("fit", "stretch")).andExpect(status().isBadRequest());
+        mvc.perform(get(url).param("w", "10").param("q", "100")).andExpect(status().isBadRequest());
+        mvc.perform(get(url).param("fit", "cover").param("w", "10")).andExpect(status().isBadRequest());
+        mvc.perform(get(url).param("q", "50")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void concurrentRequestsForOneRenderAreCoalesced() throws Exception {
+        AtomicInteger rendered = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Path>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return transformCache.get("coalesce-" + System.identityHashCode(this) + ".jpg", target -> {
+                        rendered.incrementAndGet();
+                        LockSupport.parkNanos(300_000_000L);
+                        Files.write(target, new byte[]{1, 2, 3});
+                    });
+                }));
+            }
+            start.countDown();
+            Path first = results.get(0).get();
+            for (Future<Path> f : results) assertEquals(first, f.get());
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, rendered.get());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondTheBudget() throws Exception {
+        String url = storeJpeg(900, 900, Color.GREEN);
+        long evictions = transformCache.evictions();
+        for (int w = 300; w <= 900; w += 100) {
+            mvc.perform(get(url).param("w", String.valueOf(w)).param("q", "95")).andExpect(status().isOk());
+        }
+        assertTrue(transformCache.evictions() > evictions);
+        assertTrue(transformCache.sizeBytes() <= 20000 || transformCache.entries() == 1);
+        mvc.perform(get(url).param("w", "300").param("q", "95")).andExpect(status().isOk()); // rendered again
+    }
+
+    // noisy pixels so the JPEG sizes are realistic enough to exercise the byte budget
+    private String storeJpeg(int w, int h, Color base) throws Exception {
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setColor(base);
+        g.fillRect(0, 0, w, h);
+        g.dispose();
+        Random random = new Random(w * 31L + h);
+        for (int i = 0; i < w * h / 4; i++) img.setRGB(random.nextInt(w), random.nextInt(h), random.nextInt());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(img, "jpg", out);
+        return storage.storeForProperty(1L, new MockMultipartFile("file", "photo.jpg", "image/jpeg", out.toByteArray()));
+    }
+}
@@ -0,0 +1,219 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.dto.ImageVariants;
+import com.realestate.dto.PropertyResponse;
+import com.realestate.enums.ImageVariantStatus;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.media.ExifOrientation;
+import com.realestate.model.Broker;
+import com.realestate.model.ImageVariant;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.ImageVariantRepository;
+import com.realestate.service.FileStorageService;
+import com.realestate.service.IImageVariantService;
+import com.realestate.service.IPropertyService;
+import com.realestate.service.impl.ImageVariantServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:imagevariants",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads",
+    "app.images.backfill-on-start=false",
+    "app.images.backfill-batch-size=2"
+})
+class ImageVariantPipelineTest {
+
+    @Autowired private IImageVariantService variantService;
+    @Autowired private ImageVariantRepository variantRepository;
+    @Autowired private IPropertyService propertyService;
+    @Autowired private FileStorageService fileStorageService;
+    @Autowired private BrokerRepository brokerRepository;
+
+    @Test
+    void rotatedPhotoGetsUprightMetadataFreeVariants() throws Exception {
+        // stored landscape 1200x800 with a red top-left corner, EXIF says "rotate 90 clockwise"
+        String url = storeUpload(withOrientation(jpeg(1200, 800), 6), "jpg");
+        Property p = newProperty(url);
+
+        variantService.schedule(p.getPropId(), List.of(url));
+        ImageVariant v = awaitDone(url);
+
+        assertEquals(ImageVariantStatus.READY, v.getStatus(), v.getError());
+        assertEquals(800, v.getWidth());
+        assertEquals(1200, v.getHeight());
+
+        BufferedImage card = read(v.getCardUrl());
+        assertEquals(480, card.getHeight());
+        assertEquals(320, card.getWidth());
+        // after a clockwise turn the red corner is top-right
+        assertTrue(isRed(card.getRGB(card.getWidth() - 5, 5)), "red corner should be top-right");
+        assertFalse(isRed(card.getRGB(5, 5)));
+
+        BufferedImage thumb = read(v.getThumbUrl());
+        assertEquals(160, Math.max(thumb.getWidth(), thumb.getHeight()));
+        assertEquals(1200, read(v.getFullUrl()).getHeight(), "never upscaled past the original");
+
+        byte[] thumbBytes = Files.readAllBytes(fileStorageService.resolvePublicUrl(v.getThumbUrl()));
+        assertEquals(ExifOrientation.NORMAL, ExifOrientation.read(new ByteArrayInputStream(thumbBytes)));
+        assertFalse(containsExif(thumbBytes), "variants are re-encoded without metadata");
+
+        PropertyResponse details = propertyService.viewPropertyDetails(p.getPropId());
+        ImageVariants image = details.getImages().get(0);
+        assertEquals(url, image.getUrl());
+        assertEquals(ImageVariantStatus.READY, image.getStatus());
+        assertEquals(v.getCardUrl(), image.getCardUrl());
+    }
+
+    @Test
+    void undecodableUploadIsMarkedFailedAndDiscardRemovesVariants() throws Exception {
+        String broken = storeUpload("not really an image".getBytes(), "png");
+        Property p = newProperty(broken);
+        variantService.schedule(p.getPropId(), List.of(broken));
+        assertEquals(ImageVariantStatus.FAILED, awaitDone(broken).getStatus());
+
+        String ok = storeUpload(jpeg(300, 200), "jpg");
+        variantService.schedule(p.getPropId(), List.of(ok));
+        ImageVariant v = awaitDone(ok);
+        Path thumb = fileStorageService.resolvePublicUrl(v.getThumbUrl());
+        assertTrue(Files.exists(thumb));
+
+        variantService.discard(ok);
+        assertFalse(Files.exists(thumb));
+        assertTrue(variantRepository.findById(ok).isEmpty());
+    }
+
+    @Test
+    void startupBackfillPagesUploadsAndSkipsExternalLinks() throws Exception {
+        String external = "https://images.example.com/listing-" + UUID.randomUUID() + ".jpg";
+        Property p = newProperty(external);
+        List<String> uploads = List.of(storeUpload(jpeg(120, 80), "jpg"), storeUpload(jpeg(90, 60), "jpg"),
+                storeUpload(jpeg(60, 40), "jpg"));
+        p.getImageUrls().addAll(uploads);
+        propertyService.editProperty(p);
+
+        ImageVariantServiceImpl impl = AopTestUtils.getTargetObject(variantService);
+        ReflectionTestUtils.setField(impl, "backfillOnStart", true);
+        try {
+            impl.onApplicationReady();
+        } finally {
+            ReflectionTestUtils.setField(impl, "backfillOnStart", false);
+        }
+        for (String url : uploads) assertEquals(ImageVariantStatus.READY, awaitDone(url).getStatus(), url);
+        assertTrue(variantRepository.findById(external).isEmpty(), "external links are not variant candidates");
+    }
+
+    private ImageVariant awaitDone(String url) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (System.currentTimeMillis() < deadline) {
+            ImageVariant v = variantRepository.findById(url).orElseThrow();
+            if (v.getStatus() != ImageVariantStatus.PENDING) return v;
+            Thread.sleep(50);
+        }
+        fail("variants for " + url + " still pending");
+        return null;
+    }
+
+    private String storeUpload(byte[] bytes, String ext) throws IOException {
+        Path dir = Path.of("target/test-uploads").toAbsolutePath();
+        Files.createDirectories(dir);
+        String name = "variant-test-" + UUID.randomUUID() + "." + ext;
+        Files.write(dir.resolve(name), bytes);
+        return "/files/" + name;
+    }
+
+    private BufferedImage read(String url) throws IOException {
+        return ImageIO.read(fileStorageService.resolvePublicUrl(url).toFile());
+    }
+
+    private static byte[] jpeg(int w, int h) throws IOException {
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setColor(Color.BLUE);
+        g.fillRect(0, 0, w, h);
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, w / 6, h / 6);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(img, "jpg", out);
+        return out.toByteArray();
+    }
+
+    // Inserts an APP1 Exif segment holding only IFD0/Orientation right after SOI
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        ByteBuffer tiff = ByteBuffer.allocate(26);
+        tiff.put((byte) 'M').put((byte) 'M').putShort((short) 42).putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        tiff.putInt(0);
+        byte[] exif = "Exif\0\0".getBytes();
+        int length = 2 + exif.length + tiff.capacity();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(0xFF);
+        out.write(0xE1);
+        out.write(length >> 8);
+        out.write(length & 0xFF);
+        out.writeBytes(exif);
+        out.writeBytes(tiff.array());
+        out.write(jpeg, 2, jpeg.length - 2);
+        return out.toByteArray();
+    }
+
+    private static boolean containsExif(byte[] bytes) {
+        return new String(bytes, java.nio.charset.StandardCharsets.ISO_8859_1).contains("Exif\0\0");
+    }
+
+    private static boolean isRed(int rgb) {
+        Color c = new Color(rgb);
+        return c.getRed() > 200 && c.getBlue() < 60;
+    }
+
+    private Property newProperty(String imageUrl) {
+        User u = new User();
+        u.setEmail("variant-broker-" + System.nanoTime() + "@test.com");
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker b = new Broker();
+        b.setBroName("Variant Broker");
+        b.setUser(u);
+        b = brokerRepository.save(b);
+
+        Property p = new Property();
+        p.setConfiguration(PropertyConfig.FLAT);
+        p.setOfferType(OfferType.SELL);
+        p.setOfferCost(3_000_000);
+        p.setAreaSqft(1000);
+        p.setAddress("Variant test");
+        p.setCity("Pune");
+        p.setBroker(b);
+        p.getImageUrls().add(imageUrl);
+        return propertyService.addProperty(p);
+    }
+}
@@ -0,0 +1,138 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.model.Broker;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.service.IPropertyService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:conditional",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "app.upload-dir=target/test-uploads"
+})
+class PropertyConditionalGetTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private IPropertyService propertyService;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private EntityManagerFactory emf;
+
+    private Property property;
+
+    @BeforeEach
+    void seed() {
+        User u = new User();
+        u.setEmail("etag-broker-" + System.nanoTime() + "@test.com");
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker broker = new Broker();
+        broker.setBroName("ETag Broker");
+        broker.setUser(u);
+        broker = brokerRepository.save(broker);
+
+        Property p = new Property();
+        p.setConfiguration(PropertyConfig.FLAT);
+        p.setOfferType(OfferType.RENT);
+        p.setOfferCost(30_000);
+        p.setAreaSqft(700);
+        p.setAddress("B-12");
+        p.setCity("Pune");
+        p.setBroker(broker);
+        p.getImageUrls().add("/files/etag.jpg");
+        property = propertyService.addProperty(p);
+    }
+
+    @Test
+    void unchangedPropertyAnswers304FromTheVersionQueryAlone() throws Exception {
+        String url = "/api/properties/" + property.getPropId();
+        MvcResult first = mvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertNotNull(first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED));
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        MvcResult second = mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified()).andReturn();
+        assertEquals(0, second.getResponse().getContentAsByteArray().length);
+        assertEquals(1, stats.getPrepareStatementCount(), "only the version lookup runs");
+        assertEquals(0, stats.getEntityLoadCount());
+
+        Property edited = propertyRepository.findById(property.getPropId()).orElseThrow();
+        edited.setOfferCost(32_000);
+        propertyService.editProperty(edited);
+
+        MvcResult third = mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk()).andReturn();
+        assertNotEquals(etag, third.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void imageListIsConditionalAndChangesWithImages() throws Exception {
+        String url = "/api/properties/" + property.getPropId() + "/images";
+        String etag = mvc.perform(get(url)).andExpect(status().isOk()).andReturn()
+                .getResponse().getHeader(HttpHeaders.ETAG);
+        mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+
+        Property p = propertyRepository.findById(property.getPropId()).orElseThrow();
+        p.setImageUrls(new java.util.ArrayList<>(java.util.List.of("/files/etag.jpg", "/files/etag-2.jpg")));
+        propertyService.editProperty(p);
+
+        mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isOk());
+    }
+
+    @Test
+    void listPagesCarryStrongEtags() throws Exception {
+        String etag = mvc.perform(get("/api/properties?size=5")).andExpect(status().isOk()).andReturn()
+                .getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertFalse(etag.startsWith("W/"));
+        mvc.perform(get("/api/properties?size=5").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void staleEditIsRejectedInsteadOfOverwriting() {
+        Property first = propertyRepository.findById(property.getPropId()).orElseThrow();
+        Property second = propertyRepository.findById(property.getPropId()).orElseThrow();
+
+        first.setOfferCost(40_000);
+        propertyService.editProperty(first);
+
+        second.setOfferCost(50_000);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> propertyService.editProperty(second));
+        assertEquals(40_000, propertyRepository.findById(property.getPropId()).orElseThrow().getOfferCost());
+
+        // clients that predate versioning still edit the current row
+        Property legacy = propertyRepository.findById(property.getPropId()).orElseThrow();
+        legacy.setVersion(null);
+        legacy.setOfferCost(45_000);
+        assertEquals(45_000, propertyService.editProperty(legacy).getOfferCost());
+    }
+}
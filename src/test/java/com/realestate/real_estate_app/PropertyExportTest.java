@@ -0,0 +1,117 @@
+package com.realestate.real_estate_app;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.dto.PropertyCriteria;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.model.Broker;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.service.IPropertyExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:export",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads",
+    "app.export.fetch-size=50",
+    "app.export.chunk-size=64"
+})
+class PropertyExportTest {
+
+    private static final int ROWS = 1000;
+
+    @Autowired private IPropertyExportService exportService;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private ObjectMapper objectMapper;
+
+    private static boolean seeded;
+
+    @BeforeEach
+    void seed() {
+        if (seeded) return;
+        seeded = true;
+        User u = new User();
+        u.setEmail("export-broker@test.com");
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker broker = new Broker();
+        broker.setBroName("Export Broker");
+        broker.setUser(u);
+        broker = brokerRepository.save(broker);
+
+        List<Property> batch = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Property p = new Property();
+            p.setConfiguration(PropertyConfig.values()[i % 3]);
+            p.setOfferType(OfferType.SELL);
+            p.setOfferCost(100_000 + i);
+            p.setAreaSqft(600);
+            p.setAddress("Export " + i);
+            p.setCity(i % 2 == 0 ? "Thane" : "Akola");
+            p.setStatus(i % 5 != 0);
+            p.setBroker(broker);
+            p.getImageUrls().add("/files/export-" + i + ".jpg");
+            batch.add(p);
+        }
+        propertyRepository.saveAll(batch);
+    }
+
+    @Test
+    void exportsEveryRowOnceInIdOrderWithImages() throws Exception {
+        PropertyCriteria all = new PropertyCriteria();
+        all.setStatus(null);
+        List<JsonNode> rows = export(all);
+
+        assertEquals(propertyRepository.count(), rows.size());
+        long previous = Long.MIN_VALUE;
+        for (JsonNode row : rows) {
+            long id = row.get("propId").asLong();
+            assertTrue(id > previous);
+            previous = id;
+            assertTrue(row.has("broker"));
+            assertFalse(row.get("broker").has("user"), "broker user must not leak into the export");
+        }
+        assertTrue(rows.stream().filter(r -> r.get("address").asText().startsWith("Export "))
+                .allMatch(r -> r.get("imageUrls").size() == 1));
+    }
+
+    @Test
+    void appliesSearchCriteria() throws Exception {
+        PropertyCriteria c = PropertyCriteria.builder().city("thane").configuration(PropertyConfig.FLAT).build();
+        List<JsonNode> rows = export(c);
+
+        assertFalse(rows.isEmpty());
+        assertTrue(rows.stream().allMatch(r -> "Thane".equals(r.get("city").asText())
+                && "FLAT".equals(r.get("configuration").asText())
+                && r.get("status").asBoolean()));
+    }
+
+    private List<JsonNode> export(PropertyCriteria c) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = exportService.exportNdjson(c, out);
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) rows.add(objectMapper.readTree(line));
+        }
+        assertEquals(written, rows.size());
+        return rows;
+    }
+}
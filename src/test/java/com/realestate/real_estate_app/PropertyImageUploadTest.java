@@ -0,0 +1,132 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.dto.ImageUploadReport;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.exception.NotFoundException;
+import com.realestate.model.Broker;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.repository.StoredBlobRepository;
+import com.realestate.service.FileStorageService;
+import com.realestate.service.IPropertyImageService;
+import com.realestate.service.IPropertyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:imageupload",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads",
+    "app.images.backfill-on-start=false",
+    "app.upload.workers=3",
+    "spring.servlet.multipart.max-file-size=1KB"
+})
+class PropertyImageUploadTest {
+
+    @Autowired private IPropertyImageService imageService;
+    @Autowired private IPropertyService propertyService;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private StoredBlobRepository blobRepository;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private FileStorageService storage;
+
+    @Test
+    void badFilesAreReportedWithoutFailingTheBatch() throws Exception {
+        Property p = newProperty();
+        byte[] shared = photo();
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "front.jpg", "image/jpeg", shared),
+                new MockMultipartFile("files", "notes.txt", "text/plain", photo()),
+                new MockMultipartFile("files", "side.png", "image/png", photo()),
+                new MockMultipartFile("files", "blank.jpg", "image/jpeg", new byte[0]),
+                new MockMultipartFile("files", "front-again.jpeg", "image/jpeg", shared));
+
+        ImageUploadReport report = imageService.upload(p.getPropId(), files);
+
+        assertEquals(5, report.getReceived());
+        assertEquals(3, report.getStored());
+        assertEquals(2, report.getFailed());
+        List<String> names = report.getFiles().stream().map(ImageUploadReport.FileResult::getFilename).toList();
+        assertEquals(List.of("front.jpg", "notes.txt", "side.png", "blank.jpg", "front-again.jpeg"), names, "request order");
+        assertNotNull(report.getFiles().get(1).getError());
+        assertNotNull(report.getFiles().get(3).getError());
+
+        String front = report.getFiles().get(0).getUrl();
+        assertEquals(front, report.getFiles().get(4).getUrl());
+        assertEquals(2, blobRepository.findById(front.substring("/files/".length())).orElseThrow().getRefCount());
+        assertArrayEquals(shared, Files.readAllBytes(storage.resolvePublicUrl(front)));
+
+        List<String> stored = List.of(front, report.getFiles().get(2).getUrl(), front);
+        assertEquals(stored, report.getProperty().getImageUrls());
+        assertEquals(p.getVersion() + 1, propertyRepository.findById(p.getPropId()).orElseThrow().getVersion(),
+                "one version bump for the whole batch");
+    }
+
+    @Test
+    void streamedUploadsRespectTheSizeLimit() {
+        Property p = newProperty();
+        byte[] body = photo();
+
+        ImageUploadReport ok = imageService.upload(p.getPropId(), "body.webp", new ByteArrayInputStream(body));
+        assertEquals(1, ok.getStored());
+        assertTrue(ok.getFiles().get(0).getUrl().endsWith(".webp"));
+        assertEquals(List.of(ok.getFiles().get(0).getUrl()), ok.getProperty().getImageUrls());
+
+        long blobs = blobRepository.count();
+        ImageUploadReport tooLarge = imageService.upload(p.getPropId(), "huge.jpg", new ByteArrayInputStream(new byte[4096]));
+        assertEquals(0, tooLarge.getStored());
+        assertTrue(tooLarge.getFiles().get(0).getError().contains("limit"), tooLarge.getFiles().get(0).getError());
+        assertEquals(blobs, blobRepository.count());
+        assertEquals(1, propertyService.viewPropertyDetails(p.getPropId()).getImageUrls().size());
+    }
+
+    @Test
+    void uploadsToAMissingListingStoreNothing() {
+        long blobs = blobRepository.count();
+        assertThrows(NotFoundException.class, () -> imageService.upload(-1L,
+                List.of(new MockMultipartFile("files", "a.jpg", "image/jpeg", photo()))));
+        assertEquals(blobs, blobRepository.count());
+    }
+
+    private static byte[] photo() {
+        return ("photo " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Property newProperty() {
+        User u = new User();
+        u.setEmail("upload-broker-" + System.nanoTime() + "@test.com");
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker broker = new Broker();
+        broker.setBroName("Upload Broker");
+        broker.setUser(u);
+        broker = brokerRepository.save(broker);
+
+        Property p = new Property();
+        p.setConfiguration(PropertyConfig.FLAT);
+        p.setOfferType(OfferType.SELL);
+        p.setOfferCost(3_000_000);
+        p.setAreaSqft(950);
+        p.setAddress("Upload test");
+        p.setCity("Pune");
+        p.setBroker(broker);
+        return propertyService.addProperty(p);
+    }
+}
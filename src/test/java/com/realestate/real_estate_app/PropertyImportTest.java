@@ -0,0 +1,166 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.dto.ImportReport;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.model.Broker;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.service.IPropertyImportService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:import",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "app.upload-dir=target/test-uploads",
+    "app.search.cache.enabled=false"
+})
+class PropertyImportTest {
+
+    private static final int ROWS = 20_000;
+
+    @Autowired private IPropertyImportService importService;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private EntityManagerFactory emf;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired @Qualifier("alignPropertySequence") private CommandLineRunner alignPropertySequence;
+
+    private static Broker broker;
+
+    @BeforeEach
+    void seed() {
+        if (broker != null) return;
+        User u = new User();
+        u.setEmail("import-broker@test.com");
+        u.setPassword("x");
+        u.setRole("BROKER");
+        broker = new Broker();
+        broker.setBroName("Import Broker");
+        broker.setUser(u);
+        broker = brokerRepository.save(broker);
+    }
+
+    @Test
+    void csvImportBatchesInsertsAndReportsBadRows() {
+        StringBuilder csv = new StringBuilder("configuration,offerType,offerCost,areaSqft,address,street,city,imageUrls\n");
+        for (int i = 1; i <= ROWS; i++) {
+            String cost = i % 1000 == 0 ? "-5" : String.valueOf(100_000 + i);      // fails validation
+            String config = i == 777 ? "CASTLE" : "FLAT";                           // fails parsing
+            String address = i == 4321 ? "x".repeat(300) : "\"Unit " + i + ", Tower B\""; // fails in the database
+            csv.append(config).append(",SELL,").append(cost).append(",850,").append(address)
+               .append(",MG Road,Pune,/files/import-").append(i).append("-a.jpg|/files/import-").append(i).append("-b.jpg\n");
+        }
+        long before = propertyRepository.count();
+        long imagesBefore = countImages();
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        ImportReport report = importService.importProperties(broker.getBroId(), stream(csv.toString()), "text/csv");
+
+        int bad = ROWS / 1000 + 2;
+        System.out.printf("CSV import: %d rows in %d ms (%.0f rows/sec), %d statements%n",
+                report.getImported(), report.getElapsedMs(), report.getRowsPerSecond(), stats.getPrepareStatementCount());
+
+        assertEquals(ROWS, report.getReceived());
+        assertEquals(ROWS - bad, report.getImported());
+        assertEquals(bad, report.getFailed());
+        List<Long> lines = report.getErrors().stream().map(ImportReport.RowError::getLine).sorted().toList();
+        assertTrue(lines.contains(1001L) && lines.contains(778L) && lines.contains(4322L), lines.toString());
+
+        assertEquals(before + ROWS - bad, propertyRepository.count());
+        assertEquals(imagesBefore + 2L * (ROWS - bad), countImages());
+        // batched: far fewer statements than rows (each row has an insert plus two image inserts)
+        assertTrue(stats.getPrepareStatementCount() < ROWS / 10, "statements: " + stats.getPrepareStatementCount());
+        assertTrue(report.getRowsPerSecond() > 0);
+    }
+
+    @Test
+    void ndjsonImportValidatesEveryRow() {
+        String body = """
+                {"configuration":"SHOP","offerType":"RENT","offerCost":25000,"areaSqft":300,"address":"Shop 1","city":"Nashik","imageUrls":["/files/s1.jpg"]}
+                {"configuration":"SHOP","offerType":"RENT","offerCost":25000,"areaSqft":300,"city":"Nashik"}
+                not json
+                {"configuration":"PLOT","offerType":"SELL","offerCost":900000,"areaSqft":2400,"address":"Plot 9","street":"Ring Road","city":"Nashik"}
+                """;
+        ImportReport report = importService.importProperties(broker.getBroId(), stream(body), "application/x-ndjson");
+
+        assertEquals(4, report.getReceived());
+        assertEquals(2, report.getImported());
+        assertEquals(List.of(2L, 3L), report.getErrors().stream().map(ImportReport.RowError::getLine).toList());
+        assertTrue(report.getErrors().get(0).getMessage().contains("address"));
+    }
+
+    @Test
+    void rejectsUnknownFormatAndMissingColumns() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importProperties(broker.getBroId(), stream("{}"), "application/xml"));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importProperties(broker.getBroId(), stream("city,address\nPune,x\n"), "text/csv"));
+    }
+
+    @Test
+    void sequenceIsMovedPastIdsWrittenBeforeIt() throws Exception {
+        // a row IDENTITY handed out where the sequence has not got to yet, as in a database from before it
+        long legacyId = sequenceValue() + 5;
+        Long saved = propertyRepository.save(property("Legacy")).getPropId();
+        jdbc.update("UPDATE properties SET prop_id = ? WHERE prop_id = ?", legacyId, saved);
+
+        alignPropertySequence.run();
+        // enough to use up the block in memory, the one the sequence is at, and the one holding legacyId
+        for (int i = 0; i < 3 * Property.ID_ALLOCATION; i++) {
+            assertNotEquals(legacyId, propertyRepository.save(property("After " + i)).getPropId());
+        }
+        long aligned = sequenceValue();
+        assertTrue(aligned > legacyId);
+
+        alignPropertySequence.run();
+        assertEquals(aligned, sequenceValue(), "no-op once the sequence is ahead");
+    }
+
+    private long sequenceValue() {
+        return jdbc.queryForObject("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES " +
+                "WHERE SEQUENCE_NAME = 'PROPERTY_SEQ'", Long.class);
+    }
+
+    private static Property property(String address) {
+        Property p = new Property();
+        p.setConfiguration(PropertyConfig.FLAT);
+        p.setOfferType(OfferType.SELL);
+        p.setOfferCost(500_000);
+        p.setAreaSqft(700);
+        p.setAddress(address);
+        p.setCity("Pune");
+        p.setBroker(broker);
+        return p;
+    }
+
+    private long countImages() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM property_images", Long.class);
+    }
+
+    private static ByteArrayInputStream stream(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,141 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.dto.BrokerListingPage;
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.PageQuery;
+import com.realestate.dto.PropertyCriteria;
+import com.realestate.dto.PropertyResponse;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.model.Broker;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.service.IPropertyService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:listing",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "app.upload-dir=target/test-uploads"
+})
+class PropertyListingTest {
+
+    @Autowired private IPropertyService propertyService;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private EntityManagerFactory emf;
+
+    private static Broker broker;
+
+    @BeforeEach
+    void seed() {
+        if (broker != null) return;
+        broker = newBroker("listing-broker@test.com");
+        for (int i = 1; i <= 45; i++) {
+            Property p = new Property();
+            p.setConfiguration(PropertyConfig.FLAT);
+            p.setOfferType(OfferType.SELL);
+            p.setOfferCost(100_000 * (46 - i));
+            p.setAreaSqft(500);
+            p.setAddress("Unit " + i);
+            p.setCity("Pune");
+            p.setStatus(i % 3 != 0);
+            p.setBroker(broker);
+            for (int img = 0; img < 3; img++) p.getImageUrls().add("/files/listing-" + i + "-" + img + ".jpg");
+            propertyService.addProperty(p);
+        }
+    }
+
+    @Test
+    void cursorWalksEveryRowExactlyOnce() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<PropertyResponse> page = propertyService.listProperties(new PageQuery(cursor, 10, cursor == null));
+            if (cursor == null) assertNotNull(page.getTotalCount());
+            page.getItems().forEach(p -> seen.add(p.getPropId()));
+            cursor = page.getNextCursor();
+            assertEquals(page.isHasMore(), cursor != null);
+        } while (cursor != null);
+
+        assertEquals(seen.stream().distinct().sorted().toList(), seen);
+        assertTrue(seen.size() >= 45);
+    }
+
+    @Test
+    void rejectsOversizedPagesAndForgedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> propertyService.listProperties(new PageQuery(null, 10_000, false)));
+        assertThrows(IllegalArgumentException.class, () -> propertyService.listProperties(new PageQuery("not-a-cursor", 10, false)));
+    }
+
+    @Test
+    void brokerListingIsPagedSortedAndCounted() {
+        BrokerListingPage<PropertyResponse> first = propertyService.listPropertiesByBroker(broker.getBroId(), "price", 0, 20);
+        assertEquals(20, first.getItems().size());
+        assertEquals(45, first.getTotalCount());
+        assertEquals(15, first.getTakenCount());
+        assertEquals(30, first.getActiveCount());
+        for (int i = 1; i < first.getItems().size(); i++) {
+            assertTrue(first.getItems().get(i - 1).getOfferCost() <= first.getItems().get(i).getOfferCost());
+        }
+
+        BrokerListingPage<PropertyResponse> pastEnd = propertyService.listPropertiesByBroker(broker.getBroId(), "newest", 5, 20);
+        assertTrue(pastEnd.getItems().isEmpty());
+        assertEquals(45, pastEnd.getTotalCount());
+
+        Broker other = newBroker("other-broker@test.com");
+        assertEquals(0, propertyService.listPropertiesByBroker(other.getBroId(), "rating", 0, 20).getTotalCount());
+    }
+
+    @Test
+    void pageCostsAFixedNumberOfStatementsRegardlessOfSize() {
+        PropertyCriteria pune = PropertyCriteria.builder().city("pune").status(null).build();
+
+        long small = statementsFor(() -> propertyService.listPropertyByCriteria(pune, new PageQuery(null, 5, false)));
+        long large = statementsFor(() -> propertyService.listPropertyByCriteria(pune, new PageQuery(null, 40, false)));
+        long brokerPage = statementsFor(() -> propertyService.listPropertiesByBroker(broker.getBroId(), "newest", 0, 40));
+
+        assertEquals(2, small, "rows + one batched image query");
+        assertEquals(small, large);
+        assertEquals(3, brokerPage, "ids with counters + rows + images");
+
+        CursorPage<PropertyResponse> page = propertyService.listPropertyByCriteria(pune, new PageQuery(null, 40, false));
+        List<PropertyResponse> ours = page.getItems().stream()
+                .filter(r -> broker.getBroId().equals(r.getBroker().getBroId())).toList();
+        assertFalse(ours.isEmpty());
+        assertTrue(ours.stream().allMatch(r -> r.getImageUrls().size() == 3 && r.getBroker().getBroName() != null));
+    }
+
+    private long statementsFor(Runnable call) {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        call.run();
+        return stats.getPrepareStatementCount();
+    }
+
+    private Broker newBroker(String email) {
+        User u = new User();
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker b = new Broker();
+        b.setBroName(email);
+        b.setUser(u);
+        return brokerRepository.save(b);
+    }
+}
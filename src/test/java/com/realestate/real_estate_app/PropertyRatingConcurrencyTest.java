@@ -0,0 +1,164 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.dto.PageQuery;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.model.Broker;
+import com.realestate.model.Property;
+import com.realestate.model.PropertyComment;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.repository.UserRepository;
+import com.realestate.service.IPropertyCommentService;
+import com.realestate.service.IPropertyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:ratings",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads"
+})
+class PropertyRatingConcurrencyTest {
+
+    private static final int REVIEWS = 2000;
+    private static final int THREADS = 8;
+
+    @Autowired private IPropertyCommentService commentService;
+    @Autowired private IPropertyService propertyService;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbc;
+
+    @Test
+    void parallelReviewsProduceExactAggregates() throws Exception {
+        Property property = newProperty("ratings-broker@test.com");
+        String reviewer = newUser("ratings-reviewer@test.com");
+
+        // every fifth comment is unrated: it is stored but is not a review
+        Random random = new Random(7);
+        Integer[] ratings = new Integer[REVIEWS];
+        long expectedSum = 0;
+        int expectedCount = 0;
+        for (int i = 0; i < REVIEWS; i++) {
+            ratings[i] = i % 5 == 0 ? null : 1 + random.nextInt(5);
+            if (ratings[i] != null) {
+                expectedSum += ratings[i];
+                expectedCount++;
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Integer rating : ratings) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    commentService.addComment(property.getPropId(), comment(rating), reviewer);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        Property after = propertyRepository.findById(property.getPropId()).orElseThrow();
+        assertEquals(expectedCount, after.getReviewCount());
+        assertEquals(expectedSum, after.getRatingSum());
+        assertEquals((double) expectedSum / expectedCount, after.getAvgRating(), 1e-9);
+        assertEquals(REVIEWS, commentService.getComments(property.getPropId(), new PageQuery(null, 1, true)).getTotalCount());
+        assertEquals(property.getVersion() + expectedCount, after.getVersion());
+    }
+
+    @Test
+    void unratedCommentsLeaveTheStatsAloneAndBadRatingsAreRejected() {
+        Property property = newProperty("ratings-broker2@test.com");
+        String reviewer = newUser("ratings-reviewer2@test.com");
+
+        commentService.addComment(property.getPropId(), comment(4), reviewer);
+        commentService.addComment(property.getPropId(), comment(null), reviewer);
+        commentService.addComment(property.getPropId(), comment(5), reviewer);
+        assertThrows(IllegalArgumentException.class,
+                () -> commentService.addComment(property.getPropId(), comment(6), reviewer));
+
+        Property after = propertyRepository.findById(property.getPropId()).orElseThrow();
+        assertEquals(2, after.getReviewCount());
+        assertEquals(4.5, after.getAvgRating(), 1e-9);
+    }
+
+    @Test
+    void backfillRecountsRowsWrittenBeforeTheRatingSum() {
+        Property property = newProperty("ratings-broker3@test.com");
+        String reviewer = newUser("ratings-reviewer3@test.com");
+        commentService.addComment(property.getPropId(), comment(2), reviewer);
+        commentService.addComment(property.getPropId(), comment(null), reviewer);
+        commentService.addComment(property.getPropId(), comment(5), reviewer);
+
+        // the old write path counted unrated comments too
+        jdbc.update("UPDATE properties SET rating_sum = NULL, review_count = 3, avg_rating = 3.5 WHERE prop_id = ?",
+                property.getPropId());
+        assertTrue(propertyRepository.backfillRatings() >= 1);
+
+        Property after = propertyRepository.findById(property.getPropId()).orElseThrow();
+        assertEquals(2, after.getReviewCount());
+        assertEquals(7L, after.getRatingSum());
+        assertEquals(3.5, after.getAvgRating(), 1e-9);
+    }
+
+    private PropertyComment comment(Integer rating) {
+        PropertyComment c = new PropertyComment();
+        c.setContent(rating == null ? "Question about parking" : "Rated " + rating);
+        c.setRating(rating);
+        return c;
+    }
+
+    private String newUser(String email) {
+        User u = new User();
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setRole("CUSTOMER");
+        userRepository.save(u);
+        return email;
+    }
+
+    private Property newProperty(String brokerEmail) {
+        User u = new User();
+        u.setEmail(brokerEmail);
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker broker = new Broker();
+        broker.setBroName("Ratings Broker");
+        broker.setUser(u);
+        broker = brokerRepository.save(broker);
+
+        Property p = new Property();
+        p.setConfiguration(PropertyConfig.FLAT);
+        p.setOfferType(OfferType.SELL);
+        p.setOfferCost(4_000_000);
+        p.setAreaSqft(850);
+        p.setAddress("Ratings test");
+        p.setCity("Pune");
+        p.setBroker(broker);
+        return propertyService.addProperty(p);
+    }
+}
@@ -0,0 +1,146 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.PageQuery;
+import com.realestate.dto.PropertyCriteria;
+import com.realestate.dto.PropertyResponse;
+import com.realestate.dto.SearchCacheStats;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.model.Broker;
+import com.realestate.model.Customer;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.CustomerRepository;
+import com.realestate.search.PropertySearchCache;
+import com.realestate.service.IDealService;
+import com.realestate.service.IPropertyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:searchcache",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads",
+    "app.search.cache.max-entries=4"
+})
+class PropertySearchCacheTest {
+
+    @Autowired private IPropertyService propertyService;
+    @Autowired private IDealService dealService;
+    @Autowired private PropertySearchCache searchCache;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private CustomerRepository customerRepository;
+
+    private Broker broker;
+
+    @BeforeEach
+    void setUp() {
+        searchCache.clear();
+        if (broker == null) broker = brokerRepository.findAll().stream()
+                .filter(b -> "cache-broker@test.com".equals(b.getBroName())).findFirst()
+                .orElseGet(this::newBroker);
+    }
+
+    @Test
+    void normalizedCriteriaShareOneEntry() {
+        newProperty("Satara", PropertyConfig.FLAT);
+        SearchCacheStats before = searchCache.stats();
+
+        search("Satara", PropertyConfig.FLAT);
+        search("SATARA", PropertyConfig.FLAT);
+        search("satara", PropertyConfig.FLAT);
+
+        SearchCacheStats after = searchCache.stats();
+        assertEquals(1, after.getMisses() - before.getMisses());
+        assertEquals(2, after.getHits() - before.getHits());
+    }
+
+    @Test
+    void writesDropOnlyTheAffectedScope() {
+        newProperty("Kolhapur", PropertyConfig.FLAT);
+        int kolhapurFlats = search("Kolhapur", PropertyConfig.FLAT).getItems().size();
+        search("Kolhapur", PropertyConfig.SHOP);
+        search("Sangli", PropertyConfig.FLAT);
+
+        long invalidations = searchCache.stats().getInvalidations();
+        newProperty("Kolhapur", PropertyConfig.FLAT);
+        assertEquals(invalidations + 1, searchCache.stats().getInvalidations(), "only the Kolhapur/FLAT page is affected");
+        assertEquals(kolhapurFlats + 1, search("Kolhapur", PropertyConfig.FLAT).getItems().size());
+
+        // moving a listing out of a city invalidates its old scope as well as the new one
+        Property moved = newProperty("Sangli", PropertyConfig.SHOP);
+        search("Sangli", PropertyConfig.SHOP);
+        invalidations = searchCache.stats().getInvalidations();
+        moved.setCity("Kolhapur");
+        propertyService.editProperty(moved);
+        assertEquals(invalidations + 2, searchCache.stats().getInvalidations());
+        assertTrue(search("Sangli", PropertyConfig.SHOP).getItems().isEmpty());
+        assertEquals(1, search("Kolhapur", PropertyConfig.SHOP).getItems().size());
+    }
+
+    @Test
+    void dealRemovesListingFromCachedAvailableResults() {
+        Property p = newProperty("Latur", PropertyConfig.PLOT);
+        assertEquals(1, search("Latur", PropertyConfig.PLOT).getItems().size());
+
+        dealService.addDeal(p, newCustomer(), 1_000_000);
+
+        assertTrue(search("Latur", PropertyConfig.PLOT).getItems().isEmpty());
+    }
+
+    @Test
+    void staysWithinItsEntryBound() {
+        for (String city : new String[]{"A", "B", "C", "D", "E", "F"}) search(city, null);
+        SearchCacheStats stats = searchCache.stats();
+        assertEquals(4, stats.getEntries());
+        assertTrue(stats.getEvictions() >= 2);
+    }
+
+    private CursorPage<PropertyResponse> search(String city, PropertyConfig config) {
+        PropertyCriteria c = PropertyCriteria.builder().city(city).configuration(config).build();
+        return propertyService.listPropertyByCriteria(c, new PageQuery(null, 20, false));
+    }
+
+    private Property newProperty(String city, PropertyConfig config) {
+        Property p = new Property();
+        p.setConfiguration(config);
+        p.setOfferType(OfferType.SELL);
+        p.setOfferCost(2_500_000);
+        p.setAreaSqft(900);
+        p.setAddress("Cache test");
+        p.setCity(city);
+        p.setBroker(broker);
+        return propertyService.addProperty(p);
+    }
+
+    private Broker newBroker() {
+        User u = new User();
+        u.setEmail("cache-broker@test.com");
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker b = new Broker();
+        b.setBroName("cache-broker@test.com");
+        b.setUser(u);
+        return brokerRepository.save(b);
+    }
+
+    private Customer newCustomer() {
+        User u = new User();
+        u.setEmail("cache-customer-" + System.nanoTime() + "@test.com");
+        u.setPassword("x");
+        u.setRole("CUSTOMER");
+        Customer c = new Customer();
+        c.setCustName("Cache Customer");
+        c.setUser(u);
+        return customerRepository.save(c);
+    }
+}
@@ -0,0 +1,84 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.dto.PropertyCriteria;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.search.PropertySearchIndex;
+import com.realestate.search.PropertySearchRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Latency of PropertySearchIndex at catalog scale. Not part of the regular build:
+ * run with {@code mvn test -Dtest=PropertySearchIndexBenchmark -Dbench=true [-Dbench.rows=1000000]}.
+ */
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class PropertySearchIndexBenchmark {
+
+    private static final String[] CITIES = {"Pune", "Mumbai", "Nagpur", "Nashik", "Delhi", "Bengaluru",
+            "Chennai", "Hyderabad", "Kolkata", "Jaipur", "Surat", "Lucknow"};
+
+    @Test
+    void p99LatencyAtScale() {
+        int rows = Integer.getInteger("bench.rows", 1_000_000);
+        Random random = new Random(7);
+        PropertySearchIndex index = new PropertySearchIndex(null);
+
+        long t0 = System.nanoTime();
+        for (int i = 1; i <= rows; i++) {
+            index.upsert(new PropertySearchRow((long) i,
+                    PropertyConfig.values()[random.nextInt(3)], OfferType.values()[random.nextInt(2)],
+                    10_000 + random.nextInt(2_000) * 5_000d, 200 + random.nextInt(3_000),
+                    random.nextInt(50) / 10d, random.nextInt(40),
+                    CITIES[random.nextInt(CITIES.length)], "Street " + random.nextInt(500),
+                    random.nextInt(5) != 0));
+        }
+        System.out.printf("loaded %,d rows in %d ms%n", rows, (System.nanoTime() - t0) / 1_000_000);
+
+        PropertyCriteria[] mix = {
+                criteria("Pune", PropertyConfig.FLAT, OfferType.SELL, 2_000_000d, 6_000_000d),
+                criteria("Mumbai", null, OfferType.RENT, null, 500_000d),
+                criteria(null, PropertyConfig.SHOP, null, 1_000_000d, null),
+                criteria(null, null, null, null, null),
+        };
+        mix[3].setMinRating(4.5);
+        mix[3].setMinReviews(30);
+
+        for (int warm = 0; warm < 2_000; warm++) index.search(mix[warm % mix.length], null, 21);
+
+        int samples = 20_000;
+        long[] page = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long s = System.nanoTime();
+            index.search(mix[i % mix.length], null, 21);
+            page[i] = System.nanoTime() - s;
+        }
+        long[] count = new long[samples / 20];
+        for (int i = 0; i < count.length; i++) {
+            long s = System.nanoTime();
+            index.count(mix[i % mix.length]);
+            count[i] = System.nanoTime() - s;
+        }
+        report("first page (21 rows)", page);
+        report("full count", count);
+    }
+
+    private static PropertyCriteria criteria(String city, PropertyConfig cfg, OfferType offer, Double min, Double max) {
+        PropertyCriteria c = new PropertyCriteria();
+        c.setCity(city);
+        c.setConfiguration(cfg);
+        c.setOfferType(offer);
+        c.setMinCost(min);
+        c.setMaxCost(max);
+        return c;
+    }
+
+    private static void report(String label, long[] nanos) {
+        Arrays.sort(nanos);
+        System.out.printf("%-22s p50=%.3f ms  p99=%.3f ms  max=%.3f ms%n", label,
+                nanos[nanos.length / 2] / 1e6, nanos[(int) (nanos.length * 0.99)] / 1e6, nanos[nanos.length - 1] / 1e6);
+    }
+}
@@ -0,0 +1,219 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.PageQuery;
+import com.realestate.dto.PropertyCriteria;
+import com.realestate.dto.PropertyResponse;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.model.Broker;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.search.PropertySearchIndex;
+import com.realestate.search.PropertySearchRow;
+import com.realestate.search.PropertySpecifications;
+import com.realestate.search.SearchSort;
+import com.realestate.service.IPropertyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Consistency check: the in-memory index must return exactly what the JPA criteria path returns.
+ */
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:searchindex",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads",
+    "app.search.engine=index"
+})
+class PropertySearchIndexTest {
+
+    private static final String[] CITIES = {"Pune", "Mumbai", "Nagpur", "Nashik"};
+    private static final String[] STREETS = {"MG Road", "Baner Road", "FC Road"};
+
+    @Autowired private PropertySearchIndex searchIndex;
+    @Autowired private IPropertyService propertyService;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private BrokerRepository brokerRepository;
+
+    private final Random random = new Random(42);
+    private static Broker broker;
+
+    @BeforeEach
+    void seed() {
+        if (broker != null) return;
+        User u = new User();
+        u.setEmail("index-broker@test.com");
+        u.setPassword("x");
+        u.setRole("BROKER");
+        broker = new Broker();
+        broker.setBroName("Index Broker");
+        broker.setUser(u);
+        broker = brokerRepository.save(broker);
+
+        for (int i = 0; i < 300; i++) {
+            propertyService.addProperty(randomProperty());
+        }
+    }
+
+    @Test
+    void indexMatchesJpaAfterRebuild() {
+        searchIndex.rebuild();
+        assertSameResults(500);
+    }
+
+    @Test
+    void indexStaysConsistentUnderIncrementalWrites() {
+        searchIndex.rebuild();
+        List<Property> all = propertyRepository.findAll(Sort.by("propId"));
+        for (int i = 0; i < 60; i++) {
+            // reload: the same row may come up twice, and an edit bumps its version
+            Property p = propertyRepository.findById(all.get(random.nextInt(all.size())).getPropId()).orElse(null);
+            if (p == null) continue;
+            switch (i % 3) {
+                case 0 -> propertyService.addProperty(randomProperty());
+                case 1 -> {
+                    p.setOfferCost(randomCost());
+                    p.setCity(CITIES[random.nextInt(CITIES.length)]);
+                    p.setStatus(random.nextBoolean());
+                    propertyService.editProperty(p);
+                }
+                default -> propertyService.removeProperty(p.getPropId());
+            }
+        }
+        assertSameResults(500);
+    }
+
+    @Test
+    void sortedIndexMatchesJpaOrderAndCursorsWalkIt() {
+        searchIndex.rebuild();
+        for (SearchSort sort : SearchSort.values()) {
+            for (boolean descending : new boolean[]{false, true}) {
+                for (int q = 0; q < 20; q++) {
+                    PropertyCriteria c = randomCriteria();
+                    Sort.Direction dir = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+                    List<Long> expected = propertyRepository.findAll(PropertySpecifications.byCriteria(c),
+                                    Sort.by(dir, sort.getAttribute()).and(Sort.by(dir, "propId")))
+                            .stream().map(Property::getPropId).toList();
+                    String label = sort + (descending ? " desc" : " asc") + " #" + q;
+
+                    assertEquals(expected.subList(0, Math.min(10, expected.size())),
+                            searchIndex.searchSorted(c, sort, descending, null, 10), "top 10 for " + label);
+
+                    List<Long> walked = new ArrayList<>();
+                    String cursor = null;
+                    do {
+                        CursorPage<PropertyResponse> page = propertyService.listPropertyByCriteria(c,
+                                new PageQuery(cursor, 7, false, sort.getParam(), descending ? "desc" : "asc"));
+                        page.getItems().forEach(r -> walked.add(r.getPropId()));
+                        cursor = page.getNextCursor();
+                    } while (cursor != null);
+                    assertEquals(expected, walked, "cursor walk for " + label);
+                }
+            }
+        }
+    }
+
+    @Test
+    void lateIdsSlotInPlaceAndTombstonesAreReclaimed() {
+        PropertySearchIndex index = new PropertySearchIndex(propertyRepository);
+        List<Long> expected = new ArrayList<>();
+        for (long id = 2; id <= 20_000; id += 2) {
+            index.upsert(row(id));
+            expected.add(id);
+        }
+        // late commits from other sequence blocks land between existing ids
+        for (int i = 0; i < 300; i++) {
+            long id = 1 + 2L * random.nextInt(10_000);
+            index.upsert(row(id));
+            if (!expected.contains(id)) expected.add(id);
+        }
+        expected.sort(null);
+        assertEquals(expected, index.search(new PropertyCriteria(), null, Integer.MAX_VALUE));
+        PropertyCriteria pune = new PropertyCriteria();
+        pune.setCity("pune");
+        assertEquals(expected.stream().filter(id -> id % 3 == 0).toList(),
+                index.search(pune, null, Integer.MAX_VALUE));
+
+        // removing most rows compacts instead of leaving the slots behind
+        for (Long id : new ArrayList<>(expected)) {
+            if (id % 5 != 0) {
+                index.remove(id);
+                expected.remove(id);
+            }
+        }
+        assertEquals(expected, index.search(new PropertyCriteria(), null, Integer.MAX_VALUE));
+        assertEquals(expected.size(), index.size());
+        assertTrue(index.slotCount() < expected.size() * 2, "tombstones reclaimed: " + index.slotCount());
+
+        index.upsert(row(15));
+        assertEquals(15L, index.search(new PropertyCriteria(), 10L, 1).get(0));
+    }
+
+    private static PropertySearchRow row(long id) {
+        return new PropertySearchRow(id, PropertyConfig.FLAT, OfferType.RENT, 10_000 + id, 500, 0, 0,
+                id % 3 == 0 ? "Pune" : "Mumbai", null, true);
+    }
+
+    private void assertSameResults(int queries) {
+        for (int q = 0; q < queries; q++) {
+            PropertyCriteria c = randomCriteria();
+            List<Long> expected = propertyRepository.findAll(PropertySpecifications.byCriteria(c), Sort.by("propId"))
+                    .stream().map(Property::getPropId).toList();
+            List<Long> actual = searchIndex.search(c, null, Integer.MAX_VALUE);
+            assertEquals(expected, actual, "criteria #" + q);
+            assertEquals(expected.size(), searchIndex.count(c), "count for criteria #" + q);
+        }
+    }
+
+    private PropertyCriteria randomCriteria() {
+        PropertyCriteria c = new PropertyCriteria();
+        if (random.nextBoolean()) c.setCity(CITIES[random.nextInt(CITIES.length)].toUpperCase());
+        if (random.nextBoolean()) c.setConfiguration(PropertyConfig.values()[random.nextInt(3)]);
+        if (random.nextBoolean()) c.setOfferType(OfferType.values()[random.nextInt(2)]);
+        if (random.nextBoolean()) c.setMinCost(randomCost());
+        if (random.nextBoolean()) c.setMaxCost(randomCost());
+        if (random.nextInt(4) == 0) c.setMinAreaSqft(200d + random.nextInt(2000));
+        if (random.nextInt(4) == 0) c.setMaxAreaSqft(200d + random.nextInt(2000));
+        if (random.nextInt(4) == 0) c.setStreet(STREETS[random.nextInt(STREETS.length)].toLowerCase());
+        if (random.nextInt(4) == 0) c.setMinRating(random.nextInt(50) / 10d);
+        if (random.nextInt(4) == 0) c.setMinReviews(random.nextInt(20));
+        if (random.nextInt(3) == 0) c.setStatus(random.nextBoolean() ? null : Boolean.FALSE);
+        return c;
+    }
+
+    private Property randomProperty() {
+        Property p = new Property();
+        p.setConfiguration(PropertyConfig.values()[random.nextInt(3)]);
+        p.setOfferType(OfferType.values()[random.nextInt(2)]);
+        p.setOfferCost(randomCost());
+        p.setAreaSqft(200 + random.nextInt(2000));
+        p.setAddress("Plot " + random.nextInt(1000));
+        p.setStreet(STREETS[random.nextInt(STREETS.length)]);
+        p.setCity(CITIES[random.nextInt(CITIES.length)]);
+        p.setStatus(random.nextInt(4) != 0);
+        p.setAvgRating(random.nextInt(50) / 10d);
+        p.setReviewCount(random.nextInt(20));
+        p.setBroker(broker);
+        return p;
+    }
+
+    private double randomCost() {
+        return 10_000 + random.nextInt(100) * 50_000;
+    }
+}
@@ -0,0 +1,128 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.dto.PageQuery;
+import com.realestate.dto.PropertyCriteria;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.search.PageCursor;
+import com.realestate.search.SearchSort;
+import com.realestate.service.IPropertyService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the search hot path against table scans: every filter combination the search endpoint
+ * can produce is run through the service, and H2's EXPLAIN of the generated SQL must use an index.
+ * Criteria values are inlined (hibernate.criteria.value_handling_mode=inline) so the captured SQL is explainable.
+ */
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:searchplan",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.realestate.real_estate_app.PropertySearchPlanTest$CapturingInspector",
+    "app.search.cache.enabled=false",
+    "app.upload-dir=target/test-uploads"
+})
+class PropertySearchPlanTest {
+
+    private static final int FILTERS = 8;
+
+    @Autowired private IPropertyService propertyService;
+    @Autowired private JdbcTemplate jdbc;
+
+    @Test
+    void everyAvailableOnlyFilterCombinationUsesAnIndex() {
+        for (Boolean status : new Boolean[]{Boolean.TRUE, Boolean.FALSE}) {
+            for (int mask = 0; mask < (1 << FILTERS); mask++) {
+                PropertyCriteria c = criteria(mask, status);
+                assertIndexed(c, null);
+                assertIndexed(c, PageCursor.encode(1000L));
+            }
+        }
+    }
+
+    @Test
+    void cityFilterUsesTheCityIndex() {
+        PropertyCriteria c = PropertyCriteria.builder().city("Pune").configuration(PropertyConfig.FLAT)
+                .offerType(OfferType.SELL).minCost(1_000_000d).maxCost(5_000_000d).build();
+        String plan = explain(c, null);
+        assertTrue(plan.contains("IDX_PROP_STATUS_CITY"), plan);
+    }
+
+    @Test
+    void sortedSearchesWalkAnIndex() {
+        PropertyCriteria c = PropertyCriteria.builder().build();
+        for (SearchSort sort : SearchSort.values()) {
+            for (boolean descending : new boolean[]{false, true}) {
+                String cursor = PageCursor.encode(sort, descending, 1000d, 1000L);
+                for (String page : new String[]{null, cursor}) {
+                    String plan = explainPage(c, new PageQuery(page, 20, false, sort.getParam(), descending ? "desc" : "asc"));
+                    assertFalse(plan.contains("tableScan"), "table scan for sort " + sort + ":\n" + plan);
+                }
+            }
+        }
+    }
+
+    private void assertIndexed(PropertyCriteria c, String cursor) {
+        String plan = explain(c, cursor);
+        assertFalse(plan.contains("tableScan"), "table scan for mask " + describe(c) + ":\n" + plan);
+    }
+
+    private String explain(PropertyCriteria c, String cursor) {
+        return explainPage(c, new PageQuery(cursor, 20, false));
+    }
+
+    private String explainPage(PropertyCriteria c, PageQuery page) {
+        CapturingInspector.SQL.clear();
+        propertyService.listPropertyByCriteria(c, page);
+        String select = CapturingInspector.SQL.stream()
+                .filter(s -> s.toLowerCase(Locale.ROOT).startsWith("select") && s.contains("from properties"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no properties select captured"));
+        // only the row limit is still bound as a parameter
+        return jdbc.queryForObject("EXPLAIN " + select.replace("?", "21"), String.class);
+    }
+
+    private static PropertyCriteria criteria(int mask, Boolean status) {
+        PropertyCriteria c = new PropertyCriteria();
+        c.setStatus(status);
+        if ((mask & 1) != 0) c.setCity("Pune");
+        if ((mask & 2) != 0) c.setConfiguration(PropertyConfig.FLAT);
+        if ((mask & 4) != 0) c.setOfferType(OfferType.RENT);
+        if ((mask & 8) != 0) { c.setMinCost(10_000d); c.setMaxCost(90_000d); }
+        if ((mask & 16) != 0) { c.setMinAreaSqft(500d); c.setMaxAreaSqft(1500d); }
+        if ((mask & 32) != 0) c.setMinRating(4d);
+        if ((mask & 64) != 0) c.setMinReviews(5);
+        if ((mask & 128) != 0) c.setStreet("MG Road");
+        return c;
+    }
+
+    private static String describe(PropertyCriteria c) {
+        return "status=" + c.getStatus() + " city=" + c.getCity() + " config=" + c.getConfiguration()
+                + " offer=" + c.getOfferType() + " cost=" + c.getMinCost() + " area=" + c.getMinAreaSqft()
+                + " rating=" + c.getMinRating() + " reviews=" + c.getMinReviews() + " street=" + c.getStreet();
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> SQL = java.util.Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+}
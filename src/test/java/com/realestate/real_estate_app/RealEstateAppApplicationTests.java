@@ -8,7 +8,7 @@ import org.springframework.test.context.TestPropertySource;
 @TestPropertySource(properties = {
     "spring.datasource.url=jdbc:h2:mem:testdb",
     "spring.jpa.hibernate.ddl-auto=create-drop",
-    "app.upload-dir=test-uploads"
+    "app.upload-dir=target/test-uploads"
 })
 class RealEstateAppApplicationTests {
 
@@ -0,0 +1,230 @@
+package com.realestate.real_estate_app;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.controller.BrokerController;
+import com.realestate.controller.PropertyCommentController;
+import com.realestate.dto.CursorPage;
+import com.realestate.dto.PageQuery;
+import com.realestate.dto.ReviewResponse;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.model.Broker;
+import com.realestate.model.BrokerRating;
+import com.realestate.model.Customer;
+import com.realestate.model.Property;
+import com.realestate.model.PropertyComment;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRatingRepository;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.CustomerRepository;
+import com.realestate.repository.PropertyCommentRepository;
+import com.realestate.service.IBrokerService;
+import com.realestate.service.IPropertyCommentService;
+import com.realestate.service.IPropertyService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:reviewfeed",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "app.upload-dir=target/test-uploads"
+})
+class ReviewFeedTest {
+
+    @Autowired private IPropertyCommentService commentService;
+    @Autowired private IBrokerService brokerService;
+    @Autowired private IPropertyService propertyService;
+    @Autowired private PropertyCommentRepository commentRepository;
+    @Autowired private BrokerRatingRepository ratingRepository;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private CustomerRepository customerRepository;
+    @Autowired private EntityManagerFactory emf;
+    @Autowired private PropertyCommentController commentController;
+    @Autowired private BrokerController brokerController;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private MockMvc mvc;
+
+    @Test
+    void commentFeedWalksNewestFirstWithOneQueryPerPage() throws Exception {
+        Broker broker = newBroker("feed-broker@test.com", "Feed Realty");
+        Customer customer = newCustomer("feed-customer@test.com", "Asha Patil");
+        Property property = newProperty(broker);
+
+        // a few share a timestamp so the id tie-break is exercised
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int i = 0; i < 47; i++) {
+            PropertyComment c = new PropertyComment();
+            c.setProperty(property);
+            c.setUser(i % 4 == 0 ? broker.getUser() : customer.getUser());
+            c.setContent("Comment " + i);
+            c.setRating(i % 3 == 0 ? null : 1 + i % 5);
+            c.setCreatedAt(base.plusMinutes(i / 3));
+            commentRepository.save(c);
+        }
+        List<Long> expected = commentRepository.findAll().stream()
+                .sorted(Comparator.comparing(PropertyComment::getCreatedAt).thenComparing(PropertyComment::getCommentId).reversed())
+                .map(PropertyComment::getCommentId).toList();
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            stats.clear();
+            CursorPage<ReviewResponse> page = commentService.getComments(property.getPropId(), new PageQuery(cursor, 10, false));
+            assertTrue(stats.getPrepareStatementCount() <= 2, "existence check + one feed query per page");
+            for (ReviewResponse r : page.getItems()) {
+                walked.add(r.getId());
+                assertTrue(r.getAuthor().equals("Asha Patil") || r.getAuthor().equals("Feed Realty"));
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(expected, walked);
+        assertEquals(47L, commentService.getComments(property.getPropId(), new PageQuery(null, 5, true)).getTotalCount());
+
+        String json = mvc.perform(get("/api/properties/" + property.getPropId() + "/comments").param("size", "3"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertFalse(json.contains("password"));
+        assertFalse(json.contains("feed-customer@test.com"));
+        assertTrue(json.contains("\"nextCursor\""));
+        mvc.perform(get("/api/properties/" + property.getPropId() + "/comments").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void ratingFeedPagesWithoutLoadingCustomers() throws Exception {
+        Broker broker = newBroker("feed-broker2@test.com", "Second Realty");
+        List<Customer> customers = List.of(newCustomer("feed-c1@test.com", "Ravi"), newCustomer("feed-c2@test.com", "Meera"));
+        for (int i = 0; i < 25; i++) {
+            BrokerRating r = new BrokerRating();
+            r.setBroker(broker);
+            r.setCustomer(customers.get(i % 2));
+            r.setRating(1 + i % 5);
+            r.setComment("Rating " + i);
+            r.setCreatedAt(LocalDateTime.of(2026, 2, 1, 10, 0).plusSeconds(i / 2));
+            ratingRepository.save(r);
+        }
+
+        HashSet<Long> seen = new HashSet<>();
+        LocalDateTime previous = null;
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<ReviewResponse> page = brokerService.listRatings(broker.getBroId(), new PageQuery(cursor, 7, false));
+            for (ReviewResponse r : page.getItems()) {
+                assertTrue(seen.add(r.getId()));
+                if (previous != null) assertFalse(r.getCreatedAt().isAfter(previous));
+                previous = r.getCreatedAt();
+            }
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertEquals(25, seen.size());
+        assertEquals(4, pages);
+
+        String json = mvc.perform(get("/api/brokers/" + broker.getBroId() + "/ratings"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertFalse(json.contains("properties"));
+        assertFalse(json.contains("password"));
+        mvc.perform(get("/api/brokers/-1/ratings")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void postingAReviewAnswersWithTheFeedEntryOnly() throws Exception {
+        Broker broker = newBroker("post-broker@test.com", "Posting Realty");
+        Customer customer = newCustomer("post-customer@test.com", "Kiran Rao");
+        Property property = newProperty(broker);
+        Authentication auth = new UsernamePasswordAuthenticationToken("post-customer@test.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+        SecurityContextHolder.getContext().setAuthentication(auth);
+
+        PropertyComment comment = new PropertyComment();
+        comment.setContent("Bright and airy");
+        comment.setRating(4);
+        ReviewResponse posted = commentController.addComment(property.getPropId(), comment, auth).getBody();
+        assertEquals("Kiran Rao", posted.getAuthor());
+        assertEquals(4, posted.getRating());
+        assertEquals(commentService.getComments(property.getPropId(), new PageQuery(null, 1, false)).getItems().get(0).getId(),
+                posted.getId());
+
+        BrokerRating rating = new BrokerRating();
+        rating.setRating(5);
+        rating.setComment("Quick replies");
+        ReviewResponse rated = brokerController.rateBroker(broker.getBroId(), rating, auth).getBody();
+        assertEquals("Kiran Rao", rated.getAuthor());
+        assertEquals("Quick replies", rated.getText());
+
+        for (ReviewResponse body : List.of(posted, rated)) {
+            String json = objectMapper.writeValueAsString(body);
+            assertFalse(json.contains("password"), json);
+            assertFalse(json.contains("post-customer@test.com"), json);
+            assertFalse(json.contains("properties"), json);
+        }
+    }
+
+    @AfterEach
+    void clearAuth() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Broker newBroker(String email, String name) {
+        User u = new User();
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker b = new Broker();
+        b.setBroName(name);
+        b.setUser(u);
+        return brokerRepository.save(b);
+    }
+
+    private Customer newCustomer(String email, String name) {
+        User u = new User();
+        u.setEmail(email);
+        u.setPassword("x");
+        u.setRole("CUSTOMER");
+        Customer c = new Customer();
+        c.setCustName(name);
+        c.setUser(u);
+        return customerRepository.save(c);
+    }
+
+    private Property newProperty(Broker broker) {
+        Property p = new Property();
+        p.setConfiguration(PropertyConfig.FLAT);
+        p.setOfferType(OfferType.RENT);
+        p.setOfferCost(25_000);
+        p.setAreaSqft(650);
+        p.setAddress("Feed test");
+        p.setCity("Pune");
+        p.setBroker(broker);
+        return propertyService.addProperty(p);
+    }
+}
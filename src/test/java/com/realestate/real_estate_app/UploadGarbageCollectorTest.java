@@ -0,0 +1,216 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.controller.StorageController;
+import com.realestate.dto.StorageGcReport;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.model.Broker;
+import com.realestate.model.Property;
+import com.realestate.model.StoredBlob;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.StoredBlobRepository;
+import com.realestate.service.FileStorageService;
+import com.realestate.service.IPropertyService;
+import com.realestate.service.UploadGarbageCollector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:uploadgc",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads/gc",
+    "app.images.backfill-on-start=false",
+    "app.storage.gc.enabled=false",
+    "app.storage.gc.grace-seconds=3600",
+    "app.storage.gc.quarantine-seconds=3600",
+    "app.storage.gc.batch-size=2"
+})
+class UploadGarbageCollectorTest {
+
+    private static final Instant TWO_HOURS_AGO = Instant.now().minusSeconds(7200);
+
+    @Autowired private UploadGarbageCollector collector;
+    @Autowired private StorageController storageController;
+    @Autowired private FileStorageService storage;
+    @Autowired private StoredBlobRepository blobRepository;
+    @Autowired private IPropertyService propertyService;
+    @Autowired private BrokerRepository brokerRepository;
+
+    // the collector walks the whole upload dir: start without files left over by earlier runs
+    @BeforeAll
+    static void cleanUploadDir() throws Exception {
+        Path dir = Path.of("target/test-uploads/gc");
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Test
+    void orphansAreQuarantinedThenPurgedWhileLiveAndRecentFilesStay() throws Exception {
+        String orphan = upload();
+        Property removed = newProperty(orphan);
+        propertyService.removeProperty(removed.getPropId()); // leaves the blob's reference behind
+        String live = upload();
+        newProperty(live);
+        setReferences(live, 3); // drifted count
+        String fresh = upload(); // an upload whose listing has not been saved yet
+        backdate(orphan);
+        backdate(live);
+        Path staleTemp = Files.createTempFile(Files.createDirectories(storage.incomingRoot()), "upload-", ".tmp");
+        Files.setLastModifiedTime(staleTemp, FileTime.from(TWO_HOURS_AGO));
+
+        StorageGcReport first = collector.run();
+
+        assertFalse(first.isRunning());
+        assertEquals("done", first.getPhase());
+        assertEquals(1, first.getQuarantined());
+        assertEquals(1, first.getReferencesReconciled());
+        assertEquals(1, first.getPurged(), "the abandoned temp file");
+        assertFalse(Files.exists(staleTemp));
+        assertFalse(Files.exists(storage.root().resolve(relative(orphan))));
+        assertNotNull(storage.resolvePublicUrl(orphan), "still served from quarantine");
+        assertTrue(Files.exists(storage.resolvePublicUrl(orphan)));
+        assertEquals(1, blob(live).getRefCount());
+        assertTrue(Files.exists(storage.root().resolve(relative(live))));
+        assertTrue(Files.exists(storage.root().resolve(relative(fresh))));
+
+        Path quarantined = storage.quarantineRoot().resolve(relative(orphan));
+        long size = Files.size(quarantined);
+        Files.setLastModifiedTime(quarantined, FileTime.from(TWO_HOURS_AGO));
+        StorageGcReport second = collector.run();
+
+        assertEquals(1, second.getPurged());
+        assertEquals(size, second.getBytesReclaimed());
+        assertFalse(Files.exists(quarantined));
+        assertTrue(blobRepository.findById(relative(orphan)).isEmpty());
+        assertEquals(second.getPurged(), collector.status().getPurged());
+    }
+
+    @Test
+    void aQuarantinedFileInUseAgainIsRestored() throws Exception {
+        String url = upload();
+        storage.deleteByPublicUrl(url); // drop the count but leave the file, as a failed edit would
+        Files.write(storage.root().resolve(relative(url)), "restored".getBytes(StandardCharsets.UTF_8));
+        backdate(url);
+        assertEquals(1, collector.run().getQuarantined());
+
+        newProperty(url);
+        Files.setLastModifiedTime(storage.quarantineRoot().resolve(relative(url)), FileTime.from(TWO_HOURS_AGO));
+        StorageGcReport report = collector.run();
+
+        assertEquals(1, report.getRestored());
+        assertEquals(0, report.getPurged());
+        assertTrue(Files.exists(storage.root().resolve(relative(url))));
+        assertFalse(Files.exists(storage.quarantineRoot().resolve(relative(url))));
+    }
+
+    @Test
+    void onlyAdminsStartPassesWhichRunOffTheRequestThread() throws Exception {
+        authenticate("BROKER");
+        assertThrows(AccessDeniedException.class, () -> storageController.runGc());
+        assertThrows(AccessDeniedException.class, () -> storageController.gcStatus());
+
+        authenticate("ADMIN");
+        ResponseEntity<StorageGcReport> started = storageController.runGc();
+        assertEquals(HttpStatus.ACCEPTED, started.getStatusCode());
+        assertEquals(URI.create("/api/storage/gc"), started.getHeaders().getLocation());
+        assertNotNull(started.getBody().getStartedAt());
+
+        long deadline = System.currentTimeMillis() + 20_000;
+        StorageGcReport status = storageController.gcStatus().getBody();
+        while (status.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = storageController.gcStatus().getBody();
+        }
+        assertFalse(status.isRunning());
+        assertEquals("done", status.getPhase());
+        assertEquals(started.getBody().getStartedAt(), status.getStartedAt(), "GET reports the pass POST started");
+    }
+
+    @AfterEach
+    void clearAuth() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                role.toLowerCase() + "@test.com", null, List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+    }
+
+    private String upload() throws Exception {
+        byte[] photo = ("gc photo " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+        return storage.storeForProperty(0L, new MockMultipartFile("file", "p.jpg", "image/jpeg", photo));
+    }
+
+    private void backdate(String url) throws Exception {
+        Files.setLastModifiedTime(storage.root().resolve(relative(url)), FileTime.from(TWO_HOURS_AGO));
+        blobRepository.findById(relative(url)).ifPresent(b -> {
+            b.setReferencedAt(TWO_HOURS_AGO);
+            blobRepository.save(b);
+        });
+    }
+
+    private void setReferences(String url, int n) {
+        StoredBlob b = blob(url);
+        b.setRefCount(n);
+        blobRepository.save(b);
+    }
+
+    private StoredBlob blob(String url) {
+        return blobRepository.findById(relative(url)).orElseThrow();
+    }
+
+    private static String relative(String url) {
+        return url.substring("/files/".length());
+    }
+
+    private Property newProperty(String imageUrl) {
+        User u = new User();
+        u.setEmail("gc-broker-" + System.nanoTime() + "@test.com");
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker broker = new Broker();
+        broker.setBroName("GC Broker");
+        broker.setUser(u);
+        broker = brokerRepository.save(broker);
+
+        Property p = new Property();
+        p.setConfiguration(PropertyConfig.FLAT);
+        p.setOfferType(OfferType.SELL);
+        p.setOfferCost(2_000_000);
+        p.setAreaSqft(800);
+        p.setAddress("GC test");
+        p.setCity("Pune");
+        p.setBroker(broker);
+        p.getImageUrls().add(imageUrl);
+        return propertyService.addProperty(p);
+    }
+}
@@ -0,0 +1,98 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.media.ShardLayout;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Create and lookup latency of the flat upload layout against the sharded one (two levels of 256).
+ * Creates the files empty, since only directory operations are measured. Not part of the regular build:
+ * run with {@code mvn test -Dtest=UploadLayoutBenchmark -Dbench=true [-Dbench.files=2000000 -Dbench.dir=/data/tmp]}.
+ * The files are created on the file system holding {@code bench.dir} (default: the JVM temp dir).
+ */
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class UploadLayoutBenchmark {
+
+    private static final int LOOKUPS = 20_000;
+
+    @Test
+    void flatVersusSharded() throws IOException {
+        int files = Integer.getInteger("bench.files", 2_000_000);
+        Path base = Files.createTempDirectory(Path.of(System.getProperty("bench.dir", System.getProperty("java.io.tmpdir"))),
+                "layout-bench-");
+        String[] names = new String[files];
+        for (int i = 0; i < files; i++) names[i] = "prop-" + (i % 5000) + "-" + UUID.randomUUID() + ".jpg";
+
+        try {
+            run("flat", new ShardLayout(0), base.resolve("flat"), names);
+            run("sharded", new ShardLayout(2), base.resolve("sharded"), names);
+        } finally {
+            deleteTree(base);
+        }
+    }
+
+    private static void run(String label, ShardLayout layout, Path root, String[] names) throws IOException {
+        Files.createDirectories(root);
+        long[] create = new long[names.length];
+        long started = System.nanoTime();
+        for (int i = 0; i < names.length; i++) {
+            long t = System.nanoTime();
+            Path file = root.resolve(layout.pathForName(names[i]));
+            if (layout.levels() > 0 && !Files.isDirectory(file.getParent())) Files.createDirectories(file.getParent());
+            Files.createFile(file);
+            create[i] = System.nanoTime() - t;
+        }
+        long createTotal = System.nanoTime() - started;
+
+        Random random = new Random(7);
+        long[] hit = new long[LOOKUPS];
+        long[] miss = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String name = names[random.nextInt(names.length)];
+            long t = System.nanoTime();
+            if (!Files.exists(root.resolve(layout.pathForName(name)))) throw new IllegalStateException(name);
+            hit[i] = System.nanoTime() - t;
+
+            String absent = "prop-0-" + UUID.randomUUID() + ".jpg";
+            t = System.nanoTime();
+            if (Files.exists(root.resolve(layout.pathForName(absent)))) throw new IllegalStateException(absent);
+            miss[i] = System.nanoTime() - t;
+        }
+
+        // what ls / a backup tool pays to enumerate one directory
+        Path listed = layout.levels() == 0 ? root : root.resolve(layout.pathForName(names[0])).getParent();
+        long t = System.nanoTime();
+        long entries;
+        try (Stream<Path> s = Files.list(listed)) {
+            entries = s.count();
+        }
+        long listNanos = System.nanoTime() - t;
+
+        System.out.printf("%-8s files=%d create: total=%.1fs mean=%.1fus p99=%.1fus | lookup hit p50=%.1fus p99=%.1fus"
+                        + " | miss p50=%.1fus p99=%.1fus | list one dir: %d entries in %.1fms%n",
+                label, names.length, createTotal / 1e9, createTotal / 1e3 / names.length, pct(create, 0.99),
+                pct(hit, 0.50), pct(hit, 0.99), pct(miss, 0.50), pct(miss, 0.99), entries, listNanos / 1e6);
+    }
+
+    // in microseconds
+    private static double pct(long[] nanos, double p) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)))] / 1e3;
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.realestate.real_estate_app;
+
+import com.realestate.controller.StorageController;
+import com.realestate.dto.LayoutMigrationReport;
+import com.realestate.enums.OfferType;
+import com.realestate.enums.PropertyConfig;
+import com.realestate.media.ShardLayout;
+import com.realestate.model.Broker;
+import com.realestate.model.Property;
+import com.realestate.model.User;
+import com.realestate.repository.BrokerRepository;
+import com.realestate.repository.PropertyRepository;
+import com.realestate.service.FileStorageService;
+import com.realestate.service.IPropertyService;
+import com.realestate.service.UploadLayoutMigrationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = com.realestate.RealEstateApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:uploadlayout",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.upload-dir=target/test-uploads/layout",
+    "app.images.backfill-on-start=false",
+    "app.storage.content-addressed=false",
+    "app.storage.shard-levels=2",
+    "app.storage.layout-migration.batch-size=2",
+    "app.storage.layout-migration.pause-ms=0"
+})
+class UploadLayoutTest {
+
+    @Autowired private FileStorageService storage;
+    @Autowired private UploadLayoutMigrationService layoutMigration;
+    @Autowired private IPropertyService propertyService;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private BrokerRepository brokerRepository;
+    @Autowired private StorageController storageController;
+    @Autowired private MockMvc mvc;
+
+    // the migration walks the whole upload dir: start without files left over by earlier runs
+    @BeforeAll
+    static void cleanUploadDir() throws Exception {
+        Path dir = Path.of("target/test-uploads/layout");
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Test
+    void layoutFansOutByHashPrefix() {
+        assertEquals("ab/cd/name.jpg", new ShardLayout(2).path("abcdef", "name.jpg"));
+        assertEquals("name.jpg", new ShardLayout(0).path("abcdef", "name.jpg"));
+        assertEquals(new ShardLayout(2).pathForName("x.jpg"), new ShardLayout(2).pathForName("x.jpg"));
+        assertThrows(IllegalArgumentException.class, () -> new ShardLayout(5));
+    }
+
+    @Test
+    void newUploadsAreShardedAndServed() throws Exception {
+        byte[] photo = photo();
+        String url = storage.storeForProperty(9L, new MockMultipartFile("file", "a.png", "image/png", photo));
+
+        assertTrue(url.matches("/files/[0-9a-f]{2}/[0-9a-f]{2}/prop-9-[0-9a-f-]+\\.png"), url);
+        mvc.perform(get(url)).andExpect(status().isOk()).andExpect(content().bytes(photo));
+    }
+
+    @Test
+    void flatFilesMoveOnlineAndOldUrlsKeepResolving() throws Exception {
+        byte[] photo = photo();
+        String name = "prop-3-" + UUID.randomUUID() + ".jpg";
+        Files.createDirectories(storage.root());
+        Files.write(storage.root().resolve(name), photo);
+        Files.write(storage.root().resolve("stray-" + UUID.randomUUID() + ".png"), photo());
+        Files.write(storage.root().resolve("prop-3-" + UUID.randomUUID() + ".thumb.jpg"), photo());
+        Property listing = newProperty("/files/" + name);
+
+        LayoutMigrationReport report = layoutMigration.shardFlatUploads();
+
+        assertEquals(2, report.getMoved(), "variant copies are regenerated, not moved");
+        assertEquals(1, report.getRelinked());
+        assertEquals(0, report.getFailed());
+        String newUrl = "/files/" + storage.shardedPathForName(name);
+        assertEquals(newUrl, propertyService.viewPropertyDetails(listing.getPropId()).getImageUrls().get(0));
+        assertTrue(propertyRepository.findById(listing.getPropId()).orElseThrow().getVersion() > listing.getVersion());
+        assertFalse(Files.exists(storage.root().resolve(name)));
+        mvc.perform(get(newUrl)).andExpect(status().isOk()).andExpect(content().bytes(photo));
+        mvc.perform(get("/files/" + name)).andExpect(status().isOk()).andExpect(content().bytes(photo));
+
+        assertEquals(0, layoutMigration.shardFlatUploads().getMoved(), "re-running is a no-op");
+    }
+
+    @Test
+    void migrationIsAdminOnlyAndRunsInTheBackground() throws Exception {
+        String name = "prop-4-" + UUID.randomUUID() + ".jpg";
+        Files.createDirectories(storage.root());
+        Files.write(storage.root().resolve(name), photo());
+
+        authenticate("BROKER");
+        assertThrows(AccessDeniedException.class, () -> storageController.migrateLayout());
+        assertThrows(AccessDeniedException.class, () -> storageController.layoutMigrationStatus());
+
+        authenticate("ADMIN");
+        ResponseEntity<LayoutMigrationReport> started = storageController.migrateLayout();
+        assertEquals(HttpStatus.ACCEPTED, started.getStatusCode());
+        assertEquals(URI.create("/api/storage/layout-migration"), started.getHeaders().getLocation());
+
+        long deadline = System.currentTimeMillis() + 20_000;
+        LayoutMigrationReport status = storageController.layoutMigrationStatus().getBody();
+        while (status.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = storageController.layoutMigrationStatus().getBody();
+        }
+        assertFalse(status.isRunning());
+        assertNotNull(status.getFinishedAt());
+        assertNull(status.getLastError());
+        assertTrue(status.getMoved() >= 1);
+        assertTrue(Files.exists(storage.root().resolve(storage.shardedPathForName(name))));
+    }
+
+    @AfterEach
+    void clearAuth() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                role.toLowerCase() + "@test.com", null, List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+    }
+
+    private static byte[] photo() {
+        return ("layout photo " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Property newProperty(String imageUrl) {
+        User u = new User();
+        u.setEmail("layout-broker-" + System.nanoTime() + "@test.com");
+        u.setPassword("x");
+        u.setRole("BROKER");
+        Broker broker = new Broker();
+        broker.setBroName("Layout Broker");
+        broker.setUser(u);
+        broker = brokerRepository.save(broker);
+
+        Property p = new Property();
+        p.setConfiguration(PropertyConfig.FLAT);
+        p.setOfferType(OfferType.SELL);
+        p.setOfferCost(3_500_000);
+        p.setAreaSqft(1000);
+        p.setAddress("Layout test");
+        p.setCity("Pune");
+        p.setBroker(broker);
+        p.getImageUrls().add(imageUrl);
+        return propertyService.addProperty(p);
+    }
+}